@@ -175,6 +175,97 @@ public final class PersistenceServiceProviderMessages {
    * Exceptions with the error code are thrown if a a new entity manager could not be created.
    */
   public static final ErrorCode PERSISTENCE_UNIT_NOT_DEFINED;
+
+  /**
+   * Exceptions with this error code are thrown if an empty collection is bound to a query parameter that should be
+   * expanded to an IN list.
+   */
+  public static final ErrorCode EMPTY_COLLECTION_QUERY_PARAMETER;
+
+  /**
+   * Exceptions with this error code are thrown if a collection is bound to a positional query parameter.
+   */
+  public static final ErrorCode COLLECTION_NOT_SUPPORTED_FOR_POSITIONAL_PARAMETER;
+
+  /**
+   * Exceptions with this error code are thrown if a fan-out query failed on one of its persistence units.
+   */
+  public static final ErrorCode FAN_OUT_QUERY_FAILED;
+
+  /**
+   * Exceptions with this error code are thrown if a lookup of persistent objects failed on one of the shards.
+   */
+  public static final ErrorCode SHARD_LOOKUP_FAILED;
+
+  /**
+   * Exceptions with this error code are thrown if no class id is registered for a persistent object type.
+   */
+  public static final ErrorCode UNKNOWN_CLASS_ID;
+
+  /**
+   * Exceptions with this error code are thrown if an object id does not end with a valid class id.
+   */
+  public static final ErrorCode INVALID_CLASS_ID;
+
+  /**
+   * Exceptions with this error code are thrown if a class id value can not be represented with the maximum number of
+   * base 36 digits.
+   */
+  public static final ErrorCode CLASS_ID_OUT_OF_RANGE;
+
+  /**
+   * Exceptions with this error code are thrown if a reserved block of object ids can not be encoded into an object id.
+   */
+  public static final ErrorCode OBJECT_ID_BLOCK_OUT_OF_RANGE;
+
+  /**
+   * Exceptions with this error code are thrown if a block of object ids could not be reserved in the database.
+   */
+  public static final ErrorCode OBJECT_ID_BLOCK_RESERVATION_FAILED;
+
+  /**
+   * Exceptions with this error code are thrown if an object id can not be converted into its compact representation.
+   */
+  public static final ErrorCode OBJECT_ID_NOT_COMPACTABLE;
+
+  /**
+   * Error code is used in case that the objects of an association that should be compared are not sorted by their
+   * object id.
+   */
+  public static final ErrorCode OBJECT_IDS_NOT_SORTED;
+
+  /**
+   * Error code is used in case that a SQL script is added to a parallel script executor with a name that is already in
+   * use.
+   */
+  public static final ErrorCode DUPLICATE_SCRIPT_NAME;
+
+  /**
+   * Error code is used in case that a SQL script depends on a script that is not known to the parallel script executor.
+   */
+  public static final ErrorCode UNKNOWN_SCRIPT_DEPENDENCY;
+
+  /**
+   * Error code is used in case that the dependencies of SQL scripts contain a cycle.
+   */
+  public static final ErrorCode CYCLIC_SCRIPT_DEPENDENCY;
+
+  /**
+   * Error code is used in case that the execution of a SQL script by the parallel script executor failed.
+   */
+  public static final ErrorCode SCRIPT_EXECUTION_FAILED;
+
+  /**
+   * Exceptions with this error code are thrown if the object id of a new persistent object does not belong to the shard
+   * on which the object was created.
+   */
+  public static final ErrorCode SHARD_MISMATCH;
+
+  /**
+   * Exceptions with this error code are thrown if an object id does not contain the block number of a block object id
+   * generator.
+   */
+  public static final ErrorCode INVALID_BLOCK_OBJECT_ID;
   /**
    * Static initializer contains initialization for all generated constants.
    */
@@ -211,6 +302,23 @@ public final class PersistenceServiceProviderMessages {
     JDBC_CONNECTION_URL_MISSING = lRepository.getErrorCode(6025);
     DATASOURCE_LOOKUP_FAILED = lRepository.getErrorCode(6026);
     PERSISTENCE_UNIT_NOT_DEFINED = lRepository.getErrorCode(6027);
+    EMPTY_COLLECTION_QUERY_PARAMETER = lRepository.getErrorCode(6028);
+    COLLECTION_NOT_SUPPORTED_FOR_POSITIONAL_PARAMETER = lRepository.getErrorCode(6029);
+    FAN_OUT_QUERY_FAILED = lRepository.getErrorCode(6030);
+    SHARD_LOOKUP_FAILED = lRepository.getErrorCode(6031);
+    UNKNOWN_CLASS_ID = lRepository.getErrorCode(6032);
+    INVALID_CLASS_ID = lRepository.getErrorCode(6033);
+    CLASS_ID_OUT_OF_RANGE = lRepository.getErrorCode(6034);
+    OBJECT_ID_BLOCK_OUT_OF_RANGE = lRepository.getErrorCode(6035);
+    OBJECT_ID_BLOCK_RESERVATION_FAILED = lRepository.getErrorCode(6036);
+    OBJECT_ID_NOT_COMPACTABLE = lRepository.getErrorCode(6037);
+    OBJECT_IDS_NOT_SORTED = lRepository.getErrorCode(6038);
+    DUPLICATE_SCRIPT_NAME = lRepository.getErrorCode(6039);
+    UNKNOWN_SCRIPT_DEPENDENCY = lRepository.getErrorCode(6040);
+    CYCLIC_SCRIPT_DEPENDENCY = lRepository.getErrorCode(6041);
+    SCRIPT_EXECUTION_FAILED = lRepository.getErrorCode(6042);
+    SHARD_MISMATCH = lRepository.getErrorCode(6043);
+    INVALID_BLOCK_OBJECT_ID = lRepository.getErrorCode(6044);
     // Handle all localized strings.
   }
 
@@ -5,15 +5,8 @@
  */
 package com.anaptecs.jeaf.spi.persistence;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.Map;
-import java.util.Map.Entry;
 
-import com.anaptecs.jeaf.xfun.api.checks.Check;
 import com.anaptecs.jeaf.xfun.api.common.AbstractObjectID;
 import com.anaptecs.jeaf.xfun.api.common.Identifiable;
 
@@ -21,6 +14,15 @@ import com.anaptecs.jeaf.xfun.api.common.Identifiable;
  * Class is intended to help by the comparison of changes in associations objects. The class can be used by service
  * implementations to check which objects were added to an association and which were removed.
  * 
+ * The comparison is done only once when the object is created. All methods return the result of this comparison as
+ * unmodifiable collections. For details about the comparison please see {@link AssociationDiff}.
+ * 
+ * Since JEAF Release 1.8 objects are matched by their object id string instead of
+ * {@link AbstractObjectID#equals(Object)}. The delimiters of service, domain and persistent object ids ('-' and '#')
+ * are treated as the same character and version labels are ignored. Thus an identifiable object with a service object
+ * id matches the persistent object with the same id even if its version label is outdated. Callers that have to detect
+ * concurrent changes have to compare the version labels of {@link #getAlreadyExistingServiceObjects()} themselves.
+ * 
  * @author JEAF Development Team
  * @version JEAF Release 1.2
  * 
@@ -29,19 +31,9 @@ import com.anaptecs.jeaf.xfun.api.common.Identifiable;
  */
 public class AssociationComparator<I extends Identifiable<? extends AbstractObjectID<?>>, PO extends PersistentObject> {
   /**
-   * Map contains all objects that should be used as basis for the comparison.
-   */
-  private final Map<AbstractObjectID<?>, I> identifiableObjectMap;
-
-  /**
-   * Map contains all persistent objects that should be used as basis for the comparison.
+   * Result of the comparison of the identifiable and persistent objects.
    */
-  private final Map<AbstractObjectID<?>, PO> persistentObjectMap;
-
-  /**
-   * Collection contains all new objects.
-   */
-  private final Collection<I> newObjects = new LinkedList<I>();
+  private final AssociationDiff<I, PO> diff;
 
   /**
    * Initialize object. Therefore the collection of identifiable and persistent objects has to be passed.
@@ -50,34 +42,29 @@ public class AssociationComparator<I extends Identifiable<? extends AbstractObje
    * @param pPersistentObjects Collection of persistent objects that should be compared. The parameter must not be null.
    */
   public AssociationComparator( Collection<I> pObjects, Collection<PO> pPersistentObjects ) {
-    // Check parameters.
-    Check.checkInvalidParameterNull(pObjects, "pObjects");
-    Check.checkInvalidParameterNull(pPersistentObjects, "pPersistentObjects");
-
-    // Build up map with all objects that are not new.
-    identifiableObjectMap = new HashMap<AbstractObjectID<?>, I>(pObjects.size());
-    for (I lNextObject : pObjects) {
-      // Check id of object.
-      AbstractObjectID<?> lObjectID = lNextObject.getID();
-
-      // Object already exists, so add it to map.
-      if (lObjectID != null) {
-        identifiableObjectMap.put(lObjectID, lNextObject);
-      }
-      // Object does not have a object id and thus must be new.
-      else {
-        newObjects.add(lNextObject);
-      }
-    }
+    diff = AssociationDiff.create(pObjects, pPersistentObjects);
+  }
 
-    // Build up map with all persistent objects.
-    persistentObjectMap = new HashMap<AbstractObjectID<?>, PO>(pPersistentObjects.size());
+  /**
+   * Initialize object. Therefore the collection of identifiable and persistent objects has to be passed. Large
+   * collections are compared in parallel (see {@link AssociationDiff#create(Collection, Collection, int)}).
+   * 
+   * @param pObjects Collection of objects that should be compared. The parameter must not be null.
+   * @param pPersistentObjects Collection of persistent objects that should be compared. The parameter must not be null.
+   * @param pParallelThreshold Minimum number of objects from which on the comparison is executed in parallel.
+   * {@link Integer#MAX_VALUE} disables the parallel comparison. The value must be positive.
+   */
+  public AssociationComparator( Collection<I> pObjects, Collection<PO> pPersistentObjects, int pParallelThreshold ) {
+    diff = AssociationDiff.create(pObjects, pPersistentObjects, pParallelThreshold);
+  }
 
-    for (PO lNextPersistentObject : pPersistentObjects) {
-      // Convert id of persistent object and add it to map.
-      AbstractObjectID<?> lObjectID = lNextPersistentObject.getID();
-      persistentObjectMap.put(lObjectID, lNextPersistentObject);
-    }
+  /**
+   * Method returns the result of the comparison.
+   * 
+   * @return {@link AssociationDiff} Result of the comparison. The method never returns null.
+   */
+  public AssociationDiff<I, PO> getDiff( ) {
+    return diff;
   }
 
   /**
@@ -86,7 +73,7 @@ public class AssociationComparator<I extends Identifiable<? extends AbstractObje
    * @return {@link Collection} Collection with all new objects. The method never returns null.
    */
   public Collection<I> getNewObjects( ) {
-    return Collections.unmodifiableCollection(newObjects);
+    return diff.getNewObjects();
   }
 
   /**
@@ -100,16 +87,7 @@ public class AssociationComparator<I extends Identifiable<? extends AbstractObje
    * @see #getNewObjects()
    */
   public Collection<I> getAddedObjects( ) {
-    // Check for every object if there also is a persistent object.
-    Collection<I> lAddedObjects = new LinkedList<I>();
-    for (I lNextObject : identifiableObjectMap.values()) {
-      // Check if next object was already part of the association. If the object id is not included in
-      // the map of persistent objects than the object was added.
-      if (persistentObjectMap.containsKey(lNextObject.getID()) == false) {
-        lAddedObjects.add(lNextObject);
-      }
-    }
-    return lAddedObjects;
+    return diff.getAddedObjects();
   }
 
   /**
@@ -119,11 +97,7 @@ public class AssociationComparator<I extends Identifiable<? extends AbstractObje
    * @return {@link Collection} Collection with all added and new objects. The method never returns null.
    */
   public Collection<I> getAddedAndNewObjects( ) {
-    Collection<I> lAddedObjects = this.getAddedObjects();
-    ArrayList<I> lServiceObjects = new ArrayList<I>(newObjects.size() + lAddedObjects.size());
-    lServiceObjects.addAll(newObjects);
-    lServiceObjects.addAll(lServiceObjects);
-    return lServiceObjects;
+    return diff.getAddedAndNewObjects();
   }
 
   /**
@@ -134,15 +108,7 @@ public class AssociationComparator<I extends Identifiable<? extends AbstractObje
    * other objects were added. The method never returns null.
    */
   public Collection<I> getAlreadyExistingServiceObjects( ) {
-    ArrayList<I> lExistingServiceObjects = new ArrayList<I>(persistentObjectMap.size());
-
-    for (AbstractObjectID<?> lNextObjectID : persistentObjectMap.keySet()) {
-      I lServiceObject = identifiableObjectMap.get(lNextObjectID);
-      if (lServiceObject != null) {
-        lExistingServiceObjects.add(lServiceObject);
-      }
-    }
-    return lExistingServiceObjects;
+    return diff.getExistingObjects();
   }
 
   /**
@@ -153,18 +119,6 @@ public class AssociationComparator<I extends Identifiable<? extends AbstractObje
    * collection in sync again.
    */
   public Collection<PO> getPersistentObjectsToRemove( ) {
-    // Check for every persistent object if there still is a service object.
-    Collection<PO> lPersistentObjectsToRemove = new LinkedList<PO>();
-
-    for (Entry<AbstractObjectID<?>, PO> lNextEntry : persistentObjectMap.entrySet()) {
-      // Check if id of persistent object is still in map with all service objects.
-      AbstractObjectID<?> lNextID = lNextEntry.getKey();
-      if (identifiableObjectMap.containsKey(lNextID) == false) {
-        PO lPersistentObject = lNextEntry.getValue();
-        lPersistentObjectsToRemove.add(lPersistentObject);
-      }
-    }
-    // Return all persistent objects that should be removed.
-    return lPersistentObjectsToRemove;
+    return diff.getPersistentObjectsToRemove();
   }
 }
@@ -0,0 +1,590 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+
+import com.anaptecs.jeaf.xfun.api.checks.Check;
+import com.anaptecs.jeaf.xfun.api.common.AbstractObjectID;
+import com.anaptecs.jeaf.xfun.api.common.Identifiable;
+
+/**
+ * Class contains the result of the comparison of an association as it is passed to a service (identifiable objects)
+ * with the current state of the association (persistent objects). The result is computed once within a single pass over
+ * both collections and can not be changed afterwards.
+ * 
+ * All returned lists keep the order of the passed collections. If an identifiable object is contained more than once
+ * then only its first occurrence is considered. If a persistent object id is contained more than once then the last
+ * persistent object with this id is considered. Object ids are compared as by {@link ObjectIDMap}, so service object
+ * ids match the persistent object ids of the same object.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ * 
+ * @param <I> Type of the identifiable objects.
+ * @param <PO> Type of the persistent objects.
+ * 
+ * @see AssociationComparator
+ */
+public final class AssociationDiff<I extends Identifiable<? extends AbstractObjectID<?>>, PO extends PersistentObject> {
+  /**
+   * Minimum number of objects from which on associations are compared in parallel by default.
+   */
+  public static final int PARALLEL_THRESHOLD = 100000;
+
+  /**
+   * Number of partitions per thread of the common fork join pool. More partitions than threads balance partitions of
+   * different size.
+   */
+  private static final int PARTITIONS_PER_THREAD = 4;
+
+  /**
+   * Marker for object ids of identifiable objects that do not have a persistent object.
+   */
+  private static final Object ADDED = new Object();
+
+  /**
+   * Marker for object ids of identifiable objects that have a persistent object.
+   */
+  private static final Object EXISTING = new Object();
+
+  /**
+   * Kind of an identifiable object that is new.
+   */
+  private static final byte KIND_NEW = 1;
+
+  /**
+   * Kind of an identifiable object that was added.
+   */
+  private static final byte KIND_ADDED = 2;
+
+  /**
+   * Kind of an identifiable object that already exists.
+   */
+  private static final byte KIND_EXISTING = 3;
+
+  /**
+   * All identifiable objects without object id.
+   */
+  private final List<I> newObjects;
+
+  /**
+   * All identifiable objects with an object id for which no persistent object exists.
+   */
+  private final List<I> addedObjects;
+
+  /**
+   * All new and added identifiable objects.
+   */
+  private final List<I> addedAndNewObjects;
+
+  /**
+   * All identifiable objects for which a persistent object exists.
+   */
+  private final List<I> existingObjects;
+
+  /**
+   * All persistent objects for which no identifiable object exists anymore.
+   */
+  private final List<PO> persistentObjectsToRemove;
+
+  /**
+   * Initialize object.
+   * 
+   * @param pNewObjects All identifiable objects without object id. The parameter must not be null.
+   * @param pAddedObjects All identifiable objects for which no persistent object exists. The parameter must not be
+   * null.
+   * @param pExistingObjects All identifiable objects for which a persistent object exists. The parameter must not be
+   * null.
+   * @param pPersistentObjectsToRemove All persistent objects for which no identifiable object exists anymore. The
+   * parameter must not be null.
+   */
+  private AssociationDiff( Object[] pNewObjects, Object[] pAddedObjects, Object[] pExistingObjects,
+      Object[] pPersistentObjectsToRemove ) {
+    Object[] lAddedAndNewObjects = Arrays.copyOf(pNewObjects, pNewObjects.length + pAddedObjects.length);
+    System.arraycopy(pAddedObjects, 0, lAddedAndNewObjects, pNewObjects.length, pAddedObjects.length);
+
+    newObjects = AssociationDiff.asList(pNewObjects);
+    addedObjects = AssociationDiff.asList(pAddedObjects);
+    addedAndNewObjects = AssociationDiff.asList(lAddedAndNewObjects);
+    existingObjects = AssociationDiff.asList(pExistingObjects);
+    persistentObjectsToRemove = AssociationDiff.asList(pPersistentObjectsToRemove);
+  }
+
+  /**
+   * Method compares the passed identifiable objects with the passed persistent objects. If both collections together
+   * contain at least {@link #PARALLEL_THRESHOLD} objects then the comparison is executed in parallel.
+   * 
+   * @param <I> Type of the identifiable objects.
+   * @param <PO> Type of the persistent objects.
+   * @param pObjects Identifiable objects that represent the new state of the association. The parameter must not be
+   * null.
+   * @param pPersistentObjects Persistent objects that represent the current state of the association. The parameter
+   * must not be null.
+   * @return {@link AssociationDiff} Result of the comparison. The method never returns null.
+   */
+  public static <I extends Identifiable<? extends AbstractObjectID<?>>, PO extends PersistentObject>
+      AssociationDiff<I, PO> create( Collection<I> pObjects, Collection<PO> pPersistentObjects ) {
+    return AssociationDiff.create(pObjects, pPersistentObjects, PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Method compares the passed identifiable objects with the passed persistent objects. If both collections together
+   * contain at least the passed number of objects then the comparison is executed in parallel. Therefore the objects
+   * are partitioned by the hash code of their object id and every partition is compared within the common fork join
+   * pool. As objects with the same object id always belong to the same partition the result is exactly the same as the
+   * one of a sequential comparison.
+   * 
+   * @param <I> Type of the identifiable objects.
+   * @param <PO> Type of the persistent objects.
+   * @param pObjects Identifiable objects that represent the new state of the association. The parameter must not be
+   * null.
+   * @param pPersistentObjects Persistent objects that represent the current state of the association. The parameter
+   * must not be null.
+   * @param pParallelThreshold Minimum number of objects from which on the comparison is executed in parallel.
+   * {@link Integer#MAX_VALUE} disables the parallel comparison. The value must be positive.
+   * @return {@link AssociationDiff} Result of the comparison. The method never returns null.
+   */
+  public static <I extends Identifiable<? extends AbstractObjectID<?>>, PO extends PersistentObject>
+      AssociationDiff<I, PO> create( Collection<I> pObjects, Collection<PO> pPersistentObjects,
+          int pParallelThreshold ) {
+    // Check parameters.
+    Check.checkInvalidParameterNull(pObjects, "pObjects");
+    Check.checkInvalidParameterNull(pPersistentObjects, "pPersistentObjects");
+    Check.checkIsPositive(pParallelThreshold, "pParallelThreshold");
+
+    final Object[] lObjects = pObjects.toArray();
+    final Object[] lPersistentObjects = pPersistentObjects.toArray();
+    Comparison lComparison = new Comparison(lObjects.length, lPersistentObjects);
+    final String[] lObjectIDs = lComparison.objectIDs;
+    final String[] lPersistentObjectIDs = lComparison.persistentObjectIDs;
+    if (lObjects.length + lPersistentObjects.length >= pParallelThreshold) {
+      // Resolve object ids in parallel.
+      Arrays.parallelSetAll(lObjectIDs, new IntFunction<String>() {
+        @Override
+        public String apply( int pIndex ) {
+          return AssociationDiff.getObjectID(lObjects[pIndex]);
+        }
+      });
+      Arrays.parallelSetAll(lPersistentObjectIDs, new IntFunction<String>() {
+        @Override
+        public String apply( int pIndex ) {
+          return ((PersistentObject) lPersistentObjects[pIndex]).getObjectID();
+        }
+      });
+
+      // Compare all partitions in parallel.
+      lComparison.partition(ForkJoinPool.getCommonPoolParallelism() * PARTITIONS_PER_THREAD);
+      ForkJoinPool.commonPool().invoke(new PartitionTask(lComparison, 0, lComparison.getPartitionCount()));
+    }
+    else {
+      for (int i = 0; i < lObjects.length; i++) {
+        lObjectIDs[i] = AssociationDiff.getObjectID(lObjects[i]);
+      }
+      for (int i = 0; i < lPersistentObjects.length; i++) {
+        lPersistentObjectIDs[i] = ((PersistentObject) lPersistentObjects[i]).getObjectID();
+      }
+      lComparison.compare(0);
+    }
+
+    // Distribute objects to result arrays in the order of the passed collections.
+    byte[] lKinds = lComparison.kinds;
+    int lNewCount = 0;
+    int lAddedCount = 0;
+    int lExistingCount = 0;
+    for (int i = 0; i < lKinds.length; i++) {
+      switch (lKinds[i]) {
+        case KIND_NEW:
+          lNewCount++;
+          break;
+        case KIND_ADDED:
+          lAddedCount++;
+          break;
+        case KIND_EXISTING:
+          lExistingCount++;
+          break;
+        default:
+          break;
+      }
+    }
+    Object[] lNewObjects = new Object[lNewCount];
+    Object[] lAddedObjects = new Object[lAddedCount];
+    Object[] lExistingObjects = new Object[lExistingCount];
+    lNewCount = 0;
+    lAddedCount = 0;
+    lExistingCount = 0;
+    for (int i = 0; i < lKinds.length; i++) {
+      switch (lKinds[i]) {
+        case KIND_NEW:
+          lNewObjects[lNewCount++] = lObjects[i];
+          break;
+        case KIND_ADDED:
+          lAddedObjects[lAddedCount++] = lObjects[i];
+          break;
+        case KIND_EXISTING:
+          lExistingObjects[lExistingCount++] = lObjects[i];
+          break;
+        default:
+          break;
+      }
+    }
+    boolean[] lRemoved = lComparison.removed;
+    Object[] lPersistentObjectsToRemove = new Object[lPersistentObjects.length];
+    int lRemoveCount = 0;
+    for (int i = 0; i < lRemoved.length; i++) {
+      if (lRemoved[i] == true) {
+        lPersistentObjectsToRemove[lRemoveCount++] = lPersistentObjects[i];
+      }
+    }
+    return new AssociationDiff<I, PO>(lNewObjects, lAddedObjects, lExistingObjects,
+        Arrays.copyOf(lPersistentObjectsToRemove, lRemoveCount));
+  }
+
+  /**
+   * Method returns all new objects. New objects are detected as they have no objects id yet.
+   * 
+   * @return {@link List} All new objects. The method never returns null.
+   */
+  public List<I> getNewObjects( ) {
+    return newObjects;
+  }
+
+  /**
+   * Method returns all objects that were added to the association. These are all objects with an object id for which no
+   * persistent object exists. New objects are not included.
+   * 
+   * @return {@link List} All added objects. The method never returns null.
+   */
+  public List<I> getAddedObjects( ) {
+    return addedObjects;
+  }
+
+  /**
+   * Method returns all new objects followed by all added objects.
+   * 
+   * @return {@link List} All new and added objects. The method never returns null.
+   */
+  public List<I> getAddedAndNewObjects( ) {
+    return addedAndNewObjects;
+  }
+
+  /**
+   * Method returns all objects that already were part of the association.
+   * 
+   * @return {@link List} All already existing objects. The method never returns null.
+   */
+  public List<I> getExistingObjects( ) {
+    return existingObjects;
+  }
+
+  /**
+   * Method returns all persistent objects that are no longer part of the association.
+   * 
+   * @return {@link List} All persistent objects that have to be removed. The method never returns null.
+   */
+  public List<PO> getPersistentObjectsToRemove( ) {
+    return persistentObjectsToRemove;
+  }
+
+  /**
+   * Method checks whether the association was changed.
+   * 
+   * @return boolean Method returns true if objects were added or removed and false otherwise.
+   */
+  public boolean hasChanges( ) {
+    return addedAndNewObjects.isEmpty() == false || persistentObjectsToRemove.isEmpty() == false;
+  }
+
+  /**
+   * Method returns an unmodifiable list that is backed by the passed array.
+   * 
+   * @param <T> Type of the list elements.
+   * @param pElements Elements of the list. The parameter must not be null.
+   * @return {@link List} Unmodifiable list. The method never returns null.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> List<T> asList( Object[] pElements ) {
+    List<T> lList;
+    if (pElements.length > 0) {
+      lList = Collections.unmodifiableList((List<T>) Arrays.asList(pElements));
+    }
+    else {
+      lList = Collections.emptyList();
+    }
+    return lList;
+  }
+
+  /**
+   * Method returns the object id of the passed identifiable object.
+   * 
+   * @param pObject Identifiable object whose object id should be returned. The parameter must not be null.
+   * @return {@link String} Object id of the passed object or null if the object does not have an object id yet.
+   */
+  private static String getObjectID( Object pObject ) {
+    AbstractObjectID<?> lObjectID = ((Identifiable<?>) pObject).getID();
+    String lResult;
+    if (lObjectID != null) {
+      lResult = lObjectID.getObjectID();
+    }
+    else {
+      lResult = null;
+    }
+    return lResult;
+  }
+
+  /**
+   * Class contains the state of a comparison. The objects can be split into partitions by the hash code of their object
+   * id. Every partition can be compared independently of all others.
+   */
+  private static final class Comparison {
+    /**
+     * Object ids of all identifiable objects. Ids of new objects are null.
+     */
+    private final String[] objectIDs;
+
+    /**
+     * All persistent objects.
+     */
+    private final Object[] persistentObjects;
+
+    /**
+     * Object ids of all persistent objects.
+     */
+    private final String[] persistentObjectIDs;
+
+    /**
+     * Kind of every identifiable object. Duplicates have kind 0.
+     */
+    private final byte[] kinds;
+
+    /**
+     * Flag for every persistent object that defines whether it has to be removed.
+     */
+    private final boolean[] removed;
+
+    /**
+     * Indexes of the identifiable objects sorted by partition or null if there is only one partition.
+     */
+    private int[] objectIndexes;
+
+    /**
+     * Start of every partition within {@link #objectIndexes}.
+     */
+    private int[] objectOffsets;
+
+    /**
+     * Indexes of the persistent objects sorted by partition or null if there is only one partition.
+     */
+    private int[] persistentObjectIndexes;
+
+    /**
+     * Start of every partition within {@link #persistentObjectIndexes}.
+     */
+    private int[] persistentObjectOffsets;
+
+    /**
+     * Initialize object. The comparison has only one partition.
+     * 
+     * @param pObjectCount Number of identifiable objects.
+     * @param pPersistentObjects All persistent objects. The parameter must not be null.
+     */
+    Comparison( int pObjectCount, Object[] pPersistentObjects ) {
+      objectIDs = new String[pObjectCount];
+      persistentObjects = pPersistentObjects;
+      persistentObjectIDs = new String[pPersistentObjects.length];
+      kinds = new byte[pObjectCount];
+      removed = new boolean[pPersistentObjects.length];
+      objectOffsets = new int[] { 0, pObjectCount };
+      persistentObjectOffsets = new int[] { 0, pPersistentObjects.length };
+    }
+
+    /**
+     * Method splits the objects into the passed number of partitions. All object ids have to be set before.
+     * 
+     * @param pPartitionCount Number of partitions. The value must be positive.
+     */
+    void partition( int pPartitionCount ) {
+      objectOffsets = new int[pPartitionCount + 1];
+      objectIndexes = Comparison.sortByPartition(objectIDs, objectOffsets);
+      persistentObjectOffsets = new int[pPartitionCount + 1];
+      persistentObjectIndexes = Comparison.sortByPartition(persistentObjectIDs, persistentObjectOffsets);
+    }
+
+    /**
+     * Method returns the number of partitions.
+     * 
+     * @return int Number of partitions.
+     */
+    int getPartitionCount( ) {
+      return objectOffsets.length - 1;
+    }
+
+    /**
+     * Method compares all objects of the passed partition. Within the partition the objects are processed in the order
+     * of the passed collections.
+     * 
+     * @param pPartition Partition that should be compared.
+     */
+    void compare( int pPartition ) {
+      int lObjectStart = objectOffsets[pPartition];
+      int lObjectEnd = objectOffsets[pPartition + 1];
+      int lPersistentObjectStart = persistentObjectOffsets[pPartition];
+      int lPersistentObjectEnd = persistentObjectOffsets[pPartition + 1];
+
+      // Map contains the persistent object for every object id. As soon as an identifiable object with the same id is
+      // found the persistent object is replaced by a marker.
+      ObjectIDMap<Object> lStates =
+          new ObjectIDMap<Object>(lObjectEnd - lObjectStart + lPersistentObjectEnd - lPersistentObjectStart);
+      for (int i = lPersistentObjectStart; i < lPersistentObjectEnd; i++) {
+        int lIndex = Comparison.index(persistentObjectIndexes, i);
+        lStates.put(persistentObjectIDs[lIndex], persistentObjects[lIndex]);
+      }
+
+      // Classify identifiable objects.
+      for (int i = lObjectStart; i < lObjectEnd; i++) {
+        int lIndex = Comparison.index(objectIndexes, i);
+        String lObjectID = objectIDs[lIndex];
+        // Object does not have a object id and thus must be new.
+        if (lObjectID == null) {
+          kinds[lIndex] = KIND_NEW;
+        }
+        else {
+          Object lState = lStates.get(lObjectID);
+          // Object was not yet part of the association.
+          if (lState == null) {
+            lStates.put(lObjectID, ADDED);
+            kinds[lIndex] = KIND_ADDED;
+          }
+          // Object already was part of the association.
+          else if (lState != ADDED && lState != EXISTING) {
+            lStates.put(lObjectID, EXISTING);
+            kinds[lIndex] = KIND_EXISTING;
+          }
+          // Duplicates are ignored.
+        }
+      }
+
+      // All persistent objects that are still in the map have to be removed.
+      for (int i = lPersistentObjectStart; i < lPersistentObjectEnd; i++) {
+        int lIndex = Comparison.index(persistentObjectIndexes, i);
+        String lObjectID = persistentObjectIDs[lIndex];
+        if (lStates.get(lObjectID) == persistentObjects[lIndex]) {
+          removed[lIndex] = true;
+          // Ensure that the same persistent object is not removed twice.
+          lStates.put(lObjectID, EXISTING);
+        }
+      }
+    }
+
+    /**
+     * Method returns the index of the object at the passed position.
+     * 
+     * @param pIndexes Indexes sorted by partition or null if there is only one partition.
+     * @param pPosition Position of the object.
+     * @return int Index of the object within the passed collection.
+     */
+    private static int index( int[] pIndexes, int pPosition ) {
+      int lIndex;
+      if (pIndexes != null) {
+        lIndex = pIndexes[pPosition];
+      }
+      else {
+        lIndex = pPosition;
+      }
+      return lIndex;
+    }
+
+    /**
+     * Method sorts the indexes of the passed object ids by their partition. Within a partition the indexes keep their
+     * order. Null ids belong to the first partition.
+     * 
+     * @param pObjectIDs Object ids that should be sorted. The parameter must not be null.
+     * @param pOffsets Array to which the start of every partition is written. The length of the array is the number of
+     * partitions plus one. The parameter must not be null.
+     * @return int[] Indexes of the object ids sorted by partition. The method never returns null.
+     */
+    private static int[] sortByPartition( String[] pObjectIDs, int[] pOffsets ) {
+      int lPartitionCount = pOffsets.length - 1;
+      int[] lPartitions = new int[pObjectIDs.length];
+      for (int i = 0; i < pObjectIDs.length; i++) {
+        String lObjectID = pObjectIDs[i];
+        if (lObjectID != null) {
+          lPartitions[i] = Math.floorMod(ObjectIDStrings.hash(lObjectID), lPartitionCount);
+        }
+        pOffsets[lPartitions[i] + 1]++;
+      }
+      for (int i = 1; i < pOffsets.length; i++) {
+        pOffsets[i] += pOffsets[i - 1];
+      }
+      int[] lPositions = Arrays.copyOf(pOffsets, lPartitionCount);
+      int[] lIndexes = new int[pObjectIDs.length];
+      for (int i = 0; i < lPartitions.length; i++) {
+        lIndexes[lPositions[lPartitions[i]]++] = i;
+      }
+      return lIndexes;
+    }
+  }
+
+  /**
+   * Class compares a range of partitions. Ranges with more than one partition are split and compared in parallel.
+   */
+  private static final class PartitionTask extends RecursiveAction {
+    /**
+     * Default serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Comparison to which the partitions belong.
+     */
+    private final transient Comparison comparison;
+
+    /**
+     * First partition of the range.
+     */
+    private final int from;
+
+    /**
+     * First partition that does no longer belong to the range.
+     */
+    private final int to;
+
+    /**
+     * Initialize object.
+     * 
+     * @param pComparison Comparison to which the partitions belong. The parameter must not be null.
+     * @param pFrom First partition of the range.
+     * @param pTo First partition that does no longer belong to the range.
+     */
+    PartitionTask( Comparison pComparison, int pFrom, int pTo ) {
+      comparison = pComparison;
+      from = pFrom;
+      to = pTo;
+    }
+
+    /**
+     * Method compares all partitions of the range.
+     */
+    @Override
+    protected void compute( ) {
+      if (to - from > 1) {
+        int lMiddle = (from + to) >>> 1;
+        ForkJoinTask.invokeAll(new PartitionTask(comparison, from, lMiddle),
+            new PartitionTask(comparison, lMiddle, to));
+      }
+      else if (to > from) {
+        comparison.compare(from);
+      }
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import com.anaptecs.jeaf.xfun.api.common.AbstractObjectID;
+import com.anaptecs.jeaf.xfun.api.common.Identifiable;
+
+/**
+ * Interface defines the callbacks of a {@link SortedAssociationComparator}. For every object of the compared
+ * association exactly one of the methods is called. Objects that have the same object id as their predecessor are
+ * reported as duplicates and are not compared with the other side of the association.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ * 
+ * @param <I> Type of the identifiable objects.
+ * @param <PO> Type of the persistent objects.
+ */
+public interface AssociationListener<I extends Identifiable<? extends AbstractObjectID<?>>,
+    PO extends PersistentObject> {
+  /**
+   * Method is called for every identifiable object that does not have an object id yet.
+   * 
+   * @param pObject New object. The parameter is never null.
+   */
+  void newObject( I pObject );
+
+  /**
+   * Method is called for every identifiable object with an object id for which no persistent object exists.
+   * 
+   * @param pObject Added object. The parameter is never null.
+   */
+  void addedObject( I pObject );
+
+  /**
+   * Method is called for every identifiable object for which a persistent object exists.
+   * 
+   * @param pObject Existing object. The parameter is never null.
+   * @param pPersistentObject Persistent object with the same object id. The parameter is never null.
+   */
+  void existingObject( I pObject, PO pPersistentObject );
+
+  /**
+   * Method is called for every persistent object for which no identifiable object exists anymore.
+   * 
+   * @param pPersistentObject Persistent object that has to be removed. The parameter is never null.
+   */
+  void removedObject( PO pPersistentObject );
+
+  /**
+   * Method is called for every identifiable object that has the same object id as its predecessor. Only the first
+   * object with an object id is compared.
+   * 
+   * @param pObject Duplicate object. The parameter is never null.
+   */
+  void duplicateObject( I pObject );
+
+  /**
+   * Method is called for every persistent object that has the same object id as its predecessor. Only the first
+   * persistent object with an object id is compared.
+   * 
+   * @param pPersistentObject Duplicate persistent object. The parameter is never null.
+   */
+  void duplicatePersistentObject( PO pPersistentObject );
+}
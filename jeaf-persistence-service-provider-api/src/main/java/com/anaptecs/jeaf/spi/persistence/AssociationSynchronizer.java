@@ -0,0 +1,173 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.anaptecs.jeaf.xfun.api.checks.Check;
+import com.anaptecs.jeaf.xfun.api.common.AbstractObjectID;
+import com.anaptecs.jeaf.xfun.api.common.Identifiable;
+
+/**
+ * Class applies the changes of an association as they are detected by {@link AssociationComparator} to the persistent
+ * objects. Instead of loading, linking and deleting every changed object on its own, all changes are applied in a
+ * bounded number of round trips:
+ * <ul>
+ * <li>Added objects are loaded with one query per {@link PersistenceServiceProvider#MAX_IDS_PER_QUERY} ids.</li>
+ * <li>All new, added and removed objects are passed at once to {@link #link(List)} and {@link #unlink(List)}.</li>
+ * <li>If required, removed objects are deleted through the persistence service provider with one flush per
+ * {@link PersistenceServiceProvider#MAX_IDS_PER_QUERY} objects.</li>
+ * </ul>
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ * 
+ * @param <I> Type of the identifiable objects.
+ * @param <PO> Type of the persistent objects.
+ */
+public abstract class AssociationSynchronizer<I extends Identifiable<? extends AbstractObjectID<?>>,
+    PO extends PersistentObject> {
+  /**
+   * Persistence service provider that is used to load and delete objects.
+   */
+  private final PersistenceServiceProvider persistenceServiceProvider;
+
+  /**
+   * Type of the persistent objects of the association.
+   */
+  private final Class<PO> persistentObjectType;
+
+  /**
+   * Attribute defines whether removed objects are deleted.
+   */
+  private final boolean deleteRemovedObjects;
+
+  /**
+   * Initialize object.
+   * 
+   * @param pPersistenceServiceProvider Persistence service provider that is used to load and delete objects. The
+   * parameter must not be null.
+   * @param pPersistentObjectType Type of the persistent objects of the association. The parameter must not be null.
+   * @param pDeleteRemovedObjects Parameter defines whether objects that are removed from the association should also
+   * be deleted.
+   */
+  protected AssociationSynchronizer( PersistenceServiceProvider pPersistenceServiceProvider,
+      Class<PO> pPersistentObjectType, boolean pDeleteRemovedObjects ) {
+    // Check parameters.
+    Check.checkInvalidParameterNull(pPersistenceServiceProvider, "pPersistenceServiceProvider");
+    Check.checkInvalidParameterNull(pPersistentObjectType, "pPersistentObjectType");
+
+    persistenceServiceProvider = pPersistenceServiceProvider;
+    persistentObjectType = pPersistentObjectType;
+    deleteRemovedObjects = pDeleteRemovedObjects;
+  }
+
+  /**
+   * Method synchronizes the persistent objects of an association with the passed identifiable objects.
+   * 
+   * @param pObjects Identifiable objects that represent the new state of the association. The parameter must not be
+   * null.
+   * @param pPersistentObjects Persistent objects that represent the current state of the association. The parameter
+   * must not be null.
+   * @return {@link AssociationDiff} Changes that were applied. The method never returns null.
+   */
+  public AssociationDiff<I, PO> synchronize( Collection<I> pObjects, Collection<PO> pPersistentObjects ) {
+    AssociationDiff<I, PO> lDiff = AssociationDiff.create(pObjects, pPersistentObjects);
+
+    // Unlink and delete removed objects.
+    List<PO> lRemovedObjects = lDiff.getPersistentObjectsToRemove();
+    if (lRemovedObjects.isEmpty() == false) {
+      this.unlink(lRemovedObjects);
+      if (deleteRemovedObjects == true) {
+        this.deleteObjects(lRemovedObjects);
+      }
+    }
+
+    // Create new objects and load added ones.
+    List<I> lNewObjects = lDiff.getNewObjects();
+    List<I> lAddedObjects = lDiff.getAddedObjects();
+    List<PO> lLinkedObjects = new ArrayList<PO>(lNewObjects.size() + lAddedObjects.size());
+    for (I lNextObject : lNewObjects) {
+      lLinkedObjects.add(this.createObject(lNextObject));
+    }
+    lLinkedObjects.addAll(this.loadObjects(lAddedObjects));
+
+    // Link new and added objects.
+    if (lLinkedObjects.isEmpty() == false) {
+      this.link(lLinkedObjects);
+    }
+    return lDiff;
+  }
+
+  /**
+   * Method loads the persistent objects of the passed identifiable objects. The objects are loaded in chunks of
+   * {@link PersistenceServiceProvider#MAX_IDS_PER_QUERY} objects.
+   * 
+   * @param pObjects Objects whose persistent objects should be loaded. The parameter must not be null.
+   * @return {@link List} Loaded persistent objects. The method never returns null.
+   */
+  private List<PO> loadObjects( List<I> pObjects ) {
+    List<PO> lPersistentObjects;
+    if (pObjects.isEmpty() == false) {
+      lPersistentObjects = new ArrayList<PO>(pObjects.size());
+      for (int i = 0; i < pObjects.size(); i += PersistenceServiceProvider.MAX_IDS_PER_QUERY) {
+        int lEnd = Math.min(i + PersistenceServiceProvider.MAX_IDS_PER_QUERY, pObjects.size());
+        List<I> lChunk = pObjects.subList(i, lEnd);
+        lPersistentObjects
+            .addAll(persistenceServiceProvider.getPersistentObjects(lChunk, persistentObjectType, false, true));
+      }
+    }
+    else {
+      lPersistentObjects = Collections.emptyList();
+    }
+    return lPersistentObjects;
+  }
+
+  /**
+   * Method deletes the passed persistent objects through the persistence service provider. Thus delete rules,
+   * cascades, entity listeners and optimistic locking are applied as for every other deletion and the deleted objects
+   * are removed from the persistence context. The persistence context is flushed after every
+   * {@link PersistenceServiceProvider#MAX_IDS_PER_QUERY} objects so that the deletes can be sent to the database in
+   * JDBC batches and the number of pending changes stays bounded.
+   * 
+   * @param pPersistentObjects Objects that should be deleted. The parameter must not be null.
+   */
+  private void deleteObjects( List<PO> pPersistentObjects ) {
+    for (int i = 0; i < pPersistentObjects.size(); i++) {
+      persistenceServiceProvider.delete(pPersistentObjects.get(i));
+      if ((i + 1) % PersistenceServiceProvider.MAX_IDS_PER_QUERY == 0) {
+        persistenceServiceProvider.flush();
+      }
+    }
+    persistenceServiceProvider.flush();
+  }
+
+  /**
+   * Method creates the persistent object for the passed new identifiable object. The created object will be linked
+   * together with all added objects.
+   * 
+   * @param pObject New identifiable object. The parameter is never null.
+   * @return PO Created persistent object. The method must not return null.
+   */
+  protected abstract PO createObject( I pObject );
+
+  /**
+   * Method adds the passed persistent objects to the association.
+   * 
+   * @param pPersistentObjects Objects that should be added. The parameter is never null or empty.
+   */
+  protected abstract void link( List<PO> pPersistentObjects );
+
+  /**
+   * Method removes the passed persistent objects from the association.
+   * 
+   * @param pPersistentObjects Objects that should be removed. The parameter is never null or empty.
+   */
+  protected abstract void unlink( List<PO> pPersistentObjects );
+}
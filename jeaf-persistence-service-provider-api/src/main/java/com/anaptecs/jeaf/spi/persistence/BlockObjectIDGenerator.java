@@ -0,0 +1,321 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.anaptecs.jeaf.xfun.api.checks.Check;
+import com.anaptecs.jeaf.xfun.api.errorhandling.JEAFSystemException;
+
+/**
+ * Class generates object ids from blocks that are reserved through an {@link ObjectIDBlockSource}. Every block is
+ * reserved with one database round trip and contains up to {@link #MAX_BLOCK_SIZE} ids. Generated ids have the format
+ * <code>BBBBBB#NNNNNCCC</code> where <code>BBBBBB</code> is the base 36 encoded block number, <code>NNNNN</code> the
+ * base 36 encoded number of the id within the block and <code>CCC</code> the class id of the persistent object.
+ * 
+ * Every thread takes a small range of ids from the current block and generates ids from it without any
+ * synchronization. As soon as half of the current block is handed out, the next block is reserved asynchronously.
+ * Thus creating new objects does not have to wait for the database as long as the block size fits to the load.
+ * 
+ * Ids are unique but not ordered. Ids that were not used before shutdown are lost.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public final class BlockObjectIDGenerator implements ObjectIDGenerator {
+  /**
+   * Maximum number of ids per block (36^5).
+   */
+  public static final int MAX_BLOCK_SIZE = 36 * 36 * 36 * 36 * 36;
+
+  /**
+   * Maximum block number that can be encoded (36^6 - 1).
+   */
+  public static final long MAX_BLOCK_NUMBER = 36L * 36 * 36 * 36 * 36 * 36 - 1;
+
+  /**
+   * Number of characters that are used for the block number.
+   */
+  private static final int BLOCK_DIGITS = 6;
+
+  /**
+   * Number of characters that are used for the number of an id within its block.
+   */
+  private static final int COUNTER_DIGITS = 5;
+
+  /**
+   * Delimiter between block number and the rest of the id.
+   */
+  private static final char DELIMITER = '#';
+
+  /**
+   * Digits of base 36 encoded numbers.
+   */
+  private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+  /**
+   * Source from which new blocks are reserved.
+   */
+  private final ObjectIDBlockSource blockSource;
+
+  /**
+   * Number of ids per block.
+   */
+  private final int blockSize;
+
+  /**
+   * Number of ids that a thread takes from the current block at once.
+   */
+  private final int threadRangeSize;
+
+  /**
+   * Executor that is used to reserve the next block in the background.
+   */
+  private final Executor executor;
+
+  /**
+   * Block from which ids are currently handed out.
+   */
+  private final AtomicReference<Block> currentBlock;
+
+  /**
+   * Next block that is reserved in the background. The reference is null if no reservation is pending.
+   */
+  private final AtomicReference<CompletableFuture<Long>> nextBlock = new AtomicReference<CompletableFuture<Long>>();
+
+  /**
+   * Range of ids of the current thread.
+   */
+  private final ThreadLocal<Range> ranges = new ThreadLocal<Range>() {
+    @Override
+    protected Range initialValue( ) {
+      return new Range();
+    }
+  };
+
+  /**
+   * Initialize generator. The first block is reserved immediately.
+   * 
+   * @param pBlockSource Source from which new blocks are reserved. The parameter must not be null.
+   * @param pBlockSize Number of ids per block. The value must be between 1 and {@link #MAX_BLOCK_SIZE}.
+   * @param pThreadRangeSize Number of ids that a thread takes from the current block at once. Larger values reduce
+   * contention between threads but increase the number of ids that are lost on shutdown. The value must be positive.
+   * @param pExecutor Executor that is used to reserve the next block in the background. The parameter must not be null.
+   */
+  public BlockObjectIDGenerator( ObjectIDBlockSource pBlockSource, int pBlockSize, int pThreadRangeSize,
+      Executor pExecutor ) {
+    // Check parameters.
+    Check.checkInvalidParameterNull(pBlockSource, "pBlockSource");
+    Check.checkIsPositive(pBlockSize, "pBlockSize");
+    Check.checkIsPositive(pThreadRangeSize, "pThreadRangeSize");
+    Check.checkInvalidParameterNull(pExecutor, "pExecutor");
+
+    blockSource = pBlockSource;
+    blockSize = Math.min(pBlockSize, MAX_BLOCK_SIZE);
+    threadRangeSize = Math.min(pThreadRangeSize, blockSize);
+    executor = pExecutor;
+    currentBlock = new AtomicReference<Block>(new Block(pBlockSource.reserveBlock()));
+  }
+
+  /**
+   * Method creates a new unique object id for a persistent object of the type with the passed class id.
+   * 
+   * @param pClassID Class id of the persistent object for which a new id should be generated. The parameter must not be
+   * null.
+   * @return {@link String} New object id. The method never returns null.
+   */
+  @Override
+  public String createObjectID( ClassID pClassID ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pClassID, "pClassID");
+
+    Range lRange = ranges.get();
+    if (lRange.next >= lRange.end) {
+      this.allocateRange(lRange);
+    }
+    int lCounter = lRange.next++;
+
+    char[] lObjectID = new char[OBJECT_ID_LENGTH];
+    System.arraycopy(lRange.block.prefix, 0, lObjectID, 0, BLOCK_DIGITS + 1);
+    BlockObjectIDGenerator.encode(lCounter, lObjectID, BLOCK_DIGITS + 1, COUNTER_DIGITS);
+    BlockObjectIDGenerator.encode(pClassID.toInteger(), lObjectID, OBJECT_ID_LENGTH - ClassID.MAX_LENGTH,
+        ClassID.MAX_LENGTH);
+    return new String(lObjectID);
+  }
+
+  /**
+   * Method assigns a new range of ids from the current block to the passed range. If the current block is exhausted
+   * then the next block will be used.
+   * 
+   * @param pRange Range to which new ids should be assigned. The parameter must not be null.
+   */
+  private void allocateRange( Range pRange ) {
+    while (true) {
+      Block lBlock = currentBlock.get();
+      int lStart = lBlock.cursor.getAndAdd(threadRangeSize);
+      if (lStart < blockSize) {
+        // Reserve next block in the background as soon as half of this block is used.
+        int lThreshold = blockSize / 2;
+        if (lStart <= lThreshold && lThreshold < lStart + threadRangeSize) {
+          this.prefetchBlock();
+        }
+        pRange.block = lBlock;
+        pRange.next = lStart;
+        pRange.end = Math.min(lStart + threadRangeSize, blockSize);
+        break;
+      }
+      this.switchBlock(lBlock);
+    }
+  }
+
+  /**
+   * Method starts the reservation of the next block in the background. If a reservation was already started and its
+   * block was not used yet then no further reservation will be started.
+   */
+  private void prefetchBlock( ) {
+    final CompletableFuture<Long> lFuture = new CompletableFuture<Long>();
+    if (nextBlock.compareAndSet(null, lFuture) == true) {
+      Runnable lReservation = new Runnable() {
+        @Override
+        public void run( ) {
+          try {
+            lFuture.complete(blockSource.reserveBlock());
+          }
+          catch (RuntimeException e) {
+            lFuture.completeExceptionally(e);
+          }
+        }
+      };
+      // If the executor does not accept the reservation then the block will be reserved synchronously when required.
+      try {
+        executor.execute(lReservation);
+      }
+      catch (RuntimeException e) {
+        lFuture.completeExceptionally(e);
+      }
+    }
+  }
+
+  /**
+   * Method replaces the passed exhausted block with the next one. If the next block was not reserved in the background
+   * or its reservation failed then it will be reserved synchronously.
+   * 
+   * @param pExhaustedBlock Block that is exhausted. The parameter must not be null.
+   */
+  private synchronized void switchBlock( Block pExhaustedBlock ) {
+    // Block might already have been replaced by another thread.
+    if (currentBlock.get() == pExhaustedBlock) {
+      CompletableFuture<Long> lFuture = nextBlock.getAndSet(null);
+      long lBlockNumber;
+      if (lFuture != null) {
+        try {
+          lBlockNumber = lFuture.join();
+        }
+        catch (CompletionException e) {
+          lBlockNumber = blockSource.reserveBlock();
+        }
+      }
+      else {
+        lBlockNumber = blockSource.reserveBlock();
+      }
+      currentBlock.set(new Block(lBlockNumber));
+    }
+  }
+
+  /**
+   * Method decodes the block number that is contained in the passed object id. The block number are the first
+   * characters of every id that was created by this generator.
+   * 
+   * @param pObjectID Object id whose block number should be decoded. The parameter must not be null.
+   * @return long Number of the block from which the id was generated.
+   * @throws JEAFSystemException if the passed object id does not start with a valid base 36 encoded block number.
+   */
+  static long decodeBlockNumber( String pObjectID ) {
+    if (pObjectID.length() <= BLOCK_DIGITS || pObjectID.charAt(BLOCK_DIGITS) != DELIMITER) {
+      throw new JEAFSystemException(PersistenceServiceProviderMessages.INVALID_BLOCK_OBJECT_ID, pObjectID);
+    }
+    long lValue = 0;
+    for (int i = 0; i < BLOCK_DIGITS; i++) {
+      int lDigit = Character.digit(pObjectID.charAt(i), 36);
+      if (lDigit < 0) {
+        throw new JEAFSystemException(PersistenceServiceProviderMessages.INVALID_BLOCK_OBJECT_ID, pObjectID);
+      }
+      lValue = lValue * 36 + lDigit;
+    }
+    return lValue;
+  }
+
+  /**
+   * Method writes the base 36 representation of the passed value into the passed array. The value is padded with
+   * leading zeros.
+   * 
+   * @param pValue Value that should be encoded. The value must not be negative.
+   * @param pTarget Array to which the encoded value is written. The parameter must not be null.
+   * @param pOffset Index of the first character.
+   * @param pDigits Number of characters.
+   */
+  private static void encode( long pValue, char[] pTarget, int pOffset, int pDigits ) {
+    long lValue = pValue;
+    for (int i = pOffset + pDigits - 1; i >= pOffset; i--) {
+      pTarget[i] = DIGITS[(int) (lValue % 36)];
+      lValue = lValue / 36;
+    }
+  }
+
+  /**
+   * Class represents a reserved block of ids.
+   */
+  private static final class Block {
+    /**
+     * Encoded block number including the delimiter.
+     */
+    private final char[] prefix;
+
+    /**
+     * Number of the next id that will be handed out.
+     */
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    /**
+     * Initialize object.
+     * 
+     * @param pBlockNumber Number of the block.
+     */
+    Block( long pBlockNumber ) {
+      if (pBlockNumber < 0 || pBlockNumber > MAX_BLOCK_NUMBER) {
+        throw new JEAFSystemException(PersistenceServiceProviderMessages.OBJECT_ID_BLOCK_OUT_OF_RANGE,
+            Long.toString(pBlockNumber), Long.toString(MAX_BLOCK_NUMBER));
+      }
+      prefix = new char[BLOCK_DIGITS + 1];
+      BlockObjectIDGenerator.encode(pBlockNumber, prefix, 0, BLOCK_DIGITS);
+      prefix[BLOCK_DIGITS] = DELIMITER;
+    }
+  }
+
+  /**
+   * Class represents the range of ids that is currently used by a thread.
+   */
+  private static final class Range {
+    /**
+     * Block to which the range belongs.
+     */
+    private Block block;
+
+    /**
+     * Number of the next id within the block.
+     */
+    private int next;
+
+    /**
+     * Number of the first id within the block that does no longer belong to the range.
+     */
+    private int end;
+  }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import com.anaptecs.jeaf.xfun.api.checks.Check;
+import com.anaptecs.jeaf.xfun.api.common.AbstractObjectID;
+
+/**
+ * Sharding strategy distributes persistent objects across all shards independent of their type. New objects are placed
+ * using the hash code of their shard key. Objects without a shard key are placed on the shard that is derived from
+ * their {@link ClassID}.
+ * 
+ * Lookups derive the shard from the block number of the object id. Thus all shards have to create their object ids
+ * using a {@link BlockObjectIDGenerator} whose blocks are reserved through a {@link ShardObjectIDBlockSource} for the
+ * index of the shard.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public final class BlockShardingStrategy implements ShardingStrategy {
+  /**
+   * Initialize object.
+   */
+  public BlockShardingStrategy( ) {
+    // Nothing to do.
+  }
+
+  /**
+   * Method returns the shard on which the object with the passed id is stored.
+   * 
+   * @param pObjectID Id of the object. The parameter must not be null.
+   * @param pPersistentObjectType Type of the persistent object. The parameter is not used by this strategy.
+   * @param pShardCount Number of available shards.
+   * @return int Index of the shard.
+   */
+  @Override
+  public int getShard( AbstractObjectID<?> pObjectID, Class<? extends PersistentObject> pPersistentObjectType,
+      int pShardCount ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pObjectID, "pObjectID");
+
+    return (int) (BlockObjectIDGenerator.decodeBlockNumber(pObjectID.getObjectID()) % pShardCount);
+  }
+
+  /**
+   * Method returns the shard on which a new persistent object with the passed shard key is created.
+   * 
+   * @param pPersistentObjectType Type of the persistent object that should be created. The parameter must not be null.
+   * @param pShardKey Key that defines where the object should be stored. Objects with equal keys are stored on the same
+   * shard. The parameter may be null.
+   * @param pShardCount Number of available shards.
+   * @return int Index of the shard.
+   */
+  @Override
+  public int getShard( Class<? extends PersistentObject> pPersistentObjectType, Object pShardKey, int pShardCount ) {
+    int lShard;
+    if (pShardKey != null) {
+      lShard = Math.floorMod(pShardKey.hashCode(), pShardCount);
+    }
+    else {
+      lShard = ClassID.getClassID(pPersistentObjectType).toInteger() % pShardCount;
+    }
+    return lShard;
+  }
+}
@@ -5,8 +5,9 @@
  */
 package com.anaptecs.jeaf.spi.persistence;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import com.anaptecs.jeaf.xfun.api.checks.Assert;
 import com.anaptecs.jeaf.xfun.api.checks.Check;
@@ -17,6 +18,9 @@ import com.anaptecs.jeaf.xfun.types.Base36;
  * A class id is a unique representation of the type of a business object. It is a base 36 encoded number with a max
  * length of 3 digits.
  * 
+ * Class ids are registered once during startup and afterwards only read. Thus registration is synchronized whereas all
+ * lookups are lock-free. Lookups by id value use direct array indexing.
+ * 
  * @author JEAF Development Team
  * @version 1.0
  */
@@ -38,21 +42,22 @@ public final class ClassID extends Base36 {
   public static final int MAX_LENGTH = 3;
 
   /**
-   * Map contains all created class ids with its id value as key.
+   * Maximum value of a class id (36^3 - 1).
    */
-  private static final Map<Integer, ClassID> CLASS_IDS_BY_VALUE = new HashMap<Integer, ClassID>();
+  public static final int MAX_VALUE = 36 * 36 * 36 - 1;
 
   /**
-   * Map contains all created class ids with its class object as key.
+   * Array contains all created class ids with its id value as index. Writes to the array are visible to all threads
+   * that read the array afterwards.
    */
-  private static final Map<Class<? extends PersistentObject>, ClassID> CLASS_IDS_BY_BO_CLASS =
-      new HashMap<Class<? extends PersistentObject>, ClassID>();
+  private static final AtomicReferenceArray<ClassID> CLASS_IDS_BY_VALUE =
+      new AtomicReferenceArray<ClassID>(MAX_VALUE + 1);
 
   /**
-   * Map contains the class objects of all business objects with their class id as key.
+   * Map contains all created class ids with its class object as key.
    */
-  private static final Map<Integer, Class<? extends PersistentObject>> CLASSES_BY_ID =
-      new HashMap<Integer, Class<? extends PersistentObject>>();
+  private static final Map<Class<? extends PersistentObject>, ClassID> CLASS_IDS_BY_BO_CLASS =
+      new ConcurrentHashMap<Class<? extends PersistentObject>, ClassID>();
 
   /**
    * Constructor calls his parent an gets the SessionId with the length of 6 digits.
@@ -80,9 +85,15 @@ public final class ClassID extends Base36 {
     // Check parameter for null.
     Check.checkInvalidParameterNull(pBusinessObjectType, "pBusinessObjectType");
 
+    // Ensure that class id value can be represented with 3 digits.
+    if (pIDValue < 0 || pIDValue > MAX_VALUE) {
+      throw new JEAFSystemException(PersistenceServiceProviderMessages.CLASS_ID_OUT_OF_RANGE,
+          Integer.toString(pIDValue), pBusinessObjectType.toString(), Integer.toString(MAX_VALUE));
+    }
+
     // Ensure that neither class id value nor class are already used.
     // ClassID value is already in use.
-    if (CLASS_IDS_BY_VALUE.containsKey(pIDValue) == true) {
+    if (CLASS_IDS_BY_VALUE.get(pIDValue) != null) {
       final String[] lParams =
           new String[] { Integer.toString(pIDValue), CLASS_IDS_BY_VALUE.get(pIDValue).businessObjectType.toString() };
       throw new JEAFSystemException(PersistenceServiceProviderMessages.CLASS_ID_VALUE_ALREADY_IN_USE, lParams);
@@ -95,11 +106,10 @@ public final class ClassID extends Base36 {
       throw new JEAFSystemException(PersistenceServiceProviderMessages.CLASS_ALREADY_IN_USE, lParams);
     }
 
-    // Create new ClassID and register it within maps.
+    // Create new ClassID and register it. The class id is published by the array only after it was fully created.
     final ClassID lClassID = new ClassID(pIDValue, pBusinessObjectType);
-    CLASS_IDS_BY_VALUE.put(pIDValue, lClassID);
     CLASS_IDS_BY_BO_CLASS.put(pBusinessObjectType, lClassID);
-    CLASSES_BY_ID.put(pIDValue, pBusinessObjectType);
+    CLASS_IDS_BY_VALUE.set(pIDValue, lClassID);
     return lClassID;
   }
 
@@ -109,10 +119,36 @@ public final class ClassID extends Base36 {
    * @param pClassID Class id of the business object whose class object should be returned.
    * @return {@link Class} Class object that belongs to the passed class id. The method never returns null.
    */
-  public static synchronized Class<? extends PersistentObject> getClass( int pClassID ) {
-    Class<? extends PersistentObject> lClass = CLASSES_BY_ID.get(pClassID);
-    Assert.assertNotNull(lClass, "ClassID.getClass(int)");
-    return lClass;
+  public static Class<? extends PersistentObject> getClass( int pClassID ) {
+    ClassID lClassID;
+    if (pClassID >= 0 && pClassID <= MAX_VALUE) {
+      lClassID = CLASS_IDS_BY_VALUE.get(pClassID);
+    }
+    else {
+      lClassID = null;
+    }
+    Assert.assertNotNull(lClassID, "ClassID.getClass(int)");
+    return lClassID.businessObjectType;
+  }
+
+  /**
+   * Method returns the class id of the passed business object type.
+   * 
+   * @param pBusinessObjectType Type of business object whose class id should be returned. The parameter must not be
+   * null.
+   * @return {@link ClassID} Class id of the passed type. The method never returns null.
+   * @throws JEAFSystemException if no class id is registered for the passed type.
+   */
+  public static ClassID getClassID( Class<? extends PersistentObject> pBusinessObjectType ) {
+    // Check parameter for null.
+    Check.checkInvalidParameterNull(pBusinessObjectType, "pBusinessObjectType");
+
+    ClassID lClassID = CLASS_IDS_BY_BO_CLASS.get(pBusinessObjectType);
+    if (lClassID == null) {
+      throw new JEAFSystemException(PersistenceServiceProviderMessages.UNKNOWN_CLASS_ID,
+          pBusinessObjectType.getName());
+    }
+    return lClassID;
   }
 
   /**
@@ -0,0 +1,58 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import com.anaptecs.jeaf.xfun.api.checks.Check;
+import com.anaptecs.jeaf.xfun.api.common.AbstractObjectID;
+
+/**
+ * Sharding strategy places all persistent objects of the same type on the same shard. The shard is derived from the
+ * {@link ClassID} of the type. As the class id is part of every object id (last {@link ClassID#MAX_LENGTH} characters)
+ * the shard can be determined from the object id alone, even if only a super class is known during the lookup. Shard
+ * keys are ignored. Use {@link BlockShardingStrategy} if the objects of one type should be distributed across shards.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public final class ClassIDShardingStrategy implements ShardingStrategy {
+  /**
+   * Initialize object.
+   */
+  public ClassIDShardingStrategy( ) {
+    // Nothing to do.
+  }
+
+  /**
+   * Method returns the shard on which the object with the passed id is stored.
+   * 
+   * @param pObjectID Id of the object. The parameter must not be null.
+   * @param pPersistentObjectType Type of the persistent object. The parameter is not used by this strategy.
+   * @param pShardCount Number of available shards.
+   * @return int Index of the shard.
+   */
+  @Override
+  public int getShard( AbstractObjectID<?> pObjectID, Class<? extends PersistentObject> pPersistentObjectType,
+      int pShardCount ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pObjectID, "pObjectID");
+
+    // The class id are the last characters of the object id.
+    return PersistentObjectID.decodeClassID(pObjectID.getObjectID()) % pShardCount;
+  }
+
+  /**
+   * Method returns the shard on which new persistent objects of the passed type are created.
+   * 
+   * @param pPersistentObjectType Type of the persistent object that should be created. The parameter must not be null.
+   * @param pShardKey Key that defines where the object should be stored. The parameter is not used by this strategy.
+   * @param pShardCount Number of available shards.
+   * @return int Index of the shard.
+   */
+  @Override
+  public int getShard( Class<? extends PersistentObject> pPersistentObjectType, Object pShardKey, int pShardCount ) {
+    return ClassID.getClassID(pPersistentObjectType).toInteger() % pShardCount;
+  }
+}
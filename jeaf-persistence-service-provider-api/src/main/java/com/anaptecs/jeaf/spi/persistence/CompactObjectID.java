@@ -0,0 +1,354 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import java.io.Serializable;
+
+import com.anaptecs.jeaf.xfun.api.checks.Check;
+import com.anaptecs.jeaf.xfun.api.common.AbstractObjectID;
+import com.anaptecs.jeaf.xfun.api.errorhandling.JEAFSystemException;
+
+/**
+ * Class is a compact representation of an object id that is intended to be used as key in large in-memory indexes and
+ * caches. Instead of a string and an integer object the id is stored in two primitive fields and the version label as
+ * primitive int. Every character of the object id is encoded with 6 bits (digits, upper and lower case letters and the
+ * delimiter). Thus object ids with up to 15 characters are supported.
+ * 
+ * The delimiters of service, domain and persistent object ids ('-' and '#') are treated as the same character. Thus
+ * the compact representations of a persistent object id and of its service object id are equal. Conversion back to a
+ * string always returns the format of persistent object ids.
+ * 
+ * As for {@link AbstractObjectID} only the object id itself is considered by {@link #equals(Object)} and
+ * {@link #hashCode()}. The version label is ignored.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public final class CompactObjectID implements Serializable {
+  /**
+   * Default serial version UID.
+   */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Value of the version label if the object id is not versioned.
+   */
+  public static final int NO_VERSION = Integer.MIN_VALUE;
+
+  /**
+   * Maximum number of characters of an object id.
+   */
+  public static final int MAX_LENGTH = 15;
+
+  /**
+   * Number of characters that are stored in attribute <code>high</code>.
+   */
+  private static final int HIGH_LENGTH = 10;
+
+  /**
+   * Number of bits per character.
+   */
+  private static final int BITS_PER_CHAR = 6;
+
+  /**
+   * Code of the delimiter.
+   */
+  private static final int DELIMITER_CODE = 63;
+
+  /**
+   * Characters 0 - 9 of the object id. Unused characters are 0.
+   */
+  private final long high;
+
+  /**
+   * Characters 10 - 14 of the object id. Unused characters are 0.
+   */
+  private final int low;
+
+  /**
+   * Version label of the object id or {@link #NO_VERSION}.
+   */
+  private final int versionLabel;
+
+  /**
+   * Initialize object.
+   * 
+   * @param pHigh Encoded characters 0 - 9.
+   * @param pLow Encoded characters 10 - 14.
+   * @param pVersionLabel Version label or {@link #NO_VERSION}.
+   */
+  private CompactObjectID( long pHigh, int pLow, int pVersionLabel ) {
+    high = pHigh;
+    low = pLow;
+    versionLabel = pVersionLabel;
+  }
+
+  /**
+   * Method creates the compact representation of the passed object id.
+   * 
+   * @param pObjectID Object id that should be converted. The parameter must not be null.
+   * @return {@link CompactObjectID} Compact representation of the passed object id. The method never returns null.
+   * @throws JEAFSystemException if the passed object id can not be represented as compact object id.
+   */
+  public static CompactObjectID valueOf( AbstractObjectID<?> pObjectID ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pObjectID, "pObjectID");
+
+    return CompactObjectID.valueOf(pObjectID.getObjectID(), pObjectID.getVersionLabel());
+  }
+
+  /**
+   * Method creates the compact representation of the passed object id.
+   * 
+   * @param pObjectID Object id that should be converted. The parameter must not be null.
+   * @param pVersionLabel Version label of the object id. The parameter may be null.
+   * @return {@link CompactObjectID} Compact representation of the passed object id. The method never returns null.
+   * @throws JEAFSystemException if the passed object id can not be represented as compact object id.
+   */
+  public static CompactObjectID valueOf( String pObjectID, Integer pVersionLabel ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pObjectID, "pObjectID");
+
+    long lHigh;
+    long lLow;
+    if (pObjectID.length() > 0 && pObjectID.length() <= MAX_LENGTH) {
+      lHigh = CompactObjectID.encode(pObjectID, 0, HIGH_LENGTH);
+      lLow = CompactObjectID.encode(pObjectID, HIGH_LENGTH, MAX_LENGTH);
+    }
+    else {
+      lHigh = -1;
+      lLow = -1;
+    }
+    if (lHigh < 0 || lLow < 0) {
+      throw new JEAFSystemException(PersistenceServiceProviderMessages.OBJECT_ID_NOT_COMPACTABLE, pObjectID);
+    }
+    int lVersionLabel;
+    if (pVersionLabel != null) {
+      lVersionLabel = pVersionLabel.intValue();
+    }
+    else {
+      lVersionLabel = NO_VERSION;
+    }
+    return new CompactObjectID(lHigh, (int) lLow, lVersionLabel);
+  }
+
+  /**
+   * Method returns the object id as string in the format of persistent object ids.
+   * 
+   * @return {@link String} Object id. The method never returns null.
+   */
+  public String getObjectID( ) {
+    char[] lChars = new char[MAX_LENGTH];
+    int lLength = 0;
+    for (int i = 0; i < MAX_LENGTH; i++) {
+      int lCode;
+      if (i < HIGH_LENGTH) {
+        lCode = (int) (high >>> ((HIGH_LENGTH - 1 - i) * BITS_PER_CHAR)) & DELIMITER_CODE;
+      }
+      else {
+        lCode = (low >>> ((MAX_LENGTH - 1 - i) * BITS_PER_CHAR)) & DELIMITER_CODE;
+      }
+      if (lCode == 0) {
+        break;
+      }
+      lChars[lLength++] = CompactObjectID.decode(lCode);
+    }
+    return new String(lChars, 0, lLength);
+  }
+
+  /**
+   * Method returns the version label of the object id.
+   * 
+   * @return {@link Integer} Version label of the object id. The method returns null if the object id is not versioned.
+   */
+  public Integer getVersionLabel( ) {
+    Integer lVersionLabel;
+    if (versionLabel != NO_VERSION) {
+      lVersionLabel = Integer.valueOf(versionLabel);
+    }
+    else {
+      lVersionLabel = null;
+    }
+    return lVersionLabel;
+  }
+
+  /**
+   * Method returns whether the object id is versioned.
+   * 
+   * @return boolean Method returns true if the object id has a version label and false otherwise.
+   */
+  public boolean isVersioned( ) {
+    return versionLabel != NO_VERSION;
+  }
+
+  /**
+   * Method returns an unversioned variant of this object id.
+   * 
+   * @return {@link CompactObjectID} Unversioned variant of this object id. The method never returns null.
+   */
+  public CompactObjectID getUnversionedObjectID( ) {
+    CompactObjectID lUnversionedObjectID;
+    if (versionLabel != NO_VERSION) {
+      lUnversionedObjectID = new CompactObjectID(high, low, NO_VERSION);
+    }
+    else {
+      lUnversionedObjectID = this;
+    }
+    return lUnversionedObjectID;
+  }
+
+  /**
+   * Method converts this object id into a persistent object id.
+   * 
+   * @return {@link PersistentObjectID} Persistent object id with the same id and version label. The method never
+   * returns null.
+   */
+  public PersistentObjectID toPersistentObjectID( ) {
+    return new PersistentObjectID(this.getObjectID(), this.getVersionLabel());
+  }
+
+  /**
+   * Method checks whether the passed object id identifies the same object as this compact object id. Version labels are
+   * ignored. In opposite to a comparison with the result of {@link #valueOf(AbstractObjectID)} the method does not
+   * create any objects.
+   * 
+   * @param pObjectID Object id that should be compared. The parameter may be null.
+   * @return boolean Method returns true if both ids identify the same object and false otherwise.
+   */
+  public boolean matches( AbstractObjectID<?> pObjectID ) {
+    boolean lMatches;
+    if (pObjectID != null && pObjectID.getObjectID().length() <= MAX_LENGTH) {
+      String lObjectID = pObjectID.getObjectID();
+      lMatches = CompactObjectID.encode(lObjectID, 0, HIGH_LENGTH) == high
+          && CompactObjectID.encode(lObjectID, HIGH_LENGTH, MAX_LENGTH) == low;
+    }
+    else {
+      lMatches = false;
+    }
+    return lMatches;
+  }
+
+  /**
+   * Method returns the hash code of this object id. The version label is not considered.
+   * 
+   * @return int Hash code of this object id.
+   */
+  @Override
+  public int hashCode( ) {
+    return 31 * Long.hashCode(high) + low;
+  }
+
+  /**
+   * Method compares the passed object with this object id. Two compact object ids are equal if they represent the same
+   * object id. The version label is not considered.
+   * 
+   * @param pObject Object that should be compared. The parameter may be null.
+   * @return boolean Method returns true if the passed object is equal to this one and false otherwise.
+   */
+  @Override
+  public boolean equals( Object pObject ) {
+    boolean lIsEqual;
+    if (this == pObject) {
+      lIsEqual = true;
+    }
+    else if (pObject instanceof CompactObjectID) {
+      CompactObjectID lOther = (CompactObjectID) pObject;
+      lIsEqual = high == lOther.high && low == lOther.low;
+    }
+    else {
+      lIsEqual = false;
+    }
+    return lIsEqual;
+  }
+
+  /**
+   * Method returns a string representation of this object id.
+   * 
+   * @return {@link String} Object id in the format of persistent object ids. The method never returns null.
+   */
+  @Override
+  public String toString( ) {
+    return this.getObjectID();
+  }
+
+  /**
+   * Method encodes the characters of the passed object id within the passed range. Positions behind the end of the
+   * object id are encoded as 0.
+   * 
+   * @param pObjectID Object id whose characters should be encoded. The parameter must not be null.
+   * @param pFrom Position of the first character.
+   * @param pTo Position behind the last character.
+   * @return long Encoded characters or -1 if the range contains a character that is not supported.
+   */
+  private static long encode( String pObjectID, int pFrom, int pTo ) {
+    int lLength = pObjectID.length();
+    long lValue = 0;
+    for (int i = pFrom; i < pTo; i++) {
+      int lCode;
+      if (i < lLength) {
+        lCode = CompactObjectID.encode(pObjectID.charAt(i));
+        if (lCode == 0) {
+          lValue = -1;
+          break;
+        }
+      }
+      else {
+        lCode = 0;
+      }
+      lValue = (lValue << BITS_PER_CHAR) | lCode;
+    }
+    return lValue;
+  }
+
+  /**
+   * Method returns the code of the passed character.
+   * 
+   * @param pChar Character that should be encoded.
+   * @return int Code of the character or 0 if the character is not supported.
+   */
+  private static int encode( char pChar ) {
+    int lCode;
+    if (pChar >= '0' && pChar <= '9') {
+      lCode = pChar - '0' + 1;
+    }
+    else if (pChar >= 'A' && pChar <= 'Z') {
+      lCode = pChar - 'A' + 11;
+    }
+    else if (pChar >= 'a' && pChar <= 'z') {
+      lCode = pChar - 'a' + 37;
+    }
+    else if (pChar == '#' || pChar == '-') {
+      lCode = DELIMITER_CODE;
+    }
+    else {
+      lCode = 0;
+    }
+    return lCode;
+  }
+
+  /**
+   * Method returns the character with the passed code.
+   * 
+   * @param pCode Code of the character. The value must be between 1 and 63.
+   * @return char Character with the passed code.
+   */
+  private static char decode( int pCode ) {
+    char lChar;
+    if (pCode <= 10) {
+      lChar = (char) ('0' + pCode - 1);
+    }
+    else if (pCode <= 36) {
+      lChar = (char) ('A' + pCode - 11);
+    }
+    else if (pCode <= 62) {
+      lChar = (char) ('a' + pCode - 37);
+    }
+    else {
+      lChar = '#';
+    }
+    return lChar;
+  }
+}
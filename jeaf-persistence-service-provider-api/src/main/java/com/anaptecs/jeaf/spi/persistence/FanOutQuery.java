@@ -0,0 +1,380 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import com.anaptecs.jeaf.xfun.api.checks.Check;
+import com.anaptecs.jeaf.xfun.api.errorhandling.JEAFSystemException;
+
+/**
+ * Class executes the same query against several persistence units in parallel and merges their results. This is
+ * intended for data that is split across persistence units e.g. one per region. As all persistence units are queried
+ * in parallel the total latency is close to the one of the slowest persistence unit.
+ * 
+ * Every persistence unit is accessed through its own entity manager (see
+ * {@link PersistenceServiceProvider#createEntityManager(String)}) that is closed again as soon as the query returned.
+ * Thus the returned objects are detached and must not be modified.
+ * 
+ * If an order is defined then the result of every persistence unit is sorted and the sorted results are merged. If a
+ * limit is defined then at most that many objects are returned in total. Without an order, or if the query itself
+ * sorts its result in the same order (see {@link #setOrder(Comparator, boolean)}), the limit is also applied to the
+ * query of every persistence unit. Otherwise the complete result of every persistence unit is read as the first
+ * objects of an unsorted query are not necessarily the first ones of the requested order.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ * 
+ * @param <T> Type of the objects that are returned by the query.
+ */
+public final class FanOutQuery<T> {
+  /**
+   * Names of all persistence units against which the query is executed.
+   */
+  private final List<String> persistenceUnitNames;
+
+  /**
+   * Function that creates the query for an entity manager.
+   */
+  private final Function<EntityManager, Query> queryFactory;
+
+  /**
+   * Type of the objects that are returned by the query.
+   */
+  private final Class<T> resultType;
+
+  /**
+   * Order of the merged result. If no order is defined the results are concatenated in the order of the persistence
+   * units.
+   */
+  private Comparator<? super T> order;
+
+  /**
+   * Parameter defines if the query itself sorts its result in the defined order. Only in this case the limit may be
+   * applied to the query of every persistence unit.
+   */
+  private boolean queryDefinesOrder;
+
+  /**
+   * Maximum number of objects that should be returned. Values less than 1 mean that there is no limit.
+   */
+  private int limit;
+
+  /**
+   * Initialize fan-out query.
+   * 
+   * @param pPersistenceUnitNames Names of all persistence units against which the query should be executed. The
+   * parameter must not be null.
+   * @param pQueryFactory Function that creates the query for the passed entity manager. The function is called once
+   * per persistence unit from different threads. The parameter must not be null.
+   * @param pResultType Type of the objects that are returned by the query. The parameter must not be null.
+   */
+  public FanOutQuery( Collection<String> pPersistenceUnitNames, Function<EntityManager, Query> pQueryFactory,
+      Class<T> pResultType ) {
+    // Check parameters.
+    Check.checkInvalidParameterNull(pPersistenceUnitNames, "pPersistenceUnitNames");
+    Check.checkInvalidParameterNull(pQueryFactory, "pQueryFactory");
+    Check.checkInvalidParameterNull(pResultType, "pResultType");
+
+    persistenceUnitNames = new ArrayList<String>(pPersistenceUnitNames);
+    queryFactory = pQueryFactory;
+    resultType = pResultType;
+  }
+
+  /**
+   * Method defines the order of the merged result.
+   * 
+   * @param pOrder Comparator that defines the order of the merged result. The parameter may be null.
+   * @return {@link FanOutQuery} This object. The method never returns null.
+   */
+  public FanOutQuery<T> setOrder( Comparator<? super T> pOrder ) {
+    return this.setOrder(pOrder, false);
+  }
+
+  /**
+   * Method defines the order of the merged result.
+   * 
+   * @param pOrder Comparator that defines the order of the merged result. The parameter may be null.
+   * @param pQueryDefinesOrder Parameter has to be true if the query contains an ORDER BY clause that sorts the result
+   * exactly like the passed comparator. In this case a limit is also applied to the query of every persistence unit.
+   * @return {@link FanOutQuery} This object. The method never returns null.
+   */
+  public FanOutQuery<T> setOrder( Comparator<? super T> pOrder, boolean pQueryDefinesOrder ) {
+    order = pOrder;
+    queryDefinesOrder = pQueryDefinesOrder;
+    return this;
+  }
+
+  /**
+   * Method defines the maximum number of objects that should be returned.
+   * 
+   * @param pLimit Maximum number of objects. Values less than 1 mean that there is no limit.
+   * @return {@link FanOutQuery} This object. The method never returns null.
+   */
+  public FanOutQuery<T> setLimit( int pLimit ) {
+    limit = pLimit;
+    return this;
+  }
+
+  /**
+   * Method executes the query against all persistence units in parallel and returns the merged result. The method
+   * returns as soon as the query was executed on all persistence units.
+   * 
+   * @param pExecutorService Executor service that is used to query the persistence units in parallel. The parameter
+   * must not be null.
+   * @return {@link Stream} Stream with the merged result. The method never returns null.
+   * @throws JEAFSystemException if the query failed on at least one persistence unit.
+   */
+  public Stream<T> execute( ExecutorService pExecutorService ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pExecutorService, "pExecutorService");
+
+    // Start query on all persistence units.
+    final PersistenceServiceProvider lPersistenceServiceProvider = PersistentObject.getPersistenceServiceProvider();
+    List<Future<List<T>>> lFutures = new ArrayList<Future<List<T>>>(persistenceUnitNames.size());
+    for (final String lNextName : persistenceUnitNames) {
+      lFutures.add(pExecutorService.submit(new Callable<List<T>>() {
+        @Override
+        public List<T> call( ) {
+          return FanOutQuery.this.executeOnPersistenceUnit(lPersistenceServiceProvider, lNextName);
+        }
+      }));
+    }
+
+    // Collect results of all persistence units.
+    List<List<T>> lResults = new ArrayList<List<T>>(lFutures.size());
+    for (int i = 0; i < lFutures.size(); i++) {
+      String lName = persistenceUnitNames.get(i);
+      try {
+        lResults.add(lFutures.get(i).get());
+      }
+      catch (ExecutionException e) {
+        FanOutQuery.cancel(lFutures);
+        throw new JEAFSystemException(PersistenceServiceProviderMessages.FAN_OUT_QUERY_FAILED, e.getCause(), lName,
+            String.valueOf(e.getCause()));
+      }
+      catch (InterruptedException e) {
+        FanOutQuery.cancel(lFutures);
+        Thread.currentThread().interrupt();
+        throw new JEAFSystemException(PersistenceServiceProviderMessages.FAN_OUT_QUERY_FAILED, e, lName, e.toString());
+      }
+    }
+
+    // Merge results.
+    Iterator<T> lIterator;
+    if (order != null) {
+      lIterator = new MergingIterator<T>(lResults, order);
+    }
+    else {
+      List<Iterator<T>> lIterators = new ArrayList<Iterator<T>>(lResults.size());
+      for (List<T> lNextResult : lResults) {
+        lIterators.add(lNextResult.iterator());
+      }
+      lIterator = new ConcatenatingIterator<T>(lIterators);
+    }
+    Stream<T> lStream = StreamSupport
+        .stream(Spliterators.spliteratorUnknownSize(lIterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    if (limit > 0) {
+      lStream = lStream.limit(limit);
+    }
+    return lStream;
+  }
+
+  /**
+   * Method executes the query on the persistence unit with the passed name.
+   * 
+   * @param pPersistenceServiceProvider Persistence service provider that is used to create the entity manager. The
+   * parameter must not be null.
+   * @param pPersistenceUnitName Name of the persistence unit. The parameter must not be null.
+   * @return {@link List} Result of the query. If an order is defined the result is already sorted. The method never
+   * returns null.
+   */
+  private List<T> executeOnPersistenceUnit( PersistenceServiceProvider pPersistenceServiceProvider,
+      String pPersistenceUnitName ) {
+    EntityManager lEntityManager = pPersistenceServiceProvider.createEntityManager(pPersistenceUnitName);
+    try {
+      Query lQuery = queryFactory.apply(lEntityManager);
+      // First objects of a query are only the first ones of the merged result if the query uses the same order.
+      if (limit > 0 && (order == null || queryDefinesOrder == true)) {
+        lQuery.setMaxResults(limit);
+      }
+      List<?> lResultList = lQuery.getResultList();
+      List<T> lResult = new ArrayList<T>(lResultList.size());
+      for (Object lNextObject : lResultList) {
+        lResult.add(resultType.cast(lNextObject));
+      }
+      // Sorting of already sorted lists is linear so it is not a problem if the query already defines the order.
+      if (order != null) {
+        lResult.sort(order);
+      }
+      return lResult;
+    }
+    finally {
+      lEntityManager.close();
+    }
+  }
+
+  /**
+   * Method cancels all passed futures.
+   * 
+   * @param pFutures Futures that should be cancelled. The parameter must not be null.
+   */
+  private static void cancel( List<? extends Future<?>> pFutures ) {
+    for (Future<?> lNextFuture : pFutures) {
+      lNextFuture.cancel(true);
+    }
+  }
+
+  /**
+   * Iterator concatenates several iterators.
+   * 
+   * @param <E> Type of the elements.
+   */
+  private static final class ConcatenatingIterator<E> implements Iterator<E> {
+    /**
+     * Iterators that are concatenated.
+     */
+    private final Iterator<Iterator<E>> iterators;
+
+    /**
+     * Iterator that is currently used.
+     */
+    private Iterator<E> current;
+
+    /**
+     * Initialize object.
+     * 
+     * @param pIterators Iterators that should be concatenated. The parameter must not be null.
+     */
+    ConcatenatingIterator( List<Iterator<E>> pIterators ) {
+      iterators = pIterators.iterator();
+      current = null;
+    }
+
+    @Override
+    public boolean hasNext( ) {
+      while ((current == null || current.hasNext() == false) && iterators.hasNext() == true) {
+        current = iterators.next();
+      }
+      return current != null && current.hasNext();
+    }
+
+    @Override
+    public E next( ) {
+      if (this.hasNext() == false) {
+        throw new NoSuchElementException();
+      }
+      return current.next();
+    }
+  }
+
+  /**
+   * Iterator merges several sorted lists into one sorted sequence.
+   * 
+   * @param <E> Type of the elements.
+   */
+  private static final class MergingIterator<E> implements Iterator<E> {
+    /**
+     * Queue contains the current head of every list that is not yet exhausted.
+     */
+    private final PriorityQueue<Head<E>> heads;
+
+    /**
+     * Initialize object.
+     * 
+     * @param pSortedLists Lists that should be merged. All lists have to be sorted according to the passed order. The
+     * parameter must not be null.
+     * @param pOrder Order of the lists. The parameter must not be null.
+     */
+    MergingIterator( List<List<E>> pSortedLists, final Comparator<? super E> pOrder ) {
+      heads = new PriorityQueue<Head<E>>(Math.max(pSortedLists.size(), 1), new Comparator<Head<E>>() {
+        @Override
+        public int compare( Head<E> pFirst, Head<E> pSecond ) {
+          int lResult = pOrder.compare(pFirst.element, pSecond.element);
+          // Keep order of persistence units for equal elements.
+          return (lResult != 0) ? lResult : Integer.compare(pFirst.source, pSecond.source);
+        }
+      });
+      for (int i = 0; i < pSortedLists.size(); i++) {
+        Iterator<E> lIterator = pSortedLists.get(i).iterator();
+        if (lIterator.hasNext() == true) {
+          heads.add(new Head<E>(lIterator.next(), lIterator, i));
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext( ) {
+      return heads.isEmpty() == false;
+    }
+
+    @Override
+    public E next( ) {
+      Head<E> lHead = heads.poll();
+      if (lHead == null) {
+        throw new NoSuchElementException();
+      }
+      E lElement = lHead.element;
+      if (lHead.iterator.hasNext() == true) {
+        heads.add(new Head<E>(lHead.iterator.next(), lHead.iterator, lHead.source));
+      }
+      return lElement;
+    }
+  }
+
+  /**
+   * Class represents the current head of a sorted list during merging.
+   * 
+   * @param <E> Type of the elements.
+   */
+  private static final class Head<E> {
+    /**
+     * Current element.
+     */
+    private final E element;
+
+    /**
+     * Iterator of the remaining elements of the list.
+     */
+    private final Iterator<E> iterator;
+
+    /**
+     * Index of the list.
+     */
+    private final int source;
+
+    /**
+     * Initialize object.
+     * 
+     * @param pElement Current element.
+     * @param pIterator Iterator of the remaining elements of the list.
+     * @param pSource Index of the list.
+     */
+    Head( E pElement, Iterator<E> pIterator, int pSource ) {
+      element = pElement;
+      iterator = pIterator;
+      source = pSource;
+    }
+  }
+}
@@ -0,0 +1,28 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+/**
+ * Interface defines the source of object id blocks that are used by a {@link BlockObjectIDGenerator}. Every call
+ * reserves a new block that is unique across all nodes that share the same database. Implementations should reserve a
+ * block within one database round trip, e.g. by reading the next value of a database sequence.
+ * 
+ * Blocks are reserved outside of the transaction of the current request and may also be reserved from background
+ * threads. Thus implementations must not rely on the transaction context of the calling thread.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ * 
+ * @see SequenceObjectIDBlockSource
+ */
+public interface ObjectIDBlockSource {
+  /**
+   * Method reserves a new block of object ids.
+   * 
+   * @return long Number of the reserved block. Every number must only be returned once.
+   */
+  long reserveBlock( );
+}
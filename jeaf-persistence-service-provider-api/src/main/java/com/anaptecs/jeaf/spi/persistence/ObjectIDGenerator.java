@@ -0,0 +1,37 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+/**
+ * Interface defines a generator for the object ids of new persistent objects. Persistence service provider
+ * implementations use it when a new persistent object is created (see
+ * {@link PersistenceServiceProvider#createPersistentObject(Class)}) and pass the generated id to
+ * {@link PersistentObject#assignObjectID(String)}.
+ * 
+ * Generated object ids are always 15 characters long. The last {@link ClassID#MAX_LENGTH} characters are the class id
+ * of the persistent object.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ * 
+ * @see BlockObjectIDGenerator
+ */
+public interface ObjectIDGenerator {
+  /**
+   * Length of all generated object ids.
+   */
+  static final int OBJECT_ID_LENGTH = 15;
+
+  /**
+   * Method creates a new unique object id for a persistent object of the type with the passed class id. Implementations
+   * have to be thread safe.
+   * 
+   * @param pClassID Class id of the persistent object for which a new id should be generated. The parameter must not be
+   * null.
+   * @return {@link String} New object id. The method never returns null.
+   */
+  String createObjectID( ClassID pClassID );
+}
@@ -0,0 +1,410 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import java.util.Arrays;
+
+import com.anaptecs.jeaf.xfun.api.checks.Check;
+import com.anaptecs.jeaf.xfun.api.common.AbstractObjectID;
+
+/**
+ * Class implements a map with object ids as keys. In opposite to a {@link java.util.HashMap} the map does not create an
+ * entry object per key. Keys, their hash codes and values are stored in three arrays using open addressing with linear
+ * probing. Probing only reads the array of hash codes, where 0 marks an empty slot. Keys are only compared if their
+ * hash codes are equal.
+ * 
+ * Keys are the object ids as strings. The delimiters of service, domain and persistent object ids ('-' and '#') are
+ * treated as the same character. Thus an object can be looked up with its service object id as well as with its
+ * persistent object id. Version labels are ignored. Keys are stored with the delimiter of persistent object ids. This
+ * way lookups with persistent object ids use the hash code that is cached by the string and never have to scan it.
+ * Only lookups that do not find their key directly are repeated with the delimiter of persistent object ids.
+ * 
+ * Instances of this class are not thread safe.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ * 
+ * @param <V> Type of the values.
+ * 
+ * @see ObjectIDSet
+ */
+public final class ObjectIDMap<V> {
+  /**
+   * Default number of entries for which the map is sized.
+   */
+  private static final int DEFAULT_EXPECTED_SIZE = 8;
+
+  /**
+   * Maximum capacity of the arrays.
+   */
+  private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+  /**
+   * Hash code of empty slots. Keys whose hash code is 0 are stored with hash code 1 instead.
+   */
+  private static final int EMPTY = 0;
+
+  /**
+   * Keys of all entries. Empty slots are null.
+   */
+  private String[] keys;
+
+  /**
+   * Hash codes of all keys. Empty slots are {@link #EMPTY}.
+   */
+  private int[] hashes;
+
+  /**
+   * Values of all entries.
+   */
+  private Object[] values;
+
+  /**
+   * Number of entries.
+   */
+  private int size;
+
+  /**
+   * Number of entries from which on the arrays are enlarged. The map is filled to at most three quarters.
+   */
+  private int threshold;
+
+  /**
+   * Initialize empty map.
+   */
+  public ObjectIDMap( ) {
+    this(DEFAULT_EXPECTED_SIZE);
+  }
+
+  /**
+   * Initialize empty map that can take the passed number of entries without being resized.
+   * 
+   * @param pExpectedSize Expected number of entries. Negative values are treated as 0.
+   */
+  public ObjectIDMap( int pExpectedSize ) {
+    int lCapacity = 2;
+    while (lCapacity < MAXIMUM_CAPACITY && ObjectIDMap.getThreshold(lCapacity) <= pExpectedSize) {
+      lCapacity = lCapacity << 1;
+    }
+    this.allocate(lCapacity);
+  }
+
+  /**
+   * Method returns the value with the passed object id as key.
+   * 
+   * @param pObjectID Object id whose value should be returned. The parameter must not be null.
+   * @return V Value of the passed object id or null if the map does not contain the object id.
+   */
+  public V get( AbstractObjectID<?> pObjectID ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pObjectID, "pObjectID");
+
+    return this.get(pObjectID.getObjectID());
+  }
+
+  /**
+   * Method returns the value with the passed object id as key.
+   * 
+   * @param pObjectID Object id whose value should be returned. The parameter must not be null.
+   * @return V Value of the passed object id or null if the map does not contain the object id.
+   */
+  @SuppressWarnings("unchecked")
+  public V get( String pObjectID ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pObjectID, "pObjectID");
+
+    int lSlot = this.lookup(pObjectID);
+    V lValue;
+    if (hashes[lSlot] != EMPTY) {
+      lValue = (V) values[lSlot];
+    }
+    else {
+      lValue = null;
+    }
+    return lValue;
+  }
+
+  /**
+   * Method checks whether the map contains the passed object id.
+   * 
+   * @param pObjectID Object id that should be checked. The parameter must not be null.
+   * @return boolean Method returns true if the map contains the object id and false otherwise.
+   */
+  public boolean containsKey( AbstractObjectID<?> pObjectID ) {
+    return this.get(pObjectID) != null;
+  }
+
+  /**
+   * Method checks whether the map contains the passed object id.
+   * 
+   * @param pObjectID Object id that should be checked. The parameter must not be null.
+   * @return boolean Method returns true if the map contains the object id and false otherwise.
+   */
+  public boolean containsKey( String pObjectID ) {
+    return this.get(pObjectID) != null;
+  }
+
+  /**
+   * Method adds the passed value with the passed object id as key. An existing value is replaced.
+   * 
+   * @param pObjectID Object id that is used as key. The parameter must not be null.
+   * @param pValue Value that should be added. The parameter must not be null.
+   * @return V Value that was replaced or null if the map did not contain the object id before.
+   */
+  public V put( AbstractObjectID<?> pObjectID, V pValue ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pObjectID, "pObjectID");
+
+    return this.put(pObjectID.getObjectID(), pValue);
+  }
+
+  /**
+   * Method adds the passed value with the passed object id as key. An existing value is replaced.
+   * 
+   * @param pObjectID Object id that is used as key. The parameter must not be null.
+   * @param pValue Value that should be added. The parameter must not be null.
+   * @return V Value that was replaced or null if the map did not contain the object id before.
+   */
+  @SuppressWarnings("unchecked")
+  public V put( String pObjectID, V pValue ) {
+    // Check parameters.
+    Check.checkInvalidParameterNull(pObjectID, "pObjectID");
+    Check.checkInvalidParameterNull(pValue, "pValue");
+
+    String lKey = ObjectIDMap.normalize(pObjectID);
+    int lHash = ObjectIDMap.hash(lKey);
+    int lSlot = this.find(lKey, lHash);
+    V lOldValue;
+    if (hashes[lSlot] != EMPTY) {
+      lOldValue = (V) values[lSlot];
+      values[lSlot] = pValue;
+    }
+    else {
+      keys[lSlot] = lKey;
+      hashes[lSlot] = lHash;
+      values[lSlot] = pValue;
+      size++;
+      if (size >= threshold) {
+        this.resize();
+      }
+      lOldValue = null;
+    }
+    return lOldValue;
+  }
+
+  /**
+   * Method removes the passed object id from the map.
+   * 
+   * @param pObjectID Object id that should be removed. The parameter must not be null.
+   * @return V Value of the removed object id or null if the map did not contain the object id.
+   */
+  public V remove( AbstractObjectID<?> pObjectID ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pObjectID, "pObjectID");
+
+    return this.remove(pObjectID.getObjectID());
+  }
+
+  /**
+   * Method removes the passed object id from the map.
+   * 
+   * @param pObjectID Object id that should be removed. The parameter must not be null.
+   * @return V Value of the removed object id or null if the map did not contain the object id.
+   */
+  @SuppressWarnings("unchecked")
+  public V remove( String pObjectID ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pObjectID, "pObjectID");
+
+    int lSlot = this.lookup(pObjectID);
+    V lOldValue;
+    if (hashes[lSlot] != EMPTY) {
+      lOldValue = (V) values[lSlot];
+      this.delete(lSlot);
+      size--;
+    }
+    else {
+      lOldValue = null;
+    }
+    return lOldValue;
+  }
+
+  /**
+   * Method returns the number of entries of the map.
+   * 
+   * @return int Number of entries.
+   */
+  public int size( ) {
+    return size;
+  }
+
+  /**
+   * Method checks whether the map is empty.
+   * 
+   * @return boolean Method returns true if the map does not contain any entries and false otherwise.
+   */
+  public boolean isEmpty( ) {
+    return size == 0;
+  }
+
+  /**
+   * Method removes all entries from the map. The size of the arrays is not changed.
+   */
+  public void clear( ) {
+    if (size > 0) {
+      Arrays.fill(hashes, EMPTY);
+      Arrays.fill(keys, null);
+      Arrays.fill(values, null);
+      size = 0;
+    }
+  }
+
+  /**
+   * Method returns the slot of the passed object id, which may use any delimiter. The object id is first looked up as
+   * it is. Only if it is not found and contains the delimiter of service object ids the lookup is repeated.
+   * 
+   * @param pObjectID Object id whose slot should be returned. The parameter must not be null.
+   * @return int Slot of the object id or an empty slot if the map does not contain the object id.
+   */
+  private int lookup( String pObjectID ) {
+    int lSlot = this.find(pObjectID, ObjectIDMap.hash(pObjectID));
+    if (hashes[lSlot] == EMPTY) {
+      String lKey = ObjectIDMap.normalize(pObjectID);
+      if (lKey != pObjectID) {
+        lSlot = this.find(lKey, ObjectIDMap.hash(lKey));
+      }
+    }
+    return lSlot;
+  }
+
+  /**
+   * Method returns the slot of the passed object id. If the map does not contain the object id then the method returns
+   * the empty slot where it has to be added.
+   * 
+   * @param pObjectID Object id whose slot should be returned. The parameter must not be null.
+   * @param pHash Hash code of the object id as returned by {@link #hash(String)}.
+   * @return int Slot of the object id.
+   */
+  private int find( String pObjectID, int pHash ) {
+    int lMask = hashes.length - 1;
+    int lSlot = pHash & lMask;
+    while (true) {
+      int lHash = hashes[lSlot];
+      if (lHash == EMPTY || (lHash == pHash && keys[lSlot].equals(pObjectID) == true)) {
+        break;
+      }
+      lSlot = (lSlot + 1) & lMask;
+    }
+    return lSlot;
+  }
+
+  /**
+   * Method clears the passed slot. All following entries of the same probe sequence are shifted back so that no
+   * deletion markers are required.
+   * 
+   * @param pSlot Slot that should be cleared.
+   */
+  private void delete( int pSlot ) {
+    int lMask = hashes.length - 1;
+    int lFree = pSlot;
+    int lSlot = pSlot;
+    while (true) {
+      lSlot = (lSlot + 1) & lMask;
+      if (hashes[lSlot] == EMPTY) {
+        break;
+      }
+      // Entry can only be moved to the free slot if the free slot is not before its home slot.
+      int lHome = hashes[lSlot] & lMask;
+      if (((lSlot - lHome) & lMask) >= ((lSlot - lFree) & lMask)) {
+        keys[lFree] = keys[lSlot];
+        hashes[lFree] = hashes[lSlot];
+        values[lFree] = values[lSlot];
+        lFree = lSlot;
+      }
+    }
+    hashes[lFree] = EMPTY;
+    keys[lFree] = null;
+    values[lFree] = null;
+  }
+
+  /**
+   * Method doubles the size of the arrays.
+   */
+  private void resize( ) {
+    String[] lOldKeys = keys;
+    int[] lOldHashes = hashes;
+    Object[] lOldValues = values;
+    this.allocate(Math.min(lOldKeys.length << 1, MAXIMUM_CAPACITY));
+    int lMask = keys.length - 1;
+    for (int i = 0; i < lOldKeys.length; i++) {
+      if (lOldHashes[i] != EMPTY) {
+        int lSlot = lOldHashes[i] & lMask;
+        while (hashes[lSlot] != EMPTY) {
+          lSlot = (lSlot + 1) & lMask;
+        }
+        keys[lSlot] = lOldKeys[i];
+        hashes[lSlot] = lOldHashes[i];
+        values[lSlot] = lOldValues[i];
+      }
+    }
+  }
+
+  /**
+   * Method allocates the arrays with the passed capacity.
+   * 
+   * @param pCapacity Capacity of the arrays. The value must be a power of two.
+   */
+  private void allocate( int pCapacity ) {
+    keys = new String[pCapacity];
+    hashes = new int[pCapacity];
+    values = new Object[pCapacity];
+    if (pCapacity < MAXIMUM_CAPACITY) {
+      threshold = ObjectIDMap.getThreshold(pCapacity);
+    }
+    else {
+      threshold = MAXIMUM_CAPACITY - 1;
+    }
+  }
+
+  /**
+   * Method returns the passed object id with the delimiter of persistent object ids as it is stored as key.
+   * 
+   * @param pObjectID Object id that should be normalized. The parameter must not be null.
+   * @return {@link String} Normalized object id. If the object id already uses the delimiter of persistent object ids
+   * then the passed string is returned. The method never returns null.
+   */
+  private static String normalize( String pObjectID ) {
+    return pObjectID.replace('-', '#');
+  }
+
+  /**
+   * Method returns the hash code of the passed object id as it is stored in the map. The hash code of the string is
+   * used, which is calculated only once per string. The method never returns {@link #EMPTY}.
+   * 
+   * @param pObjectID Object id whose hash code should be returned. The parameter must not be null.
+   * @return int Hash code of the object id.
+   */
+  static int hash( String pObjectID ) {
+    int lHash = pObjectID.hashCode();
+    // Spread higher bits as only the lower bits are used to determine the slot.
+    lHash = lHash ^ (lHash >>> 16);
+    if (lHash == EMPTY) {
+      lHash = 1;
+    }
+    return lHash;
+  }
+
+  /**
+   * Method returns the number of entries from which on arrays with the passed capacity are enlarged. The load factor of
+   * 0.75 keeps the average probe sequence of linear probing short, as hash codes are compared before the keys.
+   * 
+   * @param pCapacity Capacity of the arrays.
+   * @return int Number of entries from which on the arrays are enlarged.
+   */
+  private static int getThreshold( int pCapacity ) {
+    return pCapacity - (pCapacity >> 2);
+  }
+}
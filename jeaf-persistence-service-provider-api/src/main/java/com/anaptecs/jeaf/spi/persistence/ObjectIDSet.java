@@ -0,0 +1,131 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import com.anaptecs.jeaf.xfun.api.common.AbstractObjectID;
+
+/**
+ * Class implements a set of object ids. The set is backed by an {@link ObjectIDMap} and thus does not create any
+ * objects per contained object id. The delimiters of service, domain and persistent object ids are treated as the same
+ * character and version labels are ignored.
+ * 
+ * Instances of this class are not thread safe.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public final class ObjectIDSet {
+  /**
+   * Value that is stored for every object id inside the map.
+   */
+  private static final Object PRESENT = Boolean.TRUE;
+
+  /**
+   * Map that contains all object ids of the set.
+   */
+  private final ObjectIDMap<Object> objectIDs;
+
+  /**
+   * Initialize empty set.
+   */
+  public ObjectIDSet( ) {
+    objectIDs = new ObjectIDMap<Object>();
+  }
+
+  /**
+   * Initialize empty set that can take the passed number of object ids without being resized.
+   * 
+   * @param pExpectedSize Expected number of object ids. Negative values are treated as 0.
+   */
+  public ObjectIDSet( int pExpectedSize ) {
+    objectIDs = new ObjectIDMap<Object>(pExpectedSize);
+  }
+
+  /**
+   * Method adds the passed object id to the set.
+   * 
+   * @param pObjectID Object id that should be added. The parameter must not be null.
+   * @return boolean Method returns true if the set did not contain the object id before and false otherwise.
+   */
+  public boolean add( AbstractObjectID<?> pObjectID ) {
+    return objectIDs.put(pObjectID, PRESENT) == null;
+  }
+
+  /**
+   * Method adds the passed object id to the set.
+   * 
+   * @param pObjectID Object id that should be added. The parameter must not be null.
+   * @return boolean Method returns true if the set did not contain the object id before and false otherwise.
+   */
+  public boolean add( String pObjectID ) {
+    return objectIDs.put(pObjectID, PRESENT) == null;
+  }
+
+  /**
+   * Method checks whether the set contains the passed object id.
+   * 
+   * @param pObjectID Object id that should be checked. The parameter must not be null.
+   * @return boolean Method returns true if the set contains the object id and false otherwise.
+   */
+  public boolean contains( AbstractObjectID<?> pObjectID ) {
+    return objectIDs.containsKey(pObjectID);
+  }
+
+  /**
+   * Method checks whether the set contains the passed object id.
+   * 
+   * @param pObjectID Object id that should be checked. The parameter must not be null.
+   * @return boolean Method returns true if the set contains the object id and false otherwise.
+   */
+  public boolean contains( String pObjectID ) {
+    return objectIDs.containsKey(pObjectID);
+  }
+
+  /**
+   * Method removes the passed object id from the set.
+   * 
+   * @param pObjectID Object id that should be removed. The parameter must not be null.
+   * @return boolean Method returns true if the set contained the object id and false otherwise.
+   */
+  public boolean remove( AbstractObjectID<?> pObjectID ) {
+    return objectIDs.remove(pObjectID) != null;
+  }
+
+  /**
+   * Method removes the passed object id from the set.
+   * 
+   * @param pObjectID Object id that should be removed. The parameter must not be null.
+   * @return boolean Method returns true if the set contained the object id and false otherwise.
+   */
+  public boolean remove( String pObjectID ) {
+    return objectIDs.remove(pObjectID) != null;
+  }
+
+  /**
+   * Method returns the number of object ids inside the set.
+   * 
+   * @return int Number of object ids.
+   */
+  public int size( ) {
+    return objectIDs.size();
+  }
+
+  /**
+   * Method checks whether the set is empty.
+   * 
+   * @return boolean Method returns true if the set does not contain any object ids and false otherwise.
+   */
+  public boolean isEmpty( ) {
+    return objectIDs.isEmpty();
+  }
+
+  /**
+   * Method removes all object ids from the set.
+   */
+  public void clear( ) {
+    objectIDs.clear();
+  }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+/**
+ * Class compares object ids as strings. The delimiters of service, domain and persistent object ids ('-' and '#') are
+ * treated as the same character. Thus a service object id is equal to the persistent object id of the same object.
+ * Version labels are not part of the strings and are therefore ignored.
+ * 
+ * {@link AssociationDiff} and {@link SortedAssociationComparator} use this class so that they agree on equality, hash
+ * code and order. {@link ObjectIDMap} applies the same equality by storing all keys with the delimiter of persistent
+ * object ids.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+final class ObjectIDStrings {
+  /**
+   * Delimiter of persistent object ids.
+   */
+  private static final char PERSISTENT_DELIMITER = '#';
+
+  /**
+   * Delimiter of service and domain object ids.
+   */
+  private static final char SERVICE_DELIMITER = '-';
+
+  /**
+   * Constructor is private as this class only provides static methods.
+   */
+  private ObjectIDStrings( ) {
+  }
+
+  /**
+   * Method returns the hash code of the passed object id. The hash code is the same for service, domain and persistent
+   * object ids of the same object. For object ids without '-' the cached hash code of the string is used.
+   * 
+   * @param pObjectID Object id whose hash code should be returned. The parameter must not be null.
+   * @return int Hash code of the object id.
+   */
+  static int hash( String pObjectID ) {
+    int lHash;
+    if (pObjectID.indexOf(SERVICE_DELIMITER) < 0) {
+      lHash = pObjectID.hashCode();
+    }
+    else {
+      lHash = 0;
+      for (int i = 0; i < pObjectID.length(); i++) {
+        lHash = 31 * lHash + ObjectIDStrings.normalize(pObjectID.charAt(i));
+      }
+    }
+    // Spread higher bits as only the lower bits are used to determine the slot.
+    return lHash ^ (lHash >>> 16);
+  }
+
+  /**
+   * Method checks whether the passed object ids are equal. Delimiters are treated as the same character.
+   * 
+   * @param pObjectID1 First object id. The parameter must not be null.
+   * @param pObjectID2 Second object id. The parameter must not be null.
+   * @return boolean Method returns true if both object ids are equal and false otherwise.
+   */
+  static boolean equals( String pObjectID1, String pObjectID2 ) {
+    boolean lEqual;
+    if (pObjectID1.equals(pObjectID2) == true) {
+      lEqual = true;
+    }
+    else if (pObjectID1.length() == pObjectID2.length()) {
+      lEqual = ObjectIDStrings.compare(pObjectID1, pObjectID2) == 0;
+    }
+    else {
+      lEqual = false;
+    }
+    return lEqual;
+  }
+
+  /**
+   * Method compares the passed object ids character by character. Delimiters are treated as the same character.
+   * 
+   * @param pObjectID1 First object id. The parameter must not be null.
+   * @param pObjectID2 Second object id. The parameter must not be null.
+   * @return int Negative value, zero or positive value if the first object id is less than, equal to or greater than
+   * the second one.
+   */
+  static int compare( String pObjectID1, String pObjectID2 ) {
+    int lLength1 = pObjectID1.length();
+    int lLength2 = pObjectID2.length();
+    int lLength = Math.min(lLength1, lLength2);
+    int lResult = 0;
+    for (int i = 0; i < lLength && lResult == 0; i++) {
+      lResult = ObjectIDStrings.normalize(pObjectID1.charAt(i)) - ObjectIDStrings.normalize(pObjectID2.charAt(i));
+    }
+    if (lResult == 0) {
+      lResult = lLength1 - lLength2;
+    }
+    return lResult;
+  }
+
+  /**
+   * Method replaces the delimiter of service and domain object ids with the one of persistent object ids.
+   * 
+   * @param pChar Character that should be normalized.
+   * @return char Normalized character.
+   */
+  private static char normalize( char pChar ) {
+    char lChar;
+    if (pChar == SERVICE_DELIMITER) {
+      lChar = PERSISTENT_DELIMITER;
+    }
+    else {
+      lChar = pChar;
+    }
+    return lChar;
+  }
+}
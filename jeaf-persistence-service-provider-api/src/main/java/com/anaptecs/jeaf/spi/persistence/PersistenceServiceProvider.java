@@ -6,7 +6,9 @@
 
 package com.anaptecs.jeaf.spi.persistence;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import javax.persistence.EntityManager;
@@ -38,6 +40,13 @@ public interface PersistenceServiceProvider extends ServiceProvider {
    */
   static final String PERSISTENCE_BASE_PATH = "META-INF/JEAF/Persistence";
 
+  /**
+   * Maximum number of object ids that are passed to the database within one query. Operations that work on collections
+   * of object ids (e.g. {@link #existsAll(Collection, Class)}) have to split larger collections into chunks of this
+   * size. The value is chosen to stay below the limit for IN lists of common databases.
+   */
+  static final int MAX_IDS_PER_QUERY = 1000;
+
   /**
    * Method creates a new persistent instance of the passed class. Before the object will be returned to the caller the
    * implementing class has to assign an object id to the created persistent object. All objects created by this method
@@ -194,6 +203,90 @@ public interface PersistenceServiceProvider extends ServiceProvider {
       Collection<? extends AbstractObjectID<?>> pObjectIDs, Class<T> pPersistentObjectType, boolean pAllowEmptyResult,
       boolean pUseUnversionedObjectID );
 
+  /**
+   * Method checks if a persistent object with the passed object id exists. In opposite to
+   * {@link #getPersistentObject(AbstractObjectID, Class, boolean)} the object will not be loaded from the database.
+   * Objects that were already deleted within the current transaction are treated as not existing. The version label of
+   * the passed id is not checked.
+   * 
+   * The default implementation delegates to {@link #existsAll(Collection, Class)}. It exists only for compatibility
+   * with providers that were implemented before JEAF 1.8. Providers should override it.
+   * 
+   * @param pObjectID ID of the object whose existence should be checked. The parameter must not be null.
+   * @param pPersistentObjectType Type of persistent object, to which the passed id belongs. The parameter must not be
+   * null.
+   * @return boolean Method returns true if an object with the passed id exists and false otherwise.
+   */
+  default boolean exists( AbstractObjectID<?> pObjectID, Class<? extends PersistentObject> pPersistentObjectType ) {
+    return this.existsAll(Collections.<AbstractObjectID<?>> singletonList(pObjectID), pPersistentObjectType)
+        .isEmpty();
+  }
+
+  /**
+   * Method checks if persistent objects with all the passed object ids exist. In opposite to
+   * {@link #getPersistentObjectsByIDs(Collection, Class, boolean, boolean)} the objects will not be loaded from the
+   * database. Instead the ids are checked using id projections in chunks of at most {@link #MAX_IDS_PER_QUERY} ids.
+   * Objects that were already deleted within the current transaction are treated as not existing. Version labels of
+   * the passed ids are not checked.
+   * 
+   * The default implementation loads the objects using
+   * {@link #getPersistentObjectsByIDs(Collection, Class, boolean, boolean)}. It exists only for compatibility with
+   * providers that were implemented before JEAF 1.8. Providers should override it with an id projection.
+   * 
+   * @param <I> Type of the object ids.
+   * @param pObjectIDs Collection with the ids of all objects whose existence should be checked. The parameter must not
+   * be null.
+   * @param pPersistentObjectType Type of persistent object, to which the passed ids belong. The parameter must not be
+   * null.
+   * @return {@link List} List with all passed ids for which no persistent object exists. The ids are returned in the
+   * order in which they were passed. The method never returns null. If all objects exist then an empty list will be
+   * returned.
+   */
+  default <I extends AbstractObjectID<?>> List<I> existsAll( Collection<I> pObjectIDs,
+      Class<? extends PersistentObject> pPersistentObjectType ) {
+    List<? extends PersistentObject> lObjects =
+        this.getPersistentObjectsByIDs(pObjectIDs, pPersistentObjectType, true, true);
+    ObjectIDSet lExistingIDs = new ObjectIDSet(lObjects.size());
+    for (PersistentObject lNextObject : lObjects) {
+      lExistingIDs.add(lNextObject.getUnversionedID());
+    }
+    List<I> lMissingIDs = new ArrayList<I>();
+    for (I lNextObjectID : pObjectIDs) {
+      if (lExistingIDs.contains(lNextObjectID) == false) {
+        lMissingIDs.add(lNextObjectID);
+      }
+    }
+    return lMissingIDs;
+  }
+
+  /**
+   * Method executes the passed query as count query. The query has to be a projection that returns exactly one
+   * numeric value, e.g. <code>SELECT COUNT(o) FROM ...</code>. No persistent objects will be loaded.
+   * 
+   * The default implementation returns the single result of the query as long value.
+   * 
+   * @param pQuery Count query that should be executed. The parameter must not be null.
+   * @return long Result of the count query.
+   */
+  default long count( Query pQuery ) {
+    return ((Number) pQuery.getSingleResult()).longValue();
+  }
+
+  /**
+   * Method executes the passed query as count query using the passed query hints. For further details please see
+   * {@link #count(Query)}.
+   * 
+   * The default implementation applies the standard JPA hints (see {@link QueryHints#applyTo(Query)}) and delegates to
+   * {@link #count(Query)}.
+   * 
+   * @param pQuery Count query that should be executed. The parameter must not be null.
+   * @param pQueryHints Hints that should be used for the execution of the query. The parameter must not be null.
+   * @return long Result of the count query.
+   */
+  default long count( Query pQuery, QueryHints pQueryHints ) {
+    return this.count(pQueryHints.applyTo(pQuery));
+  }
+
   /**
    * Method executes the passed query. This is just a convenience method for the fact that JPA API has no method for a
    * direct query which supports generics. This method may return empty results.
@@ -205,6 +298,24 @@ public interface PersistenceServiceProvider extends ServiceProvider {
    */
   <T extends PersistentObject> List<T> executeQuery( Query pQuery, Class<T> pResultType );
 
+  /**
+   * Method executes the passed query using the passed query hints. This is just a convenience method for the fact that
+   * JPA API has no method for a direct query which supports generics. This method may return empty results.
+   * 
+   * The default implementation applies the standard JPA hints (see {@link QueryHints#applyTo(Query)}) and delegates to
+   * {@link #executeQuery(Query, Class)}.
+   * 
+   * @param pQuery Query that should be executed. The parameter must not be null.
+   * @param pResultType Class object describing the expected result type of the query. The parameter must not be null.
+   * @param pQueryHints Hints that should be used for the execution of the query. The parameter must not be null.
+   * @return T Result of the query. The method never returns null. In the case of an empty result set the method returns
+   * an empty list.
+   */
+  default <T extends PersistentObject> List<T> executeQuery( Query pQuery, Class<T> pResultType,
+      QueryHints pQueryHints ) {
+    return this.executeQuery(pQueryHints.applyTo(pQuery), pResultType);
+  }
+
   /**
    * Method executes the passed query. This is just a convenience method for the fact that JPA API has no method for a
    * direct query which supports generics.
@@ -218,6 +329,79 @@ public interface PersistenceServiceProvider extends ServiceProvider {
    */
   <T extends PersistentObject> List<T> executeQuery( Query pQuery, Class<T> pResultType, boolean pAllowEmptyResult );
 
+  /**
+   * Method executes the passed query using the passed query hints. This is just a convenience method for the fact that
+   * JPA API has no method for a direct query which supports generics.
+   * 
+   * The default implementation applies the standard JPA hints (see {@link QueryHints#applyTo(Query)}) and delegates to
+   * {@link #executeQuery(Query, Class, boolean)}.
+   * 
+   * @param pQuery Query that should be executed. The parameter must not be null.
+   * @param pResultType Class object describing the expected result type of the query. The parameter must not be null.
+   * @param pAllowEmptyResult Parameter defines whether the method should throw an exception in the case that the result
+   * set is empty. If the parameter is true then empty results are valid and no exception will be thrown.
+   * @param pQueryHints Hints that should be used for the execution of the query. The parameter must not be null.
+   * @return T Result of the query. The method never returns null. In the case of an empty result set the method returns
+   * an empty list.
+   */
+  default <T extends PersistentObject> List<T> executeQuery( Query pQuery, Class<T> pResultType,
+      boolean pAllowEmptyResult, QueryHints pQueryHints ) {
+    return this.executeQuery(pQueryHints.applyTo(pQuery), pResultType, pAllowEmptyResult);
+  }
+
+  /**
+   * Method executes the passed JPA-QL query and caches its result. The result is cached as list of unversioned object
+   * ids using the statement, its parameter bindings and the result type as key (see {@link QueryResultCache}). On a
+   * cache hit the objects are resolved through {@link #getPersistentObjectsByIDs(Collection, Class, boolean, boolean)}
+   * so that the persistence context and the second level cache are used. Objects that were deleted meanwhile are not
+   * part of the returned list.
+   * 
+   * Cached results are invalidated as soon as a transaction that inserted, updated or deleted a persistent object of
+   * the result type or one of the passed participating types is committed. Thus only queries should be cached whose
+   * result exclusively depends on these types.
+   * 
+   * The default implementation does not cache the result. It executes the query using {@link #createJPAQLQuery(String)}
+   * and {@link #executeQuery(Query, Class)} every time. Providers that support result caching override it.
+   * 
+   * @param <T> Type
+   * @param pJPAQLStatement JPA-QL statement that should be executed. The parameter must not be null.
+   * @param pParameters Parameter bindings of the statement. The parameter must not be null.
+   * @param pResultType Class object describing the expected result type of the query. The parameter must not be null.
+   * @param pParticipatingTypes Further types that are used by the query e.g. in joins or sub selects. The parameter
+   * must not be null.
+   * @return {@link List} Result of the query. The method never returns null. In the case of an empty result set the
+   * method returns an empty list.
+   */
+  default <T extends PersistentObject> List<T> executeCachedQuery( String pJPAQLStatement, QueryParameters pParameters,
+      Class<T> pResultType, Collection<Class<? extends PersistentObject>> pParticipatingTypes ) {
+    Query lQuery = this.createJPAQLQuery(pParameters.expandStatement(pJPAQLStatement));
+    return this.executeQuery(pParameters.applyTo(lQuery), pResultType);
+  }
+
+  /**
+   * Method executes the passed JPA-QL query using the passed query hints and caches its result. The hints are only
+   * used if the query has to be executed as its result is not cached yet. For further details please see
+   * {@link #executeCachedQuery(String, QueryParameters, Class, Collection)}.
+   * 
+   * The default implementation ignores the hints and delegates to
+   * {@link #executeCachedQuery(String, QueryParameters, Class, Collection)} so that results are cached in any case.
+   * 
+   * @param <T> Type
+   * @param pJPAQLStatement JPA-QL statement that should be executed. The parameter must not be null.
+   * @param pParameters Parameter bindings of the statement. The parameter must not be null.
+   * @param pResultType Class object describing the expected result type of the query. The parameter must not be null.
+   * @param pParticipatingTypes Further types that are used by the query e.g. in joins or sub selects. The parameter
+   * must not be null.
+   * @param pQueryHints Hints that should be used for the execution of the query. The parameter must not be null.
+   * @return {@link List} Result of the query. The method never returns null. In the case of an empty result set the
+   * method returns an empty list.
+   */
+  default <T extends PersistentObject> List<T> executeCachedQuery( String pJPAQLStatement, QueryParameters pParameters,
+      Class<T> pResultType, Collection<Class<? extends PersistentObject>> pParticipatingTypes,
+      QueryHints pQueryHints ) {
+    return this.executeCachedQuery(pJPAQLStatement, pParameters, pResultType, pParticipatingTypes);
+  }
+
   /**
    * Method executes the passed query for a single result query. This is just a convenience method for the fact that JPA
    * <code>getSingleResult()</code> throws an exception of the result set of the query is empty.
@@ -233,6 +417,28 @@ public interface PersistenceServiceProvider extends ServiceProvider {
   <T extends PersistentObject> T executeSingleResultQuery( Query pQuery, Class<T> pResultType,
       boolean pAllowEmptyResult );
 
+  /**
+   * Method executes the passed query for a single result query using the passed query hints. This is just a convenience
+   * method for the fact that JPA <code>getSingleResult()</code> throws an exception of the result set of the query is
+   * empty.
+   * 
+   * The default implementation applies the standard JPA hints (see {@link QueryHints#applyTo(Query)}) and delegates to
+   * {@link #executeSingleResultQuery(Query, Class, boolean)}.
+   * 
+   * @param <T> Type
+   * @param pQuery Query that should be executed. The parameter must not be null.
+   * @param pResultType Class object describing the expected result type of the query. The parameter must not be null.
+   * @param pAllowEmptyResult Parameter defines whether the method should throw an exception in the case that the result
+   * set is empty. If the parameter is true then empty results are valid and no exception will be thrown.
+   * @param pQueryHints Hints that should be used for the execution of the query. The parameter must not be null.
+   * @return T Result of the query. The method may return null in the case that empty result sets are valid and no
+   * object was found.
+   */
+  default <T extends PersistentObject> T executeSingleResultQuery( Query pQuery, Class<T> pResultType,
+      boolean pAllowEmptyResult, QueryHints pQueryHints ) {
+    return this.executeSingleResultQuery(pQueryHints.applyTo(pQuery), pResultType, pAllowEmptyResult);
+  }
+
   /**
    * Method executes the passed update query. This is just a convenience method for the fact that JPA
    * <code>executeUpdate()</code>.
@@ -242,6 +448,21 @@ public interface PersistenceServiceProvider extends ServiceProvider {
    */
   int executeUpdateQuery( Query pQuery );
 
+  /**
+   * Method executes the passed update query using the passed query hints. Only the timeout of the passed hints is
+   * relevant for update queries.
+   * 
+   * The default implementation applies the timeout (see {@link QueryHints#applyTo(Query)}) and delegates to
+   * {@link #executeUpdateQuery(Query)}.
+   * 
+   * @param pQuery Query that should be executed. The parameter must not be null.
+   * @param pQueryHints Hints that should be used for the execution of the query. The parameter must not be null.
+   * @return int Number of objects that were updated.
+   */
+  default int executeUpdateQuery( Query pQuery, QueryHints pQueryHints ) {
+    return this.executeUpdateQuery(pQueryHints.applyTo(pQuery));
+  }
+
   /**
    * Method executes the passed SQL statement for a single result query. This is just a convenience method for the fact
    * that JPA API has no method for a direct query.
@@ -257,6 +478,28 @@ public interface PersistenceServiceProvider extends ServiceProvider {
   <T extends PersistentObject> T executeNativeSingleResultQuery( String pSQLStatement, Class<T> pResultType,
       boolean pAllowEmptyResult );
 
+  /**
+   * Method executes the passed SQL statement for a single result query using the passed query hints. For further
+   * details please see {@link #executeNativeSingleResultQuery(String, Class, boolean)}.
+   * 
+   * The default implementation creates the query using {@link #createNativeQuery(String, Class)} and executes it using
+   * {@link #executeSingleResultQuery(Query, Class, boolean, QueryHints)}.
+   * 
+   * @param <T> Type
+   * @param pSQLStatement SQL Statement that should be executed. The parameter must not be null.
+   * @param pResultType Class object describing the expected result type of the query. The parameter must not be null.
+   * @param pAllowEmptyResult Parameter defines whether the method should throw an exception in the case that the result
+   * set is empty. If the parameter is true then empty results are valid and no exception will be thrown.
+   * @param pQueryHints Hints that should be used for the execution of the query. The parameter must not be null.
+   * @return T Result of the query. The method may return null in the case that empty result sets are valid and no
+   * object was found.
+   */
+  default <T extends PersistentObject> T executeNativeSingleResultQuery( String pSQLStatement, Class<T> pResultType,
+      boolean pAllowEmptyResult, QueryHints pQueryHints ) {
+    Query lQuery = this.createNativeQuery(pSQLStatement, pResultType);
+    return this.executeSingleResultQuery(lQuery, pResultType, pAllowEmptyResult, pQueryHints);
+  }
+
   /**
    * Method executes the passed SQL query. This is just a convenience method for the fact that JPA API has no method for
    * a direct query.
@@ -269,6 +512,118 @@ public interface PersistenceServiceProvider extends ServiceProvider {
    */
   <T extends PersistentObject> List<T> executeNativeQuery( String pSQLStatement, Class<T> pResultType );
 
+  /**
+   * Method executes the passed SQL query using the passed query hints. For further details please see
+   * {@link #executeNativeQuery(String, Class)}.
+   * 
+   * The default implementation creates the query using {@link #createNativeQuery(String, Class)} and executes it using
+   * {@link #executeQuery(Query, Class, QueryHints)}.
+   * 
+   * @param <T> Type
+   * @param pSQLStatement SQL Statement that should be executed. The parameter must not be null.
+   * @param pResultType Class object describing the expected result type of the query. The parameter must not be null.
+   * @param pQueryHints Hints that should be used for the execution of the query. The parameter must not be null.
+   * @return T Result of the query. The method never returns null. In the case of an empty result set the method returns
+   * an empty list.
+   */
+  default <T extends PersistentObject> List<T> executeNativeQuery( String pSQLStatement, Class<T> pResultType,
+      QueryHints pQueryHints ) {
+    Query lQuery = this.createNativeQuery(pSQLStatement, pResultType);
+    return this.executeQuery(lQuery, pResultType, pQueryHints);
+  }
+
+  /**
+   * Method executes the passed parameterized SQL statement for a single result query. In opposite to
+   * {@link #executeNativeSingleResultQuery(String, Class, boolean)} all values are passed as parameter bindings. This
+   * way the statement text stays the same across calls and prepared statements can be reused.
+   * 
+   * The default implementation creates the query using {@link #createNativeQuery(String, Class)}, binds the parameters
+   * and executes it using {@link #executeSingleResultQuery(Query, Class, boolean)}.
+   * 
+   * @param <T> Type
+   * @param pSQLStatement SQL Statement that should be executed. The parameter must not be null. The statement may
+   * contain positional (e.g. <code>?1</code>) or named parameters (e.g. <code>:name</code>).
+   * @param pResultType Class object describing the expected result type of the query. The parameter must not be null.
+   * @param pParameters Parameter bindings of the statement. Collections that are bound to named parameters will be
+   * expanded to IN lists using {@link QueryParameters#expandStatement(String)}. The parameter must not be null.
+   * @param pAllowEmptyResult Parameter defines whether the method should throw an exception in the case that the result
+   * set is empty. If the parameter is true then empty results are valid and no exception will be thrown.
+   * @return T Result of the query. The method may return null in the case that empty result sets are valid and no
+   * object was found.
+   */
+  default <T extends PersistentObject> T executeNativeSingleResultQuery( String pSQLStatement, Class<T> pResultType,
+      QueryParameters pParameters, boolean pAllowEmptyResult ) {
+    Query lQuery = this.createNativeQuery(pParameters.expandStatement(pSQLStatement), pResultType);
+    return this.executeSingleResultQuery(pParameters.applyTo(lQuery), pResultType, pAllowEmptyResult);
+  }
+
+  /**
+   * Method executes the passed parameterized SQL statement for a single result query using the passed query hints. For
+   * further details please see {@link #executeNativeSingleResultQuery(String, Class, QueryParameters, boolean)}.
+   * 
+   * The default implementation creates the query using {@link #createNativeQuery(String, Class)}, binds the parameters
+   * and executes it using {@link #executeSingleResultQuery(Query, Class, boolean, QueryHints)}.
+   * 
+   * @param <T> Type
+   * @param pSQLStatement SQL Statement that should be executed. The parameter must not be null.
+   * @param pResultType Class object describing the expected result type of the query. The parameter must not be null.
+   * @param pParameters Parameter bindings of the statement. The parameter must not be null.
+   * @param pAllowEmptyResult Parameter defines whether the method should throw an exception in the case that the result
+   * set is empty. If the parameter is true then empty results are valid and no exception will be thrown.
+   * @param pQueryHints Hints that should be used for the execution of the query. The parameter must not be null.
+   * @return T Result of the query. The method may return null in the case that empty result sets are valid and no
+   * object was found.
+   */
+  default <T extends PersistentObject> T executeNativeSingleResultQuery( String pSQLStatement, Class<T> pResultType,
+      QueryParameters pParameters, boolean pAllowEmptyResult, QueryHints pQueryHints ) {
+    Query lQuery = this.createNativeQuery(pParameters.expandStatement(pSQLStatement), pResultType);
+    return this.executeSingleResultQuery(pParameters.applyTo(lQuery), pResultType, pAllowEmptyResult, pQueryHints);
+  }
+
+  /**
+   * Method executes the passed parameterized SQL query. In opposite to {@link #executeNativeQuery(String, Class)} all
+   * values are passed as parameter bindings. This way the statement text stays the same across calls and prepared
+   * statements can be reused.
+   * 
+   * The default implementation creates the query using {@link #createNativeQuery(String, Class)}, binds the parameters
+   * and executes it using {@link #executeQuery(Query, Class)}.
+   * 
+   * @param <T> Type
+   * @param pSQLStatement SQL Statement that should be executed. The parameter must not be null. The statement may
+   * contain positional (e.g. <code>?1</code>) or named parameters (e.g. <code>:name</code>).
+   * @param pResultType Class object describing the expected result type of the query. The parameter must not be null.
+   * @param pParameters Parameter bindings of the statement. Collections that are bound to named parameters will be
+   * expanded to IN lists using {@link QueryParameters#expandStatement(String)}. The parameter must not be null.
+   * @return T Result of the query. The method never returns null. In the case of an empty result set the method returns
+   * an empty list.
+   */
+  default <T extends PersistentObject> List<T> executeNativeQuery( String pSQLStatement, Class<T> pResultType,
+      QueryParameters pParameters ) {
+    Query lQuery = this.createNativeQuery(pParameters.expandStatement(pSQLStatement), pResultType);
+    return this.executeQuery(pParameters.applyTo(lQuery), pResultType);
+  }
+
+  /**
+   * Method executes the passed parameterized SQL query using the passed query hints. For further details please see
+   * {@link #executeNativeQuery(String, Class, QueryParameters)}.
+   * 
+   * The default implementation creates the query using {@link #createNativeQuery(String, Class)}, binds the parameters
+   * and executes it using {@link #executeQuery(Query, Class, QueryHints)}.
+   * 
+   * @param <T> Type
+   * @param pSQLStatement SQL Statement that should be executed. The parameter must not be null.
+   * @param pResultType Class object describing the expected result type of the query. The parameter must not be null.
+   * @param pParameters Parameter bindings of the statement. The parameter must not be null.
+   * @param pQueryHints Hints that should be used for the execution of the query. The parameter must not be null.
+   * @return T Result of the query. The method never returns null. In the case of an empty result set the method returns
+   * an empty list.
+   */
+  default <T extends PersistentObject> List<T> executeNativeQuery( String pSQLStatement, Class<T> pResultType,
+      QueryParameters pParameters, QueryHints pQueryHints ) {
+    Query lQuery = this.createNativeQuery(pParameters.expandStatement(pSQLStatement), pResultType);
+    return this.executeQuery(pParameters.applyTo(lQuery), pResultType, pQueryHints);
+  }
+
   /**
    * Method returns all persistent objects of the passed type that can be found in the database.
    * 
@@ -279,6 +634,23 @@ public interface PersistenceServiceProvider extends ServiceProvider {
    */
   <T extends PersistentObject> List<T> findAll( Class<T> pResultType );
 
+  /**
+   * Method returns all persistent objects of the passed type that can be found in the database. Especially for large
+   * tables a fetch size and read-only loading should be defined through the passed query hints.
+   * 
+   * The default implementation ignores the hints and delegates to {@link #findAll(Class)}. Providers that support
+   * query hints override it.
+   * 
+   * @param <T> Type
+   * @param pResultType Class object describing the expected result type of the query. The parameter must not be null.
+   * @param pQueryHints Hints that should be used for the execution of the query. The parameter must not be null.
+   * @return T Result of the query. The method never returns null. In the case of an empty result set the method returns
+   * an empty list.
+   */
+  default <T extends PersistentObject> List<T> findAll( Class<T> pResultType, QueryHints pQueryHints ) {
+    return this.findAll(pResultType);
+  }
+
   /**
    * Method deletes the passed persistent object within the current transaction from the database.
    * 
@@ -364,6 +736,25 @@ public interface PersistenceServiceProvider extends ServiceProvider {
    */
   void executeJDBCWorker( JDBCWorker pJDBCWorker );
 
+  /**
+   * Method executes the passed worker within a separate read-only unit of work. If read replicas are defined for the
+   * persistence unit (see {@link com.anaptecs.jeaf.spi.persistence.annotations.ReadReplicaRouting}) then the unit of
+   * work is routed to one of them using a {@link ReadReplicaRouter}. Otherwise the primary data source will be used.
+   * 
+   * Persistent objects that are loaded by the worker must not be modified. As read replicas may lag behind the primary
+   * database, changes of the current transaction are not visible to the worker.
+   * 
+   * The default implementation executes the worker directly within the current transaction on the primary data source.
+   * Providers that support read replicas override it.
+   * 
+   * @param <T> Type of the result of the worker.
+   * @param pReadOnlyWorker Worker object that contains the read-only work. The parameter must not be null.
+   * @return T Result of the worker. The method may return null if the worker returns null.
+   */
+  default <T> T executeReadOnly( ReadOnlyWorker<T> pReadOnlyWorker ) {
+    return pReadOnlyWorker.execute();
+  }
+
   /**
    * Method creates a new entity manager for the persistence unit with the passed name. It's in the responsibility of
    * the caller to close the entity manager again. Same applies to transaction management.
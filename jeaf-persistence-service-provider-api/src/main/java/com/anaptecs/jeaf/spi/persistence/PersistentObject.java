@@ -7,7 +7,6 @@
 package com.anaptecs.jeaf.spi.persistence;
 
 import javax.persistence.Entity;
-import javax.persistence.PostUpdate;
 
 import com.anaptecs.jeaf.core.api.JEAF;
 import com.anaptecs.jeaf.xfun.api.checks.Assert;
@@ -17,6 +16,10 @@ import com.anaptecs.jeaf.xfun.api.common.Identifiable;
  * This class is the technical base class for all persistent objects. It contains more or less all technical overhead
  * that is required to make persistent objects persistent.
  * 
+ * As applications may keep millions of persistent objects in memory the class keeps its own state as small as
+ * possible. The persistent object id is created on first access and only created again when the version label changed.
+ * The entity state is stored as bit flag.
+ * 
  * @author JEAF Development Team
  * @version 1.0
  */
@@ -58,29 +61,51 @@ public abstract class PersistentObject implements Identifiable<PersistentObjectI
   private int versionLabel;
 
   /**
-   * Attribute defines the state of the entity with a transaction.
+   * Flag that marks an object as deleted within the current transaction.
    */
-  private EntityState entityState;
+  private static final byte DELETED = 0x01;
+
+  /**
+   * Attribute contains the flags that define the state of the entity within a transaction. If no flag is set the entity
+   * is active.
+   * 
+   * @see #getEntityState()
+   */
+  private byte flags;
 
   /**
    * Attribute contains the persistent object id of this object. This is just another representation of the object id
-   * value. Unlike the <code>objectID</code> attribute which is intended to be used by persistence frameworks the
-   * reference to the persistent object id is intended to be used in "regular" code that deals with persistent objects.
+   * value. It is derived from the object id and the version label on first access and only created again when the
+   * version label changed.
+   * 
+   * @see #getID()
+   */
+  private transient PersistentObjectID persistentObjectID;
+
+  /**
+   * Attribute contains the unversioned persistent object id of this object. As the object id of an object never changes
+   * the unversioned persistent object id is created only once.
+   * 
+   * @see #getUnversionedID()
    */
-  private PersistentObjectID persistentObjectID;
+  private transient PersistentObjectID unversionedObjectID;
 
   /**
    * Default constructor of this class. Since most persistence frameworks use Java's reflection API at least to create
    * objects all persistent objects have to provide a parameterless default constructor with package visibility.
    */
   protected PersistentObject( ) {
-    entityState = EntityState.Active;
+    // Nothing to do. New objects are active.
   }
 
   /**
    * Method returns the persistent object id of this class. The persistent object id can be used to identify a
    * persistent object. The returned object can also be used as key within maps etc.
    * 
+   * The persistent object id is kept by this object. It is only created again when the version label of the object
+   * changed since the last call. In this case the object id string and the resolved class of the previous persistent
+   * object id are reused.
+   * 
    * @return PersistentObjectID Object to identify this persistent object. The method never returns null.
    */
   @Override
@@ -88,25 +113,43 @@ public abstract class PersistentObject implements Identifiable<PersistentObjectI
     // Since persistence frameworks like Hibernate provide transaction isolation calls of this method should not occur
     // from two threads. However even if it will happen no problems will occur since the created object has a proper
     // implemented equals method. So that in this case only one persistent object too much is created.
-    if (persistentObjectID == null) {
-      // As persistence frameworks generate subclasses at runtime to control access on fields the access methods for the
-      // fields of the class have to be used.
-      persistentObjectID = new PersistentObjectID(this.getObjectID(), this.getVersionLabel());
+    PersistentObjectID lPersistentObjectID = persistentObjectID;
+
+    // As persistence frameworks generate subclasses at runtime to control access on fields the access methods for the
+    // fields of the class have to be used.
+    int lVersionLabel = this.getVersionLabel();
+    if (lPersistentObjectID == null) {
+      lPersistentObjectID = new PersistentObjectID(this.getObjectID(), lVersionLabel);
+      persistentObjectID = lPersistentObjectID;
+    }
+    // Only the version label changes during the lifetime of an object. Thus everything else is reused.
+    else if (lPersistentObjectID.getVersionLabel().intValue() != lVersionLabel) {
+      lPersistentObjectID = new PersistentObjectID(lPersistentObjectID, lVersionLabel);
+      persistentObjectID = lPersistentObjectID;
     }
 
     // Return persistent object id.
-    return persistentObjectID;
+    return lPersistentObjectID;
   }
 
   /**
    * Method returns the unversioned persistent object id of this class. The persistent object id can be used to identify
    * a persistent object. The returned object can also be used as key within maps etc.
    * 
+   * The unversioned persistent object id is kept by this object. Thus it is only created once during the lifetime of
+   * this object.
+   * 
    * @return PersistentObjectID Object to identify this persistent object. The method never returns null.
    */
   @Override
   public PersistentObjectID getUnversionedID( ) {
-    return this.getID().getUnversionedObjectID();
+    PersistentObjectID lUnversionedObjectID = unversionedObjectID;
+    if (lUnversionedObjectID == null) {
+      // The unversioned object id is derived from the versioned one so that both share the object id string.
+      lUnversionedObjectID = this.getID().getUnversionedObjectID();
+      unversionedObjectID = lUnversionedObjectID;
+    }
+    return lUnversionedObjectID;
   }
 
   /**
@@ -152,8 +195,10 @@ public abstract class PersistentObject implements Identifiable<PersistentObjectI
     // Check parameter for null.
     Assert.assertNotNull(pObjectID, "pObjectID");
 
-    // Assign object id and create new persistent object id.
+    // Assign object id and discard the persistent object id that was derived from the previous one.
     objectID = pObjectID;
+    persistentObjectID = null;
+    unversionedObjectID = null;
   }
 
   /**
@@ -212,23 +257,19 @@ public abstract class PersistentObject implements Identifiable<PersistentObjectI
    * @see java.lang.Object#equals(java.lang.Object)
    */
   public boolean equals( Object pObject ) {
-    // Ensure that an object id has already been set.
-    Assert.assertNotNull(this.getObjectID(), "persistentObject.objectID");
-
     boolean lIsEqual;
-    // Passed object is null, so this method has to return false.
-    if (pObject == null) {
-      lIsEqual = false;
-    }
     // Passed object is the same instance.
-    else if (this == pObject) {
+    if (this == pObject) {
       lIsEqual = true;
     }
-    // Passed object is not the same instance, so check the object id, if they are instances of the same class.
+    // Passed object is not the same instance, so check the object id, if they are instances of the same class. As
+    // strings cache their hash code, comparing the hash codes first avoids most character comparisons. The object id of
+    // the passed object has to be accessed through its method as it might be a proxy.
     else {
       if (pObject instanceof PersistentObject) {
         PersistentObject lPersistentObject = (PersistentObject) pObject;
-        lIsEqual = objectID.equals(lPersistentObject.getObjectID());
+        String lObjectID = lPersistentObject.getObjectID();
+        lIsEqual = objectID.hashCode() == lObjectID.hashCode() && objectID.equals(lObjectID);
       }
       // Objects are not instance of the same class.
       else {
@@ -247,10 +288,7 @@ public abstract class PersistentObject implements Identifiable<PersistentObjectI
    * @see java.lang.Object#hashCode()
    */
   public int hashCode( ) {
-    // Ensure that an object id has already been set.
-    Assert.assertNotNull(objectID, "PersistentObject.objectID");
-
-    // Return hash code of object id.
+    // Return hash code of object id. Strings cache their hash code so it is only calculated once.
     return this.getObjectID().hashCode();
   }
 
@@ -263,7 +301,7 @@ public abstract class PersistentObject implements Identifiable<PersistentObjectI
   }
 
   public final void deleted( ) {
-    entityState = EntityState.Deleted;
+    flags |= DELETED;
   }
 
   /**
@@ -272,7 +310,14 @@ public abstract class PersistentObject implements Identifiable<PersistentObjectI
    * @return {@link EntityState} State of this persistent object. The method never returns null.
    */
   public final EntityState getEntityState( ) {
-    return entityState;
+    EntityState lEntityState;
+    if ((flags & DELETED) != 0) {
+      lEntityState = EntityState.Deleted;
+    }
+    else {
+      lEntityState = EntityState.Active;
+    }
+    return lEntityState;
   }
 
   /**
@@ -317,16 +362,4 @@ public abstract class PersistentObject implements Identifiable<PersistentObjectI
     }
     return lPersistentObject;
   }
-
-  /**
-   * Method is intended to be called by Hibernate as soon as the object was updated either by flushing it or by
-   * committing it to the database. An update of an object causes that its version label is incremented. This means that
-   * the cached persistence object id becomes invalid.
-   */
-  @PostUpdate
-  void updateObject( ) {
-    // As the persistent object id became invalid by the update we set it to null. The next time it will e accesses it
-    // will be created again.
-    persistentObjectID = null;
-  }
 }
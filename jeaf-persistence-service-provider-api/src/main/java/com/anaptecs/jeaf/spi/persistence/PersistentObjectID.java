@@ -6,11 +6,17 @@
 
 package com.anaptecs.jeaf.spi.persistence;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
 import com.anaptecs.jeaf.core.api.DomainObjectID;
 import com.anaptecs.jeaf.core.api.ServiceObjectID;
 import com.anaptecs.jeaf.xfun.api.checks.Check;
 import com.anaptecs.jeaf.xfun.api.common.AbstractObjectID;
-import com.anaptecs.jeaf.xfun.types.Base36;
+import com.anaptecs.jeaf.xfun.api.errorhandling.JEAFSystemException;
 
 /**
  * Class is used to have a special type for ids of persistent object which are always persistent.
@@ -24,6 +30,17 @@ public final class PersistentObjectID extends AbstractObjectID<PersistentObjectI
    */
   private static final long serialVersionUID = 1L;
 
+  /**
+   * Minimum number of ids from which on bulk conversions are executed in parallel.
+   */
+  public static final int PARALLEL_CONVERSION_THRESHOLD = 20000;
+
+  /**
+   * Class object of the persistent object to which this id belongs. The class is resolved on first access. As the class
+   * id can always be decoded from the object id again the attribute is not serialized.
+   */
+  private transient Class<? extends PersistentObject> persistentObjectClass;
+
   /**
    * Initialize object. Therefore the id value has to be passed to the object.
    * 
@@ -43,6 +60,18 @@ public final class PersistentObjectID extends AbstractObjectID<PersistentObjectI
     super(pAbstractObjectID);
   }
 
+  /**
+   * Initialize object with the passed version label. The object id and the already resolved class of the passed object
+   * id are reused.
+   * 
+   * @param pObjectID Object id whose id value should be reused. The parameter must not be null.
+   * @param pVersionLabel Version label of the new object id. The parameter may be null.
+   */
+  PersistentObjectID( PersistentObjectID pObjectID, Integer pVersionLabel ) {
+    super(pObjectID.getObjectID(), pVersionLabel);
+    persistentObjectClass = pObjectID.persistentObjectClass;
+  }
+
   /**
    * Method returns whether the represented object id has a delimiter or not.
    * 
@@ -73,7 +102,7 @@ public final class PersistentObjectID extends AbstractObjectID<PersistentObjectI
   public PersistentObjectID getUnversionedObjectID( ) {
     PersistentObjectID lUnversionedObjectID;
     if (this.isVersioned() == true) {
-      lUnversionedObjectID = new PersistentObjectID(this.getObjectID(), null);
+      lUnversionedObjectID = new PersistentObjectID(this, null);
     }
     else {
       lUnversionedObjectID = this;
@@ -160,18 +189,149 @@ public final class PersistentObjectID extends AbstractObjectID<PersistentObjectI
   }
 
   /**
-   * Method returns the class object of the persistent object to which this persistent object id belongs to.
+   * Method transforms all passed persistent object ids into service object ids (see
+   * {@link #transformToServiceObjectID()}). Large collections are transformed in parallel.
+   * 
+   * @param pPersistentObjectIDs Persistent object ids that should be transformed. The parameter must not be null and
+   * must not contain null.
+   * @return {@link List} Service object ids in the order of the passed ids. The returned list has a fixed size. The
+   * method never returns null.
+   */
+  public static List<ServiceObjectID> transformToServiceObjectIDs(
+      Collection<PersistentObjectID> pPersistentObjectIDs ) {
+    return PersistentObjectID.transformAll(pPersistentObjectIDs, new Function<PersistentObjectID, ServiceObjectID>() {
+      @Override
+      public ServiceObjectID apply( PersistentObjectID pObjectID ) {
+        return pObjectID.transformToServiceObjectID();
+      }
+    }, new IntFunction<ServiceObjectID[]>() {
+      @Override
+      public ServiceObjectID[] apply( int pSize ) {
+        return new ServiceObjectID[pSize];
+      }
+    });
+  }
+
+  /**
+   * Method transforms all passed persistent object ids into domain object ids (see
+   * {@link #transformToDomainObjectID()}). Large collections are transformed in parallel.
+   * 
+   * @param pPersistentObjectIDs Persistent object ids that should be transformed. The parameter must not be null and
+   * must not contain null.
+   * @return {@link List} Domain object ids in the order of the passed ids. The returned list has a fixed size. The
+   * method never returns null.
+   */
+  public static List<DomainObjectID> transformToDomainObjectIDs( Collection<PersistentObjectID> pPersistentObjectIDs ) {
+    return PersistentObjectID.transformAll(pPersistentObjectIDs, new Function<PersistentObjectID, DomainObjectID>() {
+      @Override
+      public DomainObjectID apply( PersistentObjectID pObjectID ) {
+        return pObjectID.transformToDomainObjectID();
+      }
+    }, new IntFunction<DomainObjectID[]>() {
+      @Override
+      public DomainObjectID[] apply( int pSize ) {
+        return new DomainObjectID[pSize];
+      }
+    });
+  }
+
+  /**
+   * Method creates persistent object ids from all passed object ids (see {@link #create(AbstractObjectID)}). Large
+   * collections are converted in parallel.
+   * 
+   * @param pObjectIDs Object ids that should be converted. The parameter must not be null and must not contain null.
+   * @return {@link List} Persistent object ids in the order of the passed ids. Passed persistent object ids are
+   * returned unchanged. The returned list has a fixed size. The method never returns null.
+   */
+  public static List<PersistentObjectID> createAll( Collection<? extends AbstractObjectID<?>> pObjectIDs ) {
+    return PersistentObjectID.transformAll(pObjectIDs, new Function<AbstractObjectID<?>, PersistentObjectID>() {
+      @Override
+      public PersistentObjectID apply( AbstractObjectID<?> pObjectID ) {
+        return PersistentObjectID.create(pObjectID);
+      }
+    }, new IntFunction<PersistentObjectID[]>() {
+      @Override
+      public PersistentObjectID[] apply( int pSize ) {
+        return new PersistentObjectID[pSize];
+      }
+    });
+  }
+
+  /**
+   * Method transforms all passed objects within one pass into an array of the required size. If the number of objects
+   * reaches {@link #PARALLEL_CONVERSION_THRESHOLD} then the objects are transformed in parallel.
+   * 
+   * @param <S> Type of the source objects.
+   * @param <T> Type of the transformed objects.
+   * @param pSources Objects that should be transformed. The parameter must not be null.
+   * @param pTransformation Transformation of a single object. The parameter must not be null.
+   * @param pArrayFactory Factory for the array that contains the transformed objects. The parameter must not be null.
+   * @return {@link List} Transformed objects in the order of the passed objects. The method never returns null.
+   */
+  private static <S, T> List<T> transformAll( Collection<? extends S> pSources,
+      final Function<? super S, ? extends T> pTransformation, IntFunction<T[]> pArrayFactory ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pSources, "pSources");
+
+    final T[] lTargets = pArrayFactory.apply(pSources.size());
+    if (lTargets.length >= PARALLEL_CONVERSION_THRESHOLD) {
+      @SuppressWarnings("unchecked")
+      final S[] lSources = (S[]) pSources.toArray();
+      Arrays.parallelSetAll(lTargets, new IntFunction<T>() {
+        @Override
+        public T apply( int pIndex ) {
+          return pTransformation.apply(lSources[pIndex]);
+        }
+      });
+    }
+    else {
+      int lIndex = 0;
+      for (S lNextSource : pSources) {
+        lTargets[lIndex++] = pTransformation.apply(lNextSource);
+      }
+    }
+    return Arrays.asList(lTargets);
+  }
+
+  /**
+   * Method returns the class object of the persistent object to which this persistent object id belongs to. The class
+   * is resolved only once per id object. Afterwards no further allocations or synchronization take place.
    * 
    * @return {@link Class} Class object of the persistent object to which this id belongs. The method never returns
    * null.
    */
   public Class<? extends PersistentObject> getPersistentObjectClass( ) {
-    // The class id are the last three digits of the objects id which in total if 15 characters long. Thus the
-    // characters from index 12 - 14 are the class id.
-    String lClassIDString = this.getObjectID().substring(12);
+    // Concurrent resolution is harmless as all threads resolve the same class.
+    Class<? extends PersistentObject> lClass = persistentObjectClass;
+    if (lClass == null) {
+      lClass = ClassID.getClass(PersistentObjectID.decodeClassID(this.getObjectID()));
+      persistentObjectClass = lClass;
+    }
+    return lClass;
+  }
 
-    // Convert class id to integer and return class object.
-    Base36 lBase36 = new Base36(lClassIDString);
-    return ClassID.getClass(lBase36.toInteger());
+  /**
+   * Method decodes the class id that is contained in the passed object id. The class id are the last
+   * {@link ClassID#MAX_LENGTH} characters of every object id. They are decoded directly without creating any
+   * intermediate objects.
+   * 
+   * @param pObjectID Object id whose class id should be decoded. The parameter must not be null.
+   * @return int Value of the class id.
+   * @throws JEAFSystemException if the passed object id does not end with a valid base 36 encoded class id.
+   */
+  static int decodeClassID( String pObjectID ) {
+    int lLength = pObjectID.length();
+    if (lLength < ClassID.MAX_LENGTH) {
+      throw new JEAFSystemException(PersistenceServiceProviderMessages.INVALID_CLASS_ID, pObjectID);
+    }
+    int lValue = 0;
+    for (int i = lLength - ClassID.MAX_LENGTH; i < lLength; i++) {
+      int lDigit = Character.digit(pObjectID.charAt(i), 36);
+      if (lDigit < 0) {
+        throw new JEAFSystemException(PersistenceServiceProviderMessages.INVALID_CLASS_ID, pObjectID);
+      }
+      lValue = lValue * 36 + lDigit;
+    }
+    return lValue;
   }
 }
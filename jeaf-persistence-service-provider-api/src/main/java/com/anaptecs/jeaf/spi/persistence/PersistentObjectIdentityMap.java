@@ -0,0 +1,136 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import com.anaptecs.jeaf.xfun.api.checks.Check;
+import com.anaptecs.jeaf.xfun.api.common.AbstractObjectID;
+
+/**
+ * Class implements an identity map for persistent objects that is intended to be used for the duration of one request
+ * (service call). Persistence service provider implementations can put it in front of their lookup by id (e.g.
+ * {@link PersistenceServiceProvider#getPersistentObject(AbstractObjectID, Class)}) so that repeated lookups of the same
+ * object neither convert the id nor go through the lookup of the persistence framework.
+ * 
+ * Objects are stored with their unversioned id as key. A lookup only returns an object if
+ * <ul>
+ * <li>the object is of the requested type,</li>
+ * <li>the object was not deleted within the current transaction and</li>
+ * <li>the version label of a versioned id matches the version label of the object (unless unversioned lookups are
+ * requested).</li>
+ * </ul>
+ * In all other cases the lookup is treated as miss so that the regular lookup of the persistence service provider
+ * takes place and reports e.g. optimistic lock conflicts.
+ * 
+ * Instances of this class are not thread safe. They have to be bound to a request by the persistence service provider
+ * and must be cleared when the transaction ends.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public final class PersistentObjectIdentityMap {
+  /**
+   * Map contains all known persistent objects with their object id as key. As the map treats the delimiters of service
+   * and persistent object ids as equal, ids do not have to be converted.
+   */
+  private final ObjectIDMap<PersistentObject> objects = new ObjectIDMap<PersistentObject>();
+
+  /**
+   * Initialize empty identity map.
+   */
+  public PersistentObjectIdentityMap( ) {
+    // Nothing to do.
+  }
+
+  /**
+   * Method adds the passed persistent object to the identity map.
+   * 
+   * @param pPersistentObject Persistent object that should be added. The parameter must not be null.
+   */
+  public void put( PersistentObject pPersistentObject ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pPersistentObject, "pPersistentObject");
+
+    objects.put(pPersistentObject.getObjectID(), pPersistentObject);
+  }
+
+  /**
+   * Method returns the persistent object with the passed id. The version label of the passed id has to match.
+   * 
+   * @param <T> Type
+   * @param pObjectID Id of the object that should be returned. The parameter must not be null.
+   * @param pPersistentObjectType Expected type of the persistent object. The parameter must not be null.
+   * @return T Persistent object with the passed id or null if the object is not known, has a different type or version
+   * label or was deleted.
+   */
+  public <T extends PersistentObject> T get( AbstractObjectID<?> pObjectID, Class<T> pPersistentObjectType ) {
+    return this.get(pObjectID, pPersistentObjectType, false);
+  }
+
+  /**
+   * Method returns the persistent object with the passed id.
+   * 
+   * @param <T> Type
+   * @param pObjectID Id of the object that should be returned. The parameter must not be null.
+   * @param pPersistentObjectType Expected type of the persistent object. The parameter must not be null.
+   * @param pUseUnversionedObjectID Parameter defines if the version label of the passed id should be ignored.
+   * @return T Persistent object with the passed id or null if the object is not known, has a different type or version
+   * label or was deleted.
+   */
+  public <T extends PersistentObject> T get( AbstractObjectID<?> pObjectID, Class<T> pPersistentObjectType,
+      boolean pUseUnversionedObjectID ) {
+    // Check parameters.
+    Check.checkInvalidParameterNull(pObjectID, "pObjectID");
+    Check.checkInvalidParameterNull(pPersistentObjectType, "pPersistentObjectType");
+
+    PersistentObject lPersistentObject = objects.get(pObjectID);
+    T lResult;
+    if (lPersistentObject == null || pPersistentObjectType.isInstance(lPersistentObject) == false) {
+      lResult = null;
+    }
+    // Deleted objects must not be returned any longer.
+    else if (lPersistentObject.getEntityState() == EntityState.Deleted) {
+      objects.remove(pObjectID);
+      lResult = null;
+    }
+    // Version label of object does not match. Regular lookup has to handle the conflict.
+    else if (pUseUnversionedObjectID == false && pObjectID.isVersioned() == true
+        && pObjectID.getVersionLabel().intValue() != lPersistentObject.getVersionLabel()) {
+      lResult = null;
+    }
+    else {
+      lResult = pPersistentObjectType.cast(lPersistentObject);
+    }
+    return lResult;
+  }
+
+  /**
+   * Method removes the object with the passed id from the identity map.
+   * 
+   * @param pObjectID Id of the object that should be removed. The parameter must not be null.
+   */
+  public void remove( AbstractObjectID<?> pObjectID ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pObjectID, "pObjectID");
+
+    objects.remove(pObjectID);
+  }
+
+  /**
+   * Method removes all objects from the identity map. The method has to be called at the end of every request.
+   */
+  public void clear( ) {
+    objects.clear();
+  }
+
+  /**
+   * Method returns the number of objects inside the identity map.
+   * 
+   * @return int Number of objects.
+   */
+  public int size( ) {
+    return objects.size();
+  }
+}
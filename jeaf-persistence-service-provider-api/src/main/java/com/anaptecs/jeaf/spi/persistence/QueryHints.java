@@ -0,0 +1,158 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import javax.persistence.Query;
+
+import com.anaptecs.jeaf.xfun.api.checks.Check;
+
+/**
+ * Class contains provider independent hints for the execution of a query. Persistence service provider implementations
+ * translate these hints into the hints of the used JPA implementation. Hints that are not set (<code>null</code>) are
+ * not passed to the JPA implementation so that its defaults apply.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ * 
+ * @see PersistenceServiceProvider#executeQuery(javax.persistence.Query, Class, QueryHints)
+ */
+public final class QueryHints {
+  /**
+   * Name of the standard JPA hint for query timeouts in milliseconds.
+   */
+  public static final String JPA_QUERY_TIMEOUT = "javax.persistence.query.timeout";
+
+  /**
+   * Number of rows that should be fetched from the database within one round trip.
+   */
+  private Integer fetchSize;
+
+  /**
+   * Timeout of the query in milliseconds.
+   */
+  private Integer timeout;
+
+  /**
+   * Attribute defines whether the result of the query may be cached by the JPA implementation.
+   */
+  private Boolean cacheable;
+
+  /**
+   * Attribute defines whether the loaded objects should be loaded in read-only mode.
+   */
+  private Boolean readOnly;
+
+  /**
+   * Initialize object without any hints.
+   */
+  public QueryHints( ) {
+    // Nothing to do.
+  }
+
+  /**
+   * Method returns the JDBC fetch size of the query.
+   * 
+   * @return {@link Integer} Number of rows that should be fetched from the database within one round trip. The method
+   * returns null if no fetch size is defined.
+   */
+  public Integer getFetchSize( ) {
+    return fetchSize;
+  }
+
+  /**
+   * Method sets the JDBC fetch size of the query. Larger fetch sizes reduce the number of round trips when scanning
+   * large results.
+   * 
+   * @param pFetchSize Number of rows that should be fetched from the database within one round trip. The parameter may
+   * be null.
+   * @return {@link QueryHints} This object. The method never returns null.
+   */
+  public QueryHints setFetchSize( Integer pFetchSize ) {
+    fetchSize = pFetchSize;
+    return this;
+  }
+
+  /**
+   * Method returns the timeout of the query.
+   * 
+   * @return {@link Integer} Timeout of the query in milliseconds. The method returns null if no timeout is defined.
+   */
+  public Integer getTimeout( ) {
+    return timeout;
+  }
+
+  /**
+   * Method sets the timeout of the query.
+   * 
+   * @param pTimeout Timeout of the query in milliseconds. The parameter may be null.
+   * @return {@link QueryHints} This object. The method never returns null.
+   * 
+   * @see #JPA_QUERY_TIMEOUT
+   */
+  public QueryHints setTimeout( Integer pTimeout ) {
+    timeout = pTimeout;
+    return this;
+  }
+
+  /**
+   * Method returns whether the result of the query may be cached by the JPA implementation.
+   * 
+   * @return {@link Boolean} Flag whether the result may be cached. The method returns null if nothing is defined.
+   */
+  public Boolean getCacheable( ) {
+    return cacheable;
+  }
+
+  /**
+   * Method defines whether the result of the query may be cached by the JPA implementation (query cache).
+   * 
+   * @param pCacheable Flag whether the result may be cached. The parameter may be null.
+   * @return {@link QueryHints} This object. The method never returns null.
+   */
+  public QueryHints setCacheable( Boolean pCacheable ) {
+    cacheable = pCacheable;
+    return this;
+  }
+
+  /**
+   * Method returns whether the objects of the result should be loaded in read-only mode.
+   * 
+   * @return {@link Boolean} Flag whether the objects are read-only. The method returns null if nothing is defined.
+   */
+  public Boolean getReadOnly( ) {
+    return readOnly;
+  }
+
+  /**
+   * Method defines whether the objects of the result should be loaded in read-only mode. Read-only objects are not
+   * checked for changes when the persistence context is flushed. Changes on them will not be written to the database.
+   * 
+   * @param pReadOnly Flag whether the objects are read-only. The parameter may be null.
+   * @return {@link QueryHints} This object. The method never returns null.
+   */
+  public QueryHints setReadOnly( Boolean pReadOnly ) {
+    readOnly = pReadOnly;
+    return this;
+  }
+
+  /**
+   * Method applies all hints that are defined by the JPA standard to the passed query. Currently this is only the
+   * timeout. All other hints are specific to the JPA implementation and have to be applied by the persistence service
+   * provider.
+   * 
+   * @param pQuery Query to which the hints should be applied. The parameter must not be null.
+   * @return {@link Query} Passed query. The method never returns null.
+   */
+  public Query applyTo( Query pQuery ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pQuery, "pQuery");
+
+    if (timeout != null) {
+      pQuery.setHint(JPA_QUERY_TIMEOUT, timeout);
+    }
+    return pQuery;
+  }
+}
@@ -0,0 +1,323 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import javax.persistence.Query;
+
+import com.anaptecs.jeaf.xfun.api.checks.Check;
+import com.anaptecs.jeaf.xfun.api.errorhandling.JEAFSystemException;
+
+/**
+ * Class holds the parameter bindings of a query. Using parameter bindings instead of concatenating values into a
+ * statement keeps the statement text stable across calls. This way prepared statements and execution plans can be
+ * cached by the JDBC driver as well as by the database.
+ * 
+ * Collections that are bound to named parameters are expanded to IN lists. In order to also keep these statements
+ * stable the number of expanded parameters is padded to the next power of two by repeating the last element of the
+ * collection. So e.g. <code>o.OID IN (:ids)</code> with 5 values becomes
+ * <code>o.OID IN (:ids_0, :ids_1, ..., :ids_7)</code>.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ * 
+ * @see PersistenceServiceProvider#executeNativeQuery(String, Class, QueryParameters)
+ */
+public final class QueryParameters {
+  /**
+   * Prefix of named parameters.
+   */
+  private static final char NAMED_PREFIX = ':';
+
+  /**
+   * Separator that is used to build the names of the parameters into which a collection is expanded.
+   */
+  private static final char EXPANSION_SEPARATOR = '_';
+
+  /**
+   * Map contains all positional parameters with their position as key.
+   */
+  private final Map<Integer, Object> positionalParameters = new TreeMap<Integer, Object>();
+
+  /**
+   * Map contains all named parameters with their name as key.
+   */
+  private final Map<String, Object> namedParameters = new LinkedHashMap<String, Object>();
+
+  /**
+   * Initialize object without any parameter bindings.
+   */
+  public QueryParameters( ) {
+    // Nothing to do.
+  }
+
+  /**
+   * Initialize object as copy of the passed parameters. Collections that are bound to named parameters are copied into
+   * unmodifiable lists. Thus later changes of a bound collection do not affect the copy.
+   * 
+   * @param pQueryParameters Parameters that should be copied. The parameter must not be null.
+   */
+  public QueryParameters( QueryParameters pQueryParameters ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pQueryParameters, "pQueryParameters");
+
+    positionalParameters.putAll(pQueryParameters.positionalParameters);
+    for (Entry<String, Object> lNextEntry : pQueryParameters.namedParameters.entrySet()) {
+      Object lValue = lNextEntry.getValue();
+      if (lValue instanceof Collection) {
+        lValue = Collections.unmodifiableList(new ArrayList<Object>((Collection<?>) lValue));
+      }
+      namedParameters.put(lNextEntry.getKey(), lValue);
+    }
+  }
+
+  /**
+   * Method binds the passed value to the positional parameter with the passed position (e.g. <code>?1</code>).
+   * 
+   * @param pPosition Position of the parameter. Positions start with 1.
+   * @param pValue Value that should be bound to the parameter. The parameter may be null. Collections are not
+   * supported for positional parameters. Please use named parameters for IN lists.
+   * @return {@link QueryParameters} This object. The method never returns null.
+   */
+  public QueryParameters setParameter( int pPosition, Object pValue ) {
+    if (pValue instanceof Collection) {
+      throw new JEAFSystemException(
+          PersistenceServiceProviderMessages.COLLECTION_NOT_SUPPORTED_FOR_POSITIONAL_PARAMETER,
+          Integer.toString(pPosition));
+    }
+    positionalParameters.put(pPosition, pValue);
+    return this;
+  }
+
+  /**
+   * Method binds the passed value to the named parameter with the passed name (e.g. <code>:name</code>). If a
+   * collection is passed then the parameter will be expanded to an IN list.
+   * 
+   * @param pName Name of the parameter without leading colon. The parameter must not be null.
+   * @param pValue Value that should be bound to the parameter. The parameter may be null. Collections must not be
+   * empty.
+   * @return {@link QueryParameters} This object. The method never returns null.
+   */
+  public QueryParameters setParameter( String pName, Object pValue ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pName, "pName");
+
+    if (pValue instanceof Collection && ((Collection<?>) pValue).isEmpty() == true) {
+      throw new JEAFSystemException(PersistenceServiceProviderMessages.EMPTY_COLLECTION_QUERY_PARAMETER, pName);
+    }
+    namedParameters.put(pName, pValue);
+    return this;
+  }
+
+  /**
+   * Method returns all positional parameters.
+   * 
+   * @return {@link Map} Map with all positional parameters with their position as key. The method never returns null.
+   */
+  public Map<Integer, Object> getPositionalParameters( ) {
+    return Collections.unmodifiableMap(positionalParameters);
+  }
+
+  /**
+   * Method returns all named parameters.
+   * 
+   * @return {@link Map} Map with all named parameters with their name as key. The method never returns null.
+   */
+  public Map<String, Object> getNamedParameters( ) {
+    return Collections.unmodifiableMap(namedParameters);
+  }
+
+  /**
+   * Method checks whether any parameters are bound.
+   * 
+   * @return boolean Method returns true if no parameters are bound and false otherwise.
+   */
+  public boolean isEmpty( ) {
+    return positionalParameters.isEmpty() && namedParameters.isEmpty();
+  }
+
+  /**
+   * Method expands all named parameters of the passed statement to which a collection is bound into an IN list. String
+   * literals, quoted identifiers and comments inside the statement are left untouched.
+   * 
+   * @param pStatement Statement that should be expanded. The parameter must not be null.
+   * @return {@link String} Expanded statement. If no collections are bound the passed statement will be returned. The
+   * method never returns null.
+   */
+  public String expandStatement( String pStatement ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pStatement, "pStatement");
+
+    // Avoid parsing the statement if there is nothing to expand.
+    if (this.hasCollectionParameters() == false) {
+      return pStatement;
+    }
+
+    final int lLength = pStatement.length();
+    StringBuilder lBuilder = new StringBuilder(lLength + 64);
+    int lIndex = 0;
+    while (lIndex < lLength) {
+      char lChar = pStatement.charAt(lIndex);
+      int lEnd;
+      // String literals and quoted identifiers.
+      if (lChar == '\'' || lChar == '"') {
+        lEnd = pStatement.indexOf(lChar, lIndex + 1);
+        lEnd = (lEnd < 0) ? lLength : lEnd + 1;
+      }
+      // Line comments.
+      else if (lChar == '-' && pStatement.startsWith("--", lIndex)) {
+        lEnd = pStatement.indexOf('\n', lIndex);
+        lEnd = (lEnd < 0) ? lLength : lEnd + 1;
+      }
+      // Block comments.
+      else if (lChar == '/' && pStatement.startsWith("/*", lIndex)) {
+        lEnd = pStatement.indexOf("*/", lIndex + 2);
+        lEnd = (lEnd < 0) ? lLength : lEnd + 2;
+      }
+      // Named parameters. Double colons are casts e.g. in PostgreSQL and thus no parameters.
+      else if (lChar == NAMED_PREFIX && lIndex + 1 < lLength
+          && Character.isJavaIdentifierStart(pStatement.charAt(lIndex + 1))
+          && (lIndex == 0 || pStatement.charAt(lIndex - 1) != NAMED_PREFIX)) {
+        lEnd = lIndex + 2;
+        while (lEnd < lLength && Character.isJavaIdentifierPart(pStatement.charAt(lEnd))) {
+          lEnd++;
+        }
+        String lName = pStatement.substring(lIndex + 1, lEnd);
+        Object lValue = namedParameters.get(lName);
+        if (lValue instanceof Collection) {
+          int lPaddedSize = QueryParameters.getPaddedSize(((Collection<?>) lValue).size());
+          for (int i = 0; i < lPaddedSize; i++) {
+            if (i > 0) {
+              lBuilder.append(", ");
+            }
+            lBuilder.append(NAMED_PREFIX).append(lName).append(EXPANSION_SEPARATOR).append(i);
+          }
+          lIndex = lEnd;
+          continue;
+        }
+      }
+      else {
+        lEnd = lIndex + 1;
+      }
+      lBuilder.append(pStatement, lIndex, lEnd);
+      lIndex = lEnd;
+    }
+    return lBuilder.toString();
+  }
+
+  /**
+   * Method binds all parameters to the passed query. If collections are bound to named parameters then the query has
+   * to be created from a statement that was expanded using {@link #expandStatement(String)}.
+   * 
+   * @param pQuery Query to which all parameters should be bound. The parameter must not be null.
+   * @return {@link Query} Passed query. The method never returns null.
+   */
+  public Query applyTo( Query pQuery ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pQuery, "pQuery");
+
+    for (Entry<Integer, Object> lNextEntry : positionalParameters.entrySet()) {
+      pQuery.setParameter(lNextEntry.getKey(), lNextEntry.getValue());
+    }
+    for (Entry<String, Object> lNextEntry : namedParameters.entrySet()) {
+      String lName = lNextEntry.getKey();
+      Object lValue = lNextEntry.getValue();
+      if (lValue instanceof Collection) {
+        // Bind all elements of the collection. Padded parameters repeat the last element.
+        Collection<?> lCollection = (Collection<?>) lValue;
+        int lPaddedSize = QueryParameters.getPaddedSize(lCollection.size());
+        Iterator<?> lIterator = lCollection.iterator();
+        Object lElement = null;
+        for (int i = 0; i < lPaddedSize; i++) {
+          if (lIterator.hasNext() == true) {
+            lElement = lIterator.next();
+          }
+          pQuery.setParameter(lName + EXPANSION_SEPARATOR + i, lElement);
+        }
+      }
+      else {
+        pQuery.setParameter(lName, lValue);
+      }
+    }
+    return pQuery;
+  }
+
+  /**
+   * Method checks whether a collection is bound to any named parameter.
+   * 
+   * @return boolean Method returns true if at least one collection is bound and false otherwise.
+   */
+  private boolean hasCollectionParameters( ) {
+    for (Object lNextValue : namedParameters.values()) {
+      if (lNextValue instanceof Collection) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Method returns the number of parameters to which a collection with the passed size is expanded.
+   * 
+   * @param pSize Size of the collection. The value must be greater than 0.
+   * @return int Next power of two that is greater or equal to the passed size.
+   */
+  private static int getPaddedSize( int pSize ) {
+    return (pSize <= 1) ? 1 : Integer.highestOneBit(pSize - 1) << 1;
+  }
+
+  /**
+   * Method returns the hash code of this object.
+   * 
+   * @return int Hash code of this object.
+   */
+  @Override
+  public int hashCode( ) {
+    return 31 * positionalParameters.hashCode() + namedParameters.hashCode();
+  }
+
+  /**
+   * Method checks if the passed object is equal to this one. Two query parameter objects are equal if they contain the
+   * same bindings.
+   * 
+   * @param pObject Object that should be compared. The parameter may be null.
+   * @return boolean Method returns true if the passed object is equal to this one and false otherwise.
+   */
+  @Override
+  public boolean equals( Object pObject ) {
+    boolean lIsEqual;
+    if (this == pObject) {
+      lIsEqual = true;
+    }
+    else if (pObject instanceof QueryParameters) {
+      QueryParameters lOther = (QueryParameters) pObject;
+      lIsEqual = positionalParameters.equals(lOther.positionalParameters)
+          && namedParameters.equals(lOther.namedParameters);
+    }
+    else {
+      lIsEqual = false;
+    }
+    return lIsEqual;
+  }
+
+  /**
+   * Method returns a string representation of all parameter bindings.
+   * 
+   * @return {@link String} String representation of this object. The method never returns null.
+   */
+  @Override
+  public String toString( ) {
+    return "positional=" + positionalParameters + ", named=" + namedParameters;
+  }
+}
@@ -0,0 +1,366 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.anaptecs.jeaf.xfun.api.checks.Check;
+
+/**
+ * Class implements a cache for the results of queries. Results are stored as list of unversioned object ids and are
+ * identified by the statement, its parameter bindings and the result type. On a cache hit the persistence service
+ * provider resolves the objects through its regular lookup (persistence context and second level cache) so the cache
+ * itself never holds any persistent objects.
+ * 
+ * Every entry belongs to a set of participating types. As soon as a transaction that inserted, updated or deleted a
+ * persistent object of one of these types (or one of their subclasses) is committed, the persistence service provider
+ * has to call {@link #invalidate(Collection)} and all affected entries will be removed. Results of queries that were
+ * running while such a transaction was committed are not stored at all (see {@link #getGeneration()}).
+ * 
+ * The cache is limited in size. If the maximum number of entries is reached then the least recently used entry will be
+ * removed.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ * 
+ * @see PersistenceServiceProvider#executeCachedQuery(String, QueryParameters, Class, Collection)
+ */
+public final class QueryResultCache {
+  /**
+   * Maximum number of entries inside the cache.
+   */
+  private final int maxEntries;
+
+  /**
+   * Map contains all cached results in the order of their last access.
+   */
+  private final LinkedHashMap<CacheKey, CacheEntry> entries;
+
+  /**
+   * Map contains the keys of all cached results with their participating types as key.
+   */
+  private final Map<Class<?>, Set<CacheKey>> keysByType = new HashMap<Class<?>, Set<CacheKey>>();
+
+  /**
+   * Map contains the generation of the last invalidation of every modified type.
+   */
+  private final Map<Class<?>, Long> lastInvalidations = new HashMap<Class<?>, Long>();
+
+  /**
+   * Generation of the cache. The generation is incremented with every invalidation.
+   */
+  private long generation;
+
+  /**
+   * Generation of the last call of {@link #clear()}. Results of queries that were started before are not cached.
+   */
+  private long lastClearGeneration;
+
+  /**
+   * Initialize cache.
+   * 
+   * @param pMaxEntries Maximum number of results that will be kept inside the cache. The parameter must be greater than
+   * 0.
+   */
+  public QueryResultCache( int pMaxEntries ) {
+    maxEntries = Math.max(pMaxEntries, 1);
+    entries = new LinkedHashMap<CacheKey, CacheEntry>(16, 0.75f, true);
+  }
+
+  /**
+   * Method returns the current generation of the cache. The generation has to be determined before a query is executed
+   * and has to be passed to {@link #put(String, QueryParameters, Class, Collection, Collection, long)} afterwards.
+   * This way results that may already be outdated by a concurrently committed transaction will not be cached.
+   * 
+   * @return long Current generation of the cache.
+   */
+  public synchronized long getGeneration( ) {
+    return generation;
+  }
+
+  /**
+   * Method returns the cached result of the passed query.
+   * 
+   * @param pStatement Statement of the query. The parameter must not be null.
+   * @param pParameters Parameter bindings of the query. The parameter must not be null.
+   * @param pResultType Result type of the query. The parameter must not be null.
+   * @return {@link List} Unversioned ids of all objects of the cached result in their original order. The method
+   * returns null if no result is cached.
+   */
+  public synchronized List<PersistentObjectID> get( String pStatement, QueryParameters pParameters,
+      Class<? extends PersistentObject> pResultType ) {
+    CacheEntry lEntry = entries.get(new CacheKey(pStatement, pParameters, pResultType));
+    List<PersistentObjectID> lResult;
+    if (lEntry != null) {
+      lResult = lEntry.objectIDs;
+    }
+    else {
+      lResult = null;
+    }
+    return lResult;
+  }
+
+  /**
+   * Method adds the passed query result to the cache. The result will not be cached if one of the participating types
+   * was invalidated or the cache was cleared after the passed generation.
+   * 
+   * @param pStatement Statement of the query. The parameter must not be null.
+   * @param pParameters Parameter bindings of the query. The parameter must not be null. The bindings are copied.
+   * @param pResultType Result type of the query. The type is always a participating type. The parameter must not be
+   * null.
+   * @param pParticipatingTypes All other types whose modification invalidates the result. The parameter must not be
+   * null.
+   * @param pResult Result of the query. The parameter must not be null.
+   * @param pGeneration Generation of the cache before the query was executed.
+   * @return boolean Method returns true if the result was cached and false otherwise.
+   * 
+   * @see #getGeneration()
+   */
+  public synchronized boolean put( String pStatement, QueryParameters pParameters,
+      Class<? extends PersistentObject> pResultType, Collection<Class<? extends PersistentObject>> pParticipatingTypes,
+      Collection<? extends PersistentObject> pResult, long pGeneration ) {
+    // Check parameters.
+    Check.checkInvalidParameterNull(pParticipatingTypes, "pParticipatingTypes");
+    Check.checkInvalidParameterNull(pResult, "pResult");
+
+    Set<Class<?>> lTypes = new HashSet<Class<?>>(pParticipatingTypes);
+    lTypes.add(pResultType);
+
+    // Ensure that no participating type was modified while the query was running.
+    boolean lCached;
+    if (pGeneration >= lastClearGeneration && this.isInvalidatedSince(lTypes, pGeneration) == false) {
+      List<PersistentObjectID> lObjectIDs = new ArrayList<PersistentObjectID>(pResult.size());
+      for (PersistentObject lNextObject : pResult) {
+        lObjectIDs.add(lNextObject.getUnversionedID());
+      }
+      CacheKey lKey = new CacheKey(pStatement, pParameters, pResultType);
+      CacheEntry lOldEntry = entries.put(lKey, new CacheEntry(Collections.unmodifiableList(lObjectIDs), lTypes));
+      if (lOldEntry != null) {
+        this.unindex(lKey, lOldEntry);
+      }
+      for (Class<?> lNextType : lTypes) {
+        Set<CacheKey> lKeys = keysByType.get(lNextType);
+        if (lKeys == null) {
+          lKeys = new HashSet<CacheKey>();
+          keysByType.put(lNextType, lKeys);
+        }
+        lKeys.add(lKey);
+      }
+
+      // Remove least recently used entry if cache is full.
+      if (entries.size() > maxEntries) {
+        Iterator<Entry<CacheKey, CacheEntry>> lIterator = entries.entrySet().iterator();
+        Entry<CacheKey, CacheEntry> lEldest = lIterator.next();
+        lIterator.remove();
+        this.unindex(lEldest.getKey(), lEldest.getValue());
+      }
+      lCached = true;
+    }
+    else {
+      lCached = false;
+    }
+    return lCached;
+  }
+
+  /**
+   * Method removes all cached results to which persistent objects of the passed types contribute. The method has to be
+   * called after a transaction was committed with the types of all persistent objects that were inserted, updated or
+   * deleted.
+   * 
+   * @param pModifiedTypes Types of all persistent objects that were modified. The parameter must not be null.
+   */
+  public synchronized void invalidate( Collection<Class<? extends PersistentObject>> pModifiedTypes ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pModifiedTypes, "pModifiedTypes");
+
+    if (pModifiedTypes.isEmpty() == false) {
+      generation++;
+      for (Class<? extends PersistentObject> lNextModifiedType : pModifiedTypes) {
+        lastInvalidations.put(lNextModifiedType, generation);
+
+        // Entries of the modified type as well as of all its super types are affected.
+        List<CacheKey> lAffectedKeys = new ArrayList<CacheKey>();
+        for (Entry<Class<?>, Set<CacheKey>> lNextEntry : keysByType.entrySet()) {
+          if (lNextEntry.getKey().isAssignableFrom(lNextModifiedType) == true) {
+            lAffectedKeys.addAll(lNextEntry.getValue());
+          }
+        }
+        for (CacheKey lNextKey : lAffectedKeys) {
+          CacheEntry lEntry = entries.remove(lNextKey);
+          if (lEntry != null) {
+            this.unindex(lNextKey, lEntry);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Method removes all entries from the cache. Results of queries that are currently running will not be cached.
+   */
+  public synchronized void clear( ) {
+    generation++;
+    lastClearGeneration = generation;
+    entries.clear();
+    keysByType.clear();
+  }
+
+  /**
+   * Method returns the number of cached results.
+   * 
+   * @return int Number of cached results.
+   */
+  public synchronized int size( ) {
+    return entries.size();
+  }
+
+  /**
+   * Method checks whether one of the passed types was invalidated after the passed generation.
+   * 
+   * @param pTypes Types that should be checked. The parameter must not be null.
+   * @param pGeneration Generation that should be checked.
+   * @return boolean Method returns true if at least one of the types was invalidated and false otherwise.
+   */
+  private boolean isInvalidatedSince( Set<Class<?>> pTypes, long pGeneration ) {
+    boolean lInvalidated = false;
+    if (pGeneration < generation) {
+      Iterator<Entry<Class<?>, Long>> lIterator = lastInvalidations.entrySet().iterator();
+      while (lInvalidated == false && lIterator.hasNext() == true) {
+        Entry<Class<?>, Long> lNextEntry = lIterator.next();
+        if (lNextEntry.getValue() > pGeneration) {
+          for (Class<?> lNextType : pTypes) {
+            if (lNextType.isAssignableFrom(lNextEntry.getKey()) == true) {
+              lInvalidated = true;
+              break;
+            }
+          }
+        }
+      }
+    }
+    return lInvalidated;
+  }
+
+  /**
+   * Method removes the passed key from the index of participating types.
+   * 
+   * @param pKey Key that should be removed. The parameter must not be null.
+   * @param pEntry Entry that belongs to the key. The parameter must not be null.
+   */
+  private void unindex( CacheKey pKey, CacheEntry pEntry ) {
+    for (Class<?> lNextType : pEntry.participatingTypes) {
+      Set<CacheKey> lKeys = keysByType.get(lNextType);
+      if (lKeys != null) {
+        lKeys.remove(pKey);
+        if (lKeys.isEmpty() == true) {
+          keysByType.remove(lNextType);
+        }
+      }
+    }
+  }
+
+  /**
+   * Class is used as key for cached query results. The key holds its own copy of the parameter bindings as its hash code
+   * is calculated only once. Bound collections are compared as lists in the order of their elements.
+   */
+  private static final class CacheKey {
+    /**
+     * Statement of the query.
+     */
+    private final String statement;
+
+    /**
+     * Parameter bindings of the query.
+     */
+    private final QueryParameters parameters;
+
+    /**
+     * Result type of the query.
+     */
+    private final Class<?> resultType;
+
+    /**
+     * Hash code of the key.
+     */
+    private final int hashCode;
+
+    /**
+     * Initialize object.
+     * 
+     * @param pStatement Statement of the query. The parameter must not be null.
+     * @param pParameters Parameter bindings of the query. The parameter must not be null. The bindings are copied.
+     * @param pResultType Result type of the query. The parameter must not be null.
+     */
+    CacheKey( String pStatement, QueryParameters pParameters, Class<?> pResultType ) {
+      // Check parameters.
+      Check.checkInvalidParameterNull(pStatement, "pStatement");
+      Check.checkInvalidParameterNull(pParameters, "pParameters");
+      Check.checkInvalidParameterNull(pResultType, "pResultType");
+
+      statement = pStatement;
+      parameters = new QueryParameters(pParameters);
+      resultType = pResultType;
+      hashCode = 31 * (31 * statement.hashCode() + parameters.hashCode()) + resultType.hashCode();
+    }
+
+    @Override
+    public int hashCode( ) {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals( Object pObject ) {
+      boolean lIsEqual;
+      if (this == pObject) {
+        lIsEqual = true;
+      }
+      else if (pObject instanceof CacheKey) {
+        CacheKey lOther = (CacheKey) pObject;
+        lIsEqual = hashCode == lOther.hashCode && resultType == lOther.resultType
+            && statement.equals(lOther.statement) && parameters.equals(lOther.parameters);
+      }
+      else {
+        lIsEqual = false;
+      }
+      return lIsEqual;
+    }
+  }
+
+  /**
+   * Class represents a cached query result.
+   */
+  private static final class CacheEntry {
+    /**
+     * Unversioned ids of all objects of the result.
+     */
+    private final List<PersistentObjectID> objectIDs;
+
+    /**
+     * Types whose modification invalidates the result.
+     */
+    private final Set<Class<?>> participatingTypes;
+
+    /**
+     * Initialize object.
+     * 
+     * @param pObjectIDs Unversioned ids of all objects of the result. The parameter must not be null.
+     * @param pParticipatingTypes Types whose modification invalidates the result. The parameter must not be null.
+     */
+    CacheEntry( List<PersistentObjectID> pObjectIDs, Set<Class<?>> pParticipatingTypes ) {
+      objectIDs = pObjectIDs;
+      participatingTypes = pParticipatingTypes;
+    }
+  }
+}
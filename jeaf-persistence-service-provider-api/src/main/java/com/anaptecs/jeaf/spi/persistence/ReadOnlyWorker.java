@@ -0,0 +1,29 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+/**
+ * Interface is intended to be used in order to execute read-only work that may be routed to a read replica of the
+ * database.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ * 
+ * @param <T> Type of the result of the work.
+ * 
+ * @see PersistenceServiceProvider#executeReadOnly(ReadOnlyWorker)
+ */
+public interface ReadOnlyWorker<T> {
+  /**
+   * Method executes the read-only work. All calls to the persistence service provider from within this method are
+   * executed within the read-only unit of work.
+   * 
+   * @return T Result of the work. The result may be null.
+   * 
+   * @see PersistenceServiceProvider#executeReadOnly(ReadOnlyWorker)
+   */
+  T execute( );
+}
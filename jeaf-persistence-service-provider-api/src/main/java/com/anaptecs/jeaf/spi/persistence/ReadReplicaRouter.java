@@ -0,0 +1,151 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.anaptecs.jeaf.spi.persistence.annotations.LoadBalancingStrategy;
+import com.anaptecs.jeaf.spi.persistence.annotations.ReadReplicaRouting;
+import com.anaptecs.jeaf.xfun.api.checks.Check;
+
+/**
+ * Class decides to which data source a unit of work of a persistence unit is routed. Units of work that may write are
+ * always routed to the primary data source. Read-only units of work are distributed across the read replicas according
+ * to the configured {@link LoadBalancingStrategy}. If read your writes is enabled then read-only units of work of a
+ * thread that just wrote to the database are routed to the primary data source until the configured period is over.
+ * 
+ * Instances of this class are thread safe. Persistence service provider implementations typically create one instance
+ * per persistence unit.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ * 
+ * @see ReadReplicaRouting
+ * @see PersistenceServiceProvider#executeReadOnly(ReadOnlyWorker)
+ */
+public final class ReadReplicaRouter {
+  /**
+   * Constant is returned by {@link #selectDataSource(boolean)} if the primary data source has to be used.
+   */
+  public static final int PRIMARY = -1;
+
+  /**
+   * Number of available read replicas.
+   */
+  private final int replicaCount;
+
+  /**
+   * Strategy that is used to distribute read-only units of work.
+   */
+  private final LoadBalancingStrategy loadBalancingStrategy;
+
+  /**
+   * Read your writes period in nanoseconds. 0 means that read your writes is disabled.
+   */
+  private final long readYourWritesPeriod;
+
+  /**
+   * Counter that is used for round robin distribution.
+   */
+  private final AtomicInteger nextReplica = new AtomicInteger();
+
+  /**
+   * Timestamp (System.nanoTime()) of the last write of the current thread.
+   */
+  private final ThreadLocal<long[]> lastWrite = new ThreadLocal<long[]>();
+
+  /**
+   * Initialize router.
+   * 
+   * @param pReplicaCount Number of available read replicas. The value must be zero or greater. If there are no read
+   * replicas all units of work are routed to the primary data source.
+   * @param pLoadBalancingStrategy Strategy that is used to distribute read-only units of work. The parameter must not
+   * be null.
+   * @param pReadYourWritesPeriod Period in milliseconds after a write during which read-only units of work of the same
+   * thread are routed to the primary data source. 0 disables read your writes.
+   */
+  public ReadReplicaRouter( int pReplicaCount, LoadBalancingStrategy pLoadBalancingStrategy,
+      long pReadYourWritesPeriod ) {
+    // Check parameters.
+    Check.checkInvalidParameterNull(pLoadBalancingStrategy, "pLoadBalancingStrategy");
+
+    replicaCount = Math.max(pReplicaCount, 0);
+    loadBalancingStrategy = pLoadBalancingStrategy;
+    readYourWritesPeriod = TimeUnit.MILLISECONDS.toNanos(Math.max(pReadYourWritesPeriod, 0));
+  }
+
+  /**
+   * Method returns the number of available read replicas.
+   * 
+   * @return int Number of read replicas.
+   */
+  public int getReplicaCount( ) {
+    return replicaCount;
+  }
+
+  /**
+   * Method selects the data source for a new unit of work.
+   * 
+   * @param pReadOnly Parameter defines whether the unit of work is read-only.
+   * @return int Index of the read replica that should be used or {@link #PRIMARY} if the primary data source has to be
+   * used.
+   */
+  public int selectDataSource( boolean pReadOnly ) {
+    int lDataSource;
+    if (pReadOnly == false || replicaCount == 0 || this.isReadYourWritesActive() == true) {
+      lDataSource = PRIMARY;
+    }
+    else if (replicaCount == 1) {
+      lDataSource = 0;
+    }
+    else {
+      switch (loadBalancingStrategy) {
+        case RANDOM:
+          lDataSource = ThreadLocalRandom.current().nextInt(replicaCount);
+          break;
+
+        case ROUND_ROBIN:
+        default:
+          lDataSource = Math.floorMod(nextReplica.getAndIncrement(), replicaCount);
+      }
+    }
+    return lDataSource;
+  }
+
+  /**
+   * Method has to be called after a unit of work that wrote to the primary data source was committed. If read your
+   * writes is enabled the current thread will be routed to the primary data source for the configured period.
+   */
+  public void writeCompleted( ) {
+    if (readYourWritesPeriod > 0) {
+      long[] lLastWrite = lastWrite.get();
+      if (lLastWrite == null) {
+        lLastWrite = new long[1];
+        lastWrite.set(lLastWrite);
+      }
+      lLastWrite[0] = System.nanoTime();
+    }
+  }
+
+  /**
+   * Method checks whether the current thread wrote to the database within the read your writes period.
+   * 
+   * @return boolean Method returns true if read-only units of work have to be routed to the primary data source.
+   */
+  private boolean isReadYourWritesActive( ) {
+    boolean lActive;
+    if (readYourWritesPeriod > 0) {
+      long[] lLastWrite = lastWrite.get();
+      lActive = lLastWrite != null && System.nanoTime() - lLastWrite[0] < readYourWritesPeriod;
+    }
+    else {
+      lActive = false;
+    }
+    return lActive;
+  }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import com.anaptecs.jeaf.xfun.api.checks.Check;
+import com.anaptecs.jeaf.xfun.api.errorhandling.JEAFSystemException;
+
+/**
+ * Class reserves object id blocks by reading the next value of a database sequence. Every reservation takes exactly one
+ * database round trip on a connection of its own. As sequences are not transactional no commit is required.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public final class SequenceObjectIDBlockSource implements ObjectIDBlockSource {
+  /**
+   * Data source that is used to reserve blocks.
+   */
+  private final DataSource dataSource;
+
+  /**
+   * SQL statement that returns the next value of the sequence, e.g.
+   * <code>SELECT NEXT VALUE FOR OBJECT_ID_BLOCKS</code>.
+   */
+  private final String nextValueStatement;
+
+  /**
+   * Initialize object.
+   * 
+   * @param pDataSource Data source that is used to reserve blocks. The parameter must not be null.
+   * @param pNextValueStatement SQL statement that returns the next value of the sequence as the first column of the
+   * first row. The parameter must not be null.
+   */
+  public SequenceObjectIDBlockSource( DataSource pDataSource, String pNextValueStatement ) {
+    // Check parameters.
+    Check.checkInvalidParameterNull(pDataSource, "pDataSource");
+    Check.checkInvalidParameterNull(pNextValueStatement, "pNextValueStatement");
+
+    dataSource = pDataSource;
+    nextValueStatement = pNextValueStatement;
+  }
+
+  /**
+   * Method reserves a new block by reading the next value of the sequence.
+   * 
+   * @return long Number of the reserved block.
+   * @throws JEAFSystemException if the sequence could not be read.
+   */
+  @Override
+  public long reserveBlock( ) {
+    try (Connection lConnection = dataSource.getConnection();
+        Statement lStatement = lConnection.createStatement();
+        ResultSet lResultSet = lStatement.executeQuery(nextValueStatement)) {
+      if (lResultSet.next() == false) {
+        throw new SQLException("Statement '" + nextValueStatement + "' did not return a value.");
+      }
+      return lResultSet.getLong(1);
+    }
+    catch (SQLException e) {
+      throw new JEAFSystemException(PersistenceServiceProviderMessages.OBJECT_ID_BLOCK_RESERVATION_FAILED, e,
+          e.getMessage());
+    }
+  }
+}
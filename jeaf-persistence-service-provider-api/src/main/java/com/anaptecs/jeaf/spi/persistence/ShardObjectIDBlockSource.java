@@ -0,0 +1,66 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import com.anaptecs.jeaf.xfun.api.checks.Check;
+
+/**
+ * Class encodes the index of a shard into the object id blocks of another {@link ObjectIDBlockSource}. Every block
+ * that is returned satisfies <code>block % shardCount == shardIndex</code>. Thus the shard of an object can be derived
+ * from its object id (see {@link BlockShardingStrategy}) and the ids of different shards never overlap, even if every
+ * shard reserves its blocks from a sequence in its own database.
+ * 
+ * As the block numbers of the underlying source are multiplied by the number of shards, they have to stay below
+ * <code>{@link BlockObjectIDGenerator#MAX_BLOCK_NUMBER} / shardCount</code>.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public final class ShardObjectIDBlockSource implements ObjectIDBlockSource {
+  /**
+   * Source from which the blocks of the shard are reserved.
+   */
+  private final ObjectIDBlockSource blockSource;
+
+  /**
+   * Index of the shard.
+   */
+  private final int shardIndex;
+
+  /**
+   * Number of shards.
+   */
+  private final int shardCount;
+
+  /**
+   * Initialize object.
+   * 
+   * @param pBlockSource Source from which the blocks of the shard are reserved. The parameter must not be null.
+   * @param pShardIndex Index of the shard. The value must be between 0 and <code>pShardCount - 1</code>.
+   * @param pShardCount Number of shards. The value must be positive.
+   */
+  public ShardObjectIDBlockSource( ObjectIDBlockSource pBlockSource, int pShardIndex, int pShardCount ) {
+    // Check parameters.
+    Check.checkInvalidParameterNull(pBlockSource, "pBlockSource");
+    Check.checkIsPositive(pShardCount, "pShardCount");
+    Check.checkIsPositive(pShardCount - pShardIndex, "pShardCount - pShardIndex");
+    Check.checkIsPositive(pShardIndex + 1, "pShardIndex + 1");
+
+    blockSource = pBlockSource;
+    shardIndex = pShardIndex;
+    shardCount = pShardCount;
+  }
+
+  /**
+   * Method reserves a new block of the shard.
+   * 
+   * @return long Number of the reserved block.
+   */
+  @Override
+  public long reserveBlock( ) {
+    return blockSource.reserveBlock() * shardCount + shardIndex;
+  }
+}
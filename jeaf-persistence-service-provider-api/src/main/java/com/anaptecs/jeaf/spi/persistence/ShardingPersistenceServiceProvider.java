@@ -0,0 +1,509 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import com.anaptecs.jeaf.xfun.api.checks.Check;
+import com.anaptecs.jeaf.xfun.api.common.AbstractObjectID;
+import com.anaptecs.jeaf.xfun.api.common.Identifiable;
+import com.anaptecs.jeaf.xfun.api.errorhandling.JEAFSystemException;
+
+/**
+ * Class is the base class for persistence service providers that distribute persistent objects across several
+ * persistence units (shards). Every shard is represented by its own persistence service provider. Where an object is
+ * stored is defined by a {@link ShardingStrategy}.
+ * 
+ * This class routes all operations that work on object ids (creation, lookups, existence checks, deletion) to the
+ * responsible shard. New objects can be placed using a shard key (see {@link #createPersistentObject(Class, Object)}).
+ * Batch operations are grouped per shard and the shards are accessed in parallel. If all objects of a batch belong to
+ * the same shard then the batch is executed on the calling thread. Thus the persistence service providers of the shards
+ * have to support calls from other threads than the one that started the transaction, e.g. by using application managed
+ * connections.
+ * 
+ * Queries can not be routed by object id. Subclasses have to decide how they are executed, e.g. on one specific shard
+ * or on all shards using a {@link FanOutQuery}.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public abstract class ShardingPersistenceServiceProvider implements PersistenceServiceProvider {
+  /**
+   * Persistence service providers of all shards. The index inside the list is the index of the shard.
+   */
+  private final List<PersistenceServiceProvider> shards;
+
+  /**
+   * Strategy that defines on which shard an object is stored.
+   */
+  private final ShardingStrategy shardingStrategy;
+
+  /**
+   * Executor service that is used to access several shards in parallel.
+   */
+  private final ExecutorService executorService;
+
+  /**
+   * Initialize object.
+   * 
+   * @param pShards Persistence service providers of all shards. The order of the shards must never change as it defines
+   * where objects are stored. The parameter must not be null and must not be empty.
+   * @param pShardingStrategy Strategy that defines on which shard an object is stored. The parameter must not be null.
+   * @param pExecutorService Executor service that is used to access several shards in parallel. The parameter must not
+   * be null.
+   */
+  protected ShardingPersistenceServiceProvider( List<? extends PersistenceServiceProvider> pShards,
+      ShardingStrategy pShardingStrategy, ExecutorService pExecutorService ) {
+    // Check parameters.
+    Check.checkInvalidParameterNull(pShards, "pShards");
+    Check.checkInvalidParameterNull(pShardingStrategy, "pShardingStrategy");
+    Check.checkInvalidParameterNull(pExecutorService, "pExecutorService");
+    Check.checkIsPositive(pShards.size(), "pShards.size()");
+
+    shards = new ArrayList<PersistenceServiceProvider>(pShards);
+    shardingStrategy = pShardingStrategy;
+    executorService = pExecutorService;
+  }
+
+  /**
+   * Method returns the number of shards.
+   * 
+   * @return int Number of shards.
+   */
+  public final int getShardCount( ) {
+    return shards.size();
+  }
+
+  /**
+   * Method returns the persistence service provider of the shard with the passed index.
+   * 
+   * @param pShardIndex Index of the shard.
+   * @return {@link PersistenceServiceProvider} Persistence service provider of the shard. The method never returns
+   * null.
+   */
+  public final PersistenceServiceProvider getShard( int pShardIndex ) {
+    return shards.get(pShardIndex);
+  }
+
+  /**
+   * Method returns the sharding strategy that is used by this persistence service provider.
+   * 
+   * @return {@link ShardingStrategy} Used sharding strategy. The method never returns null.
+   */
+  public final ShardingStrategy getShardingStrategy( ) {
+    return shardingStrategy;
+  }
+
+  /**
+   * Method returns the persistence service provider of the shard on which the object with the passed id is stored.
+   * 
+   * @param pObjectID Id of the object. The parameter must not be null.
+   * @param pPersistentObjectType Type of the persistent object. The parameter must not be null.
+   * @return {@link PersistenceServiceProvider} Persistence service provider of the shard. The method never returns
+   * null.
+   */
+  protected final PersistenceServiceProvider getShard( AbstractObjectID<?> pObjectID,
+      Class<? extends PersistentObject> pPersistentObjectType ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pObjectID, "pObjectID");
+
+    return shards.get(shardingStrategy.getShard(pObjectID, pPersistentObjectType, shards.size()));
+  }
+
+  /**
+   * Method creates a new persistent object without a shard key. Where the object is stored is only defined by the
+   * sharding strategy.
+   * 
+   * @see #createPersistentObject(Class, Object)
+   */
+  @Override
+  public <T extends PersistentObject> T createPersistentObject( Class<T> pPersistentObjectType ) {
+    return this.createPersistentObject(pPersistentObjectType, null);
+  }
+
+  /**
+   * Method creates a new persistent object on the shard that is defined by the sharding strategy for the passed shard
+   * key. Objects that are created with the same shard key are stored on the same shard.
+   * 
+   * @param <T> Type of the persistent object.
+   * @param pPersistentObjectType Type of the persistent object that should be created. The parameter must not be null.
+   * @param pShardKey Key that defines where the object should be stored. The parameter may be null.
+   * @return T Created persistent object. The method never returns null.
+   * @throws JEAFSystemException if the object id that was assigned by the shard does not belong to the shard on which
+   * the object was created according to the sharding strategy. In this case the object could not be found again.
+   */
+  public <T extends PersistentObject> T createPersistentObject( Class<T> pPersistentObjectType, Object pShardKey ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pPersistentObjectType, "pPersistentObjectType");
+
+    int lShardIndex = shardingStrategy.getShard(pPersistentObjectType, pShardKey, shards.size());
+    T lPersistentObject = shards.get(lShardIndex).createPersistentObject(pPersistentObjectType);
+
+    // Ensure that the object can be found again using its id.
+    int lLookupShardIndex = shardingStrategy.getShard(lPersistentObject.getID(), pPersistentObjectType, shards.size());
+    if (lLookupShardIndex != lShardIndex) {
+      throw new JEAFSystemException(PersistenceServiceProviderMessages.SHARD_MISMATCH,
+          lPersistentObject.getID().getObjectID(), Integer.toString(lShardIndex), Integer.toString(lLookupShardIndex));
+    }
+    return lPersistentObject;
+  }
+
+  @Override
+  public <T extends PersistentObject> T getPersistentObject( AbstractObjectID<?> pObjectID,
+      Class<T> pPersistentObjectType ) {
+    return this.getShard(pObjectID, pPersistentObjectType).getPersistentObject(pObjectID, pPersistentObjectType);
+  }
+
+  @Override
+  public <T extends PersistentObject> T getPersistentObject( AbstractObjectID<?> pObjectID,
+      Class<T> pPersistentObjectType, boolean pAllowEmptyResult ) {
+    return this.getShard(pObjectID, pPersistentObjectType).getPersistentObject(pObjectID, pPersistentObjectType,
+        pAllowEmptyResult);
+  }
+
+  @Override
+  public <T extends PersistentObject> T getPersistentObject(
+      Identifiable<? extends AbstractObjectID<?>> pIdentifiableObject, Class<T> pPersistentObjectType ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pIdentifiableObject, "pIdentifiableObject");
+
+    return this.getShard(pIdentifiableObject.getID(), pPersistentObjectType).getPersistentObject(pIdentifiableObject,
+        pPersistentObjectType);
+  }
+
+  @Override
+  public <T extends PersistentObject> T getPersistentObject(
+      Identifiable<? extends AbstractObjectID<?>> pIdentifiableObject, Class<T> pPersistentObjectType,
+      boolean pAllowEmptyResult ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pIdentifiableObject, "pIdentifiableObject");
+
+    return this.getShard(pIdentifiableObject.getID(), pPersistentObjectType).getPersistentObject(pIdentifiableObject,
+        pPersistentObjectType, pAllowEmptyResult);
+  }
+
+  @Override
+  public <T extends PersistentObject> List<T> getPersistentObjects(
+      Collection<? extends Identifiable<? extends AbstractObjectID<?>>> pIdentifiableObjects,
+      final Class<T> pPersistentObjectType ) {
+    return this.getPersistentObjectsPerShard(pIdentifiableObjects, pPersistentObjectType,
+        new BiFunction<PersistenceServiceProvider, List<Identifiable<? extends AbstractObjectID<?>>>, List<T>>() {
+          @Override
+          public List<T> apply( PersistenceServiceProvider pShard,
+              List<Identifiable<? extends AbstractObjectID<?>>> pObjects ) {
+            return pShard.getPersistentObjects(pObjects, pPersistentObjectType);
+          }
+        });
+  }
+
+  @Override
+  public <T extends PersistentObject> List<T> getPersistentObjects(
+      Collection<? extends Identifiable<? extends AbstractObjectID<?>>> pIdentifiableObjects,
+      final Class<T> pPersistentObjectType, final boolean pAllowEmptyResult ) {
+    return this.getPersistentObjectsPerShard(pIdentifiableObjects, pPersistentObjectType,
+        new BiFunction<PersistenceServiceProvider, List<Identifiable<? extends AbstractObjectID<?>>>, List<T>>() {
+          @Override
+          public List<T> apply( PersistenceServiceProvider pShard,
+              List<Identifiable<? extends AbstractObjectID<?>>> pObjects ) {
+            return pShard.getPersistentObjects(pObjects, pPersistentObjectType, pAllowEmptyResult);
+          }
+        });
+  }
+
+  @Override
+  public <T extends PersistentObject> List<T> getPersistentObjects(
+      Collection<? extends Identifiable<? extends AbstractObjectID<?>>> pIdentifiableObjects,
+      final Class<T> pPersistentObjectType, final boolean pAllowEmptyResult, final boolean pUseUnversionedObjectID ) {
+    return this.getPersistentObjectsPerShard(pIdentifiableObjects, pPersistentObjectType,
+        new BiFunction<PersistenceServiceProvider, List<Identifiable<? extends AbstractObjectID<?>>>, List<T>>() {
+          @Override
+          public List<T> apply( PersistenceServiceProvider pShard,
+              List<Identifiable<? extends AbstractObjectID<?>>> pObjects ) {
+            return pShard.getPersistentObjects(pObjects, pPersistentObjectType, pAllowEmptyResult,
+                pUseUnversionedObjectID);
+          }
+        });
+  }
+
+  @Override
+  public <T extends PersistentObject> List<T> getPersistentObjectsByIDs(
+      Collection<? extends AbstractObjectID<?>> pObjectIDs, final Class<T> pPersistentObjectType,
+      final boolean pAllowEmptyResult, final boolean pUseUnversionedObjectID ) {
+    // Check parameters.
+    Check.checkInvalidParameterNull(pObjectIDs, "pObjectIDs");
+    Check.checkInvalidParameterNull(pPersistentObjectType, "pPersistentObjectType");
+
+    List<List<AbstractObjectID<?>>> lGroups =
+        this.groupByShard(pObjectIDs, pPersistentObjectType, new Function<AbstractObjectID<?>, AbstractObjectID<?>>() {
+          @Override
+          public AbstractObjectID<?> apply( AbstractObjectID<?> pObjectID ) {
+            return pObjectID;
+          }
+        });
+    List<List<T>> lResults = this.executePerShard(lGroups,
+        new BiFunction<PersistenceServiceProvider, List<AbstractObjectID<?>>, List<T>>() {
+          @Override
+          public List<T> apply( PersistenceServiceProvider pShard, List<AbstractObjectID<?>> pIDs ) {
+            return pShard.getPersistentObjectsByIDs(pIDs, pPersistentObjectType, pAllowEmptyResult,
+                pUseUnversionedObjectID);
+          }
+        });
+    return ShardingPersistenceServiceProvider.restoreOrder(pObjectIDs, lResults);
+  }
+
+  @Override
+  public boolean exists( AbstractObjectID<?> pObjectID, Class<? extends PersistentObject> pPersistentObjectType ) {
+    return this.getShard(pObjectID, pPersistentObjectType).exists(pObjectID, pPersistentObjectType);
+  }
+
+  @Override
+  public <I extends AbstractObjectID<?>> List<I> existsAll( Collection<I> pObjectIDs,
+      final Class<? extends PersistentObject> pPersistentObjectType ) {
+    // Check parameters.
+    Check.checkInvalidParameterNull(pObjectIDs, "pObjectIDs");
+    Check.checkInvalidParameterNull(pPersistentObjectType, "pPersistentObjectType");
+
+    Function<I, AbstractObjectID<?>> lIdentity = new Function<I, AbstractObjectID<?>>() {
+      @Override
+      public AbstractObjectID<?> apply( I pObjectID ) {
+        return pObjectID;
+      }
+    };
+    List<List<I>> lGroups = this.groupByShard(pObjectIDs, pPersistentObjectType, lIdentity);
+    BiFunction<PersistenceServiceProvider, List<I>, List<I>> lExistsAll =
+        new BiFunction<PersistenceServiceProvider, List<I>, List<I>>() {
+          @Override
+          public List<I> apply( PersistenceServiceProvider pShard, List<I> pIDs ) {
+            return pShard.existsAll(pIDs, pPersistentObjectType);
+          }
+        };
+    List<List<I>> lResults = this.executePerShard(lGroups, lExistsAll);
+
+    // Missing ids have to be returned in the order in which they were passed.
+    Set<I> lMissingIDs = new HashSet<I>();
+    for (List<I> lNextResult : lResults) {
+      lMissingIDs.addAll(lNextResult);
+    }
+    List<I> lResult = new ArrayList<I>(lMissingIDs.size());
+    if (lMissingIDs.isEmpty() == false) {
+      for (I lNextObjectID : pObjectIDs) {
+        if (lMissingIDs.contains(lNextObjectID) == true) {
+          lResult.add(lNextObjectID);
+        }
+      }
+    }
+    return lResult;
+  }
+
+  @Override
+  public void delete( PersistentObject pPersistentObject ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pPersistentObject, "pPersistentObject");
+
+    this.getShard(pPersistentObject.getUnversionedID(), pPersistentObject.getClass()).delete(pPersistentObject);
+  }
+
+  @Override
+  public void remove( AbstractObjectID<?> pObjectID, Class<? extends PersistentObject> pPersistentObjectType ) {
+    this.getShard(pObjectID, pPersistentObjectType).remove(pObjectID, pPersistentObjectType);
+  }
+
+  /**
+   * Method flushes the persistence contexts of all shards.
+   */
+  @Override
+  public void flush( ) {
+    for (PersistenceServiceProvider lNextShard : shards) {
+      lNextShard.flush();
+    }
+  }
+
+  /**
+   * Method reads the passed objects from their shards.
+   * 
+   * @param <T> Type of the persistent objects.
+   * @param pIdentifiableObjects Objects that should be read. The parameter must not be null.
+   * @param pPersistentObjectType Type of the persistent objects. The parameter must not be null.
+   * @param pLookup Function that executes the lookup on one shard. The parameter must not be null.
+   * @return {@link List} Found persistent objects in the order in which they were passed. The method never returns
+   * null.
+   */
+  private <T extends PersistentObject> List<T> getPersistentObjectsPerShard(
+      Collection<? extends Identifiable<? extends AbstractObjectID<?>>> pIdentifiableObjects,
+      Class<T> pPersistentObjectType,
+      BiFunction<PersistenceServiceProvider, List<Identifiable<? extends AbstractObjectID<?>>>, List<T>> pLookup ) {
+    // Check parameters.
+    Check.checkInvalidParameterNull(pIdentifiableObjects, "pIdentifiableObjects");
+    Check.checkInvalidParameterNull(pPersistentObjectType, "pPersistentObjectType");
+
+    List<AbstractObjectID<?>> lObjectIDs = new ArrayList<AbstractObjectID<?>>(pIdentifiableObjects.size());
+    List<Identifiable<? extends AbstractObjectID<?>>> lObjects =
+        new ArrayList<Identifiable<? extends AbstractObjectID<?>>>(pIdentifiableObjects.size());
+    for (Identifiable<? extends AbstractObjectID<?>> lNextObject : pIdentifiableObjects) {
+      lObjects.add(lNextObject);
+      lObjectIDs.add(lNextObject.getID());
+    }
+    List<List<Identifiable<? extends AbstractObjectID<?>>>> lGroups = this.groupByShard(lObjects,
+        pPersistentObjectType,
+        new Function<Identifiable<? extends AbstractObjectID<?>>, AbstractObjectID<?>>() {
+          @Override
+          public AbstractObjectID<?> apply( Identifiable<? extends AbstractObjectID<?>> pObject ) {
+            return pObject.getID();
+          }
+        });
+    return ShardingPersistenceServiceProvider.restoreOrder(lObjectIDs, this.executePerShard(lGroups, pLookup));
+  }
+
+  /**
+   * Method groups the passed elements by the shard on which they are stored.
+   * 
+   * @param <E> Type of the elements.
+   * @param pElements Elements that should be grouped. The parameter must not be null.
+   * @param pPersistentObjectType Type of the persistent objects. The parameter must not be null.
+   * @param pIDFunction Function that returns the object id of an element. The parameter must not be null.
+   * @return {@link List} List with one group per shard. Groups of shards without any element are empty. The method
+   * never returns null.
+   */
+  private <E> List<List<E>> groupByShard( Collection<? extends E> pElements,
+      Class<? extends PersistentObject> pPersistentObjectType, Function<? super E, AbstractObjectID<?>> pIDFunction ) {
+    List<List<E>> lGroups = new ArrayList<List<E>>(shards.size());
+    for (int i = 0; i < shards.size(); i++) {
+      lGroups.add(new ArrayList<E>());
+    }
+    for (E lNextElement : pElements) {
+      AbstractObjectID<?> lObjectID = pIDFunction.apply(lNextElement);
+      lGroups.get(shardingStrategy.getShard(lObjectID, pPersistentObjectType, shards.size())).add(lNextElement);
+    }
+    return lGroups;
+  }
+
+  /**
+   * Method executes the passed function for every non empty group on its shard. If more than one shard is affected
+   * then the shards are accessed in parallel. The last affected shard is always accessed from the calling thread.
+   * 
+   * @param <E> Type of the elements.
+   * @param <R> Type of the results.
+   * @param pGroups Elements grouped by shard (see {@link #groupByShard(Collection, Class, Function)}). The parameter
+   * must not be null.
+   * @param pFunction Function that is executed per shard. The parameter must not be null.
+   * @return {@link List} Results of all affected shards. The method never returns null.
+   */
+  private <E, R> List<List<R>> executePerShard( List<List<E>> pGroups,
+      final BiFunction<PersistenceServiceProvider, List<E>, List<R>> pFunction ) {
+    // Determine affected shards.
+    List<Integer> lAffectedShards = new ArrayList<Integer>(pGroups.size());
+    for (int i = 0; i < pGroups.size(); i++) {
+      if (pGroups.get(i).isEmpty() == false) {
+        lAffectedShards.add(i);
+      }
+    }
+
+    List<List<R>> lResults = new ArrayList<List<R>>(lAffectedShards.size());
+    if (lAffectedShards.isEmpty() == false) {
+      // Start all but the last shard in the background.
+      int lLastIndex = lAffectedShards.size() - 1;
+      List<Future<List<R>>> lFutures = new ArrayList<Future<List<R>>>(lLastIndex);
+      for (int i = 0; i < lLastIndex; i++) {
+        final PersistenceServiceProvider lShard = shards.get(lAffectedShards.get(i));
+        final List<E> lGroup = pGroups.get(lAffectedShards.get(i));
+        lFutures.add(executorService.submit(new Callable<List<R>>() {
+          @Override
+          public List<R> call( ) {
+            return pFunction.apply(lShard, lGroup);
+          }
+        }));
+      }
+
+      // Process last shard on the calling thread.
+      Integer lLastShard = lAffectedShards.get(lLastIndex);
+      try {
+        lResults.add(pFunction.apply(shards.get(lLastShard), pGroups.get(lLastShard)));
+      }
+      catch (RuntimeException e) {
+        ShardingPersistenceServiceProvider.cancel(lFutures);
+        throw e;
+      }
+
+      // Collect results of all other shards.
+      for (int i = 0; i < lFutures.size(); i++) {
+        String lShard = String.valueOf(lAffectedShards.get(i));
+        try {
+          lResults.add(lFutures.get(i).get());
+        }
+        catch (ExecutionException e) {
+          ShardingPersistenceServiceProvider.cancel(lFutures);
+          // Exceptions of the shards (e.g. because an object could not be found) are passed unchanged.
+          Throwable lCause = e.getCause();
+          if (lCause instanceof RuntimeException) {
+            throw (RuntimeException) lCause;
+          }
+          else {
+            throw new JEAFSystemException(PersistenceServiceProviderMessages.SHARD_LOOKUP_FAILED, lCause, lShard,
+                String.valueOf(lCause));
+          }
+        }
+        catch (InterruptedException e) {
+          ShardingPersistenceServiceProvider.cancel(lFutures);
+          Thread.currentThread().interrupt();
+          throw new JEAFSystemException(PersistenceServiceProviderMessages.SHARD_LOOKUP_FAILED, e, lShard,
+              e.toString());
+        }
+      }
+    }
+    return lResults;
+  }
+
+  /**
+   * Method merges the results of several shards in the order of the passed object ids. The merge is also done if only
+   * one shard returned a result, as shard providers do not guarantee the order of their results and every object must
+   * only be returned once even if its id was passed several times.
+   * 
+   * @param <T> Type of the persistent objects.
+   * @param pObjectIDs Object ids in the order in which the objects should be returned. The parameter must not be null.
+   * @param pResults Results of all shards. The parameter must not be null.
+   * @return {@link List} Merged result. The method never returns null.
+   */
+  private static <T extends PersistentObject> List<T> restoreOrder(
+      Collection<? extends AbstractObjectID<?>> pObjectIDs, List<List<T>> pResults ) {
+    Map<String, T> lObjects = new HashMap<String, T>();
+    for (List<T> lNextResult : pResults) {
+      for (T lNextObject : lNextResult) {
+        lObjects.put(lNextObject.getObjectID(), lNextObject);
+      }
+    }
+    List<T> lResult = new ArrayList<T>(lObjects.size());
+    for (AbstractObjectID<?> lNextObjectID : pObjectIDs) {
+      T lObject = lObjects.remove(PersistentObjectID.create(lNextObjectID).getObjectID());
+      if (lObject != null) {
+        lResult.add(lObject);
+      }
+    }
+    return lResult;
+  }
+
+  /**
+   * Method cancels all passed futures.
+   * 
+   * @param pFutures Futures that should be cancelled. The parameter must not be null.
+   */
+  private static void cancel( List<? extends Future<?>> pFutures ) {
+    for (Future<?> lNextFuture : pFutures) {
+      lNextFuture.cancel(true);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import com.anaptecs.jeaf.xfun.api.common.AbstractObjectID;
+
+/**
+ * Interface defines how persistent objects are placed on the shards of a {@link ShardingPersistenceServiceProvider}.
+ * New objects are placed using their type and an optional shard key, e.g. the id of a customer whose data should be
+ * stored together. Thus objects of the same type may be distributed across all shards.
+ * 
+ * Lookups only know the object id. Implementations have to be stateless and have to return the same shard for the id
+ * of an object as they returned when the object was created. Otherwise objects can not be found again after they were
+ * created. This is checked by {@link ShardingPersistenceServiceProvider#createPersistentObject(Class, Object)}. If
+ * objects of one type are distributed across several shards then the shard has to be encoded into the object id by the
+ * shards, e.g. using a {@link ShardObjectIDBlockSource}.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ * 
+ * @see ClassIDShardingStrategy
+ * @see BlockShardingStrategy
+ */
+public interface ShardingStrategy {
+  /**
+   * Method returns the shard on which the object with the passed id is stored.
+   * 
+   * @param pObjectID Id of the object. The parameter must not be null.
+   * @param pPersistentObjectType Type of the persistent object as it was passed to the lookup. The type may be a super
+   * class of the real type of the object. The parameter must not be null.
+   * @param pShardCount Number of available shards.
+   * @return int Index of the shard. The value has to be between 0 and <code>pShardCount - 1</code>.
+   */
+  int getShard( AbstractObjectID<?> pObjectID, Class<? extends PersistentObject> pPersistentObjectType,
+      int pShardCount );
+
+  /**
+   * Method returns the shard on which a new persistent object of the passed type is created.
+   * 
+   * @param pPersistentObjectType Type of the persistent object that should be created. The parameter must not be null.
+   * @param pShardKey Key that defines where the object should be stored. The parameter may be null if the caller does
+   * not care about the placement of the object.
+   * @param pShardCount Number of available shards.
+   * @return int Index of the shard. The value has to be between 0 and <code>pShardCount - 1</code>.
+   */
+  int getShard( Class<? extends PersistentObject> pPersistentObjectType, Object pShardKey, int pShardCount );
+}
@@ -0,0 +1,229 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.Iterator;
+
+import com.anaptecs.jeaf.xfun.api.checks.Check;
+import com.anaptecs.jeaf.xfun.api.common.AbstractObjectID;
+import com.anaptecs.jeaf.xfun.api.common.Identifiable;
+import com.anaptecs.jeaf.xfun.api.errorhandling.JEAFSystemException;
+
+/**
+ * Class compares very large associations without keeping them in memory. In opposite to {@link AssociationComparator}
+ * both sides of the association have to be passed as iterators that return the objects sorted by their object id (see
+ * {@link #OBJECT_ID_ORDER}). Both iterators are read only once in a merge join and the result is reported to an
+ * {@link AssociationListener}. Thus the required memory does not depend on the size of the association.
+ * 
+ * Persistent objects can be read in the required order with a query that contains <code>ORDER BY o.objectID</code> as
+ * long as the database compares object ids by their characters. Identifiable objects without object id are reported as
+ * new objects wherever they occur. Objects with the same object id as their predecessor are reported as duplicates.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ * 
+ * @param <I> Type of the identifiable objects.
+ * @param <PO> Type of the persistent objects.
+ */
+public class SortedAssociationComparator<I extends Identifiable<? extends AbstractObjectID<?>>,
+    PO extends PersistentObject> {
+  /**
+   * Order of object ids that is required by this class. Object ids are compared character by character. Delimiters of
+   * service, domain and persistent object ids are treated as the same character. Version labels are ignored.
+   */
+  public static final Comparator<AbstractObjectID<?>> OBJECT_ID_ORDER = new ObjectIDOrder();
+
+  /**
+   * Identifiable objects sorted by their object id.
+   */
+  private final Iterator<I> objects;
+
+  /**
+   * Persistent objects sorted by their object id.
+   */
+  private final Iterator<PO> persistentObjects;
+
+  /**
+   * Current identifiable object or null if all identifiable objects were processed.
+   */
+  private I currentObject;
+
+  /**
+   * Object id of the current identifiable object.
+   */
+  private String currentObjectID;
+
+  /**
+   * Current persistent object or null if all persistent objects were processed.
+   */
+  private PO currentPersistentObject;
+
+  /**
+   * Object id of the current persistent object.
+   */
+  private String currentPersistentObjectID;
+
+  /**
+   * Initialize object.
+   * 
+   * @param pObjects Identifiable objects sorted by their object id. The parameter must not be null.
+   * @param pPersistentObjects Persistent objects sorted by their object id. The parameter must not be null.
+   */
+  public SortedAssociationComparator( Iterator<I> pObjects, Iterator<PO> pPersistentObjects ) {
+    // Check parameters.
+    Check.checkInvalidParameterNull(pObjects, "pObjects");
+    Check.checkInvalidParameterNull(pPersistentObjects, "pPersistentObjects");
+
+    objects = pObjects;
+    persistentObjects = pPersistentObjects;
+  }
+
+  /**
+   * Method compares both sides of the association and reports every object to the passed listener. As the iterators
+   * are consumed the method must only be called once.
+   * 
+   * @param pListener Listener to which the result of the comparison is reported. The parameter must not be null.
+   * @throws JEAFSystemException if one of the iterators does not return its objects in the required order.
+   */
+  public void compare( AssociationListener<I, PO> pListener ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pListener, "pListener");
+
+    this.nextObject(pListener);
+    this.nextPersistentObject(pListener);
+    while (currentObject != null || currentPersistentObject != null) {
+      int lResult;
+      if (currentObject == null) {
+        lResult = 1;
+      }
+      else if (currentPersistentObject == null) {
+        lResult = -1;
+      }
+      else {
+        lResult = ObjectIDStrings.compare(currentObjectID, currentPersistentObjectID);
+      }
+
+      // Object is not yet part of the association.
+      if (lResult < 0) {
+        pListener.addedObject(currentObject);
+        this.nextObject(pListener);
+      }
+      // Persistent object is no longer part of the association.
+      else if (lResult > 0) {
+        pListener.removedObject(currentPersistentObject);
+        this.nextPersistentObject(pListener);
+      }
+      // Object already was part of the association.
+      else {
+        pListener.existingObject(currentObject, currentPersistentObject);
+        this.nextObject(pListener);
+        this.nextPersistentObject(pListener);
+      }
+    }
+  }
+
+  /**
+   * Method moves to the next identifiable object with an object id. All objects without object id are reported as new
+   * objects and all objects with the same object id as their predecessor as duplicates.
+   * 
+   * @param pListener Listener to which new and duplicate objects are reported. The parameter must not be null.
+   */
+  private void nextObject( AssociationListener<I, PO> pListener ) {
+    String lPreviousObjectID = currentObjectID;
+    currentObject = null;
+    while (objects.hasNext() == true) {
+      I lObject = objects.next();
+      AbstractObjectID<?> lObjectID = lObject.getID();
+      // Object does not have a object id and thus must be new.
+      if (lObjectID == null) {
+        pListener.newObject(lObject);
+      }
+      else {
+        String lNextObjectID = lObjectID.getObjectID();
+        if (SortedAssociationComparator.checkOrder(lPreviousObjectID, lNextObjectID) == true) {
+          currentObject = lObject;
+          currentObjectID = lNextObjectID;
+          break;
+        }
+        else {
+          pListener.duplicateObject(lObject);
+        }
+      }
+    }
+  }
+
+  /**
+   * Method moves to the next persistent object. All persistent objects with the same object id as their predecessor are
+   * reported as duplicates.
+   * 
+   * @param pListener Listener to which duplicate persistent objects are reported. The parameter must not be null.
+   */
+  private void nextPersistentObject( AssociationListener<I, PO> pListener ) {
+    String lPreviousObjectID = currentPersistentObjectID;
+    currentPersistentObject = null;
+    while (persistentObjects.hasNext() == true) {
+      PO lPersistentObject = persistentObjects.next();
+      // Object id is read directly to avoid the creation of a persistent object id for every object.
+      String lNextObjectID = lPersistentObject.getObjectID();
+      if (SortedAssociationComparator.checkOrder(lPreviousObjectID, lNextObjectID) == true) {
+        currentPersistentObject = lPersistentObject;
+        currentPersistentObjectID = lNextObjectID;
+        break;
+      }
+      else {
+        pListener.duplicatePersistentObject(lPersistentObject);
+      }
+    }
+  }
+
+  /**
+   * Method checks whether the passed object id follows its predecessor.
+   * 
+   * @param pPreviousObjectID Object id of the predecessor. The parameter may be null.
+   * @param pObjectID Object id that should be checked. The parameter must not be null.
+   * @return boolean Method returns true if the object id is greater than its predecessor and false if both are equal.
+   * @throws JEAFSystemException if the object id is less than its predecessor.
+   */
+  private static boolean checkOrder( String pPreviousObjectID, String pObjectID ) {
+    boolean lGreater;
+    if (pPreviousObjectID != null) {
+      int lResult = ObjectIDStrings.compare(pPreviousObjectID, pObjectID);
+      if (lResult > 0) {
+        throw new JEAFSystemException(PersistenceServiceProviderMessages.OBJECT_IDS_NOT_SORTED, pObjectID,
+            pPreviousObjectID);
+      }
+      lGreater = lResult < 0;
+    }
+    else {
+      lGreater = true;
+    }
+    return lGreater;
+  }
+
+  /**
+   * Class implements the order of object ids that is required by {@link SortedAssociationComparator}.
+   */
+  private static final class ObjectIDOrder implements Comparator<AbstractObjectID<?>>, Serializable {
+    /**
+     * Default serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Method compares the passed object ids.
+     * 
+     * @param pObjectID1 First object id. The parameter must not be null.
+     * @param pObjectID2 Second object id. The parameter must not be null.
+     * @return int Result of the comparison as defined by {@link Comparator#compare(Object, Object)}.
+     */
+    @Override
+    public int compare( AbstractObjectID<?> pObjectID1, AbstractObjectID<?> pObjectID2 ) {
+      return ObjectIDStrings.compare(pObjectID1.getObjectID(), pObjectID2.getObjectID());
+    }
+  }
+}
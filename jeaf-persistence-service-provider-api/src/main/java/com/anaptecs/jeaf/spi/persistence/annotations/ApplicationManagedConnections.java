@@ -58,6 +58,19 @@ public @interface ApplicationManagedConnections {
    */
   ConnectionPool connectionPool() default @ConnectionPool;
 
+  /**
+   * JDBC connection URLs of read replicas of the database. Read-only units of work may be routed to these replicas
+   * according to {@link #readReplicaRouting()}. Username and password are the same as for the primary database. The
+   * attribute supports replacement of place holders by system properties.
+   */
+  String[] readReplicaConnectionURLs() default {};
+
+  /**
+   * Definition how read-only units of work are routed to the read replicas. The attribute is only relevant if read
+   * replicas are defined.
+   */
+  ReadReplicaRouting readReplicaRouting() default @ReadReplicaRouting;
+
   /**
    * List of properties that belong to the persistence unit. These properties are provided to the persistence provider
    * during its initialization. The attribute supports replacement of place holders by system properties.
@@ -30,6 +30,18 @@ public @interface ContainerManagedConnections {
    */
   String nonJTADataSource() default "";
 
+  /**
+   * Lookup names of the datasources of read replicas of the database. Read-only units of work may be routed to these
+   * datasources according to {@link #readReplicaRouting()}.
+   */
+  String[] readReplicaDataSources() default {};
+
+  /**
+   * Definition how read-only units of work are routed to the read replicas. The attribute is only relevant if read
+   * replicas are defined.
+   */
+  ReadReplicaRouting readReplicaRouting() default @ReadReplicaRouting;
+
   /**
    * Attribute defines if classes that are not explicitly mentioned should be excluded from the persistence unit or not.
    * Class can be defined using {@link PersistenceUnit#managedClassesDefinition},
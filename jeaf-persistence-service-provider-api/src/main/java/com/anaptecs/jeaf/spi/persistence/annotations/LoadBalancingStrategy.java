@@ -0,0 +1,25 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence.annotations;
+
+/**
+ * Enum defines the strategies that can be used to distribute read-only units of work across read replicas.
+ * 
+ * @author JEAF Development Team
+ * 
+ * @see ReadReplicaRouting
+ */
+public enum LoadBalancingStrategy {
+  /**
+   * Read replicas are used one after the other.
+   */
+  ROUND_ROBIN,
+
+  /**
+   * Read replicas are chosen randomly.
+   */
+  RANDOM;
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation can be used to define how read-only units of work are routed to the read replicas of a persistence unit.
+ * Read replicas themselves are defined through {@link ApplicationManagedConnections#readReplicaConnectionURLs()} or
+ * {@link ContainerManagedConnections#readReplicaDataSources()}.
+ * 
+ * @author JEAF Development Team
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ReadReplicaRouting {
+  /**
+   * Strategy that is used to distribute read-only units of work across all read replicas.
+   */
+  LoadBalancingStrategy loadBalancing() default LoadBalancingStrategy.ROUND_ROBIN;
+
+  /**
+   * Period in milliseconds after a write during which read-only units of work of the same thread are still routed to
+   * the primary data source (read your writes). This way reads see the own changes even if replication to the read
+   * replicas is delayed. "0" disables this behavior. The attribute must be a valid positive integer (>=0). The
+   * attribute supports replacement of place holders by system properties.
+   */
+  String readYourWritesPeriod() default "0";
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Class implements a reader for files that are compressed with gzip. The file is decompressed and decoded as a stream.
+ * 
+ * Instances of this class are not thread safe.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+final class CompressedFileReader extends Reader implements InputPosition {
+  /**
+   * Size of the input buffer for the compressed file.
+   */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Stream that counts the compressed bytes that were read from the file.
+   */
+  private final CountingInputStream input;
+
+  /**
+   * Reader that decodes the decompressed bytes.
+   */
+  private final Reader reader;
+
+  /**
+   * Initialize reader.
+   * 
+   * @param pFile File that should be read. The parameter must not be null.
+   * @param pCharset Character set of the decompressed content. The parameter must not be null.
+   * @throws IOException if the file can not be opened or is not compressed with gzip.
+   */
+  CompressedFileReader( Path pFile, Charset pCharset ) throws IOException {
+    input = new CountingInputStream(Files.newInputStream(pFile));
+    try {
+      CharsetDecoder lDecoder = pCharset.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+          .onUnmappableCharacter(CodingErrorAction.REPORT);
+      reader = new InputStreamReader(new GZIPInputStream(input, BUFFER_SIZE), lDecoder);
+    }
+    catch (IOException e) {
+      input.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Method checks whether the passed file is compressed with gzip.
+   * 
+   * @param pFile File that should be checked. The parameter must not be null.
+   * @return boolean Method returns true if the file starts with the gzip magic number and false otherwise.
+   * @throws IOException if the file can not be read.
+   */
+  static boolean isCompressed( Path pFile ) throws IOException {
+    try (InputStream lInputStream = Files.newInputStream(pFile)) {
+      return lInputStream.read() == 0x1f && lInputStream.read() == 0x8b;
+    }
+  }
+
+  /**
+   * @see java.io.Reader#read(char[], int, int)
+   */
+  @Override
+  public int read( char[] pBuffer, int pOffset, int pLength ) throws IOException {
+    return reader.read(pBuffer, pOffset, pLength);
+  }
+
+  /**
+   * @see java.io.Reader#close()
+   */
+  @Override
+  public void close( ) throws IOException {
+    reader.close();
+  }
+
+  /**
+   * Method returns the number of compressed bytes that were read from the file.
+   * 
+   * @return long Number of bytes.
+   */
+  @Override
+  public long getBytesRead( ) {
+    return input.count;
+  }
+
+  /**
+   * Class counts all bytes that are read from the underlying stream.
+   */
+  private static final class CountingInputStream extends FilterInputStream {
+    /**
+     * Number of bytes that were read.
+     */
+    long count;
+
+    /**
+     * Initialize object.
+     * 
+     * @param pInputStream Stream from which the bytes are read.
+     */
+    CountingInputStream( InputStream pInputStream ) {
+      super(pInputStream);
+    }
+
+    /**
+     * @see java.io.FilterInputStream#read()
+     */
+    @Override
+    public int read( ) throws IOException {
+      int lByte = super.read();
+      if (lByte >= 0) {
+        count++;
+      }
+      return lByte;
+    }
+
+    /**
+     * @see java.io.FilterInputStream#read(byte[], int, int)
+     */
+    @Override
+    public int read( byte[] pBuffer, int pOffset, int pLength ) throws IOException {
+      int lRead = super.read(pBuffer, pOffset, pLength);
+      if (lRead > 0) {
+        count += lRead;
+      }
+      return lRead;
+    }
+
+    /**
+     * @see java.io.FilterInputStream#skip(long)
+     */
+    @Override
+    public long skip( long pBytes ) throws IOException {
+      long lSkipped = super.skip(pBytes);
+      count += lSkipped;
+      return lSkipped;
+    }
+  }
+}
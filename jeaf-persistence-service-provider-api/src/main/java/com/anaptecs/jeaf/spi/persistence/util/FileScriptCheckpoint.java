@@ -0,0 +1,135 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+
+import com.anaptecs.jeaf.xfun.api.checks.Check;
+
+/**
+ * Class stores the checkpoints of scripts in local files. Every script has its own file inside the checkpoint
+ * directory that contains the number of committed statements. Files are replaced atomically after every commit and
+ * are deleted as soon as the script is completed.
+ * 
+ * As the file is written after the commit a crash between commit and write causes the statements of the last commit
+ * interval to be executed again. Use {@link TableScriptCheckpoint} if this is not acceptable.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public final class FileScriptCheckpoint implements ScriptCheckpoint {
+  /**
+   * Suffix of all checkpoint files.
+   */
+  private static final String FILE_SUFFIX = ".checkpoint";
+
+  /**
+   * Directory that contains the checkpoint files.
+   */
+  private final Path directory;
+
+  /**
+   * Initialize object.
+   * 
+   * @param pDirectory Directory that contains the checkpoint files. The directory is created if it does not exist. The
+   * parameter must not be null.
+   */
+  public FileScriptCheckpoint( Path pDirectory ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pDirectory, "pDirectory");
+
+    directory = pDirectory;
+  }
+
+  /**
+   * Method reads the number of committed statements from the checkpoint file of the passed script.
+   * 
+   * @param pConnection Connection on which the script is executed. The parameter is not used.
+   * @param pScriptName Name of the script. The parameter must not be null.
+   * @return long Number of committed statements or 0 if no checkpoint file exists.
+   * @throws IOException if the checkpoint file can not be read.
+   */
+  @Override
+  public long getCommittedStatements( Connection pConnection, String pScriptName ) throws IOException {
+    Path lFile = this.getCheckpointFile(pScriptName);
+    long lStatements;
+    if (Files.exists(lFile) == true) {
+      String lContent = new String(Files.readAllBytes(lFile), StandardCharsets.UTF_8).trim();
+      try {
+        lStatements = Long.parseLong(lContent);
+      }
+      catch (NumberFormatException e) {
+        throw new IOException("Checkpoint file " + lFile + " is corrupt.", e);
+      }
+    }
+    else {
+      lStatements = 0;
+    }
+    return lStatements;
+  }
+
+  /**
+   * Checkpoint files are only written after the commit.
+   */
+  @Override
+  public void beforeCommit( Connection pConnection, String pScriptName, long pStatements, boolean pCompleted ) {
+    // Nothing to do.
+  }
+
+  /**
+   * Method writes the checkpoint file of the passed script or deletes it if the script is completed.
+   * 
+   * @param pScriptName Name of the script. The parameter must not be null.
+   * @param pStatements Number of committed statements.
+   * @param pCompleted Parameter defines if the script is completed.
+   * @throws IOException if the checkpoint file can not be written.
+   */
+  @Override
+  public void afterCommit( String pScriptName, long pStatements, boolean pCompleted ) throws IOException {
+    Path lFile = this.getCheckpointFile(pScriptName);
+    if (pCompleted == true) {
+      Files.deleteIfExists(lFile);
+    }
+    else {
+      // File is replaced atomically so that a crash never leaves an incomplete checkpoint.
+      Files.createDirectories(directory);
+      Path lTempFile = directory.resolve(lFile.getFileName() + ".tmp");
+      Files.write(lTempFile, Long.toString(pStatements).getBytes(StandardCharsets.UTF_8));
+      Files.move(lTempFile, lFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+  }
+
+  /**
+   * Method returns the checkpoint file of the passed script. All characters of the script name that may not be valid
+   * inside a file name are replaced by '_'.
+   * 
+   * @param pScriptName Name of the script. The parameter must not be null.
+   * @return {@link Path} Checkpoint file of the script. The method never returns null.
+   */
+  private Path getCheckpointFile( String pScriptName ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pScriptName, "pScriptName");
+
+    StringBuilder lBuilder = new StringBuilder(pScriptName.length() + FILE_SUFFIX.length());
+    for (int i = 0; i < pScriptName.length(); i++) {
+      char lChar = pScriptName.charAt(i);
+      if ((lChar >= 'a' && lChar <= 'z') || (lChar >= 'A' && lChar <= 'Z') || (lChar >= '0' && lChar <= '9')
+          || lChar == '.' || lChar == '-') {
+        lBuilder.append(lChar);
+      }
+      else {
+        lBuilder.append('_');
+      }
+    }
+    lBuilder.append(FILE_SUFFIX);
+    return directory.resolve(lBuilder.toString());
+  }
+}
@@ -0,0 +1,22 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence.util;
+
+/**
+ * Interface is implemented by readers of script files that know how many bytes of the file they already read. It is
+ * used to report the progress of a script.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+interface InputPosition {
+  /**
+   * Method returns the number of bytes of the file that were read so far.
+   * 
+   * @return long Number of bytes.
+   */
+  long getBytesRead( );
+}
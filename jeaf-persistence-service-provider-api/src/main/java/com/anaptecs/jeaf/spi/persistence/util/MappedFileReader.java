@@ -0,0 +1,279 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Class implements a reader for large files that maps the file into memory region by region. The bytes of the mapped
+ * region are copied in large blocks into a heap buffer from which they are decoded into the buffer of the caller.
+ * Character set decoders only use their fast array based implementation if both buffers are heap buffers and are
+ * several times slower if they read from a mapped buffer directly. In opposite to an {@link java.io.InputStreamReader}
+ * no objects are created per read and no system call is needed to fetch the bytes of the file.
+ * 
+ * Instances of this class are not thread safe.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+final class MappedFileReader extends Reader implements InputPosition {
+  /**
+   * Maximum number of bytes that are mapped at once. As a mapped region is limited to 2GB large files are mapped in
+   * several regions.
+   */
+  static final int REGION_SIZE = 64 * 1024 * 1024;
+
+  /**
+   * Size of the heap buffer into which the bytes of the mapped region are copied before they are decoded.
+   */
+  static final int INPUT_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Channel of the file.
+   */
+  private final FileChannel channel;
+
+  /**
+   * Size of the file in bytes.
+   */
+  private final long size;
+
+  /**
+   * Decoder that is used to convert the bytes of the file into characters.
+   */
+  private final CharsetDecoder decoder;
+
+  /**
+   * Position of the current region inside the file.
+   */
+  private long regionStart;
+
+  /**
+   * Currently mapped region of the file.
+   */
+  private MappedByteBuffer region;
+
+  /**
+   * Heap buffer with the bytes of the file that were copied from the mapped region but not decoded yet.
+   */
+  private final ByteBuffer input = ByteBuffer.allocate(INPUT_BUFFER_SIZE);
+
+  /**
+   * Buffer that wraps the array of the caller. As callers usually read into the same array it is reused as long as
+   * the array does not change.
+   */
+  private CharBuffer output;
+
+  /**
+   * Parameter defines if the decoder was already flushed at the end of the file.
+   */
+  private boolean flushed;
+
+  /**
+   * Buffer that is used to decode a surrogate pair if the caller requests only one character.
+   */
+  private final CharBuffer surrogatePair = CharBuffer.allocate(2);
+
+  /**
+   * Low surrogate of a surrogate pair whose high surrogate was already returned.
+   */
+  private char pendingLowSurrogate;
+
+  /**
+   * Parameter defines if {@link #pendingLowSurrogate} has to be returned with the next read.
+   */
+  private boolean hasPendingLowSurrogate;
+
+  /**
+   * Initialize reader and map the first region of the passed file.
+   * 
+   * @param pFile File that should be read. The parameter must not be null.
+   * @param pCharset Character set of the file. The parameter must not be null.
+   * @throws IOException if the file can not be opened or mapped.
+   */
+  MappedFileReader( Path pFile, Charset pCharset ) throws IOException {
+    channel = FileChannel.open(pFile, StandardOpenOption.READ);
+    try {
+      size = channel.size();
+      decoder = pCharset.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+          .onUnmappableCharacter(CodingErrorAction.REPORT);
+      this.map(0);
+      input.flip();
+    }
+    catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Method decodes the next characters of the file into the passed buffer. If only one character is requested and the
+   * next character of the file is a supplementary character then its high surrogate is returned and its low surrogate
+   * is returned with the next read.
+   * 
+   * @param pBuffer Buffer into which the characters are read.
+   * @param pOffset Offset at which the first character is stored.
+   * @param pLength Maximum number of characters that are read.
+   * @return int Number of characters that were read or -1 if the end of the file is reached.
+   * @throws IOException if the file can not be mapped or contains bytes that are invalid for the character set.
+   */
+  @Override
+  public int read( char[] pBuffer, int pOffset, int pLength ) throws IOException {
+    if (region == null) {
+      throw new IOException("Reader is already closed.");
+    }
+    int lRead;
+    if (pLength == 0) {
+      lRead = 0;
+    }
+    else {
+      CharBuffer lOutput = this.wrapOutput(pBuffer, pOffset, pLength);
+      if (hasPendingLowSurrogate == true) {
+        lOutput.put(pendingLowSurrogate);
+        hasPendingLowSurrogate = false;
+      }
+      while (lOutput.position() == pOffset && flushed == false) {
+        boolean lEndOfInput = regionStart + region.position() >= size;
+        CoderResult lResult = decoder.decode(input, lOutput, lEndOfInput);
+        if (lResult.isError()) {
+          lResult.throwException();
+        }
+        if (lResult.isUnderflow()) {
+          if (lEndOfInput == true) {
+            flushed = decoder.flush(lOutput).isUnderflow();
+          }
+          else {
+            this.fillInput();
+          }
+        }
+        // Decoder does not split surrogate pairs. Thus a supplementary character does not fit into one character.
+        else if (lOutput.position() == pOffset) {
+          this.decodeSurrogatePair(lOutput, lEndOfInput);
+        }
+      }
+      lRead = lOutput.position() - pOffset;
+      if (lRead == 0) {
+        lRead = -1;
+      }
+    }
+    return lRead;
+  }
+
+  /**
+   * Method returns a buffer that wraps the passed part of the array of the caller.
+   * 
+   * @param pBuffer Buffer into which the characters are read.
+   * @param pOffset Offset at which the first character is stored.
+   * @param pLength Maximum number of characters that are read.
+   * @return {@link CharBuffer} Buffer whose position is the passed offset. The method never returns null.
+   */
+  private CharBuffer wrapOutput( char[] pBuffer, int pOffset, int pLength ) {
+    Objects.checkFromIndexSize(pOffset, pLength, pBuffer.length);
+    if (output == null || output.array() != pBuffer) {
+      output = CharBuffer.wrap(pBuffer, pOffset, pLength);
+    }
+    else {
+      output.limit(pOffset + pLength);
+      output.position(pOffset);
+    }
+    return output;
+  }
+
+  /**
+   * Method decodes the next character of the file which is a supplementary character. Its high surrogate is written to
+   * the passed buffer and its low surrogate is kept for the next read.
+   * 
+   * @param pOutput Buffer with space for exactly one character. The parameter must not be null.
+   * @param pEndOfInput Parameter defines if the input buffer contains the last bytes of the file.
+   * @throws IOException if the file contains bytes that are invalid for the character set.
+   */
+  private void decodeSurrogatePair( CharBuffer pOutput, boolean pEndOfInput ) throws IOException {
+    surrogatePair.clear();
+    CoderResult lResult = decoder.decode(input, surrogatePair, pEndOfInput);
+    if (lResult.isError()) {
+      lResult.throwException();
+    }
+    surrogatePair.flip();
+    if (surrogatePair.hasRemaining() == true) {
+      pOutput.put(surrogatePair.get());
+    }
+    if (surrogatePair.hasRemaining() == true) {
+      pendingLowSurrogate = surrogatePair.get();
+      hasPendingLowSurrogate = true;
+    }
+  }
+
+  /**
+   * Method returns the number of bytes of the file that were decoded so far.
+   * 
+   * @return long Number of bytes.
+   */
+  @Override
+  public long getBytesRead( ) {
+    long lBytesRead;
+    if (region != null) {
+      lBytesRead = regionStart + region.position() - input.remaining();
+    }
+    else {
+      lBytesRead = size;
+    }
+    return lBytesRead;
+  }
+
+  /**
+   * Method closes the file. The mapped region is released by the garbage collector.
+   * 
+   * @throws IOException if the file can not be closed.
+   */
+  @Override
+  public void close( ) throws IOException {
+    region = null;
+    channel.close();
+  }
+
+  /**
+   * Method copies the next bytes of the file into the input buffer. Bytes that were not decoded yet may be the first
+   * bytes of a character and are thus kept in front of the copied bytes. If the current region is exhausted then the
+   * next region of the file is mapped.
+   * 
+   * @throws IOException if the next region can not be mapped.
+   */
+  private void fillInput( ) throws IOException {
+    input.compact();
+    while (input.hasRemaining() == true && regionStart + region.position() < size) {
+      if (region.hasRemaining() == false) {
+        this.map(regionStart + region.position());
+      }
+      int lLength = Math.min(input.remaining(), region.remaining());
+      region.get(input.array(), input.position(), lLength);
+      input.position(input.position() + lLength);
+    }
+    input.flip();
+  }
+
+  /**
+   * Method maps the region of the file that starts at the passed position.
+   * 
+   * @param pPosition Position inside the file at which the region starts.
+   * @throws IOException if the region can not be mapped.
+   */
+  private void map( long pPosition ) throws IOException {
+    regionStart = pPosition;
+    region = channel.map(FileChannel.MapMode.READ_ONLY, pPosition, Math.min(REGION_SIZE, size - pPosition));
+  }
+}
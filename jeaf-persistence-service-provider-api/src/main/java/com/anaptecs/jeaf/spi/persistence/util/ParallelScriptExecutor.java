@@ -0,0 +1,448 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence.util;
+
+import java.io.Reader;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import com.anaptecs.jeaf.spi.persistence.PersistenceServiceProviderMessages;
+import com.anaptecs.jeaf.xfun.api.XFun;
+import com.anaptecs.jeaf.xfun.api.checks.Check;
+import com.anaptecs.jeaf.xfun.api.errorhandling.JEAFSystemException;
+
+/**
+ * Class executes several SQL scripts in parallel. Every script may declare the scripts it depends on. A script is only
+ * started after all scripts it depends on were executed successfully. All other scripts are executed in parallel, each
+ * one with a {@link ScriptRunner} on a connection of its own that is taken from the passed data source.
+ * 
+ * If a script fails then no further scripts are started. Scripts that are already running are finished before the
+ * failure is reported with a {@link ScriptExecutionException} that also contains the results of all finished
+ * scripts. Whether errors of single statements cause a script to fail depends on the stopOnError setting (see
+ * {@link ScriptRunner}).
+ * 
+ * Instances of this class are not thread safe. They have to be configured completely before
+ * {@link #execute(ExecutorService)} is called.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public final class ParallelScriptExecutor {
+  /**
+   * Data source from which the connections for the scripts are taken.
+   */
+  private final DataSource dataSource;
+
+  /**
+   * Parameter defines if the scripts run in auto commit mode.
+   */
+  private final boolean autoCommit;
+
+  /**
+   * Parameter defines if the execution of a script stops with the first failed statement.
+   */
+  private final boolean stopOnError;
+
+  /**
+   * Number of DML statements that are executed as one JDBC batch.
+   */
+  private int batchSize = 1;
+
+  /**
+   * Number of statements after which a commit takes place in auto commit mode.
+   */
+  private int commitInterval = 1;
+
+  /**
+   * Listener that is informed about the progress of all scripts. The listener may be null.
+   */
+  private ScriptProgressListener progressListener;
+
+  /**
+   * All scripts in the order in which they were added.
+   */
+  private final List<Script> scripts = new ArrayList<Script>();
+
+  /**
+   * Map contains the index of every script inside {@link #scripts} with its name as key.
+   */
+  private final Map<String, Integer> scriptIndexes = new HashMap<String, Integer>();
+
+  /**
+   * Initialize object.
+   * 
+   * @param pDataSource Data source from which the connections for the scripts are taken. The data source has to provide
+   * at least as many connections as scripts should run in parallel. The parameter must not be null.
+   * @param pAutoCommit Parameter defines if the scripts run in auto commit mode.
+   * @param pStopOnError Parameter defines if the execution of a script stops with the first failed statement.
+   */
+  public ParallelScriptExecutor( DataSource pDataSource, boolean pAutoCommit, boolean pStopOnError ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pDataSource, "pDataSource");
+
+    dataSource = pDataSource;
+    autoCommit = pAutoCommit;
+    stopOnError = pStopOnError;
+  }
+
+  /**
+   * Method defines the number of DML statements that are executed as one JDBC batch.
+   * 
+   * @param pBatchSize Number of statements per batch. 1 disables batch execution. The value must be positive.
+   * @return {@link ParallelScriptExecutor} This object. The method never returns null.
+   * @see ScriptRunner#setBatchSize(int)
+   */
+  public ParallelScriptExecutor setBatchSize( int pBatchSize ) {
+    Check.checkIsPositive(pBatchSize, "pBatchSize");
+    batchSize = pBatchSize;
+    return this;
+  }
+
+  /**
+   * Method defines the number of statements after which a commit takes place in auto commit mode.
+   * 
+   * @param pCommitInterval Number of statements per commit. The value must be positive.
+   * @return {@link ParallelScriptExecutor} This object. The method never returns null.
+   * @see ScriptRunner#setCommitInterval(int)
+   */
+  public ParallelScriptExecutor setCommitInterval( int pCommitInterval ) {
+    Check.checkIsPositive(pCommitInterval, "pCommitInterval");
+    commitInterval = pCommitInterval;
+    return this;
+  }
+
+  /**
+   * Method sets the listener that is informed about the progress of all scripts. As scripts are executed in parallel
+   * the listener is called from different threads concurrently. The name of the script is part of the progress.
+   * 
+   * @param pProgressListener Listener that is informed about the progress. The parameter may be null.
+   * @return {@link ParallelScriptExecutor} This object. The method never returns null.
+   */
+  public ParallelScriptExecutor setProgressListener( ScriptProgressListener pProgressListener ) {
+    progressListener = pProgressListener;
+    return this;
+  }
+
+  /**
+   * Method adds the script with the passed name. The script is read from the passed file using UTF-8. Files that are
+   * compressed with gzip are decompressed while they are read. As the size of the file is known the progress of the
+   * script contains the total number of bytes and the estimated remaining time.
+   * 
+   * @param pName Unique name of the script. The parameter must not be null.
+   * @param pScriptFile File that contains the script. The parameter must not be null.
+   * @param pDependencies Names of all scripts that have to be executed before the script. The parameter must not be
+   * null.
+   * @return {@link ParallelScriptExecutor} This object. The method never returns null.
+   */
+  public ParallelScriptExecutor addScript( String pName, Path pScriptFile, String... pDependencies ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pScriptFile, "pScriptFile");
+
+    return this.addScript(new Script(pName, pScriptFile, null, pDependencies));
+  }
+
+  /**
+   * Method adds the script with the passed name.
+   * 
+   * @param pName Unique name of the script. The parameter must not be null.
+   * @param pScriptSource Callable that opens the reader from which the script is read. The callable is called from a
+   * different thread when the script gets executed. The returned reader is closed after the execution. The parameter
+   * must not be null.
+   * @param pDependencies Names of all scripts that have to be executed before the script. Dependencies are resolved
+   * when the scripts get executed. Thus scripts may be added in any order. The parameter must not be null.
+   * @return {@link ParallelScriptExecutor} This object. The method never returns null.
+   * @throws JEAFSystemException if a script with the passed name was already added.
+   */
+  public ParallelScriptExecutor addScript( String pName, Callable<Reader> pScriptSource, String... pDependencies ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pScriptSource, "pScriptSource");
+
+    return this.addScript(new Script(pName, null, pScriptSource, pDependencies));
+  }
+
+  /**
+   * Method adds the passed script.
+   * 
+   * @param pScript Script that should be added. The parameter must not be null.
+   * @return {@link ParallelScriptExecutor} This object. The method never returns null.
+   * @throws JEAFSystemException if a script with the same name was already added.
+   */
+  private ParallelScriptExecutor addScript( Script pScript ) {
+    if (scriptIndexes.containsKey(pScript.name) == true) {
+      throw new JEAFSystemException(PersistenceServiceProviderMessages.DUPLICATE_SCRIPT_NAME, pScript.name);
+    }
+    scriptIndexes.put(pScript.name, scripts.size());
+    scripts.add(pScript);
+    return this;
+  }
+
+  /**
+   * Method executes all scripts. Scripts whose dependencies are fulfilled are executed in parallel using the passed
+   * executor service. The method returns as soon as all scripts were executed.
+   * 
+   * @param pExecutorService Executor service that is used to execute the scripts. The number of its threads defines how
+   * many scripts run in parallel. The parameter must not be null.
+   * @return {@link List} Results of all scripts in the order in which their execution finished. The method never
+   * returns null.
+   * @throws JEAFSystemException if a script depends on an unknown script or the dependencies contain a cycle.
+   * @throws ScriptExecutionException if the execution of a script failed or the current thread was interrupted. The
+   * exception contains the results of all scripts that were finished until then.
+   */
+  public List<ScriptExecutionResult> execute( ExecutorService pExecutorService ) {
+    // Check parameter.
+    Check.checkInvalidParameterNull(pExecutorService, "pExecutorService");
+
+    // Resolve dependencies. For every script the number of unfinished dependencies and its dependent scripts are
+    // determined.
+    int lScriptCount = scripts.size();
+    int[] lPendingDependencies = new int[lScriptCount];
+    List<List<Integer>> lDependentScripts = new ArrayList<List<Integer>>(lScriptCount);
+    for (int i = 0; i < lScriptCount; i++) {
+      lDependentScripts.add(new ArrayList<Integer>());
+    }
+    for (int i = 0; i < lScriptCount; i++) {
+      Script lScript = scripts.get(i);
+      for (String lNextDependency : lScript.dependencies) {
+        Integer lIndex = scriptIndexes.get(lNextDependency);
+        if (lIndex == null) {
+          throw new JEAFSystemException(PersistenceServiceProviderMessages.UNKNOWN_SCRIPT_DEPENDENCY, lScript.name,
+              lNextDependency);
+        }
+        lDependentScripts.get(lIndex).add(i);
+        lPendingDependencies[i]++;
+      }
+    }
+    this.checkForCycles(lPendingDependencies, lDependentScripts);
+
+    // Start all scripts without dependencies.
+    CompletionService<ScriptExecutionResult> lCompletionService =
+        new ExecutorCompletionService<ScriptExecutionResult>(pExecutorService);
+    Map<Future<ScriptExecutionResult>, Integer> lRunningScripts = new HashMap<Future<ScriptExecutionResult>, Integer>();
+    for (int i = 0; i < lScriptCount; i++) {
+      if (lPendingDependencies[i] == 0) {
+        lRunningScripts.put(lCompletionService.submit(new ScriptTask(scripts.get(i))), i);
+      }
+    }
+
+    // Whenever a script is finished all scripts whose dependencies are fulfilled now are started.
+    List<ScriptExecutionResult> lResults = new ArrayList<ScriptExecutionResult>(lScriptCount);
+    ScriptExecutionResult lFailedScript = null;
+    while (lRunningScripts.isEmpty() == false) {
+      ScriptExecutionResult lResult;
+      int lIndex;
+      try {
+        Future<ScriptExecutionResult> lFuture = lCompletionService.take();
+        lIndex = lRunningScripts.remove(lFuture);
+        lResult = lFuture.get();
+      }
+      catch (ExecutionException e) {
+        // ScriptTask does not throw any exceptions.
+        throw new IllegalStateException(e.getCause());
+      }
+      catch (InterruptedException e) {
+        for (Future<ScriptExecutionResult> lNextFuture : lRunningScripts.keySet()) {
+          lNextFuture.cancel(true);
+        }
+        Thread.currentThread().interrupt();
+        throw new ScriptExecutionException(PersistenceServiceProviderMessages.SCRIPT_EXECUTION_FAILED, e,
+            Collections.unmodifiableList(lResults), this.getScriptNames(lRunningScripts.values()), e.toString());
+      }
+      lResults.add(lResult);
+      XFun.getTrace().info("SQL script " + lResult);
+
+      if (lResult.isSuccessful() == true) {
+        if (lFailedScript == null) {
+          for (Integer lNextDependent : lDependentScripts.get(lIndex)) {
+            lPendingDependencies[lNextDependent]--;
+            if (lPendingDependencies[lNextDependent] == 0) {
+              lRunningScripts.put(lCompletionService.submit(new ScriptTask(scripts.get(lNextDependent))),
+                  lNextDependent);
+            }
+          }
+        }
+      }
+      // No further scripts are started after a failure.
+      else if (lFailedScript == null) {
+        lFailedScript = lResult;
+      }
+    }
+
+    // Report first failed script.
+    if (lFailedScript != null) {
+      Exception lException = lFailedScript.getException();
+      throw new ScriptExecutionException(PersistenceServiceProviderMessages.SCRIPT_EXECUTION_FAILED, lException,
+          Collections.unmodifiableList(lResults), lFailedScript.getScriptName(), lException.toString());
+    }
+    return Collections.unmodifiableList(lResults);
+  }
+
+  /**
+   * Method checks that the dependencies of the scripts do not contain a cycle.
+   * 
+   * @param pPendingDependencies Number of dependencies of every script. The parameter must not be null and is not
+   * modified.
+   * @param pDependentScripts Dependent scripts of every script. The parameter must not be null.
+   * @throws JEAFSystemException if the dependencies contain a cycle.
+   */
+  private void checkForCycles( int[] pPendingDependencies, List<List<Integer>> pDependentScripts ) {
+    // Scripts are removed in topological order. All scripts that remain are part of a cycle or depend on one.
+    int[] lPendingDependencies = pPendingDependencies.clone();
+    List<Integer> lReadyScripts = new ArrayList<Integer>();
+    for (int i = 0; i < lPendingDependencies.length; i++) {
+      if (lPendingDependencies[i] == 0) {
+        lReadyScripts.add(i);
+      }
+    }
+    int lProcessed = 0;
+    while (lProcessed < lReadyScripts.size()) {
+      for (Integer lNextDependent : pDependentScripts.get(lReadyScripts.get(lProcessed))) {
+        lPendingDependencies[lNextDependent]--;
+        if (lPendingDependencies[lNextDependent] == 0) {
+          lReadyScripts.add(lNextDependent);
+        }
+      }
+      lProcessed++;
+    }
+
+    if (lProcessed < lPendingDependencies.length) {
+      List<Integer> lCyclicScripts = new ArrayList<Integer>();
+      for (int i = 0; i < lPendingDependencies.length; i++) {
+        if (lPendingDependencies[i] > 0) {
+          lCyclicScripts.add(i);
+        }
+      }
+      throw new JEAFSystemException(PersistenceServiceProviderMessages.CYCLIC_SCRIPT_DEPENDENCY,
+          this.getScriptNames(lCyclicScripts));
+    }
+  }
+
+  /**
+   * Method returns the names of the scripts with the passed indexes.
+   * 
+   * @param pIndexes Indexes of the scripts. The parameter must not be null.
+   * @return {@link String} Comma separated names of the scripts. The method never returns null.
+   */
+  private String getScriptNames( Iterable<Integer> pIndexes ) {
+    StringBuilder lBuilder = new StringBuilder();
+    for (Integer lNextIndex : pIndexes) {
+      if (lBuilder.length() > 0) {
+        lBuilder.append(", ");
+      }
+      lBuilder.append(scripts.get(lNextIndex).name);
+    }
+    return lBuilder.toString();
+  }
+
+  /**
+   * Class describes a script that was added to the executor.
+   */
+  private static final class Script {
+    /**
+     * Unique name of the script.
+     */
+    final String name;
+
+    /**
+     * File that contains the script or null if the script is read from {@link #source}.
+     */
+    final Path file;
+
+    /**
+     * Callable that opens the reader of the script or null if the script is read from {@link #file}.
+     */
+    final Callable<Reader> source;
+
+    /**
+     * Names of all scripts the script depends on.
+     */
+    final String[] dependencies;
+
+    /**
+     * Initialize object.
+     * 
+     * @param pName Unique name of the script. The parameter must not be null.
+     * @param pFile File that contains the script. Either the file or the source has to be set.
+     * @param pSource Callable that opens the reader of the script. Either the file or the source has to be set.
+     * @param pDependencies Names of all scripts the script depends on. The parameter must not be null.
+     */
+    Script( String pName, Path pFile, Callable<Reader> pSource, String[] pDependencies ) {
+      // Check parameters.
+      Check.checkInvalidParameterNull(pName, "pName");
+      Check.checkInvalidParameterNull(pDependencies, "pDependencies");
+
+      name = pName;
+      file = pFile;
+      source = pSource;
+      dependencies = pDependencies.clone();
+    }
+  }
+
+  /**
+   * Class executes one script on a connection of its own. Failures are not thrown but returned as part of the result.
+   */
+  private final class ScriptTask implements Callable<ScriptExecutionResult> {
+    /**
+     * Script that should be executed.
+     */
+    private final Script script;
+
+    /**
+     * Initialize object.
+     * 
+     * @param pScript Script that should be executed.
+     */
+    ScriptTask( Script pScript ) {
+      script = pScript;
+    }
+
+    /**
+     * Method executes the script and measures its duration.
+     * 
+     * @return {@link ScriptExecutionResult} Result of the execution. The method never returns null.
+     */
+    @Override
+    public ScriptExecutionResult call( ) {
+      long lStartTime = System.currentTimeMillis();
+      long lStart = System.nanoTime();
+      Exception lException;
+      try (Connection lConnection = dataSource.getConnection()) {
+        ScriptRunner lScriptRunner = new ScriptRunner(lConnection, autoCommit, stopOnError);
+        lScriptRunner.setBatchSize(batchSize);
+        lScriptRunner.setCommitInterval(commitInterval);
+        lScriptRunner.setScriptName(script.name);
+        lScriptRunner.setProgressListener(progressListener);
+        // Scripts from files are executed with their size so that the progress contains the estimated remaining time.
+        if (script.file != null) {
+          lScriptRunner.runScript(script.file);
+        }
+        else {
+          try (Reader lReader = script.source.call()) {
+            lScriptRunner.runScript(lReader);
+          }
+        }
+        lException = null;
+      }
+      catch (Exception e) {
+        lException = e;
+      }
+      long lDuration = (System.nanoTime() - lStart) / 1000000;
+      return new ScriptExecutionResult(script.name, lStartTime, lDuration, lException);
+    }
+  }
+}
@@ -0,0 +1,653 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence.util;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import com.anaptecs.jeaf.xfun.api.checks.Check;
+
+/**
+ * Class splits an SQL script into single statements. The script is read only once character by character and is never
+ * kept completely in memory. Thus also very large scripts (e.g. database dumps) can be processed.
+ * 
+ * The tokenizer understands the following elements of SQL scripts:
+ * <ul>
+ * <li>Delimiters inside of string literals ('...'), quoted identifiers ("..." and `...`) and dollar quoted strings
+ * ($tag$...$tag$) do not end a statement. Quotes are escaped by doubling them. If backslash escapes are enabled (as
+ * used by MySQL, e.g. 'O\'Reilly') then a backslash inside quotes also escapes the following character.</li>
+ * <li>Line comments (-- and // at the beginning of a line) and block comments before a statement are skipped. Comments
+ * inside a statement are kept (e.g. for optimizer hints) but delimiters inside them do not end the statement.
+ * Executable comments (/*! ... *&#47;) and optimizer hints (/*+ ... *&#47;) are always kept, even as the only content
+ * of a statement (e.g. <code>/*!40101 SET NAMES utf8 *&#47;;</code> in MySQL dumps).</li>
+ * <li>Lines of the form <code>DELIMITER xyz</code> switch the delimiter for all following statements.</li>
+ * <li>If full line delimiters are used then a delimiter only ends a statement if it is the only content of its
+ * line.</li>
+ * </ul>
+ * Empty statements are skipped. Text after the last delimiter is returned as last statement.
+ * 
+ * Instances of this class are not thread safe.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public final class SQLScriptTokenizer {
+  /**
+   * Size of the internal read buffer.
+   */
+  private static final int BUFFER_SIZE = 8192;
+
+  /**
+   * Keyword to switch the delimiter.
+   */
+  private static final String DELIMITER_COMMAND = "DELIMITER";
+
+  /**
+   * Characters are part of the statement.
+   */
+  private static final int NORMAL = 0;
+
+  /**
+   * Characters are part of a string literal.
+   */
+  private static final int SINGLE_QUOTE = 1;
+
+  /**
+   * Characters are part of a quoted identifier.
+   */
+  private static final int DOUBLE_QUOTE = 2;
+
+  /**
+   * Characters are part of a back tick quoted identifier.
+   */
+  private static final int BACK_TICK = 3;
+
+  /**
+   * Characters are part of a line comment.
+   */
+  private static final int LINE_COMMENT = 4;
+
+  /**
+   * Characters are part of a block comment.
+   */
+  private static final int BLOCK_COMMENT = 5;
+
+  /**
+   * Characters may be the opening tag of a dollar quoted string.
+   */
+  private static final int DOLLAR_TAG = 6;
+
+  /**
+   * Characters are part of a dollar quoted string.
+   */
+  private static final int DOLLAR_QUOTE = 7;
+
+  /**
+   * Characters are the new delimiter of a DELIMITER command.
+   */
+  private static final int DELIMITER_SWITCH = 8;
+
+  /**
+   * ASCII characters that end plain text as they are line breaks or may start quotes, comments or dollar quoted
+   * strings. A lookup table is faster than comparing every character with all of them.
+   */
+  private static final boolean[] PLAIN_TEXT_END = new boolean[128];
+
+  static {
+    for (char lChar : "\n'\"`-/$".toCharArray()) {
+      PLAIN_TEXT_END[lChar] = true;
+    }
+  }
+
+  /**
+   * Reader from which the script is read.
+   */
+  private final Reader reader;
+
+  /**
+   * Buffer with the characters that were read but not yet processed.
+   */
+  private final char[] buffer = new char[BUFFER_SIZE];
+
+  /**
+   * Position of the next character inside the buffer.
+   */
+  private int position;
+
+  /**
+   * Number of valid characters inside the buffer.
+   */
+  private int limit;
+
+  /**
+   * Statement that is currently read. The builder is reused for all statements.
+   */
+  private final StringBuilder statement = new StringBuilder(256);
+
+  /**
+   * Delimiter that ends statements.
+   */
+  private String delimiter;
+
+  /**
+   * Attribute defines whether delimiters have to be on a line of their own.
+   */
+  private final boolean fullLineDelimiter;
+
+  /**
+   * Attribute defines whether a backslash inside quotes escapes the following character.
+   */
+  private final boolean backslashEscapes;
+
+  /**
+   * Current line number of the script.
+   */
+  private int lineNumber = 1;
+
+  /**
+   * Line number on which the last returned statement starts.
+   */
+  private int statementLineNumber;
+
+  /**
+   * Initialize object. Backslashes inside quotes are treated as normal characters as defined by standard SQL.
+   * 
+   * @param pReader Reader from which the script is read. The parameter must not be null. The reader is not closed by
+   * this class.
+   * @param pDelimiter Initial delimiter of the script. The parameter must not be null.
+   * @param pFullLineDelimiter Parameter defines whether delimiters have to be on a line of their own.
+   */
+  public SQLScriptTokenizer( Reader pReader, String pDelimiter, boolean pFullLineDelimiter ) {
+    this(pReader, pDelimiter, pFullLineDelimiter, false);
+  }
+
+  /**
+   * Initialize object.
+   * 
+   * @param pReader Reader from which the script is read. The parameter must not be null. The reader is not closed by
+   * this class.
+   * @param pDelimiter Initial delimiter of the script. The parameter must not be null.
+   * @param pFullLineDelimiter Parameter defines whether delimiters have to be on a line of their own.
+   * @param pBackslashEscapes Parameter defines whether a backslash inside quotes escapes the following character. This
+   * is required for scripts that were written by MySQL (e.g. by mysqldump).
+   */
+  public SQLScriptTokenizer( Reader pReader, String pDelimiter, boolean pFullLineDelimiter,
+      boolean pBackslashEscapes ) {
+    // Check parameters.
+    Check.checkInvalidParameterNull(pReader, "pReader");
+    Check.checkIsRealString(pDelimiter, "pDelimiter");
+
+    reader = pReader;
+    delimiter = pDelimiter;
+    fullLineDelimiter = pFullLineDelimiter;
+    backslashEscapes = pBackslashEscapes;
+  }
+
+  /**
+   * Method returns the next statement of the script.
+   * 
+   * @return {@link String} Next statement without delimiter and surrounding whitespace or null if the end of the script
+   * is reached.
+   * @throws IOException if the script can not be read.
+   */
+  public String nextStatement( ) throws IOException {
+    StringBuilder lStatement = statement;
+    lStatement.setLength(0);
+    int lState = NORMAL;
+    boolean lHasContent = false;
+    boolean lKeepComment = false;
+    int lLineStart = 0;
+    int lTagStart = 0;
+    String lTag = null;
+    String lResult = null;
+    while (true) {
+      int lNext = this.read();
+      if (lNext < 0) {
+        // End of script. Remaining content is the last statement.
+        if (lState == DELIMITER_SWITCH) {
+          this.switchDelimiter();
+        }
+        else if (lHasContent == true) {
+          if (fullLineDelimiter == true && this.isDelimiterLine(lLineStart) == true) {
+            lStatement.setLength(lLineStart);
+          }
+          lResult = this.toStatement();
+        }
+        break;
+      }
+      char lChar = (char) lNext;
+      if (lChar == '\n') {
+        lineNumber++;
+      }
+
+      switch (lState) {
+        case SINGLE_QUOTE:
+          lStatement.append(lChar);
+          // Escaped quotes ('') simply leave and enter the literal again.
+          if (lChar == '\'') {
+            lState = NORMAL;
+          }
+          else if (lChar == '\\' && backslashEscapes == true) {
+            this.appendEscapedChar();
+          }
+          else {
+            this.appendQuotedText('\'');
+          }
+          continue;
+
+        case DOUBLE_QUOTE:
+          lStatement.append(lChar);
+          if (lChar == '"') {
+            lState = NORMAL;
+          }
+          else if (lChar == '\\' && backslashEscapes == true) {
+            this.appendEscapedChar();
+          }
+          else {
+            this.appendQuotedText('"');
+          }
+          continue;
+
+        case BACK_TICK:
+          lStatement.append(lChar);
+          if (lChar == '`') {
+            lState = NORMAL;
+          }
+          else {
+            this.appendQuotedText('`');
+          }
+          continue;
+
+        case BLOCK_COMMENT:
+          if (lKeepComment == true) {
+            lStatement.append(lChar);
+          }
+          if (lChar == '*' && this.peek() == '/') {
+            this.read();
+            if (lKeepComment == true) {
+              lStatement.append('/');
+            }
+            lState = NORMAL;
+          }
+          continue;
+
+        case DOLLAR_QUOTE:
+          lStatement.append(lChar);
+          // Closing tag must not overlap with the opening tag.
+          if (lChar == '$' && lStatement.length() >= lTagStart + 2 * lTag.length()
+              && SQLScriptTokenizer.endsWith(lStatement, lTag, lStatement.length()) == true) {
+            lState = NORMAL;
+          }
+          continue;
+
+        case DELIMITER_SWITCH:
+          if (lChar == '\n') {
+            this.switchDelimiter();
+            lStatement.setLength(0);
+            lHasContent = false;
+            lState = NORMAL;
+          }
+          else {
+            lStatement.append(lChar);
+          }
+          continue;
+
+        case LINE_COMMENT:
+          if (lChar != '\n') {
+            if (lKeepComment == true) {
+              lStatement.append(lChar);
+            }
+            continue;
+          }
+          // Line break ends the comment and is processed as normal character.
+          lState = NORMAL;
+          break;
+
+        case DOLLAR_TAG:
+          if (Character.isLetterOrDigit(lChar) == true || lChar == '_') {
+            lStatement.append(lChar);
+            continue;
+          }
+          if (lChar == '$') {
+            lStatement.append(lChar);
+            if (this.endsWithDelimiter(lStatement) == true) {
+              lStatement.setLength(lStatement.length() - delimiter.length());
+              lResult = this.toStatement();
+              break;
+            }
+            lTag = lStatement.substring(lTagStart);
+            lState = DOLLAR_QUOTE;
+            continue;
+          }
+          // No dollar quote, character is processed as normal character.
+          lState = NORMAL;
+          break;
+
+        default:
+          break;
+      }
+      if (lResult != null) {
+        break;
+      }
+
+      // Normal characters of a statement.
+      if (lChar == '\n') {
+        if (lHasContent == true) {
+          if (fullLineDelimiter == true && this.isDelimiterLine(lLineStart) == true) {
+            lStatement.setLength(lLineStart);
+            lResult = this.toStatement();
+            if (lResult != null) {
+              break;
+            }
+            // Empty statement, so continue with the next one.
+            lStatement.setLength(0);
+            lHasContent = false;
+            lLineStart = 0;
+          }
+          else {
+            lStatement.append(lChar);
+            lLineStart = lStatement.length();
+          }
+        }
+      }
+      else if (lChar == '-' && this.peek() == '-') {
+        this.read();
+        lKeepComment = lHasContent;
+        if (lKeepComment == true) {
+          lStatement.append("--");
+        }
+        lState = LINE_COMMENT;
+      }
+      else if (lChar == '/' && this.peek() == '*') {
+        this.read();
+        // Executable comments and optimizer hints are part of the statement.
+        char lCommentType = this.peek();
+        if (lHasContent == false && (lCommentType == '!' || lCommentType == '+')) {
+          lHasContent = true;
+          statementLineNumber = lineNumber;
+        }
+        lKeepComment = lHasContent;
+        if (lKeepComment == true) {
+          lStatement.append("/*");
+        }
+        lState = BLOCK_COMMENT;
+      }
+      else if (lChar == '/' && lHasContent == false && this.peek() == '/' && delimiter.startsWith("//") == false) {
+        this.read();
+        lKeepComment = false;
+        lState = LINE_COMMENT;
+      }
+      else if (lHasContent == false && Character.isWhitespace(lChar) == true) {
+        // Leading whitespace is not part of the statement.
+      }
+      else {
+        // Whitespace directly after the keyword DELIMITER starts a delimiter switch.
+        if ((lChar == ' ' || lChar == '\t') && lStatement.length() == DELIMITER_COMMAND.length()
+            && DELIMITER_COMMAND.regionMatches(true, 0, lStatement.toString(), 0, DELIMITER_COMMAND.length())) {
+          lState = DELIMITER_SWITCH;
+          continue;
+        }
+        if (lHasContent == false) {
+          lHasContent = true;
+          statementLineNumber = lineNumber;
+        }
+        lStatement.append(lChar);
+        if (fullLineDelimiter == false && this.endsWithDelimiter(lStatement) == true) {
+          lStatement.setLength(lStatement.length() - delimiter.length());
+          lResult = this.toStatement();
+          if (lResult != null) {
+            break;
+          }
+          // Empty statement, so continue with the next one.
+          lStatement.setLength(0);
+          lHasContent = false;
+          lLineStart = 0;
+        }
+        else if (lChar == '\'') {
+          lState = SINGLE_QUOTE;
+        }
+        else if (lChar == '"') {
+          lState = DOUBLE_QUOTE;
+        }
+        else if (lChar == '`') {
+          lState = BACK_TICK;
+        }
+        else if (lChar == '$' && Character.isDigit(this.peek()) == false) {
+          lTagStart = lStatement.length() - 1;
+          lState = DOLLAR_TAG;
+        }
+        else if (lStatement.length() > DELIMITER_COMMAND.length()
+            || Character.toUpperCase(lStatement.charAt(0)) != DELIMITER_COMMAND.charAt(0)) {
+          // Statement can not be a DELIMITER command, so plain text can be copied in bulk.
+          this.appendPlainText();
+        }
+      }
+    }
+    return lResult;
+  }
+
+  /**
+   * Method returns the current delimiter. The delimiter may have been changed by a DELIMITER command of the script.
+   * 
+   * @return {@link String} Current delimiter. The method never returns null.
+   */
+  public String getDelimiter( ) {
+    return delimiter;
+  }
+
+  /**
+   * Method returns the line number on which the last statement that was returned by {@link #nextStatement()} starts.
+   * 
+   * @return int Line number of the last statement. Line numbers start with 1.
+   */
+  public int getStatementLineNumber( ) {
+    return statementLineNumber;
+  }
+
+  /**
+   * Method appends the character that follows a backslash inside quotes to the current statement, so that it can not
+   * end the quotes.
+   * 
+   * @throws IOException if the script can not be read.
+   */
+  private void appendEscapedChar( ) throws IOException {
+    int lNext = this.read();
+    if (lNext >= 0) {
+      if (lNext == '\n') {
+        lineNumber++;
+      }
+      statement.append((char) lNext);
+    }
+  }
+
+  /**
+   * Method appends the following characters of the buffer to the current statement up to the next character that may
+   * end the statement or start quotes or comments. Thus plain text is copied in bulk instead of character by character.
+   * Line breaks are not copied so that line numbers stay correct.
+   */
+  private void appendPlainText( ) {
+    char lDelimiterEnd = delimiter.charAt(delimiter.length() - 1);
+    char[] lBuffer = buffer;
+    int lStart = position;
+    int lEnd = lStart;
+    while (lEnd < limit) {
+      char lChar = lBuffer[lEnd];
+      if ((lChar < PLAIN_TEXT_END.length && PLAIN_TEXT_END[lChar] == true) || lChar == lDelimiterEnd) {
+        break;
+      }
+      lEnd++;
+    }
+    statement.append(lBuffer, lStart, lEnd - lStart);
+    position = lEnd;
+  }
+
+  /**
+   * Method appends the following characters of the buffer to the current statement up to the passed closing quote, a
+   * backslash or a line break. Line breaks are not copied so that line numbers stay correct.
+   * 
+   * @param pQuote Character that closes the current quotes.
+   */
+  private void appendQuotedText( char pQuote ) {
+    char[] lBuffer = buffer;
+    int lStart = position;
+    int lEnd = lStart;
+    while (lEnd < limit) {
+      char lChar = lBuffer[lEnd];
+      if (lChar == pQuote || lChar == '\n' || lChar == '\\') {
+        break;
+      }
+      lEnd++;
+    }
+    statement.append(lBuffer, lStart, lEnd - lStart);
+    position = lEnd;
+  }
+
+  /**
+   * Method converts the current content of the statement builder into a statement.
+   * 
+   * @return {@link String} Statement without surrounding whitespace or null if the statement is empty.
+   */
+  private String toStatement( ) {
+    int lStart = 0;
+    int lEnd = statement.length();
+    while (lStart < lEnd && Character.isWhitespace(statement.charAt(lStart)) == true) {
+      lStart++;
+    }
+    while (lEnd > lStart && Character.isWhitespace(statement.charAt(lEnd - 1)) == true) {
+      lEnd--;
+    }
+    String lStatement;
+    if (lStart < lEnd) {
+      lStatement = statement.substring(lStart, lEnd);
+    }
+    else {
+      lStatement = null;
+    }
+    return lStatement;
+  }
+
+  /**
+   * Method applies the delimiter of a DELIMITER command that is contained in the statement builder.
+   */
+  private void switchDelimiter( ) {
+    String lDelimiter = statement.substring(DELIMITER_COMMAND.length()).trim();
+    if (lDelimiter.length() > 0) {
+      delimiter = lDelimiter;
+    }
+  }
+
+  /**
+   * Method checks whether the current line of the statement builder only contains the delimiter.
+   * 
+   * @param pLineStart Start of the current line within the statement builder.
+   * @return boolean Method returns true if the line only contains the delimiter and false otherwise.
+   */
+  private boolean isDelimiterLine( int pLineStart ) {
+    int lStart = pLineStart;
+    int lEnd = statement.length();
+    while (lStart < lEnd && Character.isWhitespace(statement.charAt(lStart)) == true) {
+      lStart++;
+    }
+    while (lEnd > lStart && Character.isWhitespace(statement.charAt(lEnd - 1)) == true) {
+      lEnd--;
+    }
+    return lEnd - lStart == delimiter.length() && SQLScriptTokenizer.endsWith(statement, delimiter, lEnd) == true;
+  }
+
+  /**
+   * Method checks whether the passed builder ends with the current delimiter.
+   * 
+   * @param pBuilder Builder that should be checked. The parameter must not be null.
+   * @return boolean Method returns true if the builder ends with the delimiter and false otherwise.
+   */
+  private boolean endsWithDelimiter( StringBuilder pBuilder ) {
+    return SQLScriptTokenizer.endsWith(pBuilder, delimiter, pBuilder.length());
+  }
+
+  /**
+   * Method checks whether the passed text is contained in the passed builder directly before the passed position.
+   * 
+   * @param pBuilder Builder that should be checked. The parameter must not be null.
+   * @param pText Text that should be found. The parameter must not be null.
+   * @param pEnd Position behind the last character that should be compared.
+   * @return boolean Method returns true if the text was found and false otherwise.
+   */
+  private static boolean endsWith( StringBuilder pBuilder, String pText, int pEnd ) {
+    int lLength = pText.length();
+    int lOffset = pEnd - lLength;
+    boolean lEndsWith;
+    if (lOffset >= 0 && pEnd <= pBuilder.length()) {
+      lEndsWith = true;
+      for (int i = lLength - 1; i >= 0; i--) {
+        if (pBuilder.charAt(lOffset + i) != pText.charAt(i)) {
+          lEndsWith = false;
+          break;
+        }
+      }
+    }
+    else {
+      lEndsWith = false;
+    }
+    return lEndsWith;
+  }
+
+  /**
+   * Method reads the next character of the script.
+   * 
+   * @return int Next character or -1 if the end of the script is reached.
+   * @throws IOException if the script can not be read.
+   */
+  private int read( ) throws IOException {
+    int lChar;
+    if (position < limit || this.fill() == true) {
+      lChar = buffer[position++];
+    }
+    else {
+      lChar = -1;
+    }
+    return lChar;
+  }
+
+  /**
+   * Method returns the next character of the script without consuming it.
+   * 
+   * @return char Next character or 0 if the end of the script is reached.
+   * @throws IOException if the script can not be read.
+   */
+  private char peek( ) throws IOException {
+    char lChar;
+    if (position < limit || this.fill() == true) {
+      lChar = buffer[position];
+    }
+    else {
+      lChar = 0;
+    }
+    return lChar;
+  }
+
+  /**
+   * Method fills the buffer with the next characters of the script.
+   * 
+   * @return boolean Method returns true if at least one character was read and false if the end of the script is
+   * reached.
+   * @throws IOException if the script can not be read.
+   */
+  private boolean fill( ) throws IOException {
+    int lCount;
+    do {
+      lCount = reader.read(buffer, 0, buffer.length);
+    }
+    while (lCount == 0);
+    position = 0;
+    if (lCount > 0) {
+      limit = lCount;
+    }
+    else {
+      limit = 0;
+    }
+    return lCount > 0;
+  }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence.util;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Interface defines where a {@link ScriptRunner} records the number of statements of a script that are already
+ * committed. If the execution of a script fails then a later execution of the same script resumes after the last
+ * committed statement.
+ * 
+ * Every commit of the script runner is surrounded by calls to {@link #beforeCommit(Connection, String, long, boolean)}
+ * and {@link #afterCommit(String, long, boolean)}. Implementations that store the checkpoint in the database should do
+ * so before the commit as part of the same transaction. All other implementations have to store the checkpoint after
+ * the commit.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ * 
+ * @see FileScriptCheckpoint
+ * @see TableScriptCheckpoint
+ */
+public interface ScriptCheckpoint {
+  /**
+   * Method returns the number of statements of the passed script that were committed by an earlier execution.
+   * 
+   * @param pConnection Connection on which the script is executed. The parameter is never null.
+   * @param pScriptName Name of the script. The parameter is never null.
+   * @return long Number of committed statements or 0 if the script has to be executed from the beginning.
+   * @throws IOException if the checkpoint can not be read.
+   * @throws SQLException if the checkpoint can not be read from the database.
+   */
+  long getCommittedStatements( Connection pConnection, String pScriptName ) throws IOException, SQLException;
+
+  /**
+   * Method is called before the script runner commits the current transaction.
+   * 
+   * @param pConnection Connection of the transaction that gets committed. The parameter is never null.
+   * @param pScriptName Name of the script. The parameter is never null.
+   * @param pStatements Number of statements of the script that are committed with the transaction.
+   * @param pCompleted Parameter defines if this is the last commit of the script. In this case the checkpoint should
+   * be removed so that the next execution starts from the beginning.
+   * @throws IOException if the checkpoint can not be written.
+   * @throws SQLException if the checkpoint can not be written to the database.
+   */
+  void beforeCommit( Connection pConnection, String pScriptName, long pStatements, boolean pCompleted )
+    throws IOException, SQLException;
+
+  /**
+   * Method is called after the script runner committed the current transaction.
+   * 
+   * @param pScriptName Name of the script. The parameter is never null.
+   * @param pStatements Number of statements of the script that are committed.
+   * @param pCompleted Parameter defines if this was the last commit of the script. In this case the checkpoint should
+   * be removed so that the next execution starts from the beginning.
+   * @throws IOException if the checkpoint can not be written.
+   */
+  void afterCommit( String pScriptName, long pStatements, boolean pCompleted ) throws IOException;
+}
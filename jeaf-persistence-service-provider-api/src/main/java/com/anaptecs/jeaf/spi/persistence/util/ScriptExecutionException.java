@@ -0,0 +1,56 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence.util;
+
+import java.util.List;
+
+import com.anaptecs.jeaf.xfun.api.errorhandling.ErrorCode;
+import com.anaptecs.jeaf.xfun.api.errorhandling.JEAFSystemException;
+
+/**
+ * Exception is thrown by a {@link ParallelScriptExecutor} if the execution of a script failed. Besides the cause of the
+ * failure it provides the results of all scripts that were finished before the execution stopped. Thus the timings of
+ * the successful scripts are also available in case of a failure.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public final class ScriptExecutionException extends JEAFSystemException {
+  /**
+   * Default serial version UID.
+   */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Results of all scripts that were finished in the order in which their execution finished.
+   */
+  private final List<ScriptExecutionResult> results;
+
+  /**
+   * Initialize object.
+   * 
+   * @param pErrorCode Error code that describes the failure. The parameter must not be null.
+   * @param pCause Exception that caused the failure. The parameter may be null.
+   * @param pResults Results of all finished scripts. The list is not copied. The parameter must not be null.
+   * @param pMessageParameters Parameters of the error message. The parameter may be null.
+   */
+  ScriptExecutionException( ErrorCode pErrorCode, Throwable pCause, List<ScriptExecutionResult> pResults,
+      String... pMessageParameters ) {
+    super(pErrorCode, pCause, pMessageParameters);
+    results = pResults;
+  }
+
+  /**
+   * Method returns the results of all scripts that were finished before the execution stopped. This includes the
+   * failed script.
+   * 
+   * @return {@link List} Results of all finished scripts in the order in which their execution finished. The returned
+   * list is unmodifiable. The method never returns null.
+   */
+  public List<ScriptExecutionResult> getResults( ) {
+    return results;
+  }
+}
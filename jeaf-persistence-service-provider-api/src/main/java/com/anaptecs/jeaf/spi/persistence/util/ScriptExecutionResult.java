@@ -0,0 +1,117 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence.util;
+
+import java.io.Serializable;
+
+/**
+ * Class describes the execution of one SQL script by a {@link ParallelScriptExecutor}.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public final class ScriptExecutionResult implements Serializable {
+  /**
+   * Default serial version UID.
+   */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Name of the executed script.
+   */
+  private final String scriptName;
+
+  /**
+   * Time in milliseconds since 01.01.1970 when the execution of the script started.
+   */
+  private final long startTime;
+
+  /**
+   * Duration of the execution in milliseconds.
+   */
+  private final long duration;
+
+  /**
+   * Exception that caused the execution to fail or null if the script was executed successfully.
+   */
+  private final Exception exception;
+
+  /**
+   * Initialize object.
+   * 
+   * @param pScriptName Name of the executed script. The parameter must not be null.
+   * @param pStartTime Time in milliseconds since 01.01.1970 when the execution of the script started.
+   * @param pDuration Duration of the execution in milliseconds.
+   * @param pException Exception that caused the execution to fail. The parameter may be null.
+   */
+  ScriptExecutionResult( String pScriptName, long pStartTime, long pDuration, Exception pException ) {
+    scriptName = pScriptName;
+    startTime = pStartTime;
+    duration = pDuration;
+    exception = pException;
+  }
+
+  /**
+   * Method returns the name of the executed script.
+   * 
+   * @return {@link String} Name of the script. The method never returns null.
+   */
+  public String getScriptName( ) {
+    return scriptName;
+  }
+
+  /**
+   * Method returns the time when the execution of the script started.
+   * 
+   * @return long Time in milliseconds since 01.01.1970.
+   */
+  public long getStartTime( ) {
+    return startTime;
+  }
+
+  /**
+   * Method returns the duration of the execution.
+   * 
+   * @return long Duration in milliseconds.
+   */
+  public long getDuration( ) {
+    return duration;
+  }
+
+  /**
+   * Method checks whether the script was executed successfully.
+   * 
+   * @return boolean Method returns true if the script was executed successfully and false otherwise.
+   */
+  public boolean isSuccessful( ) {
+    return exception == null;
+  }
+
+  /**
+   * Method returns the exception that caused the execution of the script to fail.
+   * 
+   * @return {@link Exception} Exception that caused the execution to fail or null if the script was executed
+   * successfully.
+   */
+  public Exception getException( ) {
+    return exception;
+  }
+
+  /**
+   * Method returns a string representation of this object.
+   * 
+   * @return {@link String} String representation. The method never returns null.
+   */
+  @Override
+  public String toString( ) {
+    StringBuilder lBuilder = new StringBuilder();
+    lBuilder.append(scriptName).append(": ").append(duration).append(" ms");
+    if (exception != null) {
+      lBuilder.append(" (failed: ").append(exception).append(')');
+    }
+    return lBuilder.toString();
+  }
+}
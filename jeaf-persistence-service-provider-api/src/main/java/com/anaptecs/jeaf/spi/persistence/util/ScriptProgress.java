@@ -0,0 +1,197 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence.util;
+
+/**
+ * Class describes the progress of a script that is executed by a {@link ScriptRunner}.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ * 
+ * @see ScriptProgressListener
+ */
+public final class ScriptProgress {
+  /**
+   * Name of the script or null if no name is set.
+   */
+  private final String scriptName;
+
+  /**
+   * Number of statements of the script that were processed including skipped ones.
+   */
+  private final long statements;
+
+  /**
+   * Number of statements that were skipped as they were committed by an earlier execution.
+   */
+  private final long skippedStatements;
+
+  /**
+   * Number of bytes of the script that were read or -1 if unknown.
+   */
+  private final long bytesProcessed;
+
+  /**
+   * Size of the script in bytes or -1 if unknown.
+   */
+  private final long totalBytes;
+
+  /**
+   * Time in milliseconds since the execution of the script started.
+   */
+  private final long elapsedTime;
+
+  /**
+   * Parameter defines if the script is completed.
+   */
+  private final boolean completed;
+
+  /**
+   * Initialize object.
+   * 
+   * @param pScriptName Name of the script. The parameter may be null.
+   * @param pStatements Number of statements that were processed including skipped ones.
+   * @param pSkippedStatements Number of statements that were skipped.
+   * @param pBytesProcessed Number of bytes that were read or -1 if unknown.
+   * @param pTotalBytes Size of the script in bytes or -1 if unknown.
+   * @param pElapsedTime Time in milliseconds since the execution of the script started.
+   * @param pCompleted Parameter defines if the script is completed.
+   */
+  ScriptProgress( String pScriptName, long pStatements, long pSkippedStatements, long pBytesProcessed,
+      long pTotalBytes, long pElapsedTime, boolean pCompleted ) {
+    scriptName = pScriptName;
+    statements = pStatements;
+    skippedStatements = pSkippedStatements;
+    bytesProcessed = pBytesProcessed;
+    totalBytes = pTotalBytes;
+    elapsedTime = pElapsedTime;
+    completed = pCompleted;
+  }
+
+  /**
+   * Method returns the name of the script.
+   * 
+   * @return {@link String} Name of the script or null if no name is set.
+   */
+  public String getScriptName( ) {
+    return scriptName;
+  }
+
+  /**
+   * Method returns the number of statements that were processed. This is also the position from which a resumed
+   * execution continues after the next commit.
+   * 
+   * @return long Number of statements including the skipped ones.
+   */
+  public long getStatements( ) {
+    return statements;
+  }
+
+  /**
+   * Method returns the number of statements that were skipped as they were committed by an earlier execution.
+   * 
+   * @return long Number of skipped statements.
+   */
+  public long getSkippedStatements( ) {
+    return skippedStatements;
+  }
+
+  /**
+   * Method returns the number of bytes of the script that were read.
+   * 
+   * @return long Number of bytes or -1 if the script is not read from a file.
+   */
+  public long getBytesProcessed( ) {
+    return bytesProcessed;
+  }
+
+  /**
+   * Method returns the size of the script.
+   * 
+   * @return long Size of the script in bytes or -1 if the script is not read from a file.
+   */
+  public long getTotalBytes( ) {
+    return totalBytes;
+  }
+
+  /**
+   * Method returns the time since the execution of the script started.
+   * 
+   * @return long Elapsed time in milliseconds.
+   */
+  public long getElapsedTime( ) {
+    return elapsedTime;
+  }
+
+  /**
+   * Method checks whether the script is completed.
+   * 
+   * @return boolean Method returns true if the script is completed and false otherwise.
+   */
+  public boolean isCompleted( ) {
+    return completed;
+  }
+
+  /**
+   * Method returns the number of statements that were executed per second. Skipped statements are not taken into
+   * account.
+   * 
+   * @return double Statements per second.
+   */
+  public double getStatementsPerSecond( ) {
+    double lStatementsPerSecond;
+    if (elapsedTime > 0) {
+      lStatementsPerSecond = (statements - skippedStatements) * 1000.0 / elapsedTime;
+    }
+    else {
+      lStatementsPerSecond = 0;
+    }
+    return lStatementsPerSecond;
+  }
+
+  /**
+   * Method returns the estimated time until the script is completed. The estimation is based on the number of bytes
+   * that were read so far.
+   * 
+   * @return long Estimated remaining time in milliseconds or -1 if the size of the script is unknown.
+   */
+  public long getEstimatedRemainingTime( ) {
+    long lRemainingTime;
+    if (completed == true) {
+      lRemainingTime = 0;
+    }
+    else if (totalBytes > 0 && bytesProcessed > 0) {
+      lRemainingTime = (long) (elapsedTime * ((double) Math.max(totalBytes - bytesProcessed, 0) / bytesProcessed));
+    }
+    else {
+      lRemainingTime = -1;
+    }
+    return lRemainingTime;
+  }
+
+  /**
+   * Method returns a string representation of this object.
+   * 
+   * @return {@link String} String representation. The method never returns null.
+   */
+  @Override
+  public String toString( ) {
+    StringBuilder lBuilder = new StringBuilder();
+    if (scriptName != null) {
+      lBuilder.append(scriptName).append(": ");
+    }
+    lBuilder.append(statements).append(" statements, ");
+    lBuilder.append(Math.round(this.getStatementsPerSecond())).append(" statements/s");
+    if (bytesProcessed >= 0) {
+      lBuilder.append(", ").append(bytesProcessed).append(" bytes");
+    }
+    long lRemainingTime = this.getEstimatedRemainingTime();
+    if (lRemainingTime >= 0) {
+      lBuilder.append(", ETA ").append(lRemainingTime / 1000).append(" s");
+    }
+    return lBuilder.toString();
+  }
+}
@@ -0,0 +1,23 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence.util;
+
+/**
+ * Interface is implemented by all classes that want to be informed about the progress of a {@link ScriptRunner}. The
+ * progress is published about once per second and after the script was completed.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public interface ScriptProgressListener {
+  /**
+   * Method is called with the current progress of the script. The method is called by the thread that executes the
+   * script and should return quickly.
+   * 
+   * @param pProgress Current progress of the script. The parameter is never null.
+   */
+  void progressChanged( ScriptProgress pProgress );
+}
@@ -37,17 +37,23 @@ package com.anaptecs.jeaf.spi.persistence.util;
  */
 
 import java.io.IOException;
-import java.io.LineNumberReader;
 import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Statement;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.anaptecs.jeaf.xfun.api.XFun;
+import com.anaptecs.jeaf.xfun.api.checks.Check;
 
 /**
  * Tool to run database scripts. This version of the script can be found at https://gist.github.com/gists/831762/
@@ -56,9 +62,27 @@ public class ScriptRunner {
 
   private static final String DEFAULT_DELIMITER = ";";
 
-  private static final String DELIMITER_LINE_REGEX = "(?i)DELIMITER.+";
+  /**
+   * Keywords of all statements that can be executed as part of a batch.
+   */
+  private static final String[] BATCHABLE_KEYWORDS = { "INSERT", "UPDATE", "DELETE", "MERGE", "REPLACE" };
+
+  /**
+   * Keywords of all statements that change the state of the database session and that are therefore also executed if
+   * the statement is skipped when a script is resumed. ALTER SESSION is checked separately.
+   */
+  private static final String[] SESSION_KEYWORDS = { "SET", "USE" };
 
-  private static final String DELIMITER_LINE_SPLIT_REGEX = "(?i)DELIMITER";
+  /**
+   * Keywords of all DDL statements. On many databases these statements commit the current transaction implicitly. Thus
+   * the script runner commits before and after every DDL statement.
+   */
+  private static final String[] DDL_KEYWORDS = { "CREATE", "ALTER", "DROP", "TRUNCATE", "RENAME", "GRANT", "REVOKE" };
+
+  /**
+   * Minimum time in nanoseconds between two progress notifications.
+   */
+  private static final long PROGRESS_INTERVAL = 1000000000L;
 
   private final Connection connection;
 
@@ -70,6 +94,67 @@ public class ScriptRunner {
 
   private boolean fullLineDelimiter = false;
 
+  /**
+   * Attribute defines whether a backslash inside quotes escapes the following character.
+   */
+  private boolean backslashEscapes = false;
+
+  /**
+   * Number of DML statements that are executed as one JDBC batch. 1 disables batch execution.
+   */
+  private int batchSize = 1;
+
+  /**
+   * Number of statements after which a commit takes place in auto commit mode.
+   */
+  private int commitInterval = 1;
+
+  /**
+   * Attribute defines whether batches are surrounded by a savepoint for the current script, so that they can be
+   * repeated statement by statement after a failure.
+   */
+  private boolean useSavepoints;
+
+  /**
+   * Number of statements that were executed since the last commit.
+   */
+  private int uncommittedStatements;
+
+  /**
+   * Name of the script that is reported to progress listeners and under which checkpoints are stored.
+   */
+  private String scriptName;
+
+  /**
+   * Checkpoint in which the number of committed statements is stored. If null no checkpoints are used.
+   */
+  private ScriptCheckpoint checkpoint;
+
+  /**
+   * Listener that is informed about the progress of the script. The listener may be null.
+   */
+  private ScriptProgressListener progressListener;
+
+  /**
+   * Number of statements of the current script that were processed including skipped ones.
+   */
+  private long processedStatements;
+
+  /**
+   * Number of statements of the current script that were skipped as they were committed by an earlier execution.
+   */
+  private long skippedStatements;
+
+  /**
+   * Time in nanoseconds when the current script was started.
+   */
+  private long startTime;
+
+  /**
+   * Time in nanoseconds when the progress was published the last time.
+   */
+  private long lastProgressTime;
+
   /**
    * Default constructor.
    * 
@@ -92,6 +177,96 @@ public class ScriptRunner {
     this.fullLineDelimiter = fullLineDelimiter;
   }
 
+  /**
+   * Method defines whether a backslash inside quotes escapes the following character (e.g. 'O\'Reilly'). This is
+   * required for scripts that were written by MySQL, e.g. by mysqldump. By default backslashes are normal characters as
+   * defined by standard SQL.
+   * 
+   * @param pBackslashEscapes Parameter defines whether backslash escapes are enabled.
+   */
+  public void setBackslashEscapes( boolean pBackslashEscapes ) {
+    backslashEscapes = pBackslashEscapes;
+  }
+
+  /**
+   * Method enables the batch execution of DML statements. Consecutive INSERT, UPDATE, DELETE, MERGE and REPLACE
+   * statements are collected and executed with one JDBC batch per passed number of statements. All other statements are
+   * executed on their own. Every failed statement of a batch is reported with its own cause as far as the driver
+   * provides it through {@link SQLException#getNextException()}.
+   * 
+   * If stopOnError is false then the script continues after a failed batch:
+   * <ul>
+   * <li>If the script runs within a transaction and the driver supports savepoints then every batch is started with a
+   * savepoint. After a failure the batch is rolled back to the savepoint and repeated statement by statement, each
+   * statement with a savepoint of its own. This is required for databases like PostgreSQL that abort the whole
+   * transaction with the first failed statement.</li>
+   * <li>Otherwise the statements that were not executed by the driver after the failure are executed one by one. On
+   * databases that abort the transaction with the first failure all of them will fail as well.</li>
+   * </ul>
+   * 
+   * @param pBatchSize Number of statements per batch. 1 disables batch execution. The value must be positive.
+   */
+  public void setBatchSize( int pBatchSize ) {
+    Check.checkIsPositive(pBatchSize, "pBatchSize");
+    batchSize = pBatchSize;
+  }
+
+  /**
+   * Method sets the number of statements after which a commit takes place if the script runs in auto commit mode.
+   * Values greater than 1 let the script run without auto commit of the connection and commit every passed number of
+   * statements (or after the batch that reaches this number) as well as at the end of the script.
+   * 
+   * @param pCommitInterval Number of statements per commit. 1 commits every statement. The value must be positive.
+   */
+  public void setCommitInterval( int pCommitInterval ) {
+    Check.checkIsPositive(pCommitInterval, "pCommitInterval");
+    commitInterval = pCommitInterval;
+  }
+
+  /**
+   * Method sets the name of the script. The name is reported to progress listeners and identifies the checkpoint of the
+   * script.
+   * 
+   * @param pScriptName Name of the script. The parameter may be null.
+   */
+  public void setScriptName( String pScriptName ) {
+    scriptName = pScriptName;
+  }
+
+  /**
+   * Method enables resumable execution. After every commit the number of committed statements is stored in the passed
+   * checkpoint. If a checkpoint exists when a script is started then all statements up to the checkpoint are skipped.
+   * The checkpoint is removed as soon as the script is completed. As the checkpoint has to be written with every commit
+   * the script runs without auto commit of the connection also if the commit interval is 1.
+   * 
+   * Statements are identified by their position inside the script. Thus a script must not be changed before its
+   * execution is resumed. A script name has to be set (see {@link #setScriptName(String)}).
+   * 
+   * Skipped statements that change the state of the database session (SET, USE and ALTER SESSION statements like
+   * <code>SET NAMES</code>, <code>SET FOREIGN_KEY_CHECKS</code>, <code>SET search_path</code> or <code>USE db</code>)
+   * are executed again so that the remaining statements run with the same session state as before.
+   * 
+   * DDL statements (CREATE, ALTER, DROP, TRUNCATE, RENAME, GRANT and REVOKE) commit the current transaction implicitly
+   * on many databases, e.g. MySQL and Oracle. Thus the script runner commits and writes the checkpoint immediately
+   * before and after every DDL statement independent of the commit interval. This way an implicit commit never
+   * commits statements that are not covered by the checkpoint and every DDL statement is part of a commit of its own.
+   * DDL statements up to the checkpoint are therefore skipped like all other statements when a script is resumed.
+   * 
+   * @param pCheckpoint Checkpoint in which the number of committed statements is stored. The parameter may be null.
+   */
+  public void setCheckpoint( ScriptCheckpoint pCheckpoint ) {
+    checkpoint = pCheckpoint;
+  }
+
+  /**
+   * Method sets the listener that is informed about the progress of the script.
+   * 
+   * @param pProgressListener Listener that is informed about the progress. The parameter may be null.
+   */
+  public void setProgressListener( ScriptProgressListener pProgressListener ) {
+    progressListener = pProgressListener;
+  }
+
   /**
    * Runs an SQL script (read in using the Reader parameter).
    * 
@@ -100,13 +275,30 @@ public class ScriptRunner {
    * @throws IOException if there is an error reading from the Reader
    */
   public void runScript( Reader reader ) throws IOException, SQLException {
+    this.runScript(reader, -1);
+  }
+
+  /**
+   * Runs an SQL script (read in using the Reader parameter).
+   * 
+   * @param pReader Source of the script. The parameter must not be null.
+   * @param pTotalBytes Size of the script in bytes or -1 if unknown.
+   * @throws SQLException if any SQL errors occur
+   * @throws IOException if there is an error reading from the Reader
+   */
+  private void runScript( Reader pReader, long pTotalBytes ) throws IOException, SQLException {
+    if (checkpoint != null) {
+      Check.checkInvalidParameterNull(scriptName, "scriptName");
+    }
     try {
       boolean originalAutoCommit = connection.getAutoCommit();
+      // Commit intervals and checkpoints are implemented by the script runner itself.
+      boolean lConnectionAutoCommit = autoCommit && commitInterval == 1 && checkpoint == null;
       try {
-        if (originalAutoCommit != autoCommit) {
-          connection.setAutoCommit(autoCommit);
+        if (originalAutoCommit != lConnectionAutoCommit) {
+          connection.setAutoCommit(lConnectionAutoCommit);
         }
-        this.runScript(connection, reader);
+        this.runScript(connection, pReader, pTotalBytes);
       }
       finally {
         connection.setAutoCommit(originalAutoCommit);
@@ -123,129 +315,133 @@ public class ScriptRunner {
     }
   }
 
+  /**
+   * Runs the SQL script from the passed file. The file is expected to be UTF-8 encoded.
+   * 
+   * @param pScriptFile File that contains the script. Files that are compressed with gzip are decompressed while they
+   * are read. The parameter must not be null.
+   * @throws SQLException if any SQL errors occur
+   * @throws IOException if there is an error reading the file
+   * @see #runScript(Path, Charset)
+   */
+  public void runScript( Path pScriptFile ) throws IOException, SQLException {
+    this.runScript(pScriptFile, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Runs the SQL script from the passed file. Uncompressed files are mapped into memory and decoded directly into the
+   * buffer of the parser so that also very large scripts are read without per line allocations. Files that are
+   * compressed with gzip are decompressed as a stream.
+   * 
+   * @param pScriptFile File that contains the script. The parameter must not be null.
+   * @param pCharset Character set of the file. The parameter must not be null.
+   * @throws SQLException if any SQL errors occur
+   * @throws IOException if there is an error reading the file
+   */
+  public void runScript( Path pScriptFile, Charset pCharset ) throws IOException, SQLException {
+    try (Reader lReader = ScriptRunner.openScript(pScriptFile, pCharset)) {
+      this.runScript(lReader, Files.size(pScriptFile));
+    }
+  }
+
+  /**
+   * Method opens a reader for the passed script file. Files that start with the gzip magic number are decompressed.
+   * 
+   * @param pScriptFile File that contains the script. The parameter must not be null.
+   * @param pCharset Character set of the file. The parameter must not be null.
+   * @return {@link Reader} Reader for the file. The method never returns null.
+   * @throws IOException if the file can not be opened.
+   */
+  static Reader openScript( Path pScriptFile, Charset pCharset ) throws IOException {
+    // Check parameters.
+    Check.checkInvalidParameterNull(pScriptFile, "pScriptFile");
+    Check.checkInvalidParameterNull(pCharset, "pCharset");
+
+    Reader lReader;
+    if (CompressedFileReader.isCompressed(pScriptFile) == true) {
+      lReader = new CompressedFileReader(pScriptFile, pCharset);
+    }
+    else {
+      lReader = new MappedFileReader(pScriptFile, pCharset);
+    }
+    return lReader;
+  }
+
   /**
    * Runs an SQL script (read in using the Reader parameter) using the connection passed in.
    * 
    * @param pConnection - the connection to use for the script
    * @param pReader - the source of the script
+   * @param pTotalBytes - size of the script in bytes or -1 if unknown
    * @throws SQLException if any SQL errors occur
    * @throws IOException if there is an error reading from the Reader
    */
-  private void runScript( Connection pConnection, Reader pReader ) throws IOException, SQLException {
-    StringBuffer lCommand = null;
-    Statement lStatement = null;
+  private void runScript( Connection pConnection, Reader pReader, long pTotalBytes ) throws IOException, SQLException {
+    String lCommand = null;
+    boolean lSuccessful = false;
     try {
-      LineNumberReader lLineReader = new LineNumberReader(pReader);
-      String lLine = null;
-      while ((lLine = lLineReader.readLine()) != null) {
-        if (lCommand == null) {
-          lCommand = new StringBuffer();
-        }
-        String lTrimmedLine = lLine.trim();
-        if (lTrimmedLine.startsWith("--")) {
-          this.println(lTrimmedLine);
-        }
-        else if (lTrimmedLine.length() < 1 || lTrimmedLine.startsWith("//")) {
-          // Do nothing
+      // Script is split into statements within one pass. Delimiter switches of the script are kept for further scripts.
+      SQLScriptTokenizer lTokenizer =
+          new SQLScriptTokenizer(pReader, this.getDelimiter(), fullLineDelimiter, backslashEscapes);
+      List<String> lBatch = new ArrayList<String>(Math.min(batchSize, 1024));
+      uncommittedStatements = 0;
+      processedStatements = 0;
+      skippedStatements = 0;
+      startTime = System.nanoTime();
+      lastProgressTime = startTime;
+      useSavepoints = stopOnError == false && batchSize > 1 && pConnection.getAutoCommit() == false
+          && pConnection.getMetaData().supportsSavepoints() == true;
+
+      // Statements that were committed by an earlier execution are only parsed but not executed.
+      long lResumePosition;
+      if (checkpoint != null) {
+        lResumePosition = checkpoint.getCommittedStatements(pConnection, scriptName);
+        if (lResumePosition > 0) {
+          this.println("Resuming script " + scriptName + " after statement " + lResumePosition);
         }
-        else if (lTrimmedLine.length() < 1 || lTrimmedLine.startsWith("--")) {
-          // Do nothing
+      }
+      else {
+        lResumePosition = 0;
+      }
+      // A statement is only counted as processed after it was executed or added to the pending batch. Thus a commit
+      // never writes a checkpoint that covers a statement that was not executed yet.
+      while ((lCommand = lTokenizer.nextStatement()) != null) {
+        if (processedStatements < lResumePosition) {
+          processedStatements++;
+          this.skipCommand(pConnection, lCommand);
         }
-        else if (!fullLineDelimiter && lTrimmedLine.endsWith(this.getDelimiter())
-            || fullLineDelimiter && lTrimmedLine.equals(this.getDelimiter())) {
-
-          Pattern lPattern = Pattern.compile(DELIMITER_LINE_REGEX);
-          Matcher lMatcher = lPattern.matcher(lTrimmedLine);
-          if (lMatcher.matches()) {
-            setDelimiter(lTrimmedLine.split(DELIMITER_LINE_SPLIT_REGEX)[1].trim(), fullLineDelimiter);
-            lLine = lLineReader.readLine();
-            if (lLine == null) {
-              break;
-            }
-            lTrimmedLine = lLine.trim();
-          }
-
-          lCommand.append(lLine.substring(0, lLine.lastIndexOf(this.getDelimiter())));
-          lCommand.append(" ");
-          lStatement = pConnection.createStatement();
-
-          this.println(lCommand);
-
-          boolean lHasResults = false;
-          if (stopOnError) {
-            lHasResults = lStatement.execute(lCommand.toString());
-          }
-          else {
-            try {
-              lStatement.execute(lCommand.toString());
-            }
-            catch (SQLException e) {
-              e.fillInStackTrace();
-              this.printlnError("Error executing: " + lCommand);
-              this.printlnError(e);
-            }
-          }
-
-          if (autoCommit && !pConnection.getAutoCommit()) {
-            pConnection.commit();
-          }
-
-          ResultSet lResultSet = lStatement.getResultSet();
-          if (lHasResults && lResultSet != null) {
-            ResultSetMetaData md = lResultSet.getMetaData();
-            int cols = md.getColumnCount();
-            StringBuffer lBuffer = new StringBuffer();
-            for (int i = 0; i < cols; i++) {
-              String name = md.getColumnLabel(i);
-              lBuffer.append(name);
-              lBuffer.append(" ");
-            }
-            this.println(lBuffer.toString());
-            lBuffer = new StringBuffer();
-            while (lResultSet.next()) {
-              for (int i = 1; i <= cols; i++) {
-                String value = lResultSet.getString(i);
-                lBuffer.append(value);
-                lBuffer.append(" ");
-              }
-              this.println(lBuffer.toString());
-            }
-          }
-
-          lCommand = null;
-          try {
-            if (lResultSet != null) {
-              lResultSet.close();
-            }
-          }
-          catch (Exception e) {
-            XFun.getTrace().error(e.getMessage(), e);
-          }
-          try {
-            lStatement.close();
-          }
-          catch (Exception e) {
-            XFun.getTrace().error(e.getMessage(), e);
+        else if (batchSize > 1 && ScriptRunner.isBatchable(lCommand) == true) {
+          lBatch.add(lCommand);
+          processedStatements++;
+          if (lBatch.size() >= batchSize) {
+            this.executeBatch(pConnection, lBatch);
           }
         }
+        else if (ScriptRunner.startsWithKeyword(lCommand, DDL_KEYWORDS) == true) {
+          // DDL statements get a commit of their own as they may commit the current transaction implicitly.
+          this.executeBatch(pConnection, lBatch);
+          this.commitDDL(pConnection, false);
+          this.executeCommand(pConnection, lCommand);
+          processedStatements++;
+          this.commitDDL(pConnection, true);
+        }
         else {
-          Pattern pattern = Pattern.compile(DELIMITER_LINE_REGEX);
-          Matcher matcher = pattern.matcher(lTrimmedLine);
-          if (matcher.matches()) {
-            setDelimiter(lTrimmedLine.split(DELIMITER_LINE_SPLIT_REGEX)[1].trim(), fullLineDelimiter);
-            lLine = lLineReader.readLine();
-            if (lLine == null) {
-              break;
-            }
-            lTrimmedLine = lLine.trim();
-          }
-          lCommand.append(lLine);
-          lCommand.append(" ");
+          // Pending batch has to be executed first to keep the order of the statements.
+          this.executeBatch(pConnection, lBatch);
+          this.executeCommand(pConnection, lCommand);
+          processedStatements++;
+          this.commitIfRequired(pConnection, 1);
         }
+        this.publishProgress(pReader, pTotalBytes, false);
       }
-      if (!autoCommit) {
-        pConnection.commit();
+      this.executeBatch(pConnection, lBatch);
+      delimiter = lTokenizer.getDelimiter();
+
+      if (!pConnection.getAutoCommit()) {
+        this.commit(pConnection, true);
       }
+      lSuccessful = true;
+      this.publishProgress(pReader, pTotalBytes, true);
     }
     catch (SQLException e) {
       e.fillInStackTrace();
@@ -260,16 +456,413 @@ public class ScriptRunner {
       throw e;
     }
     finally {
-      if (lStatement != null) {
+      // Only uncommitted work of a failed script has to be rolled back.
+      if (lSuccessful == false && !pConnection.getAutoCommit()) {
+        pConnection.rollback();
+      }
+    }
+  }
+
+  /**
+   * Method skips the passed command as it was already committed by an earlier execution of the script. Commands that
+   * change the state of the database session are executed nevertheless. DDL statements are skipped as well, as they
+   * are always committed together with the checkpoint that covers them.
+   * 
+   * @param pConnection Connection that should be used. The parameter must not be null.
+   * @param pCommand Command that should be skipped. The parameter must not be null.
+   * @throws SQLException if a session command fails and stopOnError is set.
+   */
+  private void skipCommand( Connection pConnection, String pCommand ) throws SQLException {
+    skippedStatements++;
+    if (ScriptRunner.isSessionCommand(pCommand) == true) {
+      this.executeCommand(pConnection, pCommand);
+    }
+  }
+
+  /**
+   * Method executes the passed command and traces its result.
+   * 
+   * @param pConnection Connection that should be used. The parameter must not be null.
+   * @param pCommand Command that should be executed. The parameter must not be null.
+   * @throws SQLException if the command fails and stopOnError is set.
+   */
+  private void executeCommand( Connection pConnection, String pCommand ) throws SQLException {
+    Statement lStatement = pConnection.createStatement();
+    ResultSet lResultSet = null;
+    try {
+      this.println(pCommand);
+
+      boolean lHasResults = false;
+      if (stopOnError) {
+        lHasResults = lStatement.execute(pCommand);
+      }
+      else {
         try {
-          lStatement.close();
+          lStatement.execute(pCommand);
         }
         catch (SQLException e) {
+          e.fillInStackTrace();
+          this.printlnError("Error executing: " + pCommand);
           this.printlnError(e);
         }
       }
-      pConnection.rollback();
+
+      lResultSet = lStatement.getResultSet();
+      if (lHasResults && lResultSet != null) {
+        ResultSetMetaData md = lResultSet.getMetaData();
+        int cols = md.getColumnCount();
+        StringBuilder lBuilder = new StringBuilder();
+        for (int i = 1; i <= cols; i++) {
+          String name = md.getColumnLabel(i);
+          lBuilder.append(name);
+          lBuilder.append(" ");
+        }
+        this.println(lBuilder.toString());
+        while (lResultSet.next()) {
+          lBuilder.setLength(0);
+          for (int i = 1; i <= cols; i++) {
+            String value = lResultSet.getString(i);
+            lBuilder.append(value);
+            lBuilder.append(" ");
+          }
+          this.println(lBuilder.toString());
+        }
+      }
+    }
+    finally {
+      try {
+        if (lResultSet != null) {
+          lResultSet.close();
+        }
+      }
+      catch (Exception e) {
+        XFun.getTrace().error(e.getMessage(), e);
+      }
+      try {
+        lStatement.close();
+      }
+      catch (Exception e) {
+        XFun.getTrace().error(e.getMessage(), e);
+      }
+    }
+  }
+
+  /**
+   * Method executes the passed statements as one JDBC batch. The list is cleared afterwards.
+   * 
+   * @param pConnection Connection that should be used. The parameter must not be null.
+   * @param pBatch Statements that should be executed. The parameter must not be null. If the list is empty then nothing
+   * happens.
+   * @throws SQLException if a statement fails and stopOnError is set.
+   * @throws IOException if the checkpoint can not be written.
+   */
+  private void executeBatch( Connection pConnection, List<String> pBatch ) throws SQLException, IOException {
+    if (pBatch.isEmpty() == false) {
+      Savepoint lSavepoint;
+      if (useSavepoints == true) {
+        lSavepoint = pConnection.setSavepoint();
+      }
+      else {
+        lSavepoint = null;
+      }
+      Statement lStatement = pConnection.createStatement();
+      try {
+        for (String lNextCommand : pBatch) {
+          this.println(lNextCommand);
+          lStatement.addBatch(lNextCommand);
+        }
+        try {
+          lStatement.executeBatch();
+          if (lSavepoint != null) {
+            ScriptRunner.releaseSavepoint(pConnection, lSavepoint);
+          }
+        }
+        catch (BatchUpdateException e) {
+          this.handleBatchError(pConnection, pBatch, e, lSavepoint);
+        }
+        this.commitIfRequired(pConnection, pBatch.size());
+      }
+      finally {
+        pBatch.clear();
+        try {
+          lStatement.close();
+        }
+        catch (Exception e) {
+          XFun.getTrace().error(e.getMessage(), e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Method handles a failed batch. If stopOnError is set then the first failed statement is reported and the exception
+   * is thrown again. If a savepoint was set before the batch then the batch is rolled back to it and repeated statement
+   * by statement. Otherwise the failed statements are reported using the update counts of the exception. Depending on
+   * the driver a batch either stops with the first failed statement or executes all statements. In the first case the
+   * remaining statements are executed one by one.
+   * 
+   * @param pConnection Connection that is used. The parameter must not be null.
+   * @param pBatch Statements of the failed batch. The parameter must not be null.
+   * @param pException Exception of the batch. The parameter must not be null.
+   * @param pSavepoint Savepoint that was set before the batch was executed. The parameter may be null.
+   * @throws SQLException if stopOnError is set or if the transaction can not be rolled back to the savepoint.
+   */
+  private void handleBatchError( Connection pConnection, List<String> pBatch, BatchUpdateException pException,
+      Savepoint pSavepoint ) throws SQLException {
+    int[] lUpdateCounts = pException.getUpdateCounts();
+    int lExecuted;
+    if (lUpdateCounts != null) {
+      lExecuted = Math.min(lUpdateCounts.length, pBatch.size());
+    }
+    else {
+      lExecuted = 0;
+    }
+    // Drivers report the causes of the failed statements in the order of the statements.
+    List<SQLException> lCauses = ScriptRunner.getNextExceptions(pException);
+    int lFailures = 0;
+
+    if (pSavepoint != null) {
+      pConnection.rollback(pSavepoint);
+      this.printlnError("Batch failed, executing its " + pBatch.size() + " statements one by one. Cause: "
+          + ScriptRunner.getCause(pException, lCauses, 0));
+      for (String lNextCommand : pBatch) {
+        this.executeIsolatedCommand(pConnection, lNextCommand);
+      }
+    }
+    else {
+      // Report all statements that failed within the batch.
+      for (int i = 0; i < lExecuted; i++) {
+        if (lUpdateCounts[i] == Statement.EXECUTE_FAILED) {
+          this.printlnError("Error executing: " + pBatch.get(i));
+          this.printlnError(ScriptRunner.getCause(pException, lCauses, lFailures++));
+          if (stopOnError) {
+            throw pException;
+          }
+        }
+      }
+      // Driver stopped with the first failed statement.
+      if (lExecuted < pBatch.size()) {
+        this.printlnError("Error executing: " + pBatch.get(lExecuted));
+        this.printlnError(ScriptRunner.getCause(pException, lCauses, lFailures));
+        if (stopOnError) {
+          throw pException;
+        }
+        for (int i = lExecuted + 1; i < pBatch.size(); i++) {
+          this.executeCommand(pConnection, pBatch.get(i));
+        }
+      }
+    }
+  }
+
+  /**
+   * Method executes the passed command with a savepoint of its own. If the command fails then the transaction is rolled
+   * back to the savepoint and the error is reported. Thus the transaction can be continued also on databases that abort
+   * the transaction with a failed statement.
+   * 
+   * @param pConnection Connection that is used. The parameter must not be null.
+   * @param pCommand Command that should be executed. The parameter must not be null.
+   * @throws SQLException if the savepoint can not be set or the transaction can not be rolled back to it.
+   */
+  private void executeIsolatedCommand( Connection pConnection, String pCommand ) throws SQLException {
+    Savepoint lSavepoint = pConnection.setSavepoint();
+    try (Statement lStatement = pConnection.createStatement()) {
+      lStatement.execute(pCommand);
+      ScriptRunner.releaseSavepoint(pConnection, lSavepoint);
+    }
+    catch (SQLException e) {
+      pConnection.rollback(lSavepoint);
+      this.printlnError("Error executing: " + pCommand);
+      this.printlnError(e);
+    }
+  }
+
+  /**
+   * Method releases the passed savepoint. Not all drivers support the release of savepoints. In this case the savepoint
+   * is released with the next commit.
+   * 
+   * @param pConnection Connection that is used. The parameter must not be null.
+   * @param pSavepoint Savepoint that should be released. The parameter must not be null.
+   */
+  private static void releaseSavepoint( Connection pConnection, Savepoint pSavepoint ) {
+    try {
+      pConnection.releaseSavepoint(pSavepoint);
+    }
+    catch (SQLException e) {
+      // Savepoint will be released with the next commit.
+    }
+  }
+
+  /**
+   * Method returns all exceptions that are chained to the passed exception using
+   * {@link SQLException#getNextException()}.
+   * 
+   * @param pException Exception whose chained exceptions should be returned. The parameter must not be null.
+   * @return {@link List} Chained exceptions in the order of the chain. The passed exception is not part of the list.
+   * The method never returns null.
+   */
+  private static List<SQLException> getNextExceptions( SQLException pException ) {
+    List<SQLException> lExceptions = new ArrayList<SQLException>();
+    SQLException lNext = pException.getNextException();
+    while (lNext != null && lNext != pException && lExceptions.contains(lNext) == false) {
+      lExceptions.add(lNext);
+      lNext = lNext.getNextException();
+    }
+    return lExceptions;
+  }
+
+  /**
+   * Method returns the cause of the failed statement with the passed index.
+   * 
+   * @param pException Exception of the batch. The parameter must not be null.
+   * @param pCauses Chained exceptions of the batch exception. The parameter must not be null.
+   * @param pFailure Index of the failed statement among all failed statements of the batch.
+   * @return {@link SQLException} Chained exception with the passed index or the batch exception if the driver did not
+   * provide a cause for the failed statement. The method never returns null.
+   */
+  private static SQLException getCause( BatchUpdateException pException, List<SQLException> pCauses, int pFailure ) {
+    SQLException lCause;
+    if (pFailure < pCauses.size()) {
+      lCause = pCauses.get(pFailure);
+    }
+    else {
+      lCause = pException;
+    }
+    return lCause;
+  }
+
+  /**
+   * Method commits the current transaction if the commit interval is reached.
+   * 
+   * @param pConnection Connection that is used. The parameter must not be null.
+   * @param pStatements Number of statements that were executed.
+   * @throws SQLException if the commit fails.
+   * @throws IOException if the checkpoint can not be written.
+   */
+  private void commitIfRequired( Connection pConnection, int pStatements ) throws SQLException, IOException {
+    if (autoCommit && !pConnection.getAutoCommit()) {
+      uncommittedStatements += pStatements;
+      if (uncommittedStatements >= commitInterval) {
+        this.commit(pConnection, false);
+      }
+    }
+  }
+
+  /**
+   * Method commits the current transaction before or after a DDL statement if the script runner is responsible for
+   * commits. Before the DDL statement a commit only takes place if there are uncommitted statements. After the DDL
+   * statement the commit always takes place so that the checkpoint covers the DDL statement.
+   * 
+   * @param pConnection Connection that is used. The parameter must not be null.
+   * @param pExecuted Parameter defines whether the DDL statement was already executed.
+   * @throws SQLException if the commit fails.
+   * @throws IOException if the checkpoint can not be written.
+   */
+  private void commitDDL( Connection pConnection, boolean pExecuted ) throws SQLException, IOException {
+    if (autoCommit && !pConnection.getAutoCommit()) {
+      if (pExecuted == true || uncommittedStatements > 0) {
+        this.commit(pConnection, false);
+      }
+    }
+  }
+
+  /**
+   * Method commits the current transaction. If checkpoints are enabled the number of processed statements is stored as
+   * checkpoint. Statements are counted as processed only after they were executed or added to the pending batch, and
+   * the pending batch is always executed before a commit. Thus at all commit points every processed statement was
+   * executed.
+   * 
+   * @param pConnection Connection that is used. The parameter must not be null.
+   * @param pCompleted Parameter defines if this is the last commit of the script.
+   * @throws SQLException if the commit fails.
+   * @throws IOException if the checkpoint can not be written.
+   */
+  private void commit( Connection pConnection, boolean pCompleted ) throws SQLException, IOException {
+    if (checkpoint != null) {
+      checkpoint.beforeCommit(pConnection, scriptName, processedStatements, pCompleted);
+    }
+    pConnection.commit();
+    uncommittedStatements = 0;
+    if (checkpoint != null) {
+      checkpoint.afterCommit(scriptName, processedStatements, pCompleted);
+    }
+  }
+
+  /**
+   * Method publishes the current progress to the progress listener. Except for the completion of the script the
+   * progress is published at most once per second.
+   * 
+   * @param pReader Reader from which the script is read. The parameter must not be null.
+   * @param pTotalBytes Size of the script in bytes or -1 if unknown.
+   * @param pCompleted Parameter defines if the script is completed.
+   */
+  private void publishProgress( Reader pReader, long pTotalBytes, boolean pCompleted ) {
+    if (progressListener != null) {
+      long lNow = System.nanoTime();
+      if (pCompleted == true || lNow - lastProgressTime >= PROGRESS_INTERVAL) {
+        lastProgressTime = lNow;
+        long lBytesProcessed;
+        if (pReader instanceof InputPosition) {
+          lBytesProcessed = ((InputPosition) pReader).getBytesRead();
+        }
+        else {
+          lBytesProcessed = -1;
+        }
+        long lElapsedTime = (lNow - startTime) / 1000000;
+        progressListener.progressChanged(new ScriptProgress(scriptName, processedStatements, skippedStatements,
+            lBytesProcessed, pTotalBytes, lElapsedTime, pCompleted));
+      }
+    }
+  }
+
+  /**
+   * Method checks whether the passed command can be executed as part of a batch. This is the case for DML statements
+   * that do not return a result set.
+   * 
+   * @param pCommand Command that should be checked. The parameter must not be null.
+   * @return boolean Method returns true if the command is an INSERT, UPDATE, DELETE, MERGE or REPLACE statement.
+   */
+  private static boolean isBatchable( String pCommand ) {
+    return ScriptRunner.startsWithKeyword(pCommand, BATCHABLE_KEYWORDS);
+  }
+
+  /**
+   * Method checks whether the passed command changes the state of the database session.
+   * 
+   * @param pCommand Command that should be checked. The parameter must not be null.
+   * @return boolean Method returns true if the command is a SET, USE or ALTER SESSION statement.
+   */
+  private static boolean isSessionCommand( String pCommand ) {
+    boolean lSessionCommand;
+    if (ScriptRunner.startsWithKeyword(pCommand, SESSION_KEYWORDS) == true) {
+      lSessionCommand = true;
+    }
+    else if (ScriptRunner.startsWithKeyword(pCommand, "ALTER") == true) {
+      lSessionCommand = ScriptRunner.startsWithKeyword(pCommand.substring("ALTER".length()).trim(), "SESSION");
+    }
+    else {
+      lSessionCommand = false;
+    }
+    return lSessionCommand;
+  }
+
+  /**
+   * Method checks whether the passed command starts with one of the passed keywords followed by a whitespace.
+   * 
+   * @param pCommand Command that should be checked. The parameter must not be null.
+   * @param pKeywords Keywords that should be checked. The parameter must not be null.
+   * @return boolean Method returns true if the command starts with one of the keywords and false otherwise.
+   */
+  private static boolean startsWithKeyword( String pCommand, String... pKeywords ) {
+    boolean lStartsWithKeyword = false;
+    for (String lNextKeyword : pKeywords) {
+      int lLength = lNextKeyword.length();
+      if (pCommand.length() > lLength && pCommand.regionMatches(true, 0, lNextKeyword, 0, lLength)
+          && Character.isWhitespace(pCommand.charAt(lLength))) {
+        lStartsWithKeyword = true;
+        break;
+      }
     }
+    return lStartsWithKeyword;
   }
 
   private String getDelimiter( ) {
@@ -0,0 +1,144 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.anaptecs.jeaf.xfun.api.checks.Check;
+
+/**
+ * Class stores the checkpoints of scripts in a database table. The checkpoint is written within the transaction of the
+ * script. Thus the checkpoint always matches the committed statements exactly.
+ * 
+ * The table has to be created in advance with the following columns:
+ * 
+ * <pre>
+ * CREATE TABLE SCRIPT_CHECKPOINT (SCRIPT_NAME VARCHAR(255) NOT NULL PRIMARY KEY, STATEMENT_COUNT BIGINT NOT NULL)
+ * </pre>
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public final class TableScriptCheckpoint implements ScriptCheckpoint {
+  /**
+   * Default name of the checkpoint table.
+   */
+  public static final String DEFAULT_TABLE_NAME = "SCRIPT_CHECKPOINT";
+
+  /**
+   * Statement that reads the checkpoint of a script.
+   */
+  private final String selectStatement;
+
+  /**
+   * Statement that updates the checkpoint of a script.
+   */
+  private final String updateStatement;
+
+  /**
+   * Statement that inserts the checkpoint of a script.
+   */
+  private final String insertStatement;
+
+  /**
+   * Statement that deletes the checkpoint of a script.
+   */
+  private final String deleteStatement;
+
+  /**
+   * Initialize object using the default table name.
+   */
+  public TableScriptCheckpoint( ) {
+    this(DEFAULT_TABLE_NAME);
+  }
+
+  /**
+   * Initialize object.
+   * 
+   * @param pTableName Name of the checkpoint table. The parameter must not be null.
+   */
+  public TableScriptCheckpoint( String pTableName ) {
+    // Check parameter.
+    Check.checkIsRealString(pTableName, "pTableName");
+
+    selectStatement = "SELECT STATEMENT_COUNT FROM " + pTableName + " WHERE SCRIPT_NAME = ?";
+    updateStatement = "UPDATE " + pTableName + " SET STATEMENT_COUNT = ? WHERE SCRIPT_NAME = ?";
+    insertStatement = "INSERT INTO " + pTableName + " (STATEMENT_COUNT, SCRIPT_NAME) VALUES (?, ?)";
+    deleteStatement = "DELETE FROM " + pTableName + " WHERE SCRIPT_NAME = ?";
+  }
+
+  /**
+   * Method reads the number of committed statements of the passed script from the checkpoint table.
+   * 
+   * @param pConnection Connection on which the script is executed. The parameter must not be null.
+   * @param pScriptName Name of the script. The parameter must not be null.
+   * @return long Number of committed statements or 0 if the table does not contain a checkpoint for the script.
+   * @throws SQLException if the checkpoint table can not be read.
+   */
+  @Override
+  public long getCommittedStatements( Connection pConnection, String pScriptName ) throws SQLException {
+    try (PreparedStatement lStatement = pConnection.prepareStatement(selectStatement)) {
+      lStatement.setString(1, pScriptName);
+      try (ResultSet lResultSet = lStatement.executeQuery()) {
+        long lStatements;
+        if (lResultSet.next() == true) {
+          lStatements = lResultSet.getLong(1);
+        }
+        else {
+          lStatements = 0;
+        }
+        return lStatements;
+      }
+    }
+  }
+
+  /**
+   * Method writes the checkpoint of the passed script within the current transaction. If the script is completed then
+   * the checkpoint is deleted.
+   * 
+   * @param pConnection Connection of the transaction that gets committed. The parameter must not be null.
+   * @param pScriptName Name of the script. The parameter must not be null.
+   * @param pStatements Number of statements that are committed with the transaction.
+   * @param pCompleted Parameter defines if the script is completed.
+   * @throws SQLException if the checkpoint table can not be written.
+   */
+  @Override
+  public void beforeCommit( Connection pConnection, String pScriptName, long pStatements, boolean pCompleted )
+    throws SQLException {
+    if (pCompleted == true) {
+      try (PreparedStatement lStatement = pConnection.prepareStatement(deleteStatement)) {
+        lStatement.setString(1, pScriptName);
+        lStatement.executeUpdate();
+      }
+    }
+    else {
+      int lUpdated;
+      try (PreparedStatement lStatement = pConnection.prepareStatement(updateStatement)) {
+        lStatement.setLong(1, pStatements);
+        lStatement.setString(2, pScriptName);
+        lUpdated = lStatement.executeUpdate();
+      }
+      if (lUpdated == 0) {
+        try (PreparedStatement lStatement = pConnection.prepareStatement(insertStatement)) {
+          lStatement.setLong(1, pStatements);
+          lStatement.setString(2, pScriptName);
+          lStatement.executeUpdate();
+        }
+      }
+    }
+  }
+
+  /**
+   * Checkpoint is already written as part of the transaction.
+   */
+  @Override
+  public void afterCommit( String pScriptName, long pStatements, boolean pCompleted ) {
+    // Nothing to do.
+  }
+}
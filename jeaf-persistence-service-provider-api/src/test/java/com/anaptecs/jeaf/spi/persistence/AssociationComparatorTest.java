@@ -0,0 +1,183 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.anaptecs.jeaf.core.api.ServiceObjectID;
+import com.anaptecs.jeaf.xfun.api.common.AbstractObjectID;
+import com.anaptecs.jeaf.xfun.api.common.Identifiable;
+
+/**
+ * Class tests that the comparison of associations based on {@link ObjectIDMap} leads to the same results as the former
+ * comparison based on hash maps with object ids as keys.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public class AssociationComparatorTest {
+  @Test
+  public void testMatchesHashMapComparison( ) {
+    Random lRandom = new Random(4711);
+    for (int lRun = 0; lRun < 20; lRun++) {
+      List<ShardedOrder> lPersistentObjects = new ArrayList<ShardedOrder>();
+      List<TestObject> lObjects = new ArrayList<TestObject>();
+      int lSize = lRandom.nextInt(2000);
+      for (int i = 0; i < lSize; i++) {
+        String lObjectID = Integer.toString(lRun * 10000 + i, 36) + "#4XX";
+        int lKind = lRandom.nextInt(4);
+        // Objects that are only persistent, only identifiable, both or new.
+        if (lKind != 1) {
+          ShardedOrder lOrder = new ShardedOrder();
+          lOrder.assignObjectID(lObjectID);
+          lPersistentObjects.add(lOrder);
+        }
+        if (lKind != 0) {
+          lObjects.add(new TestObject(new PersistentObjectID(lObjectID, 0)));
+        }
+        if (lKind == 3) {
+          lObjects.add(new TestObject(null));
+        }
+      }
+      Collections.shuffle(lObjects, lRandom);
+      Collections.shuffle(lPersistentObjects, lRandom);
+
+      // Parallel comparison has to lead to the same result as the sequential one.
+      this.assertSameResult(lObjects, lPersistentObjects, Integer.MAX_VALUE);
+      this.assertSameResult(lObjects, lPersistentObjects, 100);
+    }
+  }
+
+  @Test
+  public void testServiceObjectIDsMatchPersistentObjects( ) {
+    // Unlike hash maps with object ids as keys the delimiters '-' and '#' are treated as the same character.
+    ShardedOrder lOrder = new ShardedOrder();
+    lOrder.assignObjectID("0001#4XX");
+    ShardedOrder lRemovedOrder = new ShardedOrder();
+    lRemovedOrder.assignObjectID("0002#4XX");
+    TestObject lExisting = new TestObject(new ServiceObjectID("0001-4XX", 5));
+    TestObject lAdded = new TestObject(new ServiceObjectID("0003-4XX", 1));
+
+    AssociationComparator<TestObject, ShardedOrder> lComparator = new AssociationComparator<TestObject, ShardedOrder>(
+        Arrays.asList(lExisting, lAdded), Arrays.asList(lOrder, lRemovedOrder));
+    assertEquals(Arrays.asList(lExisting), lComparator.getAlreadyExistingServiceObjects());
+    assertEquals(Arrays.asList(lAdded), lComparator.getAddedObjects());
+    assertEquals(Arrays.asList(lRemovedOrder), lComparator.getPersistentObjectsToRemove());
+    assertTrue(lComparator.getNewObjects().isEmpty());
+  }
+
+  /**
+   * Method compares the passed objects with the association comparator and with hash maps as the association
+   * comparator did before JEAF Release 1.8 and checks that both lead to the same result.
+   * 
+   * @param pObjects Identifiable objects that should be compared.
+   * @param pPersistentObjects Persistent objects that should be compared.
+   * @param pParallelThreshold Minimum number of objects from which on the comparison is executed in parallel.
+   */
+  private void assertSameResult( List<TestObject> pObjects, List<ShardedOrder> pPersistentObjects,
+      int pParallelThreshold ) {
+    // Build up maps as the former implementation did.
+    Map<AbstractObjectID<?>, TestObject> lObjectMap = new HashMap<AbstractObjectID<?>, TestObject>();
+    Set<TestObject> lNewObjects = new HashSet<TestObject>();
+    for (TestObject lNextObject : pObjects) {
+      if (lNextObject.getID() != null) {
+        lObjectMap.put(lNextObject.getID(), lNextObject);
+      }
+      else {
+        lNewObjects.add(lNextObject);
+      }
+    }
+    Map<AbstractObjectID<?>, ShardedOrder> lPersistentObjectMap = new HashMap<AbstractObjectID<?>, ShardedOrder>();
+    for (ShardedOrder lNextPersistentObject : pPersistentObjects) {
+      lPersistentObjectMap.put(lNextPersistentObject.getID(), lNextPersistentObject);
+    }
+    Set<TestObject> lAddedObjects = new HashSet<TestObject>();
+    for (TestObject lNextObject : lObjectMap.values()) {
+      if (lPersistentObjectMap.containsKey(lNextObject.getID()) == false) {
+        lAddedObjects.add(lNextObject);
+      }
+    }
+    Set<TestObject> lExistingObjects = new HashSet<TestObject>();
+    for (AbstractObjectID<?> lNextObjectID : lPersistentObjectMap.keySet()) {
+      TestObject lObject = lObjectMap.get(lNextObjectID);
+      if (lObject != null) {
+        lExistingObjects.add(lObject);
+      }
+    }
+    Set<ShardedOrder> lRemovedObjects = new HashSet<ShardedOrder>();
+    for (Map.Entry<AbstractObjectID<?>, ShardedOrder> lNextEntry : lPersistentObjectMap.entrySet()) {
+      if (lObjectMap.containsKey(lNextEntry.getKey()) == false) {
+        lRemovedObjects.add(lNextEntry.getValue());
+      }
+    }
+    Set<TestObject> lAddedAndNewObjects = new HashSet<TestObject>(lAddedObjects);
+    lAddedAndNewObjects.addAll(lNewObjects);
+
+    AssociationComparator<TestObject, ShardedOrder> lComparator =
+        new AssociationComparator<TestObject, ShardedOrder>(pObjects, pPersistentObjects, pParallelThreshold);
+    assertEquals(lNewObjects, this.toSet(lComparator.getNewObjects()));
+    assertEquals(lAddedObjects, this.toSet(lComparator.getAddedObjects()));
+    assertEquals(lExistingObjects, this.toSet(lComparator.getAlreadyExistingServiceObjects()));
+    assertEquals(lRemovedObjects, this.toSet(lComparator.getPersistentObjectsToRemove()));
+    assertEquals(lAddedAndNewObjects, this.toSet(lComparator.getAddedAndNewObjects()));
+  }
+
+  /**
+   * Method returns the passed collection as set and ensures that it does not contain duplicates.
+   * 
+   * @param <T> Type of the objects.
+   * @param pObjects Objects that should be returned as set.
+   * @return {@link Set} Set with the passed objects. The method never returns null.
+   */
+  private <T> Set<T> toSet( Collection<T> pObjects ) {
+    Set<T> lSet = new HashSet<T>(pObjects);
+    assertEquals(pObjects.size(), lSet.size());
+    return lSet;
+  }
+
+  /**
+   * Identifiable object that is compared with the persistent objects.
+   */
+  private static final class TestObject implements Identifiable<AbstractObjectID<?>> {
+    /**
+     * Object id of the object. New objects do not have an object id.
+     */
+    private final AbstractObjectID<?> objectID;
+
+    /**
+     * Initialize object.
+     * 
+     * @param pObjectID Object id of the object. The parameter may be null.
+     */
+    TestObject( AbstractObjectID<?> pObjectID ) {
+      objectID = pObjectID;
+    }
+
+    @Override
+    public AbstractObjectID<?> getID( ) {
+      return objectID;
+    }
+
+    @Override
+    public AbstractObjectID<?> getUnversionedID( ) {
+      return objectID;
+    }
+  }
+}
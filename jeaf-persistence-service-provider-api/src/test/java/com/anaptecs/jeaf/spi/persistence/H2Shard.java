@@ -0,0 +1,171 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import org.h2.jdbcx.JdbcDataSource;
+
+import com.anaptecs.jeaf.xfun.api.common.AbstractObjectID;
+
+/**
+ * Class represents one shard that stores {@link ShardedOrder}s in an embedded H2 in-memory database. Only the
+ * operations that are routed by object id are supported. Lookups return their objects sorted by object id and not in
+ * the order in which the ids were passed.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public final class H2Shard implements InvocationHandler {
+  /**
+   * Data source of the embedded database.
+   */
+  private final JdbcDataSource dataSource;
+
+  /**
+   * Generator for the object ids of new orders.
+   */
+  private final ObjectIDGenerator objectIDGenerator;
+
+  /**
+   * Initialize object. The database is created with an empty order table and an own sequence for object id blocks.
+   * 
+   * @param pDatabaseName Name of the in-memory database. The parameter must not be null.
+   * @param pBlockSource Function that wraps the sequence based block source of the shard, e.g. to encode the shard
+   * index. The parameter must not be null.
+   * @param pExecutor Executor that is used to reserve object id blocks in the background. The parameter must not be
+   * null.
+   * @throws SQLException if the database can not be created.
+   */
+  public H2Shard( String pDatabaseName, Function<ObjectIDBlockSource, ObjectIDBlockSource> pBlockSource,
+      Executor pExecutor ) throws SQLException {
+    dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:" + pDatabaseName + ";DB_CLOSE_DELAY=-1");
+    try (Connection lConnection = dataSource.getConnection(); Statement lStatement = lConnection.createStatement()) {
+      lStatement.execute("DROP ALL OBJECTS");
+      lStatement.execute("CREATE SEQUENCE OBJECT_ID_BLOCKS START WITH 1");
+      lStatement.execute("CREATE TABLE SHARDED_ORDER (OBJECT_ID VARCHAR(15) NOT NULL PRIMARY KEY)");
+    }
+    ObjectIDBlockSource lBlockSource =
+        pBlockSource.apply(new SequenceObjectIDBlockSource(dataSource, "SELECT NEXT VALUE FOR OBJECT_ID_BLOCKS"));
+    objectIDGenerator = new BlockObjectIDGenerator(lBlockSource, 1000, 10, pExecutor);
+  }
+
+  /**
+   * Method returns a persistence service provider that works on this shard.
+   * 
+   * @return {@link PersistenceServiceProvider} Persistence service provider of this shard. The method never returns
+   * null.
+   */
+  public PersistenceServiceProvider getPersistenceServiceProvider( ) {
+    return (PersistenceServiceProvider) Proxy.newProxyInstance(this.getClass().getClassLoader(),
+        new Class<?>[] { PersistenceServiceProvider.class }, this);
+  }
+
+  /**
+   * Method returns the ids of all orders that are stored on this shard.
+   * 
+   * @return {@link List} Object ids of all stored orders sorted by object id. The method never returns null.
+   * @throws SQLException if the database can not be read.
+   */
+  public List<String> getStoredObjectIDs( ) throws SQLException {
+    try (Connection lConnection = dataSource.getConnection(); Statement lStatement = lConnection.createStatement();
+        ResultSet lResultSet = lStatement.executeQuery("SELECT OBJECT_ID FROM SHARDED_ORDER ORDER BY OBJECT_ID")) {
+      List<String> lObjectIDs = new ArrayList<String>();
+      while (lResultSet.next() == true) {
+        lObjectIDs.add(lResultSet.getString(1));
+      }
+      return lObjectIDs;
+    }
+  }
+
+  /**
+   * Method executes the called method of the persistence service provider on this shard.
+   */
+  @Override
+  public Object invoke( Object pProxy, Method pMethod, Object[] pArgs ) throws Throwable {
+    Object lResult;
+    switch (pMethod.getName()) {
+      case "createPersistentObject":
+        lResult = this.create();
+        break;
+
+      case "getPersistentObjectsByIDs":
+        lResult = this.read((Collection<?>) pArgs[0]);
+        break;
+
+      case "exists":
+        lResult = this.read(Collections.singleton(pArgs[0])).isEmpty() == false;
+        break;
+
+      case "flush":
+        lResult = null;
+        break;
+
+      default:
+        throw new UnsupportedOperationException(pMethod.getName());
+    }
+    return lResult;
+  }
+
+  /**
+   * Method creates a new order and inserts it into the database.
+   * 
+   * @return {@link ShardedOrder} Created order. The method never returns null.
+   * @throws SQLException if the order can not be inserted.
+   */
+  private ShardedOrder create( ) throws SQLException {
+    ShardedOrder lOrder = new ShardedOrder();
+    lOrder.assignObjectID(objectIDGenerator.createObjectID(ShardedOrder.CLASS_ID));
+    try (Connection lConnection = dataSource.getConnection();
+        PreparedStatement lStatement = lConnection.prepareStatement("INSERT INTO SHARDED_ORDER VALUES (?)")) {
+      lStatement.setString(1, lOrder.getObjectID());
+      lStatement.executeUpdate();
+    }
+    return lOrder;
+  }
+
+  /**
+   * Method reads the orders with the passed ids.
+   * 
+   * @param pObjectIDs Ids of the orders. The parameter must not be null.
+   * @return {@link List} Found orders sorted by object id. The method never returns null.
+   * @throws SQLException if the orders can not be read.
+   */
+  private List<ShardedOrder> read( Collection<?> pObjectIDs ) throws SQLException {
+    List<ShardedOrder> lOrders = new ArrayList<ShardedOrder>();
+    String lQuery = "SELECT OBJECT_ID FROM SHARDED_ORDER WHERE OBJECT_ID = ANY(?) ORDER BY OBJECT_ID";
+    try (Connection lConnection = dataSource.getConnection();
+        PreparedStatement lStatement = lConnection.prepareStatement(lQuery)) {
+      List<String> lObjectIDs = new ArrayList<String>(pObjectIDs.size());
+      for (Object lNextObjectID : pObjectIDs) {
+        lObjectIDs.add(((AbstractObjectID<?>) lNextObjectID).getObjectID());
+      }
+      lStatement.setObject(1, lObjectIDs.toArray());
+      try (ResultSet lResultSet = lStatement.executeQuery()) {
+        while (lResultSet.next() == true) {
+          ShardedOrder lOrder = new ShardedOrder();
+          lOrder.assignObjectID(lResultSet.getString(1));
+          lOrders.add(lOrder);
+        }
+      }
+    }
+    return lOrders;
+  }
+}
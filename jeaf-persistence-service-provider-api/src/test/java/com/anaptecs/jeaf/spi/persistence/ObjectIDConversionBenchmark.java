@@ -0,0 +1,121 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.anaptecs.jeaf.core.api.ServiceObjectID;
+
+/**
+ * Benchmark compares the bulk conversions between persistent and service object ids with the conversion of every
+ * single id as it is done by facades that build up a result list on their own. Collections that reach
+ * {@link PersistentObjectID#PARALLEL_CONVERSION_THRESHOLD} are converted in parallel by the bulk conversions.
+ * 
+ * The benchmark is not executed as part of the build. It can be run with <code>org.openjdk.jmh.Main</code> using the
+ * test classpath of this module.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectIDConversionBenchmark {
+  /**
+   * Number of ids that are converted.
+   */
+  @Param({ "1000", "100000" })
+  private int size;
+
+  /**
+   * Persistent object ids that are converted into service object ids.
+   */
+  private List<PersistentObjectID> persistentObjectIDs;
+
+  /**
+   * Service object ids that are converted into persistent object ids.
+   */
+  private List<ServiceObjectID> serviceObjectIDs;
+
+  /**
+   * Method creates the ids that are converted.
+   */
+  @Setup
+  public void setup( ) {
+    persistentObjectIDs = new ArrayList<PersistentObjectID>(size);
+    serviceObjectIDs = new ArrayList<ServiceObjectID>(size);
+    for (int i = 0; i < size; i++) {
+      String lObjectID = Integer.toString(1000000 + i, 36) + "#000001#3MV";
+      persistentObjectIDs.add(new PersistentObjectID(lObjectID, i));
+      serviceObjectIDs.add(new ServiceObjectID(lObjectID.replace('#', '-'), i));
+    }
+  }
+
+  /**
+   * Benchmark converts every persistent object id on its own.
+   * 
+   * @return {@link List} Converted service object ids.
+   */
+  @Benchmark
+  public List<ServiceObjectID> toServiceObjectIDsPerElement( ) {
+    List<ServiceObjectID> lServiceObjectIDs = new ArrayList<ServiceObjectID>();
+    for (PersistentObjectID lNextObjectID : persistentObjectIDs) {
+      lServiceObjectIDs.add(lNextObjectID.transformToServiceObjectID());
+    }
+    return lServiceObjectIDs;
+  }
+
+  /**
+   * Benchmark converts all persistent object ids with one bulk conversion.
+   * 
+   * @return {@link List} Converted service object ids.
+   */
+  @Benchmark
+  public List<ServiceObjectID> toServiceObjectIDsBulk( ) {
+    return PersistentObjectID.transformToServiceObjectIDs(persistentObjectIDs);
+  }
+
+  /**
+   * Benchmark converts every service object id on its own.
+   * 
+   * @return {@link List} Converted persistent object ids.
+   */
+  @Benchmark
+  public List<PersistentObjectID> fromServiceObjectIDsPerElement( ) {
+    List<PersistentObjectID> lPersistentObjectIDs = new ArrayList<PersistentObjectID>();
+    for (ServiceObjectID lNextObjectID : serviceObjectIDs) {
+      lPersistentObjectIDs.add(PersistentObjectID.create(lNextObjectID));
+    }
+    return lPersistentObjectIDs;
+  }
+
+  /**
+   * Benchmark converts all service object ids with one bulk conversion.
+   * 
+   * @return {@link List} Converted persistent object ids.
+   */
+  @Benchmark
+  public List<PersistentObjectID> fromServiceObjectIDsBulk( ) {
+    return PersistentObjectID.createAll(serviceObjectIDs);
+  }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark compares {@link ObjectIDMap} with a {@link HashMap} that uses persistent object ids as keys. The allocation
+ * of the build benchmarks that is reported by <code>-prof gc</code> also contains the arrays that were replaced while
+ * the maps grew. Lookups use id objects that are equal to but not the same as the keys of the maps as it is the case
+ * with ids from requests.
+ * 
+ * The benchmark is not executed as part of the build. It can be run with <code>org.openjdk.jmh.Main</code> using the
+ * test classpath of this module.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectIDMapBenchmark {
+  /**
+   * Number of entries of the maps.
+   */
+  @Param({ "1000", "100000" })
+  private int size;
+
+  /**
+   * Persistent object ids that are used as keys of the maps.
+   */
+  private PersistentObjectID[] keys;
+
+  /**
+   * Persistent object ids that are equal to the keys and used for lookups.
+   */
+  private PersistentObjectID[] lookupKeys;
+
+  /**
+   * Persistent object ids that are not contained in the maps.
+   */
+  private PersistentObjectID[] missingKeys;
+
+  /**
+   * Object id map that contains all keys.
+   */
+  private ObjectIDMap<PersistentObjectID> objectIDMap;
+
+  /**
+   * Hash map that contains all keys.
+   */
+  private Map<PersistentObjectID, PersistentObjectID> hashMap;
+
+  /**
+   * Method creates the keys and fills the maps.
+   */
+  @Setup
+  public void setup( ) {
+    keys = new PersistentObjectID[size];
+    lookupKeys = new PersistentObjectID[size];
+    missingKeys = new PersistentObjectID[size];
+    for (int i = 0; i < size; i++) {
+      String lObjectID = Integer.toString(1000000 + i, 36) + "#000001#3MV";
+      keys[i] = new PersistentObjectID(lObjectID, i);
+      lookupKeys[i] = new PersistentObjectID(new String(lObjectID), i);
+      missingKeys[i] = new PersistentObjectID(Integer.toString(1000000 + i, 36) + "#000002#3MV", i);
+    }
+    objectIDMap = this.buildObjectIDMap();
+    hashMap = this.buildHashMap();
+  }
+
+  /**
+   * Benchmark fills an object id map with all keys.
+   * 
+   * @return {@link ObjectIDMap} Created map.
+   */
+  @Benchmark
+  public ObjectIDMap<PersistentObjectID> buildObjectIDMap( ) {
+    ObjectIDMap<PersistentObjectID> lMap = new ObjectIDMap<PersistentObjectID>();
+    for (PersistentObjectID lNextKey : keys) {
+      lMap.put(lNextKey, lNextKey);
+    }
+    return lMap;
+  }
+
+  /**
+   * Benchmark fills a hash map with all keys.
+   * 
+   * @return {@link Map} Created map.
+   */
+  @Benchmark
+  public Map<PersistentObjectID, PersistentObjectID> buildHashMap( ) {
+    Map<PersistentObjectID, PersistentObjectID> lMap = new HashMap<PersistentObjectID, PersistentObjectID>();
+    for (PersistentObjectID lNextKey : keys) {
+      lMap.put(lNextKey, lNextKey);
+    }
+    return lMap;
+  }
+
+  /**
+   * Benchmark looks up all keys in the object id map.
+   * 
+   * @param pBlackhole Blackhole that consumes the results.
+   */
+  @Benchmark
+  public void lookupObjectIDMap( Blackhole pBlackhole ) {
+    for (PersistentObjectID lNextKey : lookupKeys) {
+      pBlackhole.consume(objectIDMap.get(lNextKey));
+    }
+  }
+
+  /**
+   * Benchmark looks up all keys in the hash map.
+   * 
+   * @param pBlackhole Blackhole that consumes the results.
+   */
+  @Benchmark
+  public void lookupHashMap( Blackhole pBlackhole ) {
+    for (PersistentObjectID lNextKey : lookupKeys) {
+      pBlackhole.consume(hashMap.get(lNextKey));
+    }
+  }
+
+  /**
+   * Benchmark looks up keys that are not contained in the object id map.
+   * 
+   * @param pBlackhole Blackhole that consumes the results.
+   */
+  @Benchmark
+  public void missObjectIDMap( Blackhole pBlackhole ) {
+    for (PersistentObjectID lNextKey : missingKeys) {
+      pBlackhole.consume(objectIDMap.get(lNextKey));
+    }
+  }
+
+  /**
+   * Benchmark looks up keys that are not contained in the hash map.
+   * 
+   * @param pBlackhole Blackhole that consumes the results.
+   */
+  @Benchmark
+  public void missHashMap( Blackhole pBlackhole ) {
+    for (PersistentObjectID lNextKey : missingKeys) {
+      pBlackhole.consume(hashMap.get(lNextKey));
+    }
+  }
+}
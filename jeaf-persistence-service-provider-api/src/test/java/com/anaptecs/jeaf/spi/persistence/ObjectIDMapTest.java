@@ -0,0 +1,184 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.anaptecs.jeaf.core.api.ServiceObjectID;
+
+/**
+ * Class tests the open addressing map for object ids.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public class ObjectIDMapTest {
+  /**
+   * Mask of the slots of a map that was created for 8 entries (16 slots).
+   */
+  private static final int MASK = 15;
+
+  @Test
+  public void testPutGetRemove( ) {
+    ObjectIDMap<String> lMap = new ObjectIDMap<String>();
+    assertTrue(lMap.isEmpty());
+    assertNull(lMap.put("0001#4XX", "A"));
+    assertNull(lMap.put(new PersistentObjectID("0002#4XX", 3), "B"));
+    assertEquals(2, lMap.size());
+    assertEquals("A", lMap.get("0001#4XX"));
+    assertEquals("B", lMap.get("0002#4XX"));
+    assertNull(lMap.get("0003#4XX"));
+
+    // Existing values are replaced.
+    assertEquals("A", lMap.put("0001#4XX", "C"));
+    assertEquals(2, lMap.size());
+    assertEquals("C", lMap.get(new PersistentObjectID("0001#4XX", null)));
+
+    assertEquals("C", lMap.remove("0001#4XX"));
+    assertNull(lMap.remove("0001#4XX"));
+    assertFalse(lMap.containsKey("0001#4XX"));
+    assertEquals(1, lMap.size());
+
+    lMap.clear();
+    assertTrue(lMap.isEmpty());
+    assertNull(lMap.get("0002#4XX"));
+  }
+
+  @Test
+  public void testBackwardShiftDelete( ) {
+    // Keys share the last slot so that their probe sequence wraps around to the start of the arrays.
+    List<String> lKeys = this.findCollidingKeys(MASK, 4);
+    for (int lRemoved = 0; lRemoved < lKeys.size(); lRemoved++) {
+      ObjectIDMap<String> lMap = new ObjectIDMap<String>(8);
+      for (String lNextKey : lKeys) {
+        lMap.put(lNextKey, lNextKey);
+      }
+      assertEquals(lKeys.get(lRemoved), lMap.remove(lKeys.get(lRemoved)));
+
+      // All other keys have to be found after the following entries were shifted back.
+      for (int i = 0; i < lKeys.size(); i++) {
+        if (i == lRemoved) {
+          assertNull(lMap.get(lKeys.get(i)));
+        }
+        else {
+          assertEquals(lKeys.get(i), lMap.get(lKeys.get(i)));
+        }
+      }
+      assertEquals(lKeys.size() - 1, lMap.size());
+    }
+  }
+
+  @Test
+  public void testDeleteKeepsEntriesOfOtherHomeSlots( ) {
+    // Key of slot 0 is displaced by the wrapped around keys of slot 15. Deleting them must not move it before slot 0.
+    List<String> lKeys = this.findCollidingKeys(MASK, 2);
+    String lOtherKey = this.findCollidingKeys(0, 1).get(0);
+    ObjectIDMap<String> lMap = new ObjectIDMap<String>(8);
+    lMap.put(lKeys.get(0), "A");
+    lMap.put(lKeys.get(1), "B");
+    lMap.put(lOtherKey, "C");
+    assertEquals("A", lMap.remove(lKeys.get(0)));
+    assertEquals("B", lMap.get(lKeys.get(1)));
+    assertEquals("C", lMap.get(lOtherKey));
+    assertEquals("B", lMap.remove(lKeys.get(1)));
+    assertEquals("C", lMap.get(lOtherKey));
+  }
+
+  @Test
+  public void testResize( ) {
+    ObjectIDMap<Integer> lMap = new ObjectIDMap<Integer>(0);
+    for (int i = 0; i < 10000; i++) {
+      lMap.put(this.createKey(i), i);
+    }
+    assertEquals(10000, lMap.size());
+    for (int i = 0; i < 10000; i++) {
+      assertEquals(Integer.valueOf(i), lMap.get(this.createKey(i)));
+    }
+    assertNull(lMap.get(this.createKey(10000)));
+  }
+
+  @Test
+  public void testDelimitersAreEquivalent( ) {
+    ObjectIDMap<String> lMap = new ObjectIDMap<String>();
+    lMap.put(new ServiceObjectID("0001-4XX", 1), "A");
+    assertEquals("A", lMap.get("0001#4XX"));
+    assertEquals("A", lMap.get(new PersistentObjectID("0001#4XX", 2)));
+    assertEquals("A", lMap.put("0001#4XX", "B"));
+    assertEquals(1, lMap.size());
+    assertEquals("B", lMap.remove(new ServiceObjectID("0001-4XX", null)));
+    assertTrue(lMap.isEmpty());
+
+    // Delimiters only match each other but no other characters.
+    lMap.put("0001#4XX", "A");
+    assertNull(lMap.get("0001_4XX"));
+    assertNull(lMap.get("0001-4XY"));
+  }
+
+  @Test
+  public void testMatchesHashMap( ) {
+    // Random operations have to lead to the same result as with a hash map.
+    Random lRandom = new Random(4711);
+    ObjectIDMap<Integer> lMap = new ObjectIDMap<Integer>();
+    Map<String, Integer> lExpected = new HashMap<String, Integer>();
+    for (int i = 0; i < 100000; i++) {
+      String lKey = this.createKey(lRandom.nextInt(2000));
+      int lOperation = lRandom.nextInt(3);
+      if (lOperation == 0) {
+        assertEquals(lExpected.put(lKey, i), lMap.put(lKey, i));
+      }
+      else if (lOperation == 1) {
+        assertEquals(lExpected.remove(lKey), lMap.remove(lKey));
+      }
+      else {
+        assertEquals(lExpected.get(lKey), lMap.get(lKey));
+      }
+      assertEquals(lExpected.size(), lMap.size());
+    }
+    for (Map.Entry<String, Integer> lNextEntry : lExpected.entrySet()) {
+      assertEquals(lNextEntry.getValue(), lMap.get(lNextEntry.getKey()));
+    }
+  }
+
+  /**
+   * Method returns object ids whose home slot in a map with the passed mask is the passed slot.
+   * 
+   * @param pSlot Home slot of all returned object ids.
+   * @param pCount Number of object ids that should be returned.
+   * @return {@link List} Object ids with the passed home slot. The method never returns null.
+   */
+  private List<String> findCollidingKeys( int pSlot, int pCount ) {
+    List<String> lKeys = new ArrayList<String>(pCount);
+    for (int i = 0; lKeys.size() < pCount; i++) {
+      String lKey = this.createKey(i);
+      if ((ObjectIDMap.hash(lKey) & MASK) == pSlot) {
+        lKeys.add(lKey);
+      }
+    }
+    return Collections.unmodifiableList(lKeys);
+  }
+
+  /**
+   * Method creates a persistent object id string with the passed number.
+   * 
+   * @param pNumber Number of the object id.
+   * @return {@link String} Created object id. The method never returns null.
+   */
+  private String createKey( int pNumber ) {
+    return Integer.toString(pNumber, 36) + "#4XX";
+  }
+}
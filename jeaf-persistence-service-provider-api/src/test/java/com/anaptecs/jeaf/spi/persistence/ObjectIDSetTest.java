@@ -0,0 +1,51 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.anaptecs.jeaf.core.api.ServiceObjectID;
+
+/**
+ * Class tests the set of object ids.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public class ObjectIDSetTest {
+  @Test
+  public void testAddContainsRemove( ) {
+    ObjectIDSet lSet = new ObjectIDSet(0);
+    assertTrue(lSet.isEmpty());
+    assertTrue(lSet.add("0001#4XX"));
+    assertFalse(lSet.add(new PersistentObjectID("0001#4XX", 7)));
+    assertTrue(lSet.add(new PersistentObjectID("0002#4XX", null)));
+    assertEquals(2, lSet.size());
+    assertTrue(lSet.contains("0002#4XX"));
+    assertFalse(lSet.contains("0003#4XX"));
+
+    assertTrue(lSet.remove("0001#4XX"));
+    assertFalse(lSet.remove("0001#4XX"));
+    assertEquals(1, lSet.size());
+    lSet.clear();
+    assertTrue(lSet.isEmpty());
+    assertFalse(lSet.contains("0002#4XX"));
+  }
+
+  @Test
+  public void testDelimitersAreEquivalent( ) {
+    ObjectIDSet lSet = new ObjectIDSet();
+    assertTrue(lSet.add(new ServiceObjectID("0001-4XX", 1)));
+    assertTrue(lSet.contains(new PersistentObjectID("0001#4XX", 2)));
+    assertFalse(lSet.add("0001#4XX"));
+    assertTrue(lSet.remove("0001#4XX"));
+    assertFalse(lSet.contains(new ServiceObjectID("0001-4XX", 1)));
+  }
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark measures map heavy workloads on persistent objects as they occur in identity maps, sharding and association
+ * comparisons. All of them access the persistent object ids of the same objects again and again.
+ * 
+ * The benchmark is not executed as part of the build. It can be run with <code>org.openjdk.jmh.Main</code> using the
+ * test classpath of this module. Running it with <code>-prof gc</code> also shows the allocation rate per operation.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistentObjectBenchmark {
+  /**
+   * Number of persistent objects that are used.
+   */
+  @Param({ "10000" })
+  private int size;
+
+  /**
+   * Persistent objects that are used as input of all benchmarks.
+   */
+  private ShardedOrder[] orders;
+
+  /**
+   * Map with the versioned persistent object ids of all objects as keys.
+   */
+  private Map<PersistentObjectID, ShardedOrder> ordersByID;
+
+  /**
+   * Map with the unversioned persistent object ids of all objects as keys.
+   */
+  private Map<PersistentObjectID, ShardedOrder> ordersByUnversionedID;
+
+  /**
+   * Set that contains all persistent objects.
+   */
+  private Set<PersistentObject> orderSet;
+
+  /**
+   * Method creates the persistent objects and fills the maps.
+   */
+  @Setup
+  public void setup( ) {
+    orders = new ShardedOrder[size];
+    ordersByID = new HashMap<PersistentObjectID, ShardedOrder>();
+    ordersByUnversionedID = new HashMap<PersistentObjectID, ShardedOrder>();
+    orderSet = new HashSet<PersistentObject>();
+    ObjectIDGenerator lGenerator = new BlockObjectIDGenerator(new ObjectIDBlockSource() {
+      private long block;
+
+      @Override
+      public long reserveBlock( ) {
+        return ++block;
+      }
+    }, 1000, 1000, new Executor() {
+      @Override
+      public void execute( Runnable pCommand ) {
+        pCommand.run();
+      }
+    });
+    for (int i = 0; i < size; i++) {
+      ShardedOrder lOrder = new ShardedOrder();
+      lOrder.assignObjectID(lGenerator.createObjectID(ShardedOrder.CLASS_ID));
+      lOrder.setVersionLabel(1000 + i);
+      orders[i] = lOrder;
+      ordersByID.put(lOrder.getID(), lOrder);
+      ordersByUnversionedID.put(lOrder.getUnversionedID(), lOrder);
+      orderSet.add(lOrder);
+    }
+  }
+
+  /**
+   * Benchmark looks up all objects by their persistent object id.
+   * 
+   * @param pBlackhole Blackhole that consumes the results.
+   */
+  @Benchmark
+  public void lookupByID( Blackhole pBlackhole ) {
+    for (ShardedOrder lNextOrder : orders) {
+      pBlackhole.consume(ordersByID.get(lNextOrder.getID()));
+    }
+  }
+
+  /**
+   * Benchmark looks up all objects by their unversioned persistent object id.
+   * 
+   * @param pBlackhole Blackhole that consumes the results.
+   */
+  @Benchmark
+  public void lookupByUnversionedID( Blackhole pBlackhole ) {
+    for (ShardedOrder lNextOrder : orders) {
+      pBlackhole.consume(ordersByUnversionedID.get(lNextOrder.getUnversionedID()));
+    }
+  }
+
+  /**
+   * Benchmark checks for all objects whether they are contained in a hash set of persistent objects.
+   * 
+   * @param pBlackhole Blackhole that consumes the results.
+   */
+  @Benchmark
+  public void containsObject( Blackhole pBlackhole ) {
+    for (ShardedOrder lNextOrder : orders) {
+      pBlackhole.consume(orderSet.contains(lNextOrder));
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.anaptecs.jeaf.xfun.types.Base36;
+
+/**
+ * Benchmark measures the resolution of the persistent object class from persistent object ids. Running it with
+ * <code>-prof gc</code> shows that neither the cached class nor the direct decoding of the class id allocate any
+ * memory. The resolution through {@link Base36} as it was done before JEAF Release 1.8 is measured for comparison.
+ * 
+ * The benchmark is not executed as part of the build. It can be run with <code>org.openjdk.jmh.Main</code> using the
+ * test classpath of this module.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistentObjectIDBenchmark {
+  /**
+   * Number of persistent object ids that are used.
+   */
+  @Param({ "10000" })
+  private int size;
+
+  /**
+   * Persistent object ids whose class is resolved.
+   */
+  private PersistentObjectID[] objectIDs;
+
+  /**
+   * Method creates the persistent object ids and resolves their class once.
+   */
+  @Setup
+  public void setup( ) {
+    objectIDs = new PersistentObjectID[size];
+    ObjectIDGenerator lGenerator = new BlockObjectIDGenerator(new ObjectIDBlockSource() {
+      private long block;
+
+      @Override
+      public long reserveBlock( ) {
+        return ++block;
+      }
+    }, 1000, 1000, new Executor() {
+      @Override
+      public void execute( Runnable pCommand ) {
+        pCommand.run();
+      }
+    });
+    for (int i = 0; i < size; i++) {
+      objectIDs[i] = new PersistentObjectID(lGenerator.createObjectID(ShardedOrder.CLASS_ID), i);
+      objectIDs[i].getPersistentObjectClass();
+    }
+  }
+
+  /**
+   * Benchmark resolves the class of all persistent object ids. The class was already resolved by every id before.
+   * 
+   * @param pBlackhole Blackhole that consumes the results.
+   */
+  @Benchmark
+  public void getPersistentObjectClass( Blackhole pBlackhole ) {
+    for (PersistentObjectID lNextObjectID : objectIDs) {
+      pBlackhole.consume(lNextObjectID.getPersistentObjectClass());
+    }
+  }
+
+  /**
+   * Benchmark decodes the class id of all persistent object ids directly from their characters as it happens with the
+   * first resolution by every id.
+   * 
+   * @param pBlackhole Blackhole that consumes the results.
+   */
+  @Benchmark
+  public void decodeClassID( Blackhole pBlackhole ) {
+    for (PersistentObjectID lNextObjectID : objectIDs) {
+      pBlackhole.consume(ClassID.getClass(PersistentObjectID.decodeClassID(lNextObjectID.getObjectID())));
+    }
+  }
+
+  /**
+   * Benchmark resolves the class of all persistent object ids through a substring and a {@link Base36} object.
+   * 
+   * @param pBlackhole Blackhole that consumes the results.
+   */
+  @Benchmark
+  public void resolveWithBase36( Blackhole pBlackhole ) {
+    for (PersistentObjectID lNextObjectID : objectIDs) {
+      String lObjectID = lNextObjectID.getObjectID();
+      Base36 lClassID = new Base36(lObjectID.substring(lObjectID.length() - ClassID.MAX_LENGTH));
+      pBlackhole.consume(ClassID.getClass(lClassID.toInteger()));
+    }
+  }
+}
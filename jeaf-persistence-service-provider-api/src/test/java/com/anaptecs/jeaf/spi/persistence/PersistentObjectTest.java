@@ -0,0 +1,85 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class tests that persistent objects keep the persistent object ids that are derived from their object id.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public class PersistentObjectTest {
+  @Test
+  public void testIDIsKeptUntilVersionChanges( ) {
+    ShardedOrder lOrder = this.createOrder("4711#1", 1);
+    PersistentObjectID lID = lOrder.getID();
+    assertSame(lID, lOrder.getID());
+    assertEquals(Integer.valueOf(1), lID.getVersionLabel());
+
+    // Only a changed version label creates a new id that shares the object id string.
+    lOrder.setVersionLabel(2);
+    PersistentObjectID lUpdatedID = lOrder.getID();
+    assertNotSame(lID, lUpdatedID);
+    assertEquals(Integer.valueOf(2), lUpdatedID.getVersionLabel());
+    assertSame(lID.getObjectID(), lUpdatedID.getObjectID());
+    assertSame(lUpdatedID, lOrder.getID());
+  }
+
+  @Test
+  public void testUnversionedIDIsCreatedOnce( ) {
+    ShardedOrder lOrder = this.createOrder("4711#2", 7);
+    PersistentObjectID lUnversionedID = lOrder.getUnversionedID();
+    assertNull(lUnversionedID.getVersionLabel());
+    assertSame(lOrder.getID().getObjectID(), lUnversionedID.getObjectID());
+
+    lOrder.setVersionLabel(8);
+    assertSame(lUnversionedID, lOrder.getUnversionedID());
+    assertEquals(lUnversionedID, lOrder.getID());
+  }
+
+  @Test
+  public void testEqualsAndHashCode( ) {
+    ShardedOrder lOrder = this.createOrder("4711#3", 1);
+    ShardedOrder lSameOrder = this.createOrder(new String("4711#3"), 2);
+    ShardedOrder lOtherOrder = this.createOrder("4711#4", 1);
+    assertTrue(lOrder.equals(lSameOrder));
+    assertEquals(lOrder.hashCode(), lSameOrder.hashCode());
+    assertFalse(lOrder.equals(lOtherOrder));
+    assertFalse(lOrder.equals(null));
+    assertFalse(lOrder.equals(lOrder.getID()));
+  }
+
+  @Test
+  public void testEntityState( ) {
+    ShardedOrder lOrder = this.createOrder("4711#5", 1);
+    assertEquals(EntityState.Active, lOrder.getEntityState());
+    lOrder.deleted();
+    assertEquals(EntityState.Deleted, lOrder.getEntityState());
+  }
+
+  /**
+   * Method creates a new order with the passed object id and version label.
+   * 
+   * @param pObjectID Object id of the order.
+   * @param pVersionLabel Version label of the order.
+   * @return {@link ShardedOrder} Created order. The method never returns null.
+   */
+  private ShardedOrder createOrder( String pObjectID, int pVersionLabel ) {
+    ShardedOrder lOrder = new ShardedOrder();
+    lOrder.assignObjectID(pObjectID);
+    lOrder.setVersionLabel(pVersionLabel);
+    return lOrder;
+  }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class tests that cached query results are not affected by later changes of the bound parameters.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public class QueryResultCacheTest {
+  /**
+   * Statement that is used for all tests.
+   */
+  private static final String STATEMENT = "SELECT * FROM ORDERS WHERE CUSTOMER IN (:customers)";
+
+  @Test
+  public void testBoundCollectionIsCopied( ) {
+    QueryResultCache lCache = new QueryResultCache(10);
+    List<String> lCustomers = new ArrayList<String>(Arrays.asList("A", "B"));
+    QueryParameters lParameters = new QueryParameters().setParameter("customers", lCustomers);
+    this.put(lCache, lParameters);
+
+    // Changing the bound list afterwards must neither corrupt the cached entry nor make it match the new values.
+    lCustomers.add("C");
+    assertNull(lCache.get(STATEMENT, lParameters, ShardedOrder.class));
+    QueryParameters lOriginal = new QueryParameters().setParameter("customers", Arrays.asList("A", "B"));
+    assertNotNull(lCache.get(STATEMENT, lOriginal, ShardedOrder.class));
+    assertEquals(1, lCache.size());
+  }
+
+  @Test
+  public void testCopiedCollectionIsUnmodifiable( ) {
+    List<String> lCustomers = new ArrayList<String>(Arrays.asList("A", "B"));
+    QueryParameters lCopy = new QueryParameters(new QueryParameters().setParameter("customers", lCustomers));
+    lCustomers.clear();
+    assertEquals(Arrays.asList("A", "B"), lCopy.getNamedParameters().get("customers"));
+    assertEquals(new QueryParameters().setParameter("customers", Arrays.asList("A", "B")), lCopy);
+  }
+
+  /**
+   * Method caches an empty result for the passed parameters.
+   * 
+   * @param pCache Cache to which the result is added.
+   * @param pParameters Parameter bindings of the query.
+   */
+  private void put( QueryResultCache pCache, QueryParameters pParameters ) {
+    List<Class<? extends PersistentObject>> lTypes = Collections.emptyList();
+    pCache.put(STATEMENT, pParameters, ShardedOrder.class, lTypes, Collections.<PersistentObject> emptyList(),
+        pCache.getGeneration());
+  }
+}
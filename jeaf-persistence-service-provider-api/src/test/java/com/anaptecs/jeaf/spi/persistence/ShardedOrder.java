@@ -0,0 +1,37 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+/**
+ * Persistent object that is used to test sharding. All instances are stored in table <code>SHARDED_ORDER</code> on
+ * every shard.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public class ShardedOrder extends PersistentObject {
+  /**
+   * Class id of all orders.
+   */
+  public static final ClassID CLASS_ID = ClassID.createClassID(4711, ShardedOrder.class);
+
+  /**
+   * Initialize object.
+   */
+  public ShardedOrder( ) {
+    // Nothing to do.
+  }
+
+  /**
+   * Method returns the class id of this persistent object class.
+   * 
+   * @return {@link ClassID} Class ID of this persistent object. The method never returns null.
+   */
+  @Override
+  public ClassID getClassID( ) {
+    return CLASS_ID;
+  }
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import com.anaptecs.jeaf.xfun.api.errorhandling.JEAFSystemException;
+
+/**
+ * Class tests the distribution of the objects of one type across two shards that are embedded H2 databases.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public class ShardingPersistenceServiceProviderTest {
+  /**
+   * Shard key that is placed on shard 1 by {@link BlockShardingStrategy} ("A".hashCode() is odd).
+   */
+  private static final String CUSTOMER_A = "A";
+
+  /**
+   * Shard key that is placed on shard 0 by {@link BlockShardingStrategy} ("B".hashCode() is even).
+   */
+  private static final String CUSTOMER_B = "B";
+
+  /**
+   * Executor that is used to access the shards in parallel.
+   */
+  private ExecutorService executorService;
+
+  /**
+   * Embedded databases of both shards.
+   */
+  private List<H2Shard> shards;
+
+  /**
+   * Persistence service provider under test.
+   */
+  private ShardingPersistenceServiceProvider provider;
+
+  @BeforeEach
+  public void setUp( ) throws SQLException {
+    executorService = Executors.newFixedThreadPool(2);
+    shards = new ArrayList<H2Shard>();
+    for (int i = 0; i < 2; i++) {
+      final int lShardIndex = i;
+      shards.add(new H2Shard("shard" + i, new Function<ObjectIDBlockSource, ObjectIDBlockSource>() {
+        @Override
+        public ObjectIDBlockSource apply( ObjectIDBlockSource pBlockSource ) {
+          return new ShardObjectIDBlockSource(pBlockSource, lShardIndex, 2);
+        }
+      }, executorService));
+    }
+    provider = this.createProvider(shards);
+  }
+
+  @AfterEach
+  public void tearDown( ) {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testObjectsOfOneTypeAreDistributedByShardKey( ) throws SQLException {
+    List<String> lOrdersOfA = new ArrayList<String>();
+    List<String> lOrdersOfB = new ArrayList<String>();
+    for (int i = 0; i < 10; i++) {
+      lOrdersOfA.add(provider.createPersistentObject(ShardedOrder.class, CUSTOMER_A).getObjectID());
+      lOrdersOfB.add(provider.createPersistentObject(ShardedOrder.class, CUSTOMER_B).getObjectID());
+    }
+    Collections.sort(lOrdersOfA);
+    Collections.sort(lOrdersOfB);
+
+    // Rows of the same table are stored in both databases.
+    assertEquals(lOrdersOfB, shards.get(0).getStoredObjectIDs());
+    assertEquals(lOrdersOfA, shards.get(1).getStoredObjectIDs());
+  }
+
+  @Test
+  public void testObjectsAreFoundOnTheirShard( ) {
+    ShardedOrder lOrderOfA = provider.createPersistentObject(ShardedOrder.class, CUSTOMER_A);
+    ShardedOrder lOrderOfB = provider.createPersistentObject(ShardedOrder.class, CUSTOMER_B);
+
+    assertTrue(provider.exists(lOrderOfA.getID(), ShardedOrder.class));
+    assertTrue(provider.exists(lOrderOfB.getID(), ShardedOrder.class));
+    assertFalse(shards.get(0).getPersistenceServiceProvider().exists(lOrderOfA.getID(), ShardedOrder.class));
+    assertFalse(shards.get(1).getPersistenceServiceProvider().exists(lOrderOfB.getID(), ShardedOrder.class));
+  }
+
+  @Test
+  public void testLookupAcrossShardsKeepsOrderOfIDs( ) {
+    List<PersistentObjectID> lObjectIDs = new ArrayList<PersistentObjectID>();
+    for (int i = 0; i < 5; i++) {
+      lObjectIDs.add(provider.createPersistentObject(ShardedOrder.class, CUSTOMER_A).getID());
+      lObjectIDs.add(provider.createPersistentObject(ShardedOrder.class, CUSTOMER_B).getID());
+    }
+    Collections.reverse(lObjectIDs);
+
+    List<ShardedOrder> lOrders = provider.getPersistentObjectsByIDs(lObjectIDs, ShardedOrder.class, false, true);
+    assertEquals(lObjectIDs, this.getObjectIDs(lOrders));
+  }
+
+  @Test
+  public void testLookupOnSingleShardKeepsOrderOfIDs( ) {
+    PersistentObjectID lFirstID = provider.createPersistentObject(ShardedOrder.class, CUSTOMER_A).getID();
+    PersistentObjectID lSecondID = provider.createPersistentObject(ShardedOrder.class, CUSTOMER_A).getID();
+
+    // Shard returns its objects sorted by object id and the duplicate id only once.
+    List<ShardedOrder> lOrders = provider.getPersistentObjectsByIDs(Arrays.asList(lSecondID, lFirstID, lSecondID),
+        ShardedOrder.class, false, true);
+    assertEquals(Arrays.asList(lSecondID, lFirstID), this.getObjectIDs(lOrders));
+  }
+
+  @Test
+  public void testObjectIDsOfWrongShardAreRejected( ) throws SQLException {
+    // Both shards reserve the same blocks so that all ids belong to shard 1.
+    List<H2Shard> lShards = new ArrayList<H2Shard>();
+    for (int i = 0; i < 2; i++) {
+      lShards.add(new H2Shard("unsharded" + i, Function.<ObjectIDBlockSource> identity(), executorService));
+    }
+    final ShardingPersistenceServiceProvider lProvider = this.createProvider(lShards);
+
+    assertEquals(ShardedOrder.class, lProvider.createPersistentObject(ShardedOrder.class, CUSTOMER_A).getClass());
+    assertThrows(JEAFSystemException.class, new Executable() {
+      @Override
+      public void execute( ) {
+        lProvider.createPersistentObject(ShardedOrder.class, CUSTOMER_B);
+      }
+    });
+  }
+
+  /**
+   * Method creates a sharding persistence service provider with the passed shards.
+   * 
+   * @param pShards Shards of the provider. The parameter must not be null.
+   * @return {@link ShardingPersistenceServiceProvider} Created provider. The method never returns null.
+   */
+  private ShardingPersistenceServiceProvider createProvider( List<H2Shard> pShards ) {
+    List<PersistenceServiceProvider> lProviders = new ArrayList<PersistenceServiceProvider>();
+    for (H2Shard lNextShard : pShards) {
+      lProviders.add(lNextShard.getPersistenceServiceProvider());
+    }
+    return new TestShardingPersistenceServiceProvider(lProviders, new BlockShardingStrategy(), executorService);
+  }
+
+  /**
+   * Method returns the unversioned ids of the passed orders.
+   * 
+   * @param pOrders Orders whose ids should be returned. The parameter must not be null.
+   * @return {@link List} Ids of the orders. The method never returns null.
+   */
+  private List<PersistentObjectID> getObjectIDs( List<ShardedOrder> pOrders ) {
+    List<PersistentObjectID> lObjectIDs = new ArrayList<PersistentObjectID>(pOrders.size());
+    for (ShardedOrder lNextOrder : pOrders) {
+      lObjectIDs.add(lNextOrder.getID());
+    }
+    return lObjectIDs;
+  }
+}
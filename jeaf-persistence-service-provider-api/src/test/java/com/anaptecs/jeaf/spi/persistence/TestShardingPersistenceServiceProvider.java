@@ -0,0 +1,175 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+/**
+ * Sharding persistence service provider that is used for tests. Queries are not supported.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public class TestShardingPersistenceServiceProvider extends ShardingPersistenceServiceProvider {
+  /**
+   * Initialize object.
+   * 
+   * @param pShards Persistence service providers of all shards. The parameter must not be null.
+   * @param pShardingStrategy Strategy that defines on which shard an object is stored. The parameter must not be null.
+   * @param pExecutorService Executor service that is used to access several shards in parallel. The parameter must not
+   * be null.
+   */
+  public TestShardingPersistenceServiceProvider( List<? extends PersistenceServiceProvider> pShards,
+      ShardingStrategy pShardingStrategy, ExecutorService pExecutorService ) {
+    super(pShards, pShardingStrategy, pExecutorService);
+  }
+
+  @Override
+  public long count( Query pQuery ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public long count( Query pQuery, QueryHints pQueryHints ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public <T extends PersistentObject> List<T> executeQuery( Query pQuery, Class<T> pResultType ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public <T extends PersistentObject> List<T> executeQuery( Query pQuery, Class<T> pResultType,
+      QueryHints pQueryHints ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public <T extends PersistentObject> List<T> executeQuery( Query pQuery, Class<T> pResultType,
+      boolean pAllowEmptyResult ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public <T extends PersistentObject> List<T> executeQuery( Query pQuery, Class<T> pResultType,
+      boolean pAllowEmptyResult, QueryHints pQueryHints ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public <T extends PersistentObject> List<T> executeCachedQuery( String pJPAQLStatement, QueryParameters pParameters,
+      Class<T> pResultType, Collection<Class<? extends PersistentObject>> pParticipatingTypes ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public <T extends PersistentObject> T executeSingleResultQuery( Query pQuery, Class<T> pResultType,
+      boolean pAllowEmptyResult ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public <T extends PersistentObject> T executeSingleResultQuery( Query pQuery, Class<T> pResultType,
+      boolean pAllowEmptyResult, QueryHints pQueryHints ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int executeUpdateQuery( Query pQuery ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int executeUpdateQuery( Query pQuery, QueryHints pQueryHints ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public <T extends PersistentObject> T executeNativeSingleResultQuery( String pSQLStatement, Class<T> pResultType,
+      boolean pAllowEmptyResult ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public <T extends PersistentObject> T executeNativeSingleResultQuery( String pSQLStatement, Class<T> pResultType,
+      QueryParameters pQueryParameters, boolean pAllowEmptyResult ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public <T extends PersistentObject> T executeNativeSingleResultQuery( String pSQLStatement, Class<T> pResultType,
+      QueryParameters pQueryParameters, boolean pAllowEmptyResult, QueryHints pQueryHints ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public <T extends PersistentObject> List<T> executeNativeQuery( String pSQLStatement, Class<T> pResultType ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public <T extends PersistentObject> List<T> executeNativeQuery( String pSQLStatement, Class<T> pResultType,
+      QueryParameters pQueryParameters ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public <T extends PersistentObject> List<T> executeNativeQuery( String pSQLStatement, Class<T> pResultType,
+      QueryParameters pQueryParameters, QueryHints pQueryHints ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public <T extends PersistentObject> List<T> findAll( Class<T> pResultType ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public <T extends PersistentObject> List<T> findAll( Class<T> pResultType, QueryHints pQueryHints ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Query createNativeQuery( String pNativeSQLStatement ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Query createNativeQuery( String pNativeSQLStatement, Class<? extends PersistentObject> pResultClass ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Query createJPAQLQuery( String pJPAQLStatement ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public <T extends PersistentObject> T unproxy( T pProxyBO ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void executeJDBCWorker( JDBCWorker pJDBCWorker ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public <T> T executeReadOnly( ReadOnlyWorker<T> pReadOnlyWorker ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public EntityManager createEntityManager( String pPersistenceUnitName ) {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class tests the decoding of memory mapped files.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public class MappedFileReaderTest {
+  /**
+   * Content with supplementary characters that consist of a surrogate pair each.
+   */
+  private static final String CONTENT = "INSERT INTO T VALUES ('\uD83D\uDE00');\n\uD83D\uDCA9\u00E4\uD83D\uDE00";
+
+  @Test
+  public void testReadSupplementaryCharactersOneByOne( ) throws IOException {
+    assertEquals(CONTENT, this.read(CONTENT, 1));
+    assertEquals("\uD83D\uDE00", this.read("\uD83D\uDE00", 1));
+  }
+
+  @Test
+  public void testReadSupplementaryCharactersWithOddBufferSize( ) throws IOException {
+    assertEquals(CONTENT, this.read(CONTENT, 3));
+    assertEquals(CONTENT, this.read(CONTENT, 1024));
+  }
+
+  @Test
+  public void testReadEmptyFile( ) throws IOException {
+    assertEquals("", this.read("", 1));
+  }
+
+  /**
+   * Method writes the passed content to a temporary file and reads it again using the passed buffer size.
+   * 
+   * @param pContent Content of the file.
+   * @param pBufferSize Number of characters that are requested per read.
+   * @return {@link String} Content that was read.
+   * @throws IOException if the file can not be written or read.
+   */
+  private String read( String pContent, int pBufferSize ) throws IOException {
+    Path lFile = Files.createTempFile("MappedFileReaderTest", ".sql");
+    try {
+      Files.write(lFile, pContent.getBytes(StandardCharsets.UTF_8));
+      StringBuilder lBuilder = new StringBuilder();
+      try (MappedFileReader lReader = new MappedFileReader(lFile, StandardCharsets.UTF_8)) {
+        char[] lBuffer = new char[pBufferSize];
+        int lRead = lReader.read(lBuffer, 0, pBufferSize);
+        while (lRead != -1) {
+          lBuilder.append(lBuffer, 0, lRead);
+          lRead = lReader.read(lBuffer, 0, pBufferSize);
+        }
+      }
+      return lBuilder.toString();
+    }
+    finally {
+      Files.delete(lFile);
+    }
+  }
+}
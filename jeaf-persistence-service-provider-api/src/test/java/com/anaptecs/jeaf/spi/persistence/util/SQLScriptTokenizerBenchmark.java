@@ -0,0 +1,139 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence.util;
+
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark measures how many statements per second are split from an SQL script. The {@link SQLScriptTokenizer} is
+ * compared with the line based splitting using regular expressions and string buffers as it was done by
+ * {@link ScriptRunner} before JEAF Release 1.8. Statements are not executed so that only the splitting is measured.
+ * 
+ * The benchmark is not executed as part of the build. It can be run with <code>org.openjdk.jmh.Main</code> using the
+ * test classpath of this module.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SQLScriptTokenizerBenchmark {
+  /**
+   * Number of statements of the script.
+   */
+  private static final int STATEMENTS = 10000;
+
+  /**
+   * Regular expression of lines that switch the delimiter as it was used by {@link ScriptRunner}.
+   */
+  private static final String DELIMITER_LINE_REGEX = "(?i)DELIMITER.+";
+
+  /**
+   * Script that is split by all benchmarks.
+   */
+  private String script;
+
+  /**
+   * Method creates a script as it is written by database dumps. Most statements are single line inserts. Every 100th
+   * statement is a table definition that spans several lines and is preceded by a comment.
+   */
+  @Setup
+  public void setup( ) {
+    StringBuilder lScript = new StringBuilder();
+    for (int i = 0; i < STATEMENTS; i++) {
+      if (i % 100 == 0) {
+        lScript.append("-- Table ORDERS_").append(i).append('\n');
+        lScript.append("CREATE TABLE ORDERS_").append(i).append(" (\n");
+        lScript.append("  ID BIGINT NOT NULL PRIMARY KEY,\n");
+        lScript.append("  NAME VARCHAR(255),\n");
+        lScript.append("  AMOUNT DECIMAL(10, 2)\n");
+        lScript.append(");\n");
+      }
+      else {
+        lScript.append("INSERT INTO ORDERS (ID, NAME, AMOUNT) VALUES (").append(i).append(", 'Order number ").append(i);
+        lScript.append("', 12.50);\n");
+      }
+    }
+    script = lScript.toString();
+  }
+
+  /**
+   * Benchmark splits the script with the streaming tokenizer.
+   * 
+   * @param pBlackhole Blackhole that consumes the statements.
+   * @throws IOException if the script can not be read.
+   */
+  @Benchmark
+  @OperationsPerInvocation(STATEMENTS)
+  public void tokenizer( Blackhole pBlackhole ) throws IOException {
+    SQLScriptTokenizer lTokenizer = new SQLScriptTokenizer(new StringReader(script), ";", false);
+    String lStatement;
+    while ((lStatement = lTokenizer.nextStatement()) != null) {
+      pBlackhole.consume(lStatement);
+    }
+  }
+
+  /**
+   * Benchmark splits the script line by line as {@link ScriptRunner} did before JEAF Release 1.8. Every line is checked
+   * with a newly compiled regular expression and statements are collected in string buffers.
+   * 
+   * @param pBlackhole Blackhole that consumes the statements.
+   * @throws IOException if the script can not be read.
+   */
+  @Benchmark
+  @OperationsPerInvocation(STATEMENTS)
+  public void regularExpressions( Blackhole pBlackhole ) throws IOException {
+    String lDelimiter = ";";
+    LineNumberReader lLineReader = new LineNumberReader(new StringReader(script));
+    StringBuffer lCommand = null;
+    String lLine;
+    while ((lLine = lLineReader.readLine()) != null) {
+      if (lCommand == null) {
+        lCommand = new StringBuffer();
+      }
+      String lTrimmedLine = lLine.trim();
+      if (lTrimmedLine.length() < 1 || lTrimmedLine.startsWith("--") || lTrimmedLine.startsWith("//")) {
+        // Comments and empty lines are skipped.
+      }
+      else if (lTrimmedLine.endsWith(lDelimiter)) {
+        Matcher lMatcher = Pattern.compile(DELIMITER_LINE_REGEX).matcher(lTrimmedLine);
+        pBlackhole.consume(lMatcher.matches());
+        lCommand.append(lLine.substring(0, lLine.lastIndexOf(lDelimiter)));
+        lCommand.append(" ");
+        pBlackhole.consume(lCommand.toString());
+        lCommand = null;
+      }
+      else {
+        Matcher lMatcher = Pattern.compile(DELIMITER_LINE_REGEX).matcher(lTrimmedLine);
+        pBlackhole.consume(lMatcher.matches());
+        lCommand.append(lLine);
+        lCommand.append(" ");
+      }
+    }
+  }
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class tests the splitting of SQL scripts into statements.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public class SQLScriptTokenizerTest {
+  @Test
+  public void testSimpleStatements( ) throws IOException {
+    assertEquals(Arrays.asList("SELECT 1", "SELECT 2", "SELECT 3"),
+        this.tokenize("SELECT 1;\n  SELECT 2 ;;\n\nSELECT 3", ";", false));
+  }
+
+  @Test
+  public void testDelimiterInsideQuotes( ) throws IOException {
+    assertEquals(Arrays.asList("INSERT INTO T VALUES ('a;b', \"c;d\", `e;f`)", "SELECT 1"),
+        this.tokenize("INSERT INTO T VALUES ('a;b', \"c;d\", `e;f`);SELECT 1;", ";", false));
+  }
+
+  @Test
+  public void testDoubledQuotes( ) throws IOException {
+    assertEquals(Arrays.asList("INSERT INTO T VALUES ('O''Reilly;')", "SELECT 1"),
+        this.tokenize("INSERT INTO T VALUES ('O''Reilly;');SELECT 1;", ";", false));
+  }
+
+  @Test
+  public void testBackslashEscapedQuotes( ) throws IOException {
+    String lScript = "INSERT INTO T VALUES ('O\\'Reilly;', \"a\\\";b\", 'c\\\\');SELECT 1;";
+    assertEquals(Arrays.asList("INSERT INTO T VALUES ('O\\'Reilly;', \"a\\\";b\", 'c\\\\')", "SELECT 1"),
+        this.tokenize(new SQLScriptTokenizer(new StringReader(lScript), ";", false, true)));
+  }
+
+  @Test
+  public void testBackslashIsNormalCharacterByDefault( ) throws IOException {
+    assertEquals(Arrays.asList("INSERT INTO T VALUES ('C:\\')", "SELECT 1"),
+        this.tokenize("INSERT INTO T VALUES ('C:\\');SELECT 1;", ";", false));
+  }
+
+  @Test
+  public void testDollarQuotes( ) throws IOException {
+    String lFunction = "CREATE FUNCTION F() RETURNS INT AS $body$ BEGIN RETURN 1; END; $body$ LANGUAGE plpgsql";
+    assertEquals(Arrays.asList(lFunction, "SELECT $$a;b$$", "SELECT $1"),
+        this.tokenize(lFunction + ";\nSELECT $$a;b$$;\nSELECT $1;", ";", false));
+  }
+
+  @Test
+  public void testDollarDelimiter( ) throws IOException {
+    assertEquals(Arrays.asList("SELECT 1", "SELECT 2"), this.tokenize("SELECT 1$$\nSELECT 2$$", "$$", false));
+  }
+
+  @Test
+  public void testSlashDelimiter( ) throws IOException {
+    assertEquals(Arrays.asList("BEGIN NULL; END;", "SELECT 1"),
+        this.tokenize("BEGIN NULL; END;//\nSELECT 1//", "//", false));
+  }
+
+  @Test
+  public void testDelimiterSwitch( ) throws IOException {
+    String lScript = "SELECT 1;\nDELIMITER $$\nCREATE TRIGGER T BEGIN SET @a = 1; END$$\nDELIMITER ;\nSELECT 2;";
+    SQLScriptTokenizer lTokenizer = new SQLScriptTokenizer(new StringReader(lScript), ";", false);
+    assertEquals(Arrays.asList("SELECT 1", "CREATE TRIGGER T BEGIN SET @a = 1; END", "SELECT 2"),
+        this.tokenize(lTokenizer));
+    assertEquals(";", lTokenizer.getDelimiter());
+  }
+
+  @Test
+  public void testFullLineDelimiter( ) throws IOException {
+    String lScript = "CREATE PROCEDURE P AS\nBEGIN\n  NULL;\nEND;\n/\nSELECT 1 / 2\n  /  \n";
+    assertEquals(Arrays.asList("CREATE PROCEDURE P AS\nBEGIN\n  NULL;\nEND;", "SELECT 1 / 2"),
+        this.tokenize(lScript, "/", true));
+  }
+
+  @Test
+  public void testComments( ) throws IOException {
+    String lScript =
+        "-- leading comment;\n/* block; comment */\n// slash comment;\nSELECT 1 /* inline; */ FROM T -- x;\n;";
+    assertEquals(Arrays.asList("SELECT 1 /* inline; */ FROM T -- x;"), this.tokenize(lScript, ";", false));
+  }
+
+  @Test
+  public void testExecutableComments( ) throws IOException {
+    String lScript = "/*!40101 SET NAMES utf8 */;\n/*!40014 SET FOREIGN_KEY_CHECKS=0; */;\n/*+ hint */ SELECT 1;";
+    assertEquals(
+        Arrays.asList("/*!40101 SET NAMES utf8 */", "/*!40014 SET FOREIGN_KEY_CHECKS=0; */", "/*+ hint */ SELECT 1"),
+        this.tokenize(lScript, ";", false));
+  }
+
+  @Test
+  public void testStatementLineNumbers( ) throws IOException {
+    SQLScriptTokenizer lTokenizer =
+        new SQLScriptTokenizer(new StringReader("-- comment\nSELECT 1;\n\n/*!40101 SET NAMES utf8 */;"), ";", false);
+    lTokenizer.nextStatement();
+    assertEquals(2, lTokenizer.getStatementLineNumber());
+    lTokenizer.nextStatement();
+    assertEquals(4, lTokenizer.getStatementLineNumber());
+  }
+
+  @Test
+  public void testStatementsAcrossBuffers( ) throws IOException {
+    // Script is much larger than the read buffer so that quotes, comments and delimiters cross buffer boundaries.
+    StringBuilder lScript = new StringBuilder();
+    List<String> lExpected = new ArrayList<String>();
+    for (int i = 0; i < 2000; i++) {
+      String lStatement = "UPDATE T SET A = 'v;" + i + "', B = `c;" + i + "` /* c; */ WHERE ID = " + i;
+      if (i == 1000) {
+        lScript.append("delimiter //\n");
+      }
+      if (i >= 1000 && i < 1010) {
+        lScript.append(lStatement).append("//\n");
+      }
+      else {
+        if (i == 1010) {
+          lScript.append("DELIMITER ;\n");
+        }
+        lScript.append(lStatement).append(";\n");
+      }
+      lExpected.add(lStatement);
+    }
+    SQLScriptTokenizer lTokenizer = new SQLScriptTokenizer(new StringReader(lScript.toString()), ";", false);
+    assertEquals(lExpected, this.tokenize(lTokenizer));
+    assertEquals(2002, lTokenizer.getStatementLineNumber());
+  }
+
+  /**
+   * Method splits the passed script into statements.
+   * 
+   * @param pScript Script that should be split. The parameter must not be null.
+   * @param pDelimiter Delimiter of the script. The parameter must not be null.
+   * @param pFullLineDelimiter Parameter defines whether delimiters have to be on a line of their own.
+   * @return {@link List} Statements of the script. The method never returns null.
+   * @throws IOException if the script can not be read.
+   */
+  private List<String> tokenize( String pScript, String pDelimiter, boolean pFullLineDelimiter ) throws IOException {
+    return this.tokenize(new SQLScriptTokenizer(new StringReader(pScript), pDelimiter, pFullLineDelimiter));
+  }
+
+  /**
+   * Method returns all statements of the passed tokenizer.
+   * 
+   * @param pTokenizer Tokenizer whose statements should be returned. The parameter must not be null.
+   * @return {@link List} Statements of the script. The method never returns null.
+   * @throws IOException if the script can not be read.
+   */
+  private List<String> tokenize( SQLScriptTokenizer pTokenizer ) throws IOException {
+    List<String> lStatements = new ArrayList<String>();
+    String lStatement = pTokenizer.nextStatement();
+    while (lStatement != null) {
+      lStatements.add(lStatement);
+      lStatement = pTokenizer.nextStatement();
+    }
+    return lStatements;
+  }
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence.util;
+
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark measures how fast large script files are read. The {@link MappedFileReader} and the
+ * {@link CompressedFileReader} that are used by {@link ScriptRunner#runScript(Path)} are compared with a buffered
+ * reader as it is passed to {@link ScriptRunner#runScript(Reader)} and with reading line by line as
+ * {@link ScriptRunner} did before JEAF Release 1.8. Only reading is measured. The splitting into statements is
+ * measured by {@link SQLScriptTokenizerBenchmark}.
+ * 
+ * The size of the script file can be set with <code>-p megabytes=...</code> to measure files of several gigabytes.
+ * The benchmark is not executed as part of the build. It can be run with <code>org.openjdk.jmh.Main</code> using the
+ * test classpath of this module.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScriptFileReaderBenchmark {
+  /**
+   * Size of the read buffer, which is the same as the one of {@link SQLScriptTokenizer}.
+   */
+  private static final int BUFFER_SIZE = 8192;
+
+  /**
+   * Size of the script file in megabytes.
+   */
+  @Param({ "256" })
+  private int megabytes;
+
+  /**
+   * Uncompressed script file.
+   */
+  private Path scriptFile;
+
+  /**
+   * Script file that is compressed with gzip.
+   */
+  private Path compressedScriptFile;
+
+  /**
+   * Buffer into which all benchmarks read.
+   */
+  private final char[] buffer = new char[BUFFER_SIZE];
+
+  /**
+   * Method writes the script files as they are created by database dumps.
+   * 
+   * @throws IOException if the files can not be written.
+   */
+  @Setup
+  public void setup( ) throws IOException {
+    scriptFile = Files.createTempFile("ScriptFileReaderBenchmark", ".sql");
+    compressedScriptFile = Files.createTempFile("ScriptFileReaderBenchmark", ".sql.gz");
+    long lSize = megabytes * 1024L * 1024L;
+    try (Writer lWriter = Files.newBufferedWriter(scriptFile, StandardCharsets.UTF_8);
+        Writer lCompressedWriter = new OutputStreamWriter(
+            new GZIPOutputStream(Files.newOutputStream(compressedScriptFile), BUFFER_SIZE), StandardCharsets.UTF_8)) {
+      long lWritten = 0;
+      for (long i = 0; lWritten < lSize; i++) {
+        String lLine = "INSERT INTO ORDERS (ID, NAME, AMOUNT) VALUES (" + i + ", 'Order number " + i + "', 12.50);\n";
+        lWriter.write(lLine);
+        lCompressedWriter.write(lLine);
+        lWritten = lWritten + lLine.length();
+      }
+    }
+  }
+
+  /**
+   * Method deletes the script files.
+   * 
+   * @throws IOException if the files can not be deleted.
+   */
+  @TearDown
+  public void tearDown( ) throws IOException {
+    Files.deleteIfExists(scriptFile);
+    Files.deleteIfExists(compressedScriptFile);
+  }
+
+  /**
+   * Benchmark reads the script file through a memory mapped file.
+   * 
+   * @param pBlackhole Blackhole that consumes the characters.
+   * @throws IOException if the file can not be read.
+   */
+  @Benchmark
+  public void mappedFileReader( Blackhole pBlackhole ) throws IOException {
+    try (Reader lReader = new MappedFileReader(scriptFile, StandardCharsets.UTF_8)) {
+      this.read(lReader, pBlackhole);
+    }
+  }
+
+  /**
+   * Benchmark reads the compressed script file as a stream.
+   * 
+   * @param pBlackhole Blackhole that consumes the characters.
+   * @throws IOException if the file can not be read.
+   */
+  @Benchmark
+  public void compressedFileReader( Blackhole pBlackhole ) throws IOException {
+    try (Reader lReader = new CompressedFileReader(compressedScriptFile, StandardCharsets.UTF_8)) {
+      this.read(lReader, pBlackhole);
+    }
+  }
+
+  /**
+   * Benchmark reads the script file through a buffered reader.
+   * 
+   * @param pBlackhole Blackhole that consumes the characters.
+   * @throws IOException if the file can not be read.
+   */
+  @Benchmark
+  public void bufferedReader( Blackhole pBlackhole ) throws IOException {
+    try (Reader lReader = Files.newBufferedReader(scriptFile, StandardCharsets.UTF_8)) {
+      this.read(lReader, pBlackhole);
+    }
+  }
+
+  /**
+   * Benchmark reads the script file line by line as {@link ScriptRunner} did before JEAF Release 1.8.
+   * 
+   * @param pBlackhole Blackhole that consumes the lines.
+   * @throws IOException if the file can not be read.
+   */
+  @Benchmark
+  public void lineNumberReader( Blackhole pBlackhole ) throws IOException {
+    try (LineNumberReader lReader = new LineNumberReader(Files.newBufferedReader(scriptFile, StandardCharsets.UTF_8))) {
+      String lLine;
+      while ((lLine = lReader.readLine()) != null) {
+        pBlackhole.consume(lLine);
+      }
+    }
+  }
+
+  /**
+   * Method reads the passed reader completely into the buffer of the benchmark.
+   * 
+   * @param pReader Reader that should be read. The parameter must not be null.
+   * @param pBlackhole Blackhole that consumes the characters.
+   * @throws IOException if the reader fails.
+   */
+  private void read( Reader pReader, Blackhole pBlackhole ) throws IOException {
+    int lCount;
+    while ((lCount = pReader.read(buffer, 0, buffer.length)) >= 0) {
+      pBlackhole.consume(buffer[lCount >> 1]);
+    }
+  }
+}
@@ -0,0 +1,284 @@
+/**
+ * Copyright 2004 - 2021 anaptecs GmbH, Burgstr. 96, 72764 Reutlingen, Germany
+ *
+ * All rights reserved.
+ */
+package com.anaptecs.jeaf.spi.persistence.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Class tests the execution of SQL scripts with batches, commit intervals and checkpoints on an H2 database.
+ * 
+ * @author JEAF Development Team
+ * @version JEAF Release 1.8
+ */
+public class ScriptRunnerTest {
+  /**
+   * Name of the script that is used for all checkpoints.
+   */
+  private static final String SCRIPT_NAME = "test.sql";
+
+  /**
+   * Script whose second statement fails as it inserts the same row again.
+   */
+  private static final String DUPLICATE_SCRIPT =
+      "INSERT INTO T VALUES (1);\nINSERT INTO T VALUES (1);\nINSERT INTO T VALUES (2);\nINSERT INTO T VALUES (3);\n";
+
+  /**
+   * Directory for checkpoint files.
+   */
+  @TempDir
+  Path directory;
+
+  /**
+   * Connection to the in memory database of the current test.
+   */
+  private Connection connection;
+
+  /**
+   * Method creates a new in memory database with table T.
+   * 
+   * @throws SQLException if the database can not be created.
+   */
+  @BeforeEach
+  public void createDatabase( ) throws SQLException {
+    connection = DriverManager.getConnection("jdbc:h2:mem:ScriptRunnerTest");
+    this.execute("CREATE TABLE T (ID INT NOT NULL PRIMARY KEY)");
+  }
+
+  /**
+   * Method drops the in memory database of the current test.
+   * 
+   * @throws SQLException if the database can not be dropped.
+   */
+  @AfterEach
+  public void dropDatabase( ) throws SQLException {
+    try {
+      this.execute("DROP ALL OBJECTS");
+    }
+    finally {
+      connection.close();
+    }
+  }
+
+  @Test
+  public void testCheckpointOnlyCoversExecutedStatements( ) throws Exception {
+    // Statement 4 flushes the batch, which reaches the commit interval, and fails afterwards.
+    String lScript = "INSERT INTO T VALUES (1);\nINSERT INTO T VALUES (2);\nINSERT INTO T VALUES (3);\n"
+        + "SELECT COUNT(*) FROM T2;\nINSERT INTO T VALUES (5);\n";
+    final ScriptRunner lRunner = this.createRunner(true);
+    lRunner.setBatchSize(10);
+    lRunner.setCommitInterval(2);
+    lRunner.setCheckpoint(new FileScriptCheckpoint(directory));
+    this.runScriptAndExpectFailure(lRunner, lScript);
+    assertEquals("3", this.readCheckpointFile());
+    assertEquals(this.ids(1, 2, 3), this.selectIDs());
+
+    // Resumed script executes the failed statement again.
+    this.execute("CREATE TABLE T2 (ID INT)");
+    lRunner.runScript(new StringReader(lScript));
+    assertEquals(this.ids(1, 2, 3, 5), this.selectIDs());
+    assertFalse(Files.exists(directory.resolve(SCRIPT_NAME + ".checkpoint")));
+  }
+
+  @Test
+  public void testResumeSkipsCommittedDDL( ) throws Exception {
+    String lScript = "INSERT INTO T VALUES (1);\nCREATE TABLE T3 (ID INT NOT NULL PRIMARY KEY);\n"
+        + "INSERT INTO T3 VALUES (1);\nSELECT COUNT(*) FROM T2;\nINSERT INTO T VALUES (2);\n";
+    final ScriptRunner lRunner = this.createRunner(true);
+    lRunner.setCommitInterval(100);
+    lRunner.setCheckpoint(new FileScriptCheckpoint(directory));
+    this.runScriptAndExpectFailure(lRunner, lScript);
+
+    // DDL statement was committed on its own although the commit interval was not reached.
+    assertEquals("2", this.readCheckpointFile());
+    assertEquals(this.ids(1), this.selectIDs());
+    assertEquals(0, this.count("T3"));
+
+    // Resumed script must not create table T3 again.
+    this.execute("CREATE TABLE T2 (ID INT)");
+    lRunner.runScript(new StringReader(lScript));
+    assertEquals(this.ids(1, 2), this.selectIDs());
+    assertEquals(1, this.count("T3"));
+  }
+
+  @Test
+  public void testResumeWithTableCheckpoint( ) throws Exception {
+    this.execute("CREATE TABLE SCRIPT_CHECKPOINT (SCRIPT_NAME VARCHAR(255) NOT NULL PRIMARY KEY, "
+        + "STATEMENT_COUNT BIGINT NOT NULL)");
+    String lScript = "INSERT INTO T VALUES (1);\nINSERT INTO T VALUES (2);\nINSERT INTO T VALUES (3);\n"
+        + "SELECT COUNT(*) FROM T2;\nINSERT INTO T VALUES (5);\n";
+    final ScriptRunner lRunner = this.createRunner(true);
+    lRunner.setCommitInterval(2);
+    lRunner.setCheckpoint(new TableScriptCheckpoint());
+    this.runScriptAndExpectFailure(lRunner, lScript);
+
+    // Checkpoint was written within the transaction of the last commit. Statement 3 was rolled back.
+    assertEquals(2, new TableScriptCheckpoint().getCommittedStatements(connection, SCRIPT_NAME));
+    assertEquals(this.ids(1, 2), this.selectIDs());
+
+    this.execute("CREATE TABLE T2 (ID INT)");
+    lRunner.runScript(new StringReader(lScript));
+    assertEquals(this.ids(1, 2, 3, 5), this.selectIDs());
+    assertEquals(0, this.count("SCRIPT_CHECKPOINT"));
+  }
+
+  @Test
+  public void testBatchFailureWithSavepoints( ) throws Exception {
+    // Commit interval lets the script run within a transaction so that every batch gets a savepoint.
+    ScriptRunner lRunner = this.createRunner(false);
+    lRunner.setBatchSize(3);
+    lRunner.setCommitInterval(100);
+    lRunner.runScript(new StringReader(DUPLICATE_SCRIPT));
+    assertEquals(this.ids(1, 2, 3), this.selectIDs());
+  }
+
+  @Test
+  public void testBatchFailureWithoutSavepoints( ) throws Exception {
+    // Script runs in auto commit mode so that failed statements are reported based on the update counts.
+    ScriptRunner lRunner = this.createRunner(false);
+    lRunner.setBatchSize(3);
+    lRunner.runScript(new StringReader(DUPLICATE_SCRIPT));
+    assertEquals(this.ids(1, 2, 3), this.selectIDs());
+  }
+
+  @Test
+  public void testCommitInterval( ) throws Exception {
+    StringBuilder lScript = new StringBuilder();
+    for (int i = 1; i <= 7; i++) {
+      lScript.append("INSERT INTO T VALUES (").append(i).append(");\n");
+    }
+    lScript.append("SELECT COUNT(*) FROM T2;\n");
+
+    // Every third statement is committed. Statement 7 is rolled back.
+    ScriptRunner lRunner = this.createRunner(true);
+    lRunner.setCommitInterval(3);
+    this.runScriptAndExpectFailure(lRunner, lScript.toString());
+    assertEquals(this.ids(1, 2, 3, 4, 5, 6), this.selectIDs());
+
+    // With batches the commit takes place after the batch that reaches the commit interval. The failing statement
+    // flushes the pending batch first.
+    this.execute("DELETE FROM T");
+    lRunner.setBatchSize(2);
+    this.runScriptAndExpectFailure(lRunner, lScript.toString());
+    assertEquals(this.ids(1, 2, 3, 4, 5, 6, 7), this.selectIDs());
+  }
+
+  /**
+   * Method creates a new script runner for the database of the current test.
+   * 
+   * @param pStopOnError Parameter defines whether the script stops with the first error.
+   * @return {@link ScriptRunner} Created script runner. The method never returns null.
+   */
+  private ScriptRunner createRunner( boolean pStopOnError ) {
+    ScriptRunner lRunner = new ScriptRunner(connection, true, pStopOnError);
+    lRunner.setScriptName(SCRIPT_NAME);
+    return lRunner;
+  }
+
+  /**
+   * Method runs the passed script and ensures that it fails.
+   * 
+   * @param pRunner Runner that executes the script.
+   * @param pScript Script that should be executed.
+   */
+  private void runScriptAndExpectFailure( final ScriptRunner pRunner, final String pScript ) {
+    assertThrows(SQLException.class, new Executable() {
+      @Override
+      public void execute( ) throws Throwable {
+        pRunner.runScript(new StringReader(pScript));
+      }
+    });
+  }
+
+  /**
+   * Method reads the content of the checkpoint file of the test script.
+   * 
+   * @return {@link String} Content of the checkpoint file.
+   * @throws IOException if the file can not be read.
+   */
+  private String readCheckpointFile( ) throws IOException {
+    Path lFile = directory.resolve(SCRIPT_NAME + ".checkpoint");
+    return new String(Files.readAllBytes(lFile), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Method executes the passed statement outside of any script.
+   * 
+   * @param pStatement Statement that should be executed.
+   * @throws SQLException if the statement fails.
+   */
+  private void execute( String pStatement ) throws SQLException {
+    try (Statement lStatement = connection.createStatement()) {
+      lStatement.execute(pStatement);
+    }
+  }
+
+  /**
+   * Method returns the number of rows of the passed table.
+   * 
+   * @param pTable Name of the table.
+   * @return int Number of rows.
+   * @throws SQLException if the table can not be read.
+   */
+  private int count( String pTable ) throws SQLException {
+    try (Statement lStatement = connection.createStatement();
+        ResultSet lResultSet = lStatement.executeQuery("SELECT COUNT(*) FROM " + pTable)) {
+      lResultSet.next();
+      return lResultSet.getInt(1);
+    }
+  }
+
+  /**
+   * Method returns the ids of all rows of table T in ascending order.
+   * 
+   * @return {@link List} Ids of all rows. The method never returns null.
+   * @throws SQLException if the table can not be read.
+   */
+  private List<Integer> selectIDs( ) throws SQLException {
+    List<Integer> lIDs = new ArrayList<Integer>();
+    try (Statement lStatement = connection.createStatement();
+        ResultSet lResultSet = lStatement.executeQuery("SELECT ID FROM T ORDER BY ID")) {
+      while (lResultSet.next() == true) {
+        lIDs.add(lResultSet.getInt(1));
+      }
+    }
+    return lIDs;
+  }
+
+  /**
+   * Method returns the passed ids as list.
+   * 
+   * @param pIDs Ids that should be returned.
+   * @return {@link List} List with the passed ids. The method never returns null.
+   */
+  private List<Integer> ids( int... pIDs ) {
+    List<Integer> lIDs = new ArrayList<Integer>(pIDs.length);
+    for (int lNextID : pIDs) {
+      lIDs.add(lNextID);
+    }
+    return lIDs;
+  }
+}